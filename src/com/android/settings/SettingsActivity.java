@@ -40,6 +40,7 @@ import android.os.UserHandle;
 import android.os.UserManager;
 import android.permission.flags.Flags;
 import android.text.TextUtils;
+import android.util.ArrayMap;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
@@ -53,7 +54,6 @@ import androidx.preference.Preference;
 import androidx.preference.PreferenceFragmentCompat;
 import androidx.preference.PreferenceManager;
 
-import com.android.internal.util.ArrayUtils;
 import com.android.settings.Settings.WifiSettingsActivity;
 import com.android.settings.activityembedding.ActivityEmbeddingUtils;
 import com.android.settings.applications.manageapplications.ManageApplications;
@@ -78,6 +78,7 @@ import com.google.android.setupcompat.util.WizardManagerHelper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 
 public class SettingsActivity extends SettingsBaseActivity
@@ -735,95 +736,65 @@ public class SettingsActivity extends SettingsBaseActivity
         PackageManager pm = getPackageManager();
         final UserManager um = UserManager.get(this);
         final boolean isAdmin = um.isAdminUser();
-        boolean somethingChanged = false;
         final String packageName = getPackageName();
-        final StringBuilder changedList = new StringBuilder();
-        somethingChanged = setTileEnabled(changedList,
-                new ComponentName(packageName, WifiSettingsActivity.class.getName()),
-                pm.hasSystemFeature(PackageManager.FEATURE_WIFI), isAdmin) || somethingChanged;
+        final Map<ComponentName, Boolean> desiredStates = new ArrayMap<>();
+        desiredStates.put(new ComponentName(packageName, WifiSettingsActivity.class.getName()),
+                pm.hasSystemFeature(PackageManager.FEATURE_WIFI));
 
-        somethingChanged = setTileEnabled(changedList, new ComponentName(packageName,
+        desiredStates.put(new ComponentName(packageName,
                         Settings.BluetoothSettingsActivity.class.getName()),
-                pm.hasSystemFeature(PackageManager.FEATURE_BLUETOOTH), isAdmin)
-                || somethingChanged;
+                pm.hasSystemFeature(PackageManager.FEATURE_BLUETOOTH));
 
         // Enable DataUsageSummaryActivity if the data plan feature flag is turned on otherwise
         // enable DataPlanUsageSummaryActivity.
-        somethingChanged = setTileEnabled(changedList,
+        desiredStates.put(
                 new ComponentName(packageName, Settings.DataUsageSummaryActivity.class.getName()),
-                Utils.isBandwidthControlEnabled() /* enabled */,
-                isAdmin) || somethingChanged;
+                Utils.isBandwidthControlEnabled() /* enabled */);
 
-        somethingChanged = setTileEnabled(changedList,
-                new ComponentName(packageName,
+        desiredStates.put(new ComponentName(packageName,
                         Settings.ConnectedDeviceDashboardActivity.class.getName()),
-                !UserManager.isDeviceInDemoMode(this) /* enabled */,
-                isAdmin) || somethingChanged;
+                !UserManager.isDeviceInDemoMode(this) /* enabled */);
 
-        somethingChanged = setTileEnabled(changedList, new ComponentName(packageName,
+        desiredStates.put(new ComponentName(packageName,
                         Settings.PowerUsageSummaryActivity.class.getName()),
-                mBatteryPresent, isAdmin) || somethingChanged;
+                mBatteryPresent);
 
-        somethingChanged = setTileEnabled(changedList, new ComponentName(packageName,
-                        Settings.DataUsageSummaryActivity.class.getName()),
-                Utils.isBandwidthControlEnabled(), isAdmin)
-                || somethingChanged;
-
-        somethingChanged = setTileEnabled(changedList, new ComponentName(packageName,
+        desiredStates.put(new ComponentName(packageName,
                         Settings.WifiDisplaySettingsActivity.class.getName()),
-                WifiDisplaySettings.isAvailable(this), isAdmin)
-                || somethingChanged;
+                WifiDisplaySettings.isAvailable(this));
 
         if (UserHandle.MU_ENABLED && !isAdmin) {
             // When on restricted users, disable all extra categories (but only the settings ones).
-            final List<DashboardCategory> categories = mDashboardFeatureProvider.getAllCategories();
-            synchronized (categories) {
-                for (DashboardCategory category : categories) {
-                    final int tileCount = category.getTilesCount();
-                    for (int i = 0; i < tileCount; i++) {
-                        final ComponentName component = category.getTile(i)
-                                .getIntent().getComponent();
-                        final String name = component.getClassName();
-                        final boolean isEnabledForRestricted = ArrayUtils.contains(
-                                SettingsGateway.SETTINGS_FOR_RESTRICTED, name);
-                        if (packageName.equals(component.getPackageName())
-                                && !isEnabledForRestricted) {
-                            somethingChanged =
-                                    setTileEnabled(changedList, component, false, isAdmin)
-                                            || somethingChanged;
-                        }
-                    }
-                }
+            TileEnablementReconciler.disableRestrictedTiles(packageName,
+                    mDashboardFeatureProvider.getAllCategories(), desiredStates);
+        }
+        for (Map.Entry<ComponentName, Boolean> entry : desiredStates.entrySet()) {
+            if (!TileEnablementReconciler.isAllowedForUser(packageName, entry.getKey(),
+                    isAdmin)) {
+                entry.setValue(false);
+            }
+        }
+
+        final Map<ComponentName, Boolean> changes =
+                TileEnablementReconciler.getInstance().reconcile(pm, desiredStates);
+        for (Map.Entry<ComponentName, Boolean> change : changes.entrySet()) {
+            if (change.getValue()) {
+                mCategoryMixin.removeFromDenylist(change.getKey());
+            } else {
+                mCategoryMixin.addToDenylist(change.getKey());
             }
         }
 
         // Final step, refresh categories.
-        if (somethingChanged) {
+        if (!changes.isEmpty()) {
             Log.d(LOG_TAG, "Enabled state changed for some tiles, reloading all categories "
-                    + changedList.toString());
+                    + changes.keySet());
             mCategoryMixin.updateCategories();
         } else {
             Log.d(LOG_TAG, "No enabled state changed, skipping updateCategory call");
         }
     }
 
-    /**
-     * @return whether or not the enabled state actually changed.
-     */
-    private boolean setTileEnabled(StringBuilder changedList, ComponentName component,
-            boolean enabled, boolean isAdmin) {
-        if (UserHandle.MU_ENABLED && !isAdmin && getPackageName().equals(component.getPackageName())
-                && !ArrayUtils.contains(SettingsGateway.SETTINGS_FOR_RESTRICTED,
-                component.getClassName())) {
-            enabled = false;
-        }
-        boolean changed = setTileEnabled(component, enabled);
-        if (changed) {
-            changedList.append(component.toShortString()).append(",");
-        }
-        return changed;
-    }
-
     private void getMetaData() {
         try {
             ActivityInfo ai = getPackageManager().getActivityInfo(getComponentName(),
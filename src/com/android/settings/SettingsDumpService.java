@@ -37,6 +37,7 @@ import android.util.Log;
 import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.applications.ProcStatsData;
+import com.android.settings.core.BootWorkCoordinator;
 import com.android.settings.datausage.lib.DataUsageLib;
 import com.android.settings.network.MobileNetworkRepository;
 import com.android.settingslib.net.DataUsageController;
@@ -48,6 +49,7 @@ import org.json.JSONObject;
 import java.io.File;
 import java.io.FileDescriptor;
 import java.io.PrintWriter;
+import java.util.Map;
 
 public class SettingsDumpService extends Service {
 
@@ -67,6 +69,8 @@ public class SettingsDumpService extends Service {
     @VisibleForTesting
     static final String KEY_ANOMALY_DETECTION = "anomaly_detection";
     @VisibleForTesting
+    static final String KEY_BOOT_WORK = "boot_work";
+    @VisibleForTesting
     static final Intent BROWSER_INTENT =
             new Intent("android.intent.action.VIEW", Uri.parse("http://"));
 
@@ -94,6 +98,7 @@ public class SettingsDumpService extends Service {
             pw.increaseIndent();
             try {
                 dump.put(KEY_SERVICE, "Settings State");
+                dump.put(KEY_BOOT_WORK, dumpBootWork());
                 dump.put(KEY_STORAGE, dumpStorage());
                 dump.put(KEY_DATAUSAGE, dumpDataUsage());
                 dump.put(KEY_MEMORY, dumpMemory());
@@ -109,6 +114,19 @@ public class SettingsDumpService extends Service {
         }
     }
 
+    @VisibleForTesting
+    JSONObject dumpBootWork() throws JSONException {
+        JSONObject obj = new JSONObject();
+        for (Map.Entry<String, long[]> entry :
+                BootWorkCoordinator.getInstance().getTaskCosts().entrySet()) {
+            JSONObject cost = new JSONObject();
+            cost.put("elapsedMs", entry.getValue()[0]);
+            cost.put("cpuMs", entry.getValue()[1]);
+            obj.put(entry.getKey(), cost);
+        }
+        return obj;
+    }
+
     private JSONObject dumpMemory() throws JSONException {
         JSONObject obj = new JSONObject();
         ProcStatsData statsManager = new ProcStatsData(this, false);
@@ -41,9 +41,9 @@ import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.Settings.CreateShortcutActivity;
 import com.android.settings.activityembedding.ActivityEmbeddingUtils;
+import com.android.settings.core.BootWorkCoordinator;
 import com.android.settings.homepage.DeepLinkHomepageActivity;
 import com.android.settings.search.SearchStateReceiver;
-import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -60,6 +60,9 @@ public class SettingsInitialize extends BroadcastReceiver {
     private static final String PRIMARY_PROFILE_SETTING =
             "com.android.settings.PRIMARY_PROFILE_CONTROLLED";
     private static final String WEBVIEW_IMPLEMENTATION_ACTIVITY = ".WebViewImplementation";
+    private static final String TASK_WEBVIEW_SETUP = "settings_webview_setup";
+    private static final String TASK_REFRESH_SHORTCUTS = "settings_refresh_shortcuts";
+    private static final String TASK_DEEP_LINK_SETUP = "settings_deep_link_setup";
 
     @Override
     public void onReceive(Context context, Intent broadcast) {
@@ -69,9 +72,13 @@ public class SettingsInitialize extends BroadcastReceiver {
         managedProfileSetup(context, pm, broadcast, userInfo);
         cloneProfileSetup(context, pm, userInfo);
         privateProfileSetup(context, pm, userInfo);
-        webviewSettingSetup(context, pm, userInfo);
-        ThreadUtils.postOnBackgroundThread(() -> refreshExistingShortcuts(context));
-        enableTwoPaneDeepLinkActivityIfNecessary(pm, context);
+        BootWorkCoordinator.getInstance().runAsync(this, context,
+                new BootWorkCoordinator.Task(TASK_WEBVIEW_SETUP,
+                        taskContext -> webviewSettingSetup(taskContext, pm, userInfo)),
+                new BootWorkCoordinator.Task(TASK_REFRESH_SHORTCUTS,
+                        this::refreshExistingShortcuts),
+                new BootWorkCoordinator.Task(TASK_DEEP_LINK_SETUP,
+                        taskContext -> enableTwoPaneDeepLinkActivityIfNecessary(pm, taskContext)));
     }
 
     private void managedProfileSetup(Context context, final PackageManager pm, Intent broadcast,
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings;
+
+import android.content.ComponentName;
+import android.content.pm.PackageManager;
+import android.content.pm.PackageManager.ComponentEnabledSetting;
+import android.os.UserHandle;
+import android.util.ArrayMap;
+import android.util.ArraySet;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settings.core.gateway.SettingsGateway;
+import com.android.settingslib.drawer.DashboardCategory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the enabled state of the Settings tile activities in line with the device features and
+ * the current user.
+ *
+ * <p>The desired state is computed by {@link SettingsActivity} on every launch, but only applied
+ * when it differs from the one applied last in this process, and then with a single
+ * {@link PackageManager#setComponentEnabledSettings} call.
+ */
+class TileEnablementReconciler {
+    private static final String TAG = "TileEnablement";
+
+    private static final Set<String> SETTINGS_FOR_RESTRICTED =
+            new ArraySet<>(Arrays.asList(SettingsGateway.SETTINGS_FOR_RESTRICTED));
+
+    private static TileEnablementReconciler sInstance;
+
+    // Guarded by this.
+    private Map<ComponentName, Boolean> mLastDesiredStates;
+
+    static synchronized TileEnablementReconciler getInstance() {
+        if (sInstance == null) {
+            sInstance = new TileEnablementReconciler();
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    TileEnablementReconciler() {
+    }
+
+    /**
+     * Returns whether a tile of the given package may be shown, restricted users only get the
+     * tiles of {@link SettingsGateway#SETTINGS_FOR_RESTRICTED} from Settings itself.
+     */
+    static boolean isAllowedForUser(String packageName, ComponentName component,
+            boolean isAdmin) {
+        return !UserHandle.MU_ENABLED || isAdmin
+                || !packageName.equals(component.getPackageName())
+                || SETTINGS_FOR_RESTRICTED.contains(component.getClassName());
+    }
+
+    /**
+     * Disables in {@code desiredStates} the tiles of Settings itself in {@code categories} which
+     * restricted users may not see. The other tiles are left as they are.
+     */
+    static void disableRestrictedTiles(String packageName, List<DashboardCategory> categories,
+            Map<ComponentName, Boolean> desiredStates) {
+        synchronized (categories) {
+            for (DashboardCategory category : categories) {
+                final int tileCount = category.getTilesCount();
+                for (int i = 0; i < tileCount; i++) {
+                    final ComponentName component = category.getTile(i)
+                            .getIntent().getComponent();
+                    if (!isAllowedForUser(packageName, component, /* isAdmin= */ false)) {
+                        desiredStates.put(component, false);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies {@code desiredStates} to the components whose current state differs.
+     *
+     * @return the components which changed, with their new enabled state; empty when nothing
+     *         changed or the same states were already reconciled
+     */
+    @WorkerThread
+    synchronized Map<ComponentName, Boolean> reconcile(PackageManager pm,
+            Map<ComponentName, Boolean> desiredStates) {
+        if (desiredStates.equals(mLastDesiredStates)) {
+            return Collections.emptyMap();
+        }
+        final Map<ComponentName, Boolean> changes = new ArrayMap<>();
+        final List<ComponentEnabledSetting> settings = new ArrayList<>();
+        for (Map.Entry<ComponentName, Boolean> entry : desiredStates.entrySet()) {
+            final ComponentName component = entry.getKey();
+            final boolean enabled = entry.getValue();
+            final int state = pm.getComponentEnabledSetting(component);
+            final boolean isEnabled = state == PackageManager.COMPONENT_ENABLED_STATE_ENABLED;
+            if (isEnabled != enabled || state == PackageManager.COMPONENT_ENABLED_STATE_DEFAULT) {
+                changes.put(component, enabled);
+                settings.add(new ComponentEnabledSetting(component, enabled
+                                ? PackageManager.COMPONENT_ENABLED_STATE_ENABLED
+                                : PackageManager.COMPONENT_ENABLED_STATE_DISABLED,
+                        PackageManager.DONT_KILL_APP));
+            }
+        }
+        if (!settings.isEmpty()) {
+            try {
+                pm.setComponentEnabledSettings(settings);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Cannot update tiles " + changes.keySet(), e);
+                return Collections.emptyMap();
+            }
+        }
+        mLastDesiredStates = new ArrayMap<>(desiredStates);
+        return changes;
+    }
+}
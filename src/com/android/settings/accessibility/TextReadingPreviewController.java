@@ -112,6 +112,9 @@ class TextReadingPreviewController extends BasePreferenceController implements
         final int[] previewSamples = getPreviewSampleLayouts(mContext);
         final PreviewPagerAdapter pagerAdapter = new PreviewPagerAdapter(mContext, isLayoutRtl,
                 previewSamples, createConfig(origConfig));
+        // One step of the display size slider, then one step of the font size slider.
+        final int displayDataSize = mDisplaySizeData.getValues().size();
+        pagerAdapter.setAdjacentLayerOffsets(-1, 1, -displayDataSize, displayDataSize);
         mPreviewPreference.setPreviewAdapter(pagerAdapter);
         mPreviewPreference.setCurrentItem(
                 isLayoutRtl ? previewSamples.length - 1 : FRAME_INITIAL_INDEX);
@@ -40,6 +40,7 @@ import com.android.settings.R;
 import com.android.settings.activityembedding.ActivityEmbeddingRulesController;
 import com.android.settings.homepage.SettingsHomepageActivity;
 import com.android.settings.overlay.FeatureFactory;
+import com.android.settings.users.UserAvatarCache;
 import com.android.settingslib.utils.ThreadUtils;
 
 import java.net.URISyntaxException;
@@ -135,6 +136,11 @@ public class AvatarViewMixin implements LifecycleObserver {
     @OnLifecycleEvent(Lifecycle.Event.ON_START)
     public void onStart() {
         if (hasAccount()) {
+            // Show the last known avatar right away, it is refreshed in the background.
+            final Bitmap cachedAvatar = UserAvatarCache.getInstance(mContext).getAccountAvatar();
+            if (cachedAvatar != null) {
+                mAvatarView.setImageBitmap(cachedAvatar);
+            }
             loadAccount();
         } else {
             mAccountName = null;
@@ -163,6 +169,7 @@ public class AvatarViewMixin implements LifecycleObserver {
                     METHOD_GET_ACCOUNT_AVATAR, null /* arg */, null /* extras */);
             final Bitmap bitmap = bundle.getParcelable(KEY_AVATAR_BITMAP);
             mAccountName = bundle.getString(KEY_ACCOUNT_NAME, "" /* defaultValue */);
+            UserAvatarCache.getInstance(mContext).putAccountAvatar(bitmap);
             mAvatarImage.postValue(bitmap);
         });
     }
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.applications;
+
+import android.app.AppOpsManager;
+import android.content.pm.IPackageManager;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ParceledListSlice;
+import android.os.RemoteException;
+import android.os.SystemClock;
+import android.os.UserHandle;
+import android.util.ArrayMap;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide snapshot of installed packages (with their requested permissions) and app op
+ * modes, shared by all the special app access bridges.
+ *
+ * <p>Each profile's package list is fetched with a single {@link IPackageManager} call and each
+ * set of op codes with a single {@link AppOpsManager#getPackagesForOps(int[])} call. Results are
+ * reused for {@link #CACHE_TTL_MS} so that opening several special app access lists in a row does
+ * not repeat the same binder calls. Single package changes are written back through
+ * {@link #updatePackageInfo} and {@link #updateAppOpMode}. Results fetched before the last
+ * {@link #invalidate} are returned to their caller but not cached. Returned maps must be treated
+ * as read-only.
+ */
+public class AppOpsStateSnapshot {
+
+    @VisibleForTesting
+    static final long CACHE_TTL_MS = 30_000L;
+
+    private static AppOpsStateSnapshot sInstance;
+
+    private final LongSupplier mClock;
+    private final SparseArray<CachedPackages> mPackagesByUser = new SparseArray<>();
+    private final ArrayMap<String, CachedAppOps> mAppOpsByOpCodes = new ArrayMap<>();
+    // Bumped by invalidate(), so that results fetched before it are not cached.
+    private int mGeneration;
+
+    /** Returns the process-wide instance. */
+    public static synchronized AppOpsStateSnapshot getInstance() {
+        if (sInstance == null) {
+            sInstance = new AppOpsStateSnapshot(SystemClock::elapsedRealtime);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    AppOpsStateSnapshot(LongSupplier clock) {
+        mClock = clock;
+    }
+
+    /**
+     * Returns all packages available for {@code userId}, keyed by package name, including their
+     * requested permissions and grant flags.
+     */
+    @NonNull
+    public ArrayMap<String, PackageInfo> getInstalledPackages(IPackageManager packageManager,
+            int userId) throws RemoteException {
+        final int generation;
+        synchronized (this) {
+            final CachedPackages cached = mPackagesByUser.get(userId);
+            if (cached != null && !isExpired(cached.mTimestamp)) {
+                return cached.mPackages;
+            }
+            generation = mGeneration;
+        }
+        final long timestamp = mClock.getAsLong();
+        @SuppressWarnings("unchecked") final ParceledListSlice<PackageInfo> slice =
+                packageManager.getInstalledPackages(PackageManager.GET_PERMISSIONS, userId);
+        final List<PackageInfo> packageInfos = slice != null ? slice.getList() : null;
+        final int count = packageInfos != null ? packageInfos.size() : 0;
+        final ArrayMap<String, PackageInfo> packages = new ArrayMap<>(count);
+        for (int i = 0; i < count; i++) {
+            final PackageInfo packageInfo = packageInfos.get(i);
+            packages.put(packageInfo.packageName, packageInfo);
+        }
+        synchronized (this) {
+            if (generation == mGeneration) {
+                mPackagesByUser.put(userId, new CachedPackages(timestamp, packages));
+            }
+        }
+        return packages;
+    }
+
+    /**
+     * Returns the mode of the first reported op of every package that has an entry for
+     * {@code opCodes}, keyed by user id and then package name.
+     */
+    @NonNull
+    public SparseArray<ArrayMap<String, Integer>> getAppOpModes(AppOpsManager appOpsManager,
+            int[] opCodes) {
+        final String key = Arrays.toString(opCodes);
+        final int generation;
+        synchronized (this) {
+            final CachedAppOps cached = mAppOpsByOpCodes.get(key);
+            if (cached != null && !isExpired(cached.mTimestamp)) {
+                return cached.mModes;
+            }
+            generation = mGeneration;
+        }
+        final long timestamp = mClock.getAsLong();
+        final List<AppOpsManager.PackageOps> packageOps = appOpsManager.getPackagesForOps(opCodes);
+        final SparseArray<ArrayMap<String, Integer>> modes = new SparseArray<>();
+        final int packageOpsCount = packageOps != null ? packageOps.size() : 0;
+        for (int i = 0; i < packageOpsCount; i++) {
+            final AppOpsManager.PackageOps packageOp = packageOps.get(i);
+            if (packageOp.getOps().isEmpty()) {
+                continue;
+            }
+            final int userId = UserHandle.getUserId(packageOp.getUid());
+            ArrayMap<String, Integer> modesForUser = modes.get(userId);
+            if (modesForUser == null) {
+                modesForUser = new ArrayMap<>();
+                modes.put(userId, modesForUser);
+            }
+            modesForUser.put(packageOp.getPackageName(), packageOp.getOps().get(0).getMode());
+        }
+        synchronized (this) {
+            if (generation == mGeneration) {
+                mAppOpsByOpCodes.put(key, new CachedAppOps(timestamp, modes));
+            }
+        }
+        return modes;
+    }
+
+    /** Returns the cached app op mode of a single package, or {@code null} if unknown. */
+    @Nullable
+    public Integer getAppOpMode(AppOpsManager appOpsManager, int[] opCodes, int userId,
+            String packageName) {
+        final ArrayMap<String, Integer> modesForUser =
+                getAppOpModes(appOpsManager, opCodes).get(userId);
+        return modesForUser != null ? modesForUser.get(packageName) : null;
+    }
+
+    /** Replaces the cached package info of a single package after it was re-read. */
+    public synchronized void updatePackageInfo(int userId, @NonNull PackageInfo packageInfo) {
+        final CachedPackages cached = mPackagesByUser.get(userId);
+        if (cached != null) {
+            // Copy on write, callers may be iterating over the previous map.
+            final ArrayMap<String, PackageInfo> packages = new ArrayMap<>(cached.mPackages);
+            packages.put(packageInfo.packageName, packageInfo);
+            mPackagesByUser.put(userId, new CachedPackages(cached.mTimestamp, packages));
+        }
+    }
+
+    /** Replaces the cached app op mode of a single package after it was re-read. */
+    public synchronized void updateAppOpMode(int[] opCodes, int userId, String packageName,
+            int mode) {
+        final String key = Arrays.toString(opCodes);
+        final CachedAppOps cached = mAppOpsByOpCodes.get(key);
+        if (cached == null) {
+            return;
+        }
+        // Copy on write, callers may be iterating over the previous maps.
+        final SparseArray<ArrayMap<String, Integer>> modes = cached.mModes.clone();
+        final ArrayMap<String, Integer> previous = modes.get(userId);
+        final ArrayMap<String, Integer> modesForUser =
+                previous != null ? new ArrayMap<>(previous) : new ArrayMap<>();
+        modesForUser.put(packageName, mode);
+        modes.put(userId, modesForUser);
+        mAppOpsByOpCodes.put(key, new CachedAppOps(cached.mTimestamp, modes));
+    }
+
+    /** Drops everything, e.g. when the package list changed. */
+    public synchronized void invalidate() {
+        mGeneration++;
+        mPackagesByUser.clear();
+        mAppOpsByOpCodes.clear();
+    }
+
+    private boolean isExpired(long timestamp) {
+        return mClock.getAsLong() - timestamp > CACHE_TTL_MS;
+    }
+
+    private static final class CachedPackages {
+        final long mTimestamp;
+        final ArrayMap<String, PackageInfo> mPackages;
+
+        CachedPackages(long timestamp, ArrayMap<String, PackageInfo> packages) {
+            mTimestamp = timestamp;
+            mPackages = packages;
+        }
+    }
+
+    private static final class CachedAppOps {
+        final long mTimestamp;
+        final SparseArray<ArrayMap<String, Integer>> mModes;
+
+        CachedAppOps(long timestamp, SparseArray<ArrayMap<String, Integer>> modes) {
+            mTimestamp = timestamp;
+            mModes = modes;
+        }
+    }
+}
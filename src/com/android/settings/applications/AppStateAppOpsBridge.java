@@ -35,9 +35,7 @@ import com.android.settingslib.applications.ApplicationsState;
 import com.android.settingslib.applications.ApplicationsState.AppEntry;
 
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /*
  * Connects app ops info to the ApplicationsState. Makes use of AppOpsManager to
@@ -54,6 +52,7 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
     private final Context mContext;
     private final int[] mAppOpsOpCodes;
     private final String[] mPermissions;
+    private final AppOpsStateSnapshot mSnapshot;
 
     public AppStateAppOpsBridge(Context context, ApplicationsState appState, Callback callback,
             int appOpsOpCode, String[] permissions) {
@@ -74,8 +73,9 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
                 packageManager);
     }
 
-    AppStateAppOpsBridge(Context context, ApplicationsState appState, Callback callback,
-            int[] appOpsOpCodes, String[] permissions, IPackageManager packageManager) {
+    protected AppStateAppOpsBridge(Context context, ApplicationsState appState,
+            Callback callback, int[] appOpsOpCodes, String[] permissions,
+            IPackageManager packageManager) {
         super(appState, callback);
         mContext = context;
         mIPackageManager = packageManager;
@@ -84,6 +84,7 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
         mAppOpsManager = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
         mAppOpsOpCodes = appOpsOpCodes;
         mPermissions = permissions;
+        mSnapshot = AppOpsStateSnapshot.getInstance();
     }
 
     private boolean isThisUserAProfileOfCurrentUser(final int userId) {
@@ -110,31 +111,21 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
     public PermissionState getPermissionInfo(String pkg, int uid) {
         PermissionState permissionState = new PermissionState(pkg, new UserHandle(UserHandle
                 .getUserId(uid)));
+        final int userId = permissionState.userHandle.getIdentifier();
         try {
             permissionState.packageInfo = mIPackageManager.getPackageInfo(pkg,
-                    PackageManager.GET_PERMISSIONS | PackageManager.MATCH_ANY_USER,
-                    permissionState.userHandle.getIdentifier());
+                    PackageManager.GET_PERMISSIONS | PackageManager.MATCH_ANY_USER, userId);
             if (permissionState.packageInfo != null) {
                 // Check static permission state (whatever that is declared in package manifest)
-                String[] requestedPermissions = permissionState.packageInfo.requestedPermissions;
-                int[] permissionFlags = permissionState.packageInfo.requestedPermissionsFlags;
-                if (requestedPermissions != null) {
-                    for (int i = 0; i < requestedPermissions.length; i++) {
-                        if (doesAnyPermissionMatch(requestedPermissions[i], mPermissions)) {
-                            permissionState.permissionDeclared = true;
-                            if ((permissionFlags[i] & PackageInfo.REQUESTED_PERMISSION_GRANTED)
-                                    != 0) {
-                                permissionState.staticPermissionGranted = true;
-                                break;
-                            }
-                        }
-                    }
-                }
+                applyPermissionFlags(permissionState);
+                mSnapshot.updatePackageInfo(userId, permissionState.packageInfo);
             }
             // Check app op state.
             List<PackageOps> ops = mAppOpsManager.getOpsForPackage(uid, pkg, mAppOpsOpCodes);
             if (ops != null && ops.size() > 0 && ops.get(0).getOps().size() > 0) {
                 permissionState.appOpMode = ops.get(0).getOps().get(0).getMode();
+                mSnapshot.updateAppOpMode(mAppOpsOpCodes, userId, pkg,
+                        permissionState.appOpMode);
             }
         } catch (RemoteException e) {
             Log.w(TAG, "PackageManager is dead. Can't get package info " + pkg, e);
@@ -142,12 +133,59 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
         return permissionState;
     }
 
+    /**
+     * Same as {@link #getPermissionInfo(String, int)}, but served from the shared
+     * {@link AppOpsStateSnapshot} when it is fresh. Meant for bulk loading, UI reacting to a
+     * change the user just made should use {@link #getPermissionInfo(String, int)}.
+     */
+    protected PermissionState getCachedPermissionInfo(String pkg, int uid) {
+        final int userId = UserHandle.getUserId(uid);
+        final PermissionState permissionState = new PermissionState(pkg, UserHandle.of(userId));
+        try {
+            permissionState.packageInfo =
+                    mSnapshot.getInstalledPackages(mIPackageManager, userId).get(pkg);
+        } catch (RemoteException e) {
+            Log.w(TAG, "PackageManager is dead. Can't get package info " + pkg, e);
+            return permissionState;
+        }
+        if (permissionState.packageInfo != null) {
+            applyPermissionFlags(permissionState);
+        }
+        final Integer appOpMode = mSnapshot.getAppOpMode(mAppOpsManager, mAppOpsOpCodes, userId,
+                pkg);
+        if (appOpMode != null) {
+            permissionState.appOpMode = appOpMode;
+        }
+        return permissionState;
+    }
+
+    private void applyPermissionFlags(PermissionState permissionState) {
+        String[] requestedPermissions = permissionState.packageInfo.requestedPermissions;
+        int[] permissionFlags = permissionState.packageInfo.requestedPermissionsFlags;
+        if (requestedPermissions != null) {
+            for (int i = 0; i < requestedPermissions.length; i++) {
+                if (doesAnyPermissionMatch(requestedPermissions[i], mPermissions)) {
+                    permissionState.permissionDeclared = true;
+                    if ((permissionFlags[i] & PackageInfo.REQUESTED_PERMISSION_GRANTED) != 0) {
+                        permissionState.staticPermissionGranted = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPackageListChanged() {
+        mSnapshot.invalidate();
+        super.onPackageListChanged();
+    }
+
     @Override
     protected void loadAllExtraInfo() {
         SparseArray<ArrayMap<String, PermissionState>> entries = getEntries();
 
         // Load state info.
-        loadPermissionsStates(entries);
         loadAppOpsStates(entries);
 
         // Map states to application info.
@@ -167,7 +205,9 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
 
     /*
      * Gets a sparse array that describes every user on the device and all the associated packages
-     * of each user, together with the packages available for that user.
+     * of each user, together with the packages available for that user. The package list of each
+     * profile comes from the shared AppOpsStateSnapshot, which also carries the static permission
+     * state, so no per-package binder calls are needed.
      */
     private SparseArray<ArrayMap<String, PermissionState>> getEntries() {
         try {
@@ -176,28 +216,27 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
             SparseArray<ArrayMap<String, PermissionState>> entries = new SparseArray<>();
             for (final UserHandle profile : mProfiles) {
                 final int profileId = profile.getIdentifier();
-                final Set<String> packagesSet = new HashSet<>();
-                for (String permission : mPermissions) {
-                    final String[] pkgs = mIPackageManager.getAppOpPermissionPackages(
-                            permission, profileId);
-                    if (pkgs != null) {
-                        packagesSet.addAll(Arrays.asList(pkgs));
+                final ArrayMap<String, PackageInfo> installedPackages =
+                        mSnapshot.getInstalledPackages(mIPackageManager, profileId);
+                ArrayMap<String, PermissionState> entriesForProfile = null;
+                final int packageCount = installedPackages.size();
+                for (int i = 0; i < packageCount; i++) {
+                    final String packageName = installedPackages.keyAt(i);
+                    if (shouldIgnorePackage(packageName)) {
+                        continue;
                     }
-                }
-                if (packagesSet.isEmpty()) {
-                    // No packages are requesting permission as specified by mPermissions.
-                    continue;
-                }
-
-                final ArrayMap<String, PermissionState> entriesForProfile = new ArrayMap<>();
-                entries.put(profileId, entriesForProfile);
-                for (final String packageName : packagesSet) {
-                    final boolean isAvailable = mIPackageManager.isPackageAvailable(packageName,
-                            profileId);
-                    if (!shouldIgnorePackage(packageName) && isAvailable) {
-                        final PermissionState newEntry = new PermissionState(packageName, profile);
-                        entriesForProfile.put(packageName, newEntry);
+                    final PermissionState newEntry = new PermissionState(packageName, profile);
+                    newEntry.packageInfo = installedPackages.valueAt(i);
+                    applyPermissionFlags(newEntry);
+                    if (!newEntry.permissionDeclared) {
+                        // Not requesting permission as specified by mPermissions.
+                        continue;
                     }
+                    if (entriesForProfile == null) {
+                        entriesForProfile = new ArrayMap<>();
+                        entries.put(profileId, entriesForProfile);
+                    }
+                    entriesForProfile.put(packageName, newEntry);
                 }
             }
             if (entries.size() == 0) {
@@ -212,43 +251,6 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
         }
     }
 
-    /*
-     * This method will set the packageInfo and staticPermissionGranted field of the associated
-     * PermissionState, which describes a particular package.
-     */
-    private void loadPermissionsStates(SparseArray<ArrayMap<String, PermissionState>> entries) {
-        // Load the packages that have been granted the permission specified in mPermission.
-        if (entries == null) {
-            return;
-        }
-
-        try {
-            for (final UserHandle profile : mProfiles) {
-                final int profileId = profile.getIdentifier();
-                final ArrayMap<String, PermissionState> entriesForProfile = entries.get(profileId);
-                if (entriesForProfile == null) {
-                    continue;
-                }
-                @SuppressWarnings("unchecked") final List<PackageInfo> packageInfos =
-                        mIPackageManager
-                                .getPackagesHoldingPermissions(mPermissions, 0,
-                                        profileId).getList();
-                final int packageInfoCount = packageInfos != null ? packageInfos.size() : 0;
-                for (int i = 0; i < packageInfoCount; i++) {
-                    final PackageInfo packageInfo = packageInfos.get(i);
-                    final PermissionState pe = entriesForProfile.get(packageInfo.packageName);
-                    if (pe != null) {
-                        pe.packageInfo = packageInfo;
-                        pe.staticPermissionGranted = true;
-                    }
-                }
-            }
-        } catch (RemoteException e) {
-            Log.w(TAG, "PackageManager is dead. Can't get list of packages granted "
-                    + Arrays.toString(mPermissions), e);
-        }
-    }
-
     /*
      * This method will set the appOpMode field of the associated PermissionState, which describes
      * a particular package.
@@ -259,12 +261,11 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
         }
 
         // Find out which packages have been granted permission from AppOps.
-        final List<AppOpsManager.PackageOps> packageOps = mAppOpsManager.getPackagesForOps(
-                mAppOpsOpCodes);
-        final int packageOpsCount = packageOps != null ? packageOps.size() : 0;
-        for (int i = 0; i < packageOpsCount; i++) {
-            final AppOpsManager.PackageOps packageOp = packageOps.get(i);
-            final int userId = UserHandle.getUserId(packageOp.getUid());
+        final SparseArray<ArrayMap<String, Integer>> appOpModes =
+                mSnapshot.getAppOpModes(mAppOpsManager, mAppOpsOpCodes);
+        final int userCount = appOpModes.size();
+        for (int i = 0; i < userCount; i++) {
+            final int userId = appOpModes.keyAt(i);
             if (!isThisUserAProfileOfCurrentUser(userId)) {
                 // This AppOp does not belong to any of this user's profiles.
                 continue;
@@ -274,19 +275,19 @@ public abstract class AppStateAppOpsBridge extends AppStateBaseBridge {
             if (entriesForProfile == null) {
                 continue;
             }
-            final PermissionState pe = entriesForProfile.get(packageOp.getPackageName());
-            if (pe == null) {
-                Log.w(TAG, "AppOp permission exists for package " + packageOp.getPackageName()
-                        + " of user " + userId + " but package doesn't exist or did not request "
-                        + Arrays.toString(mPermissions) + " access");
-                continue;
-            }
-
-            if (packageOp.getOps().size() < 1) {
-                Log.w(TAG, "No AppOps permission exists for package " + packageOp.getPackageName());
-                continue;
+            final ArrayMap<String, Integer> modesForProfile = appOpModes.valueAt(i);
+            final int modeCount = modesForProfile.size();
+            for (int j = 0; j < modeCount; j++) {
+                final String packageName = modesForProfile.keyAt(j);
+                final PermissionState pe = entriesForProfile.get(packageName);
+                if (pe == null) {
+                    Log.w(TAG, "AppOp permission exists for package " + packageName
+                            + " of user " + userId + " but package doesn't exist or did not "
+                            + "request " + Arrays.toString(mPermissions) + " access");
+                    continue;
+                }
+                pe.appOpMode = modesForProfile.valueAt(j);
             }
-            pe.appOpMode = packageOp.getOps().get(0).getMode();
         }
     }
 
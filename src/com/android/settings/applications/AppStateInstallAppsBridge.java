@@ -20,10 +20,15 @@ import android.app.AppGlobals;
 import android.app.AppOpsManager;
 import android.content.Context;
 import android.content.pm.IPackageManager;
+import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.os.RemoteException;
 import android.os.UserHandle;
+import android.util.ArrayMap;
 import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.VisibleForTesting;
 
 import com.android.internal.util.ArrayUtils;
 import com.android.settingslib.applications.ApplicationsState;
@@ -40,15 +45,24 @@ import java.util.List;
 public class AppStateInstallAppsBridge extends AppStateBaseBridge {
 
     private static final String TAG = AppStateInstallAppsBridge.class.getSimpleName();
+    private static final int[] APP_OPS_OP_CODES = {AppOpsManager.OP_REQUEST_INSTALL_PACKAGES};
 
     private final IPackageManager mIpm;
     private final AppOpsManager mAppOpsManager;
+    private final AppOpsStateSnapshot mSnapshot;
 
     public AppStateInstallAppsBridge(Context context, ApplicationsState appState,
             Callback callback) {
+        this(context, appState, callback, AppGlobals.getPackageManager());
+    }
+
+    @VisibleForTesting
+    AppStateInstallAppsBridge(Context context, ApplicationsState appState, Callback callback,
+            IPackageManager packageManager) {
         super(appState, callback);
-        mIpm = AppGlobals.getPackageManager();
+        mIpm = packageManager;
         mAppOpsManager = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
+        mSnapshot = AppOpsStateSnapshot.getInstance();
     }
 
     @Override
@@ -56,13 +70,43 @@ public class AppStateInstallAppsBridge extends AppStateBaseBridge {
         app.extraInfo = createInstallAppsStateFor(packageName, uid);
     }
 
+    @Override
+    public void onPackageListChanged() {
+        mSnapshot.invalidate();
+        super.onPackageListChanged();
+    }
+
     @Override
     protected void loadAllExtraInfo() {
-        // TODO: consider making this a batch operation with a single binder call
+        // Served from the shared snapshot, one package manager and one app ops call per profile.
+        final SparseArray<ArrayMap<String, Integer>> appOpModes =
+                mSnapshot.getAppOpModes(mAppOpsManager, APP_OPS_OP_CODES);
+        final SparseArray<ArrayMap<String, PackageInfo>> installedPackages = new SparseArray<>();
         final List<AppEntry> allApps = mAppSession.getAllApps();
         for (int i = 0; i < allApps.size(); i++) {
-            AppEntry currentEntry = allApps.get(i);
-            updateExtraInfo(currentEntry, currentEntry.info.packageName, currentEntry.info.uid);
+            final AppEntry currentEntry = allApps.get(i);
+            final String packageName = currentEntry.info.packageName;
+            final int userId = UserHandle.getUserId(currentEntry.info.uid);
+            ArrayMap<String, PackageInfo> packagesForUser = installedPackages.get(userId);
+            if (packagesForUser == null) {
+                try {
+                    packagesForUser = mSnapshot.getInstalledPackages(mIpm, userId);
+                } catch (RemoteException e) {
+                    Log.e(TAG, "PackageManager dead. Cannot get permission info");
+                    packagesForUser = new ArrayMap<>();
+                }
+                installedPackages.put(userId, packagesForUser);
+            }
+            final InstallAppsState appState = new InstallAppsState();
+            final PackageInfo packageInfo = packagesForUser.get(packageName);
+            appState.permissionRequested = packageInfo != null && ArrayUtils.contains(
+                    packageInfo.requestedPermissions, Manifest.permission.REQUEST_INSTALL_PACKAGES);
+            final ArrayMap<String, Integer> modesForUser = appOpModes.get(userId);
+            final Integer appOpMode = modesForUser != null ? modesForUser.get(packageName) : null;
+            if (appOpMode != null) {
+                appState.appOpMode = appOpMode;
+            }
+            currentEntry.extraInfo = appState;
         }
     }
 
@@ -97,6 +141,7 @@ public class AppStateInstallAppsBridge extends AppStateBaseBridge {
                 Manifest.permission.REQUEST_INSTALL_PACKAGES, packageName, userId);
         appState.appOpMode = getAppOpMode(AppOpsManager.OP_REQUEST_INSTALL_PACKAGES, uid,
                 packageName);
+        mSnapshot.updateAppOpMode(APP_OPS_OP_CODES, userId, packageName, appState.appOpMode);
         return appState;
     }
 
@@ -18,12 +18,14 @@ package com.android.settings.applications;
 import android.app.usage.IUsageStatsManager;
 import android.app.usage.UsageEvents;
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import android.os.RemoteException;
 import android.os.UserHandle;
 import android.os.UserManager;
 import android.text.format.DateUtils;
 import android.util.ArrayMap;
 import android.util.Log;
+import android.util.SparseArray;
 import android.widget.CompoundButton;
 
 import com.android.settings.R;
@@ -51,6 +53,7 @@ public class AppStateNotificationBridge extends AppStateBaseBridge {
     private IUsageStatsManager mUsageStatsManager;
     protected List<Integer> mUserIds;
     private NotificationBackend mBackend;
+    private final NotificationStateSnapshot mSnapshot;
     private static final int DAYS_TO_CHECK = 7;
 
     public AppStateNotificationBridge(Context context, ApplicationsState appState,
@@ -60,6 +63,7 @@ public class AppStateNotificationBridge extends AppStateBaseBridge {
         mContext = context;
         mUsageStatsManager = usageStatsManager;
         mBackend = backend;
+        mSnapshot = NotificationStateSnapshot.getInstance();
         mUserIds = new ArrayList<>();
         mUserIds.add(mContext.getUserId());
         int workUserId = Utils.getManagedProfileId(userManager, mContext.getUserId());
@@ -78,10 +82,17 @@ public class AppStateNotificationBridge extends AppStateBaseBridge {
             return;
         }
 
-        final Map<String, NotificationsSentState> map = getAggregatedUsageEvents();
+        Map<String, NotificationsSentState> map = mSnapshot.getSentStates();
+        if (map == null) {
+            map = getAggregatedUsageEvents();
+            mSnapshot.putSentStates(map);
+        }
+        if (!mSnapshot.hasBlockStates()) {
+            loadBlockStates(apps);
+        }
         for (AppEntry entry : apps) {
-            NotificationsSentState stats =
-                    map.get(getKey(UserHandle.getUserId(entry.info.uid), entry.info.packageName));
+            NotificationsSentState stats = copyOf(
+                    map.get(getKey(UserHandle.getUserId(entry.info.uid), entry.info.packageName)));
             if (stats == null) {
                 stats = new NotificationsSentState();
             }
@@ -93,13 +104,24 @@ public class AppStateNotificationBridge extends AppStateBaseBridge {
 
     @Override
     protected void updateExtraInfo(AppEntry entry, String pkg, int uid) {
-        NotificationsSentState stats = getAggregatedUsageEvents(
-                UserHandle.getUserId(entry.info.uid), entry.info.packageName);
+        final int userId = UserHandle.getUserId(entry.info.uid);
+        NotificationsSentState stats = getAggregatedUsageEvents(userId, entry.info.packageName);
+        mSnapshot.updateSentState(getKey(userId, entry.info.packageName), copyOf(stats));
         calculateAvgSentCounts(stats);
-        addBlockStatus(entry, stats);
+        if (stats != null) {
+            final NotificationBackend.BlockState blockState = loadBlockState(entry);
+            stats.blocked = blockState.banned;
+            stats.blockable = blockState.blockable;
+        }
         entry.extraInfo = stats;
     }
 
+    @Override
+    public void onPackageListChanged() {
+        mSnapshot.invalidate();
+        super.onPackageListChanged();
+    }
+
     public static CharSequence getSummary(Context context, NotificationsSentState state,
             int sortOrder) {
         if (sortOrder == R.id.sort_order_recent_notification) {
@@ -120,11 +142,66 @@ public class AppStateNotificationBridge extends AppStateBaseBridge {
         }
     }
 
+    /*
+     * Loads the block state of all apps, reading their package info with one query per user.
+     */
+    private void loadBlockStates(List<AppEntry> apps) {
+        final SparseArray<List<ApplicationInfo>> appsByUser = new SparseArray<>();
+        for (AppEntry entry : apps) {
+            final int userId = UserHandle.getUserId(entry.info.uid);
+            List<ApplicationInfo> appsForUser = appsByUser.get(userId);
+            if (appsForUser == null) {
+                appsForUser = new ArrayList<>();
+                appsByUser.put(userId, appsForUser);
+            }
+            appsForUser.add(entry.info);
+        }
+        final Map<String, NotificationBackend.BlockState> blockStates = new ArrayMap<>();
+        for (int i = 0; i < appsByUser.size(); i++) {
+            final int userId = appsByUser.keyAt(i);
+            final Map<String, NotificationBackend.BlockState> statesForUser =
+                    mBackend.loadBlockStates(mContext, userId, appsByUser.valueAt(i));
+            if (statesForUser == null) {
+                continue;
+            }
+            for (Map.Entry<String, NotificationBackend.BlockState> state
+                    : statesForUser.entrySet()) {
+                blockStates.put(getKey(userId, state.getKey()), state.getValue());
+            }
+        }
+        mSnapshot.putBlockStates(blockStates);
+    }
+
+    private NotificationBackend.BlockState loadBlockState(AppEntry entry) {
+        final NotificationBackend.BlockState blockState = new NotificationBackend.BlockState(
+                mBackend.getNotificationsBanned(entry.info.packageName, entry.info.uid),
+                mBackend.enableSwitch(mContext, entry.info));
+        mSnapshot.updateBlockState(
+                getKey(UserHandle.getUserId(entry.info.uid), entry.info.packageName), blockState);
+        return blockState;
+    }
+
     private void addBlockStatus(AppEntry entry, NotificationsSentState stats) {
         if (stats != null) {
-            stats.blocked = mBackend.getNotificationsBanned(entry.info.packageName, entry.info.uid);
-            stats.blockable = mBackend.enableSwitch(mContext, entry.info);
+            NotificationBackend.BlockState blockState = mSnapshot.getBlockState(
+                    getKey(UserHandle.getUserId(entry.info.uid), entry.info.packageName));
+            if (blockState == null) {
+                // Not part of the batched load, e.g. installed since.
+                blockState = loadBlockState(entry);
+            }
+            stats.blocked = blockState.banned;
+            stats.blockable = blockState.blockable;
+        }
+    }
+
+    private static NotificationsSentState copyOf(NotificationsSentState stats) {
+        if (stats == null) {
+            return null;
         }
+        final NotificationsSentState copy = new NotificationsSentState();
+        copy.lastSent = stats.lastSent;
+        copy.sentCount = stats.sentCount;
+        return copy;
     }
 
     private void calculateAvgSentCounts(NotificationsSentState stats) {
@@ -230,6 +307,9 @@ public class AppStateNotificationBridge extends AppStateBaseBridge {
                     mBackend.setNotificationsEnabledForPackage(
                             entry.info.packageName, entry.info.uid, isChecked);
                     stats.blocked = !isChecked;
+                    mSnapshot.updateBlockState(
+                            getKey(UserHandle.getUserId(entry.info.uid), entry.info.packageName),
+                            new NotificationBackend.BlockState(stats.blocked, stats.blockable));
                 }
             }
         };
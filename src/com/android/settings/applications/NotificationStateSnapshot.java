@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.applications;
+
+import android.os.SystemClock;
+import android.util.ArrayMap;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settings.applications.AppStateNotificationBridge.NotificationsSentState;
+import com.android.settings.notification.NotificationBackend.BlockState;
+
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide cache of the aggregated notification usage events and per-app block state used by
+ * {@link AppStateNotificationBridge}, so that re-opening or re-sorting the app notifications list
+ * does not query usage stats and NotificationManager for every app again.
+ *
+ * <p>Both maps are keyed by {@link AppStateNotificationBridge#getKey(int, String)}. Cached sent
+ * states must not be handed out directly, callers copy them before attaching them to entries.
+ */
+class NotificationStateSnapshot {
+
+    @VisibleForTesting
+    static final long CACHE_TTL_MS = 30_000L;
+
+    private static NotificationStateSnapshot sInstance;
+
+    private final LongSupplier mClock;
+    private Map<String, NotificationsSentState> mSentStates;
+    private long mSentStatesTimestamp;
+    private final Map<String, BlockState> mBlockStates = new ArrayMap<>();
+    private long mBlockStatesTimestamp;
+
+    static synchronized NotificationStateSnapshot getInstance() {
+        if (sInstance == null) {
+            sInstance = new NotificationStateSnapshot(SystemClock::elapsedRealtime);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    NotificationStateSnapshot(LongSupplier clock) {
+        mClock = clock;
+    }
+
+    /** Returns the cached aggregated usage events, or {@code null} if absent or expired. */
+    @Nullable
+    synchronized Map<String, NotificationsSentState> getSentStates() {
+        return mSentStates != null && !isExpired(mSentStatesTimestamp) ? mSentStates : null;
+    }
+
+    synchronized void putSentStates(Map<String, NotificationsSentState> sentStates) {
+        mSentStates = sentStates;
+        mSentStatesTimestamp = mClock.getAsLong();
+    }
+
+    /** Returns the cached block state of an app, or {@code null} if absent or expired. */
+    @Nullable
+    synchronized BlockState getBlockState(String key) {
+        return !isExpired(mBlockStatesTimestamp) ? mBlockStates.get(key) : null;
+    }
+
+    /** Returns whether block states have been loaded for all apps and are still fresh. */
+    synchronized boolean hasBlockStates() {
+        return !mBlockStates.isEmpty() && !isExpired(mBlockStatesTimestamp);
+    }
+
+    /** Replaces all the cached block states with a freshly loaded set. */
+    synchronized void putBlockStates(Map<String, BlockState> blockStates) {
+        mBlockStates.clear();
+        mBlockStates.putAll(blockStates);
+        mBlockStatesTimestamp = mClock.getAsLong();
+    }
+
+    /** Updates the block state of a single app, e.g. after the user toggled it. */
+    synchronized void updateBlockState(String key, BlockState blockState) {
+        if (!isExpired(mBlockStatesTimestamp)) {
+            mBlockStates.put(key, blockState);
+        }
+    }
+
+    /** Updates the sent state of a single app after it was re-read. */
+    synchronized void updateSentState(String key, @Nullable NotificationsSentState sentState) {
+        if (mSentStates == null || isExpired(mSentStatesTimestamp)) {
+            return;
+        }
+        final Map<String, NotificationsSentState> sentStates = new ArrayMap<>(mSentStates);
+        if (sentState != null) {
+            sentStates.put(key, sentState);
+        } else {
+            sentStates.remove(key);
+        }
+        mSentStates = sentStates;
+    }
+
+    synchronized void invalidate() {
+        mSentStates = null;
+        mBlockStates.clear();
+    }
+
+    private boolean isExpired(long timestamp) {
+        return mClock.getAsLong() - timestamp > CACHE_TTL_MS;
+    }
+}
@@ -69,6 +69,7 @@ public class RecentAppStatsMixin implements LifecycleObserver, OnStart {
     private final UserManager mUserManager;
     private final PowerManager mPowerManager;
     private final ApplicationsState mApplicationsState;
+    private final UsageStatsSession mUsageStatsSession;
     private final List<RecentAppStatsListener> mAppStatsListeners;
     private Calendar mCalendar;
 
@@ -91,6 +92,7 @@ public class RecentAppStatsMixin implements LifecycleObserver, OnStart {
         mUserManager = mContext.getSystemService(UserManager.class);
         mApplicationsState = ApplicationsState.getInstance(
                 (Application) mContext.getApplicationContext());
+        mUsageStatsSession = UsageStatsSession.getInstance(mContext);
         mRecentApps = new ArrayList<>();
         mAppStatsListeners = new ArrayList<>();
     }
@@ -148,9 +150,8 @@ public class RecentAppStatsMixin implements LifecycleObserver, OnStart {
     private List<UsageStats> getRecentAppsStats(UsageStatsManager usageStatsManager, int userId) {
         final List<UsageStats> recentAppStats = mPowerManager.isPowerSaveMode()
                 ? new ArrayList<>()
-                : usageStatsManager.queryUsageStats(
-                        UsageStatsManager.INTERVAL_BEST, mCalendar.getTimeInMillis(),
-                        System.currentTimeMillis());
+                : mUsageStatsSession.getRecentUsageStats(usageStatsManager, userId,
+                        mCalendar.getTimeInMillis(), System.currentTimeMillis());
 
         final Map<String, UsageStats> map = new ArrayMap<>();
         for (final UsageStats pkgStats : recentAppStats) {
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import android.app.usage.UsageEvents;
+import android.app.usage.UsageStats;
+import android.app.usage.UsageStatsManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.UserHandle;
+import android.util.ArrayMap;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide cache of the last time each app was used, per user, shared by the pages showing
+ * recent apps.
+ *
+ * <p>The usage stats of a user are queried once for the requested window. They are then refreshed
+ * with the activity events since the end of the previous query, so opening the Apps page again only
+ * reads the events of the meantime instead of the stats of the whole window. Users are dropped when
+ * {@link Intent#ACTION_USER_REMOVED} is received.
+ */
+public class UsageStatsSession {
+
+    private static UsageStatsSession sInstance;
+
+    // Guarded by this.
+    private final SparseArray<UserStats> mUserStats = new SparseArray<>();
+
+    private final BroadcastReceiver mUserRemovedReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final int userId = intent.getIntExtra(Intent.EXTRA_USER_HANDLE, UserHandle.USER_NULL);
+            if (userId != UserHandle.USER_NULL) {
+                removeUser(userId);
+            }
+        }
+    };
+
+    /** Returns the process-wide instance, registering for user removals on first use. */
+    public static synchronized UsageStatsSession getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new UsageStatsSession();
+            context.getApplicationContext().registerReceiverAsUser(
+                    sInstance.mUserRemovedReceiver, UserHandle.ALL,
+                    new IntentFilter(Intent.ACTION_USER_REMOVED),
+                    null /* broadcastPermission */, null /* scheduler */,
+                    Context.RECEIVER_EXPORTED_UNAUDITED);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    UsageStatsSession() {
+    }
+
+    /**
+     * Returns the usage stats of the apps of {@code userId} last used between {@code beginTime}
+     * and {@code endTime}, one per package. Only the last time used of the returned stats is
+     * kept across queries, the other fields come from the query where it was seen. The returned
+     * stats are copies, they may be modified.
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized List<UsageStats> getRecentUsageStats(
+            @NonNull UsageStatsManager usageStatsManager, int userId, long beginTime,
+            long endTime) {
+        UserStats userStats = mUserStats.get(userId);
+        if (userStats == null || beginTime < userStats.mBeginTime
+                || endTime < userStats.mEndTime) {
+            // Not cached yet, or the window grew, or the clock went back: query it all.
+            userStats = new UserStats();
+            userStats.merge(usageStatsManager.queryUsageStats(UsageStatsManager.INTERVAL_BEST,
+                    beginTime, endTime));
+            mUserStats.put(userId, userStats);
+        } else {
+            userStats.mergeEvents(usageStatsManager.queryEvents(userStats.mEndTime, endTime));
+        }
+        userStats.mEndTime = endTime;
+        userStats.prune(beginTime);
+
+        final List<UsageStats> result = new ArrayList<>(userStats.mStats.size());
+        for (UsageStats stats : userStats.mStats.values()) {
+            result.add(new UsageStats(stats));
+        }
+        return result;
+    }
+
+    /** Drops the usage stats of {@code userId}. */
+    @VisibleForTesting
+    synchronized void removeUser(int userId) {
+        mUserStats.remove(userId);
+    }
+
+    private static class UserStats {
+        private final Map<String, UsageStats> mStats = new ArrayMap<>();
+        private long mBeginTime;
+        private long mEndTime;
+
+        void merge(List<UsageStats> statsList) {
+            if (statsList == null) {
+                return;
+            }
+            for (UsageStats stats : statsList) {
+                final UsageStats cached = mStats.get(stats.getPackageName());
+                if (cached == null || stats.getLastTimeUsed() > cached.getLastTimeUsed()) {
+                    mStats.put(stats.getPackageName(), new UsageStats(stats));
+                }
+            }
+        }
+
+        /** Updates the last time used with the events which update it in the usage stats. */
+        void mergeEvents(UsageEvents events) {
+            if (events == null) {
+                return;
+            }
+            final UsageEvents.Event event = new UsageEvents.Event();
+            while (events.getNextEvent(event)) {
+                final int type = event.getEventType();
+                if (type != UsageEvents.Event.ACTIVITY_RESUMED
+                        && type != UsageEvents.Event.ACTIVITY_PAUSED
+                        && type != UsageEvents.Event.ACTIVITY_STOPPED) {
+                    continue;
+                }
+                UsageStats stats = mStats.get(event.getPackageName());
+                if (stats == null) {
+                    stats = new UsageStats();
+                    stats.mPackageName = event.getPackageName();
+                    mStats.put(stats.mPackageName, stats);
+                }
+                stats.mLastTimeUsed = Math.max(stats.mLastTimeUsed, event.getTimeStamp());
+            }
+        }
+
+        void prune(long beginTime) {
+            mBeginTime = beginTime;
+            final Iterator<UsageStats> iterator = mStats.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getLastTimeUsed() < beginTime) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
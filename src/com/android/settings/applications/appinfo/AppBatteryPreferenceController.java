@@ -37,6 +37,7 @@ import com.android.settings.R;
 import com.android.settings.Utils;
 import com.android.settings.core.BasePreferenceController;
 import com.android.settings.fuelgauge.AdvancedPowerUsageDetail;
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.batteryusage.BatteryChartPreferenceController;
 import com.android.settings.fuelgauge.batteryusage.BatteryDiffEntry;
@@ -251,8 +252,11 @@ public class AppBatteryPreferenceController extends BasePreferenceController
         @Override
         public void onLoadFinished(Loader<BatteryUsageStats> loader,
                 BatteryUsageStats batteryUsageStats) {
-            closeBatteryUsageStats();
-            mBatteryUsageStats = batteryUsageStats;
+            // The loader delivers its last result again when restarted.
+            if (batteryUsageStats != mBatteryUsageStats) {
+                closeBatteryUsageStats();
+                mBatteryUsageStats = batteryUsageStats;
+            }
             AppBatteryPreferenceController.this.onLoadFinished();
         }
 
@@ -262,14 +266,8 @@ public class AppBatteryPreferenceController extends BasePreferenceController
     }
 
     private void closeBatteryUsageStats() {
-        if (mBatteryUsageStats != null) {
-            try {
-                mBatteryUsageStats.close();
-            } catch (Exception e) {
-                Log.e(TAG, "BatteryUsageStats.close() failed", e);
-            } finally {
-                mBatteryUsageStats = null;
-            }
-        }
+        // The stats may be shared with other holders, they are closed by the broker.
+        BatteryUsageStatsBroker.getInstance().release(mBatteryUsageStats);
+        mBatteryUsageStats = null;
     }
 }
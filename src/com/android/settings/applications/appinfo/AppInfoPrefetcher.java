@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.appinfo;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.SystemClock;
+import android.os.UserHandle;
+import android.util.ArrayMap;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settings.notification.NotificationBackend;
+import com.android.settings.overlay.FeatureFactory;
+import com.android.settingslib.applications.StorageStatsSource;
+import com.android.settingslib.applications.StorageStatsSource.AppStorageStats;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Warms the per-app data shown on {@link AppInfoDashboardFragment} while the navigation to it is
+ * still in progress, so the summaries are not blank when the page appears.
+ *
+ * <p>Prefetched values are kept for {@link #CACHE_TTL_MS} and each of them can be taken only once:
+ * once a controller consumed a value it falls back to loading it itself, so returning to the page
+ * after changing something never shows stale data. The values taken on the main thread are only
+ * returned once loaded, the controllers load them themselves otherwise. The time spent in the app
+ * is taken in the background, so taking it while still being loaded waits for it up to
+ * {@link #MAX_WAIT_MS} rather than loading it a second time.
+ */
+public class AppInfoPrefetcher {
+    private static final String TAG = "AppInfoPrefetcher";
+
+    @VisibleForTesting
+    static final long CACHE_TTL_MS = 10_000L;
+    @VisibleForTesting
+    static final long MAX_WAIT_MS = 500L;
+
+    private static AppInfoPrefetcher sInstance;
+
+    private final LongSupplier mClock;
+    private final Executor mExecutor;
+    private final Map<String, PrefetchedData> mEntries = new ArrayMap<>();
+
+    public static synchronized AppInfoPrefetcher getInstance() {
+        if (sInstance == null) {
+            sInstance = new AppInfoPrefetcher(SystemClock::elapsedRealtime,
+                    ThreadUtils::postOnBackgroundThread);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    AppInfoPrefetcher(LongSupplier clock, Executor executor) {
+        mClock = clock;
+        mExecutor = executor;
+    }
+
+    /**
+     * Starts loading the app info data of {@code packageName} in the background. Does nothing if
+     * fresh data is already available or being loaded.
+     */
+    public void prefetch(Context context, String packageName, int uid) {
+        final int userId = UserHandle.getUserId(uid);
+        final PrefetchedData data;
+        synchronized (this) {
+            pruneExpired();
+            final String key = getKey(packageName, userId);
+            final PrefetchedData existing = mEntries.get(key);
+            if (existing != null && !isExpired(existing)) {
+                return;
+            }
+            data = new PrefetchedData(mClock.getAsLong());
+            mEntries.put(key, data);
+        }
+        final Context appContext = context.getApplicationContext();
+        mExecutor.execute(() -> load(appContext, packageName, userId, data));
+    }
+
+    /**
+     * Returns and consumes the prefetched storage stats, or {@code null} if not available or not
+     * loaded yet. Never waits.
+     */
+    @Nullable
+    public AppStorageStats takeStorageStats(String packageName, int userId) {
+        final PrefetchedData data = getData(packageName, userId);
+        if (data == null || !isLoaded(data.mStorageStatsLoaded)) {
+            return null;
+        }
+        synchronized (data) {
+            final AppStorageStats stats = data.mStorageStats;
+            data.mStorageStats = null;
+            return stats;
+        }
+    }
+
+    /**
+     * Returns and consumes the prefetched notification row, or {@code null} if not available or
+     * not loaded yet. Never waits.
+     */
+    @Nullable
+    public NotificationBackend.AppRow takeNotificationAppRow(String packageName, int userId) {
+        final PrefetchedData data = getData(packageName, userId);
+        if (data == null || !isLoaded(data.mNotificationAppRowLoaded)) {
+            return null;
+        }
+        synchronized (data) {
+            final NotificationBackend.AppRow appRow = data.mNotificationAppRow;
+            data.mNotificationAppRow = null;
+            return appRow;
+        }
+    }
+
+    /**
+     * Returns and consumes the prefetched time spent summary, or {@code null} if not available.
+     * Waits up to {@link #MAX_WAIT_MS} for it if still being loaded.
+     */
+    @WorkerThread
+    @Nullable
+    public CharSequence takeTimeSpentInApp(String packageName, int userId) {
+        final PrefetchedData data = getData(packageName, userId);
+        if (data == null) {
+            return null;
+        }
+        await(data.mTimeSpentInAppLoaded);
+        synchronized (data) {
+            final CharSequence timeSpent = data.mTimeSpentInApp;
+            data.mTimeSpentInApp = null;
+            return timeSpent;
+        }
+    }
+
+    /** Drops anything prefetched for the given app, e.g. after returning from its detail page. */
+    public synchronized void invalidate(String packageName, int userId) {
+        mEntries.remove(getKey(packageName, userId));
+    }
+
+    @WorkerThread
+    private void load(Context context, String packageName, int userId, PrefetchedData data) {
+        try {
+            final ApplicationInfo info;
+            try {
+                info = context.getPackageManager().getApplicationInfoAsUser(packageName,
+                        PackageManager.MATCH_ANY_USER, userId);
+            } catch (PackageManager.NameNotFoundException e) {
+                Log.w(TAG, "Package not found, nothing to prefetch: " + packageName);
+                return;
+            }
+            // The notification row is read on the main thread, so it goes first.
+            final NotificationBackend.AppRow appRow = loadNotificationAppRow(context, info);
+            synchronized (data) {
+                data.mNotificationAppRow = appRow;
+            }
+            data.mNotificationAppRowLoaded.countDown();
+            final AppStorageStats storageStats = loadStorageStats(context, info, userId);
+            synchronized (data) {
+                data.mStorageStats = storageStats;
+            }
+            data.mStorageStatsLoaded.countDown();
+            final CharSequence timeSpent = loadTimeSpentInApp(context, packageName);
+            synchronized (data) {
+                data.mTimeSpentInApp = timeSpent;
+            }
+        } finally {
+            // Nothing more is coming, release whoever is still waiting.
+            data.mNotificationAppRowLoaded.countDown();
+            data.mStorageStatsLoaded.countDown();
+            data.mTimeSpentInAppLoaded.countDown();
+        }
+    }
+
+    @VisibleForTesting
+    @WorkerThread
+    AppStorageStats loadStorageStats(Context context, ApplicationInfo info, int userId) {
+        try {
+            return new StorageStatsSource(context).getStatsForPackage(info.volumeUuid,
+                    info.packageName, UserHandle.of(userId));
+        } catch (PackageManager.NameNotFoundException | IOException e) {
+            Log.w(TAG, "Package may have been removed during query, failing gracefully", e);
+            return null;
+        }
+    }
+
+    @VisibleForTesting
+    @WorkerThread
+    CharSequence loadTimeSpentInApp(Context context, String packageName) {
+        return FeatureFactory.getFeatureFactory().getApplicationFeatureProvider()
+                .getTimeSpentInApp(packageName);
+    }
+
+    @VisibleForTesting
+    @WorkerThread
+    NotificationBackend.AppRow loadNotificationAppRow(Context context, ApplicationInfo info) {
+        return new NotificationBackend().loadAppRow(context, context.getPackageManager(), info);
+    }
+
+    private static boolean isLoaded(CountDownLatch loaded) {
+        return loaded.getCount() == 0;
+    }
+
+    private static void await(CountDownLatch loaded) {
+        try {
+            if (!loaded.await(MAX_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, "Prefetch still running, loading again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Nullable
+    private synchronized PrefetchedData getData(String packageName, int userId) {
+        final String key = getKey(packageName, userId);
+        final PrefetchedData data = mEntries.get(key);
+        if (data != null && isExpired(data)) {
+            mEntries.remove(key);
+            return null;
+        }
+        return data;
+    }
+
+    private void pruneExpired() {
+        mEntries.values().removeIf(this::isExpired);
+    }
+
+    private boolean isExpired(PrefetchedData data) {
+        return mClock.getAsLong() - data.mTimestamp > CACHE_TTL_MS;
+    }
+
+    private static String getKey(String packageName, int userId) {
+        return userId + "|" + packageName;
+    }
+
+    private static final class PrefetchedData {
+        final long mTimestamp;
+        AppStorageStats mStorageStats;
+        CharSequence mTimeSpentInApp;
+        NotificationBackend.AppRow mNotificationAppRow;
+        final CountDownLatch mStorageStatsLoaded = new CountDownLatch(1);
+        final CountDownLatch mTimeSpentInAppLoaded = new CountDownLatch(1);
+        final CountDownLatch mNotificationAppRowLoaded = new CountDownLatch(1);
+
+        PrefetchedData(long timestamp) {
+            mTimestamp = timestamp;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import static com.android.settings.SettingsActivity.EXTRA_FRAGMENT_ARG_KEY;
 import android.content.Context;
 import android.icu.text.MessageFormat;
 import android.os.Bundle;
+import android.os.UserHandle;
 
 import androidx.preference.Preference;
 import androidx.preference.PreferenceScreen;
@@ -88,8 +89,12 @@ public class AppNotificationPreferenceController extends AppInfoPreferenceContro
         if (appEntry == null) {
             return "";
         }
-        NotificationBackend.AppRow appRow =
-                backend.loadAppRow(context, context.getPackageManager(), appEntry.info);
+        NotificationBackend.AppRow appRow = AppInfoPrefetcher.getInstance()
+                .takeNotificationAppRow(appEntry.info.packageName,
+                        UserHandle.getUserId(appEntry.info.uid));
+        if (appRow == null) {
+            appRow = backend.loadAppRow(context, context.getPackageManager(), appEntry.info);
+        }
         return getNotificationSummary(appRow, context);
     }
 
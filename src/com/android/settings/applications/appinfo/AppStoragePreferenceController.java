@@ -68,6 +68,14 @@ public class AppStoragePreferenceController extends AppInfoPreferenceControllerB
 
     @Override
     public void onResume() {
+        if (mLastResult == null && mAppEntry != null && mAppEntry.info != null) {
+            // Show the size warmed up by the app list right away, the loader still refreshes it.
+            mLastResult = AppInfoPrefetcher.getInstance().takeStorageStats(
+                    mAppEntry.info.packageName, UserHandle.getUserId(mAppEntry.info.uid));
+            if (mLastResult != null) {
+                updateState(mPreference);
+            }
+        }
         mParent.getLoaderManager().restartLoader(mParent.LOADER_STORAGE, Bundle.EMPTY, this);
     }
 
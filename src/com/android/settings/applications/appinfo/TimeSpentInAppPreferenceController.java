@@ -21,6 +21,7 @@ import android.content.Intent;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
+import android.os.UserHandle;
 import android.provider.Settings;
 import android.text.TextUtils;
 
@@ -101,6 +102,13 @@ public class TimeSpentInAppPreferenceController extends LiveDataController {
 
     @Override
     protected CharSequence getSummaryTextInBackground() {
+        final int userId = mAppEntry != null && mAppEntry.info != null
+                ? UserHandle.getUserId(mAppEntry.info.uid) : UserHandle.myUserId();
+        final CharSequence prefetched = AppInfoPrefetcher.getInstance()
+                .takeTimeSpentInApp(mPackageName, userId);
+        if (prefetched != null) {
+            return prefetched;
+        }
         return mAppFeatureProvider.getTimeSpentInApp(mPackageName);
     }
 
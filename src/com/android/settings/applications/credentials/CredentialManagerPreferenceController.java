@@ -98,6 +98,8 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
     private static final String ALTERNATE_INTENT = "android.settings.SYNC_SETTINGS";
     private static final String PRIMARY_INTENT = "android.settings.CREDENTIAL_PROVIDER";
     private static final int MAX_SELECTABLE_PROVIDERS = 5;
+    // App updates send several package events in a row, they are handled as one.
+    private static final long UPDATE_FROM_EXTERNAL_DELAY_MS = 500;
 
     private final PackageManager mPm;
     private final List<CredentialProviderInfo> mServices;
@@ -109,6 +111,7 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
     private final Handler mHandler = new Handler();
     private final SettingContentObserver mSettingsContentObserver;
     private final ImageUtils.IconResizer mIconResizer;
+    private final Runnable mUpdateFromExternalRunnable = this::loadProvidersFromExternal;
 
     private @Nullable FragmentManager mFragmentManager = null;
     private @Nullable Delegate mDelegate = null;
@@ -118,6 +121,7 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
     private Optional<Boolean> mSimulateHiddenForTests = Optional.empty();
     private boolean mIsWorkProfile = false;
     private boolean mSimulateConnectedForTests = false;
+    private int mProviderQueryGeneration = 0;
 
     public CredentialManagerPreferenceController(Context context, String preferenceKey) {
         super(context, preferenceKey);
@@ -347,15 +351,39 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
         return output;
     }
 
-    private void updateFromExternal() {
+    /** Queries the providers again once the current burst of changes is over. */
+    private void scheduleUpdateFromExternal() {
+        mHandler.removeCallbacks(mUpdateFromExternalRunnable);
+        mHandler.postDelayed(mUpdateFromExternalRunnable, UPDATE_FROM_EXTERNAL_DELAY_MS);
+    }
+
+    /** Queries the providers in the background and applies them on the main thread. */
+    private void loadProvidersFromExternal() {
         if (mCredentialManager == null) {
             return;
         }
 
-        // Get the list of new providers and components.
-        List<CredentialProviderInfo> newProviders =
-                mCredentialManager.getCredentialProviderServices(
-                        getUser(), CredentialManager.PROVIDER_FILTER_USER_PROVIDERS_ONLY);
+        final CredentialManager credentialManager = mCredentialManager;
+        final int userId = getUser();
+        final int generation = ++mProviderQueryGeneration;
+        ThreadUtils.postOnBackgroundThread(
+                () -> {
+                    final List<CredentialProviderInfo> newProviders =
+                            credentialManager.getCredentialProviderServices(
+                                    userId, CredentialManager.PROVIDER_FILTER_USER_PROVIDERS_ONLY);
+                    mExecutor.execute(
+                            () -> {
+                                // Only the result of the latest query is applied.
+                                if (generation == mProviderQueryGeneration) {
+                                    updateFromExternal(newProviders);
+                                }
+                            });
+                });
+    }
+
+    @VisibleForTesting
+    void updateFromExternal(@NonNull List<CredentialProviderInfo> newProviders) {
+        // Get the list of new components.
         Set<ComponentName> newComponents = buildComponentNameSet(newProviders, false);
         Set<ComponentName> newPrimaryComponents = buildComponentNameSet(newProviders, true);
 
@@ -372,7 +400,7 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
         setAvailableServices(newProviders, null);
 
         if (mPreferenceScreen != null) {
-            displayPreference(mPreferenceScreen);
+            updatePreferenceList(mPreferenceScreen);
         }
 
         if (mDelegate != null) {
@@ -454,6 +482,27 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
         mPrefs.putAll(buildPreferenceList(context, group));
     }
 
+    /**
+     * Updates the displayed preferences to the current providers, keeping the preferences of the
+     * providers which are still shown.
+     */
+    private void updatePreferenceList(@NonNull PreferenceScreen screen) {
+        PreferenceGroup group = screen.findPreference(getPreferenceKey());
+        if (group == null) {
+            return;
+        }
+
+        Map<String, CombiPreference> previousPrefs = new HashMap<>(mPrefs);
+        mPrefs.clear();
+        mPrefs.putAll(buildPreferenceList(screen.getContext(), group, previousPrefs));
+
+        for (Map.Entry<String, CombiPreference> entry : previousPrefs.entrySet()) {
+            if (mPrefs.get(entry.getKey()) != entry.getValue()) {
+                group.removePreference(entry.getValue());
+            }
+        }
+    }
+
     /**
      * Gets the preference that allows to add a new cred man service.
      *
@@ -509,6 +558,22 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
     @VisibleForTesting
     public @NonNull Map<String, CombiPreference> buildPreferenceList(
             @NonNull Context context, @NonNull PreferenceGroup group) {
+        return buildPreferenceList(context, group, null);
+    }
+
+    /**
+     * Aggregates the list of services and builds a list of UI prefs to show.
+     *
+     * @param previousPrefs the prefs currently shown, keyed by package name. Those of the
+     *     providers still shown are reused, and the icons and names of the providers are loaded in
+     *     the background. If null, the prefs are all created with their icon and name.
+     */
+    @VisibleForTesting
+    @NonNull
+    Map<String, CombiPreference> buildPreferenceList(
+            @NonNull Context context,
+            @NonNull PreferenceGroup group,
+            @Nullable Map<String, CombiPreference> previousPrefs) {
         // Get the providers and extract the values.
         Pair<List<CombinedProviderInfo>, CombinedProviderInfo> providerPair = getProviders();
         CombinedProviderInfo topProvider = providerPair.second;
@@ -537,20 +602,43 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
                 continue;
             }
 
-            Drawable icon = combinedInfo.getAppIcon(context, getUser());
-            CharSequence title = combinedInfo.getAppName(context);
-
-            // Build the pref and add it to the output & group.
-            CombiPreference pref =
-                    addProviderPreference(
-                            context,
-                            title == null ? "" : title,
-                            icon,
-                            packageName,
-                            combinedInfo.getSettingsSubtitle(),
-                            combinedInfo.getSettingsActivity());
+            if (previousPrefs == null) {
+                Drawable icon = combinedInfo.getAppIcon(context, getUser());
+                CharSequence title = combinedInfo.getAppName(context);
+
+                // Build the pref and add it to the output & group.
+                CombiPreference pref =
+                        addProviderPreference(
+                                context,
+                                title == null ? "" : title,
+                                icon,
+                                packageName,
+                                combinedInfo.getSettingsSubtitle(),
+                                combinedInfo.getSettingsActivity());
+                output.put(packageName, pref);
+                group.addPreference(pref);
+                continue;
+            }
+
+            // Keep the pref already shown, a new one is added once its icon and name are loaded.
+            CombiPreference pref = previousPrefs.get(packageName);
+            final boolean isShown = pref != null;
+            if (isShown) {
+                pref.setSummary(combinedInfo.getSettingsSubtitle());
+                pref.setPreferenceListener(
+                        newPreferenceListener(packageName, combinedInfo.getSettingsActivity()));
+            } else {
+                pref =
+                        addProviderPreference(
+                                context,
+                                "",
+                                /* icon= */ null,
+                                packageName,
+                                combinedInfo.getSettingsSubtitle(),
+                                combinedInfo.getSettingsActivity());
+            }
             output.put(packageName, pref);
-            group.addPreference(pref);
+            loadProviderIconAndName(context, group, combinedInfo, pref, !isShown);
         }
 
         // Set the visibility if we have services.
@@ -559,6 +647,33 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
         return output;
     }
 
+    private void loadProviderIconAndName(
+            @NonNull Context context,
+            @NonNull PreferenceGroup group,
+            @NonNull CombinedProviderInfo combinedInfo,
+            @NonNull CombiPreference pref,
+            boolean addToGroup) {
+        final String packageName = combinedInfo.getApplicationInfo().packageName;
+        final int userId = getUser();
+        ThreadUtils.postOnBackgroundThread(
+                () -> {
+                    final Drawable icon = combinedInfo.getAppIcon(context, userId);
+                    final CharSequence title = combinedInfo.getAppName(context);
+                    mExecutor.execute(
+                            () -> {
+                                // Stop if the provider was removed in the meantime.
+                                if (mPrefs.get(packageName) != pref) {
+                                    return;
+                                }
+                                pref.setTitle(title == null ? "" : title);
+                                setProviderIcon(pref, icon);
+                                if (addToGroup) {
+                                    group.addPreference(pref);
+                                }
+                            });
+                });
+    }
+
     /** Creates a preference object based on the provider info. */
     @VisibleForTesting
     public CombiPreference createPreference(Context context, CredentialProviderInfo service) {
@@ -658,55 +773,61 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
                 new CombiPreference(prefContext, mEnabledPackageNames.contains(packageName));
         pref.setTitle(title);
         pref.setLayoutResource(R.layout.preference_icon_credman);
-
-        if (Flags.newSettingsUi()) {
-            pref.setIcon(processIcon(icon));
-        } else if (icon != null) {
-            pref.setIcon(icon);
-        }
+        setProviderIcon(pref, icon);
 
         if (subtitle != null) {
             pref.setSummary(subtitle);
         }
 
-        pref.setPreferenceListener(
-                new CombiPreference.OnCombiPreferenceClickListener() {
-                    @Override
-                    public boolean onCheckChanged(CombiPreference p, boolean isChecked) {
-                        if (isChecked) {
-                            if (hasProviderLimitBeenReached()) {
-                                // Show the error if too many enabled.
-                                final DialogFragment fragment = newErrorDialogFragment();
-
-                                if (fragment == null || mFragmentManager == null) {
-                                    return false;
-                                }
-
-                                fragment.show(mFragmentManager, ErrorDialogFragment.TAG);
-                                return false;
-                            }
+        pref.setPreferenceListener(newPreferenceListener(packageName, settingsActivity));
+        return pref;
+    }
 
-                            togglePackageNameEnabled(packageName);
+    private void setProviderIcon(@NonNull CombiPreference pref, @Nullable Drawable icon) {
+        if (Flags.newSettingsUi()) {
+            pref.setIcon(processIcon(icon));
+        } else if (icon != null) {
+            pref.setIcon(icon);
+        }
+    }
 
-                            // Enable all prefs.
-                            if (mPrefs.containsKey(packageName)) {
-                                mPrefs.get(packageName).setChecked(true);
-                            }
-                        } else {
-                            togglePackageNameDisabled(packageName);
+    private CombiPreference.OnCombiPreferenceClickListener newPreferenceListener(
+            @NonNull String packageName, @Nullable CharSequence settingsActivity) {
+        return new CombiPreference.OnCombiPreferenceClickListener() {
+            @Override
+            public boolean onCheckChanged(CombiPreference p, boolean isChecked) {
+                if (isChecked) {
+                    if (hasProviderLimitBeenReached()) {
+                        // Show the error if too many enabled.
+                        final DialogFragment fragment = newErrorDialogFragment();
+
+                        if (fragment == null || mFragmentManager == null) {
+                            return false;
                         }
 
-                        return true;
+                        fragment.show(mFragmentManager, ErrorDialogFragment.TAG);
+                        return false;
                     }
 
-                    @Override
-                    public void onLeftSideClicked() {
-                        CombinedProviderInfo.launchSettingsActivityIntent(
-                                mContext, packageName, settingsActivity, getUser());
+                    togglePackageNameEnabled(packageName);
+
+                    // Enable all prefs.
+                    if (mPrefs.containsKey(packageName)) {
+                        mPrefs.get(packageName).setChecked(true);
                     }
-                });
+                } else {
+                    togglePackageNameDisabled(packageName);
+                }
 
-        return pref;
+                return true;
+            }
+
+            @Override
+            public void onLeftSideClicked() {
+                CombinedProviderInfo.launchSettingsActivityIntent(
+                        mContext, packageName, settingsActivity, getUser());
+            }
+        };
     }
 
     private void commitEnabledPackages() {
@@ -736,7 +857,7 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
                     @Override
                     public void onResult(Void result) {
                         Log.i(TAG, "setEnabledProviders success");
-                        updateFromExternal();
+                        loadProvidersFromExternal();
                     }
 
                     @Override
@@ -858,17 +979,17 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
             new PackageMonitor() {
                 @Override
                 public void onPackageAdded(String packageName, int uid) {
-                    ThreadUtils.postOnMainThread(() -> updateFromExternal());
+                    scheduleUpdateFromExternal();
                 }
 
                 @Override
                 public void onPackageModified(String packageName) {
-                    ThreadUtils.postOnMainThread(() -> updateFromExternal());
+                    scheduleUpdateFromExternal();
                 }
 
                 @Override
                 public void onPackageRemoved(String packageName, int uid) {
-                    ThreadUtils.postOnMainThread(() -> updateFromExternal());
+                    scheduleUpdateFromExternal();
                 }
             };
 
@@ -1001,7 +1122,7 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
 
         @Override
         public void onChange(boolean selfChange, Uri uri) {
-            updateFromExternal();
+            scheduleUpdateFromExternal();
         }
     }
 
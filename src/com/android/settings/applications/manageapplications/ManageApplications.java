@@ -135,6 +135,7 @@ import com.android.settings.applications.AppStorageSettings;
 import com.android.settings.applications.UsageAccessDetails;
 import com.android.settings.applications.appinfo.AlarmsAndRemindersDetails;
 import com.android.settings.applications.appinfo.AppInfoDashboardFragment;
+import com.android.settings.applications.appinfo.AppInfoPrefetcher;
 import com.android.settings.applications.appinfo.AppLocaleDetails;
 import com.android.settings.applications.appinfo.DrawOverlayDetails;
 import com.android.settings.applications.appinfo.ExternalSourcesDetails;
@@ -645,6 +646,8 @@ public class ManageApplications extends InstrumentedFragment
     @Override
     public void onActivityResult(int requestCode, int resultCode, Intent data) {
         if (requestCode == INSTALLED_APP_DETAILS && mCurrentPkgName != null) {
+            AppInfoPrefetcher.getInstance().invalidate(mCurrentPkgName,
+                    UserHandle.getUserId(mCurrentUid));
             if (mListType == LIST_TYPE_NOTIFICATION || mListType == LIST_TYPE_HIGH_POWER
                     || mListType == LIST_TYPE_OVERLAY || mListType == LIST_TYPE_WRITE_SETTINGS
                     || mListType == LIST_TYPE_NFC_TAG_APPS) {
@@ -756,6 +759,9 @@ public class ManageApplications extends InstrumentedFragment
             // process ahead of time, to avoid a long load of data when user clicks on a managed
             // app. Maybe when they load the list of apps that contains managed profile apps.
             default:
+                // Warm the data of the app info controllers while the page is being created.
+                AppInfoPrefetcher.getInstance().prefetch(getContext(), mCurrentPkgName,
+                        mCurrentUid);
                 startAppInfoFragment(
                         AppInfoDashboardFragment.class, R.string.application_info_label);
                 break;
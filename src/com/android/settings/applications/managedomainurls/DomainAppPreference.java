@@ -17,29 +17,36 @@
 package com.android.settings.applications.managedomainurls;
 
 import android.content.Context;
-import android.content.pm.verify.domain.DomainVerificationManager;
-import android.content.pm.verify.domain.DomainVerificationUserState;
 import android.graphics.drawable.Drawable;
 
+import androidx.annotation.Nullable;
 import androidx.preference.PreferenceViewHolder;
 
 import com.android.settings.R;
-import com.android.settings.applications.intentpicker.IntentPickerUtils;
 import com.android.settingslib.applications.AppUtils;
 import com.android.settingslib.applications.ApplicationsState.AppEntry;
 import com.android.settingslib.utils.ThreadUtils;
 import com.android.settingslib.widget.AppPreference;
 
+import java.util.Objects;
+import java.util.concurrent.Future;
+
+/**
+ * An app row of the Opening links list. Its link handling state is loaded for all rows at once by
+ * {@link DomainAppPreferenceController}.
+ */
 public class DomainAppPreference extends AppPreference {
 
     private Drawable mCacheIcon;
+    @Nullable
+    private Boolean mLinkHandlingAllowed;
+    @Nullable
+    private Future<?> mIconLoadTask;
 
     private final AppEntry mEntry;
-    private final DomainVerificationManager mDomainVerificationManager;
 
     public DomainAppPreference(final Context context, AppEntry entry) {
         super(context);
-        mDomainVerificationManager = context.getSystemService(DomainVerificationManager.class);
         mEntry = entry;
         mEntry.ensureLabel(getContext());
         mCacheIcon = AppUtils.getIconFromCache(mEntry);
@@ -55,6 +62,15 @@ public class DomainAppPreference extends AppPreference {
         return mEntry;
     }
 
+    /** Sets whether the app may open its links, {@code null} while it is being loaded. */
+    public void setLinkHandlingAllowed(@Nullable Boolean allowed) {
+        if (Objects.equals(allowed, mLinkHandlingAllowed)) {
+            return;
+        }
+        mLinkHandlingAllowed = allowed;
+        setSummary(getDomainsSummary());
+    }
+
     private void setState() {
         setTitle(mEntry.label);
 
@@ -63,27 +79,29 @@ public class DomainAppPreference extends AppPreference {
         } else {
             setIcon(R.drawable.empty_icon);
         }
-        setSummary(getDomainsSummary(mEntry.info.packageName));
+        setSummary(getDomainsSummary());
     }
 
-    private CharSequence getDomainsSummary(String packageName) {
-        return getContext().getText(isLinkHandlingAllowed(packageName)
+    private CharSequence getDomainsSummary() {
+        if (mLinkHandlingAllowed == null) {
+            // Keeps the row height stable until the state is loaded.
+            return getContext().getText(R.string.summary_placeholder);
+        }
+        return getContext().getText(mLinkHandlingAllowed
                 ? R.string.app_link_open_always : R.string.app_link_open_never);
     }
 
-    private boolean isLinkHandlingAllowed(String packageName) {
-        final DomainVerificationUserState userState =
-                IntentPickerUtils.getDomainVerificationUserState(mDomainVerificationManager,
-                        packageName);
-        return userState == null ? false : userState.isLinkHandlingAllowed();
-    }
-
     @Override
     public void onBindViewHolder(PreferenceViewHolder view) {
-        if (mCacheIcon == null) {
-            ThreadUtils.postOnBackgroundThread(() -> {
+        // Rows are bound again while scrolling, load the icon only once.
+        if (mCacheIcon == null && mIconLoadTask == null) {
+            mIconLoadTask = ThreadUtils.postOnBackgroundThread(() -> {
                 final Drawable icon = AppUtils.getIcon(getContext(), mEntry);
                 ThreadUtils.postOnMainThread(() -> {
+                    if (mIconLoadTask == null) {
+                        return;
+                    }
+                    mIconLoadTask = null;
                     setIcon(icon);
                     mCacheIcon = icon;
                 });
@@ -91,4 +109,14 @@ public class DomainAppPreference extends AppPreference {
         }
         super.onBindViewHolder(view);
     }
+
+    @Override
+    public void onDetached() {
+        // The row was removed from the list, its icon is not needed anymore.
+        if (mIconLoadTask != null) {
+            mIconLoadTask.cancel(/* mayInterruptIfRunning= */ false);
+            mIconLoadTask = null;
+        }
+        super.onDetached();
+    }
 }
@@ -18,9 +18,12 @@ package com.android.settings.applications.managedomainurls;
 
 import android.app.Application;
 import android.content.Context;
+import android.content.pm.verify.domain.DomainVerificationManager;
+import android.content.pm.verify.domain.DomainVerificationUserState;
 import android.text.TextUtils;
 import android.util.ArrayMap;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceGroup;
 import androidx.preference.PreferenceScreen;
@@ -28,12 +31,15 @@ import androidx.preference.PreferenceScreen;
 import com.android.settings.R;
 import com.android.settings.applications.AppInfoBase;
 import com.android.settings.applications.intentpicker.AppLaunchSettings;
+import com.android.settings.applications.intentpicker.IntentPickerUtils;
 import com.android.settings.core.BasePreferenceController;
 import com.android.settingslib.applications.AppUtils;
 import com.android.settingslib.applications.ApplicationsState;
 import com.android.settingslib.applications.ApplicationsState.AppEntry;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public class DomainAppPreferenceController extends BasePreferenceController implements
@@ -48,6 +54,9 @@ public class DomainAppPreferenceController extends BasePreferenceController impl
     private ManageDomainUrls mFragment;
     private PreferenceGroup mDomainAppList;
     private Map<String, Preference> mPreferenceCache;
+    // Last loaded link handling state by package, shown while a rebuild reloads it.
+    private final Map<String, Boolean> mLinkHandlingAllowed = new ArrayMap<>();
+    private int mLinkStateGeneration;
 
     public DomainAppPreferenceController(Context context, String key) {
         super(context, key);
@@ -172,8 +181,52 @@ public class DomainAppPreferenceController extends BasePreferenceController impl
             } else {
                 preference.reuse();
             }
+            preference.setLinkHandlingAllowed(mLinkHandlingAllowed.get(entry.info.packageName));
             preference.setOrder(i);
         }
         removeCachedPrefs(group);
+        loadLinkHandlingStates(group, apps);
+    }
+
+    /**
+     * Loads the link handling state of every listed app in one background pass. Rebuilds follow
+     * package changes and returning from an app's link settings, so each of them reloads it.
+     */
+    private void loadLinkHandlingStates(PreferenceGroup group, List<AppEntry> apps) {
+        final int generation = ++mLinkStateGeneration;
+        final List<String> packageNames = new ArrayList<>(apps.size());
+        for (AppEntry entry : apps) {
+            packageNames.add(entry.info.packageName);
+        }
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final Map<String, Boolean> states = loadLinkHandlingStates(packageNames);
+            ThreadUtils.postOnMainThread(() -> {
+                if (generation != mLinkStateGeneration) {
+                    return; // A newer rebuild is loading.
+                }
+                mLinkHandlingAllowed.clear();
+                mLinkHandlingAllowed.putAll(states);
+                final int count = group.getPreferenceCount();
+                for (int i = 0; i < count; i++) {
+                    if (group.getPreference(i) instanceof DomainAppPreference preference) {
+                        preference.setLinkHandlingAllowed(
+                                states.get(preference.getEntry().info.packageName));
+                    }
+                }
+            });
+        });
+    }
+
+    @VisibleForTesting
+    Map<String, Boolean> loadLinkHandlingStates(List<String> packageNames) {
+        final DomainVerificationManager manager =
+                mContext.getSystemService(DomainVerificationManager.class);
+        final Map<String, Boolean> states = new ArrayMap<>(packageNames.size());
+        for (String packageName : packageNames) {
+            final DomainVerificationUserState userState =
+                    IntentPickerUtils.getDomainVerificationUserState(manager, packageName);
+            states.put(packageName, userState != null && userState.isLinkHandlingAllowed());
+        }
+        return states;
     }
 }
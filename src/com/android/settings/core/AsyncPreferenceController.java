@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceScreen;
+
+import com.android.settingslib.core.lifecycle.LifecycleObserver;
+import com.android.settingslib.core.lifecycle.events.OnStart;
+import com.android.settingslib.core.lifecycle.events.OnStop;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This controller is targeted at controllers whose state is time consuming to load.
+ *
+ * <p>The state is loaded by {@link #loadInBackground()} on a small executor shared by all these
+ * controllers, and applied to the preference on the main thread by {@link #updateState}. A load
+ * starts when the page starts and on {@link #refresh()}; refreshes requested while a load is
+ * running are coalesced into one more load after it. Loads are cancelled when the page stops, so
+ * they don't compete with the work of the next page.
+ *
+ * @param <T> the type of the state of the preference
+ */
+public abstract class AsyncPreferenceController<T> extends BasePreferenceController
+        implements LifecycleObserver, OnStart, OnStop {
+
+    private static final String TAG = "AsyncPrefController";
+
+    private static final int POOL_SIZE = 2;
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private static ExecutorService sExecutor;
+
+    private final ExecutorService mExecutor;
+
+    private Preference mPreference;
+    private T mState;
+    private boolean mStarted;
+    private boolean mRefreshPending;
+    // Increased for every load and when the page stops, so only the latest load is applied.
+    private int mGeneration;
+    private Future<?> mLoad;
+
+    public AsyncPreferenceController(Context context, String preferenceKey) {
+        this(context, preferenceKey, getSharedExecutor());
+    }
+
+    @VisibleForTesting
+    AsyncPreferenceController(Context context, String preferenceKey, ExecutorService executor) {
+        super(context, preferenceKey);
+        mExecutor = executor;
+    }
+
+    private static synchronized ExecutorService getSharedExecutor() {
+        if (sExecutor == null) {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> new Thread(() -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }, TAG));
+            executor.allowCoreThreadTimeOut(true);
+            sExecutor = executor;
+        }
+        return sExecutor;
+    }
+
+    /**
+     * Execute the time consuming work, and return the state to apply to the preference. Loads
+     * are interrupted when they are cancelled.
+     */
+    @WorkerThread
+    @NonNull
+    protected abstract T loadInBackground();
+
+    /** Apply the latest loaded {@code state} to {@code preference}. */
+    @MainThread
+    protected abstract void updateState(@NonNull Preference preference, @NonNull T state);
+
+    @Override
+    public void displayPreference(PreferenceScreen screen) {
+        super.displayPreference(screen);
+        mPreference = screen.findPreference(getPreferenceKey());
+    }
+
+    @Override
+    public void onStart() {
+        mStarted = true;
+        refresh();
+    }
+
+    @Override
+    public void onStop() {
+        mStarted = false;
+        mRefreshPending = false;
+        mGeneration++;
+        if (mLoad != null) {
+            mLoad.cancel(true /* mayInterruptIfRunning */);
+            mLoad = null;
+        }
+    }
+
+    @Override
+    public void updateState(Preference preference) {
+        super.updateState(preference);
+        if (preference != null && mState != null) {
+            updateState(preference, mState);
+        }
+    }
+
+    /** Returns the latest loaded state, or {@code null} if none was loaded yet. */
+    @Nullable
+    protected final T getState() {
+        return mState;
+    }
+
+    /**
+     * Load the state again while the page is started and the preference is available. If a load
+     * is already running, one more load runs after it, however many times this is called in the
+     * meantime.
+     */
+    @MainThread
+    public final void refresh() {
+        if (!mStarted || !isAvailable()) {
+            return;
+        }
+        if (mLoad != null) {
+            mRefreshPending = true;
+            return;
+        }
+        final int generation = ++mGeneration;
+        mLoad = mExecutor.submit(() -> {
+            T state = null;
+            try {
+                state = loadInBackground();
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Failed to load the state of " + getPreferenceKey(), e);
+            }
+            final T loadedState = state;
+            ThreadUtils.postOnMainThread(() -> onLoaded(generation, loadedState));
+        });
+    }
+
+    private void onLoaded(int generation, @Nullable T state) {
+        if (generation != mGeneration) {
+            return;
+        }
+        mLoad = null;
+        if (state != null) {
+            mState = state;
+            if (mPreference != null) {
+                updateState(mPreference);
+            }
+        }
+        if (mRefreshPending) {
+            mRefreshPending = false;
+            refresh();
+        }
+    }
+}
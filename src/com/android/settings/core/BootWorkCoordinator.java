@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.ArrayMap;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs the work Settings receivers do on boot and user initialization on a single background
+ * thread, one task after the other in the order they were handed over, instead of each receiver
+ * doing it on the main thread at the same time.
+ *
+ * <p>Receivers hand their tasks over with {@link #runAsync}, which keeps the broadcast alive with
+ * {@link BroadcastReceiver#goAsync()} until they are done. The elapsed and CPU time of every task
+ * is logged and kept for the {@link com.android.settings.SettingsDumpService} dump.
+ */
+public class BootWorkCoordinator {
+    private static final String TAG = "BootWorkCoordinator";
+
+    private static BootWorkCoordinator sInstance;
+
+    private final Executor mExecutor;
+    // Guarded by this.
+    private final Map<String, TaskCost> mTaskCosts = new ArrayMap<>();
+
+    public static synchronized BootWorkCoordinator getInstance() {
+        if (sInstance == null) {
+            sInstance = new BootWorkCoordinator(Executors.newSingleThreadExecutor());
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    BootWorkCoordinator(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /** A unit of boot work. */
+    public static final class Task {
+        final String mName;
+        final Consumer<Context> mWork;
+
+        /**
+         * @param name unique name of the task, used for cost records
+         * @param work the work itself, run on a background thread
+         */
+        public Task(@NonNull String name, @NonNull Consumer<Context> work) {
+            mName = name;
+            mWork = work;
+        }
+    }
+
+    /**
+     * Runs {@code tasks} in the background, keeping the broadcast {@code receiver} is handling
+     * alive until they are done. Must be called from {@link BroadcastReceiver#onReceive}.
+     *
+     * <p>If the broadcast cannot be kept alive, e.g. when {@code onReceive} is called directly,
+     * the tasks run right away on the calling thread.
+     */
+    public void runAsync(BroadcastReceiver receiver, Context context, Task... tasks) {
+        final BroadcastReceiver.PendingResult result = receiver.goAsync();
+        if (result == null) {
+            for (Task task : tasks) {
+                runTask(task, context);
+            }
+            return;
+        }
+        enqueue(context, result::finish, tasks);
+    }
+
+    /** Queues {@code tasks} for the background thread, running {@code onDone} after the last. */
+    @VisibleForTesting
+    void enqueue(Context context, Runnable onDone, Task... tasks) {
+        if (tasks.length == 0) {
+            onDone.run();
+            return;
+        }
+        final Batch batch = new Batch(onDone, tasks.length);
+        for (Task task : tasks) {
+            mExecutor.execute(() -> {
+                runTask(task, context);
+                batch.onTaskDone();
+            });
+        }
+    }
+
+    /** Returns the elapsed and CPU time in milliseconds of the tasks run so far, by name. */
+    public synchronized Map<String, long[]> getTaskCosts() {
+        final Map<String, long[]> costs = new ArrayMap<>(mTaskCosts.size());
+        for (Map.Entry<String, TaskCost> entry : mTaskCosts.entrySet()) {
+            costs.put(entry.getKey(),
+                    new long[] {entry.getValue().mElapsedMs, entry.getValue().mCpuMs});
+        }
+        return costs;
+    }
+
+    private void runTask(Task task, Context context) {
+        final long startTime = SystemClock.elapsedRealtime();
+        final long startCpuTime = SystemClock.currentThreadTimeMillis();
+        try {
+            task.mWork.accept(context);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Boot task failed: " + task.mName, e);
+        }
+        final TaskCost cost = new TaskCost(SystemClock.elapsedRealtime() - startTime,
+                SystemClock.currentThreadTimeMillis() - startCpuTime);
+        Log.i(TAG, task.mName + " took " + cost.mElapsedMs + "ms, cpu " + cost.mCpuMs + "ms");
+        synchronized (this) {
+            mTaskCosts.put(task.mName, cost);
+        }
+    }
+
+    private static final class TaskCost {
+        final long mElapsedMs;
+        final long mCpuMs;
+
+        TaskCost(long elapsedMs, long cpuMs) {
+            mElapsedMs = elapsedMs;
+            mCpuMs = cpuMs;
+        }
+    }
+
+    /** The tasks handed over by one broadcast, finishing it once they all ran. */
+    private static final class Batch {
+        private final Runnable mOnDone;
+        private int mRemaining;
+
+        Batch(Runnable onDone, int count) {
+            mOnDone = onDone;
+            mRemaining = count;
+        }
+
+        synchronized void onTaskDone() {
+            if (--mRemaining == 0) {
+                mOnDone.run();
+            }
+        }
+    }
+}
@@ -27,15 +27,13 @@ import androidx.preference.PreferenceScreen;
 import com.android.settings.R;
 import com.android.settings.applications.ProcStatsData;
 import com.android.settings.applications.ProcessStatsBase;
-import com.android.settings.core.BasePreferenceController;
+import com.android.settings.core.AsyncPreferenceController;
 import com.android.settings.core.PreferenceControllerMixin;
-import com.android.settingslib.utils.ThreadUtils;
 
-public class TotalRAMPreferenceController extends BasePreferenceController implements
+public class TotalRAMPreferenceController extends AsyncPreferenceController<String> implements
         PreferenceControllerMixin {
 
     private ProcStatsData mProcStatsData;
-    private PreferenceScreen mPreferenceScreen;
 
     public TotalRAMPreferenceController(Context context, String preferenceKey) {
         super(context, preferenceKey);
@@ -52,22 +50,20 @@ public class TotalRAMPreferenceController extends BasePreferenceController imple
         super.displayPreference(screen);
 
         mProcStatsData = getProcStatsData();
-        mPreferenceScreen = screen;
         setDuration();
     }
 
     @Override
-    public void updateState(Preference preference) {
-        // This is posted on the background thread to speed up fragment launch time for dev options
+    protected String loadInBackground() {
         // mProcStasData.refreshStats(true) takes ~20ms to run.
-        ThreadUtils.postOnBackgroundThread(() -> {
-            mProcStatsData.refreshStats(true);
-            final ProcStatsData.MemInfo memInfo = mProcStatsData.getMemInfo();
-            final String totalResult = Formatter.formatShortFileSize(mContext,
-                    (long) memInfo.realTotalRam);
-            ThreadUtils.postOnMainThread(
-                    () -> mPreferenceScreen.findPreference(mPreferenceKey).setSummary(totalResult));
-        });
+        mProcStatsData.refreshStats(true);
+        final ProcStatsData.MemInfo memInfo = mProcStatsData.getMemInfo();
+        return Formatter.formatShortFileSize(mContext, (long) memInfo.realTotalRam);
+    }
+
+    @Override
+    protected void updateState(Preference preference, String totalResult) {
+        preference.setSummary(totalResult);
     }
 
     @VisibleForTesting
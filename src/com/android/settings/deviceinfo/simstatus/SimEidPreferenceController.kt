@@ -31,9 +31,9 @@ import com.android.settings.R
 import com.android.settings.core.BasePreferenceController
 import com.android.settings.deviceinfo.PhoneNumberUtil
 import com.android.settings.network.SubscriptionUtil
+import com.android.settings.utils.QrCodeRenderer
 import com.android.settingslib.CustomDialogPreferenceCompat
 import com.android.settingslib.Utils
-import com.android.settingslib.qrcode.QrCodeGenerator
 import com.android.settingslib.spaprivileged.framework.common.userManager
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
@@ -160,7 +160,7 @@ class SimEidPreferenceController(context: Context, preferenceKey: String) :
          */
         private suspend fun getEidQrCode(eid: String): Bitmap? = withContext(Dispatchers.Default) {
             try {
-                QrCodeGenerator.encodeQrCode(contents = eid, size = QR_CODE_SIZE)
+                QrCodeRenderer.getInstance().encode(eid, QR_CODE_SIZE)
             } catch (exception: Exception) {
                 Log.w(TAG, "Error when creating QR code width $QR_CODE_SIZE", exception)
                 null
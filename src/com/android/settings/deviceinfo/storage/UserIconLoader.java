@@ -23,7 +23,7 @@ import android.os.UserManager;
 import android.util.SparseArray;
 
 import com.android.internal.util.Preconditions;
-import com.android.settings.Utils;
+import com.android.settings.users.UserAvatarCache;
 import com.android.settingslib.utils.AsyncLoaderCompat;
 
 /**
@@ -61,13 +61,15 @@ public class UserIconLoader extends AsyncLoaderCompat<SparseArray<Drawable>> {
 
     /**
      * Loads the user icons using a given context. This returns a {@link SparseArray} which maps
-     * user ids to their user icons.
+     * user ids to their user icons. Decoded icons are shared with the Users page through
+     * {@link UserAvatarCache}.
      */
     public static SparseArray<Drawable> loadUserIconsWithContext(Context context) {
         SparseArray<Drawable> value = new SparseArray<>();
         UserManager um = context.getSystemService(UserManager.class);
+        UserAvatarCache avatarCache = UserAvatarCache.getInstance(context);
         for (UserInfo userInfo : um.getUsers()) {
-            value.put(userInfo.id, Utils.getUserIcon(context, um, userInfo));
+            value.put(userInfo.id, avatarCache.getUserIconDrawable(context, userInfo));
         }
         return value;
     }
@@ -17,36 +17,34 @@ package com.android.settings.display;
 import static android.provider.Settings.System.SCREEN_BRIGHTNESS_MODE;
 
 import android.content.Context;
-import android.database.ContentObserver;
-import android.os.Handler;
-import android.os.Looper;
-import android.os.UserHandle;
+import android.net.Uri;
 import android.provider.Settings;
 
+import androidx.core.content.ContextCompat;
+
+import com.android.settings.utils.SettingsObserverMultiplexer;
+
 public class AutoBrightnessObserver {
-    private final ContentObserver mContentObserver;
+    private static final Uri SCREEN_BRIGHTNESS_MODE_URI =
+            Settings.System.getUriFor(SCREEN_BRIGHTNESS_MODE);
+
+    private final SettingsObserverMultiplexer.Subscriber mSubscriber;
     private final Context mContext;
     private Runnable mCallback;
 
     public AutoBrightnessObserver(Context context) {
         mContext = context;
-        mContentObserver = new ContentObserver(new Handler(Looper.getMainLooper())) {
-            @Override
-            public void onChange(boolean selfChange) {
-                super.onChange(selfChange);
-                mCallback.run();
-            }
-        };
+        mSubscriber = uri -> mCallback.run();
     }
 
     public void subscribe(Runnable callback) {
         mCallback = callback;
-        mContext.getContentResolver().registerContentObserver(
-                Settings.System.getUriFor(SCREEN_BRIGHTNESS_MODE),
-                false, mContentObserver);
+        SettingsObserverMultiplexer.getInstance(mContext).subscribe(SCREEN_BRIGHTNESS_MODE_URI,
+                ContextCompat.getMainExecutor(mContext), mSubscriber);
     }
 
     public void unsubscribe() {
-        mContext.getContentResolver().unregisterContentObserver(mContentObserver);
+        SettingsObserverMultiplexer.getInstance(mContext).unsubscribe(SCREEN_BRIGHTNESS_MODE_URI,
+                mSubscriber);
     }
 }
@@ -19,6 +19,8 @@ import android.animation.Animator;
 import android.animation.Animator.AnimatorListener;
 import android.content.Context;
 import android.content.res.Configuration;
+import android.os.Looper;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewStub;
@@ -28,11 +30,16 @@ import android.view.animation.Interpolator;
 import android.widget.FrameLayout;
 import android.widget.LinearLayout;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.viewpager.widget.PagerAdapter;
 
 /**
  * A PagerAdapter used by PreviewSeekBarPreferenceFragment that for showing multiple preview screen
  * regarding a single setting and allowing the user to swipe across them.
+ *
+ * <p>Each frame holds one layer per configuration, inflated on demand. Only the layer shown on the
+ * current frame is inflated right away; the same layer of the other frames and the layers one
+ * step away on the slider are inflated when the main thread becomes idle.
  */
 public class PreviewPagerAdapter extends PagerAdapter {
 
@@ -55,9 +62,27 @@ public class PreviewPagerAdapter extends PagerAdapter {
 
     private boolean[][] mViewStubInflated;
 
+    private final Context mContext;
+
+    private final Configuration[] mConfigurations;
+
+    /** Created on first use and shared by the frames, see {@link #getConfigurationContext}. */
+    private final Context[] mConfigurationContexts;
+
+    private int[] mAdjacentLayerOffsets = {-1, 1};
+
+    private int mVisibleLayerIndex = -1;
+
+    private int mCurrentFrameIndex;
+
+    private boolean mIdleInflationScheduled;
+
     public PreviewPagerAdapter(Context context, boolean isLayoutRtl,
             int[] previewSampleResIds, Configuration[] configurations) {
         mIsLayoutRtl = isLayoutRtl;
+        mContext = context;
+        mConfigurations = configurations;
+        mConfigurationContexts = new Context[configurations.length];
         mPreviewFrames = new FrameLayout[previewSampleResIds.length];
         mViewStubInflated = new boolean[previewSampleResIds.length][configurations.length];
 
@@ -70,17 +95,13 @@ public class PreviewPagerAdapter extends PagerAdapter {
             mPreviewFrames[p].setClipToPadding(true);
             mPreviewFrames[p].setClipChildren(true);
             for (int j = 0; j < configurations.length; ++j) {
-                // Create a new configuration for the specified value. It won't
-                // have any theme set, so manually apply the current theme.
-                final Context configContext = context.createConfigurationContext(configurations[j]);
-                configContext.getTheme().setTo(context.getTheme());
-
-                final ViewStub sampleViewStub = new ViewStub(configContext);
+                // The stub is inflated with the context of its configuration, see inflateLayer().
+                final ViewStub sampleViewStub = new ViewStub(context);
                 sampleViewStub.setLayoutResource(previewSampleResIds[i]);
-                final int fi = i, fj = j;
+                final int fp = p, fj = j;
                 sampleViewStub.setOnInflateListener((stub, inflated) -> {
                     inflated.setVisibility(stub.getVisibility());
-                    mViewStubInflated[fi][fj] = true;
+                    mViewStubInflated[fp][fj] = true;
                 });
 
                 mPreviewFrames[p].addView(sampleViewStub);
@@ -117,6 +138,14 @@ public class PreviewPagerAdapter extends PagerAdapter {
         mAnimationEndAction = action;
     }
 
+    /**
+     * Sets the layers to pre-inflate around the visible one, as offsets of its index. Defaults to
+     * the previous and the next layer.
+     */
+    public void setAdjacentLayerOffsets(int... offsets) {
+        mAdjacentLayerOffsets = offsets;
+    }
+
     /**
      * Switches the sample layouts for the preview pager.
      *
@@ -127,33 +156,89 @@ public class PreviewPagerAdapter extends PagerAdapter {
      */
     public void setPreviewLayer(int newLayerIndex, int currentLayerIndex, int currentFrameIndex,
             final boolean animate) {
-        for (FrameLayout previewFrame : mPreviewFrames) {
-            if (currentLayerIndex >= 0) {
-                final View lastLayer = previewFrame.getChildAt(currentLayerIndex);
-                if (mViewStubInflated[currentFrameIndex][currentLayerIndex]) {
-                    // Explicitly set to INVISIBLE only when the stub has
-                    // already been inflated.
-                    if (previewFrame == mPreviewFrames[currentFrameIndex]) {
-                        setVisibility(lastLayer, View.INVISIBLE, animate);
-                    } else {
-                        setVisibility(lastLayer, View.INVISIBLE, false);
-                    }
-                }
+        for (int frameIndex = 0; frameIndex < mPreviewFrames.length; ++frameIndex) {
+            final FrameLayout previewFrame = mPreviewFrames[frameIndex];
+            final boolean isCurrentFrame = frameIndex == currentFrameIndex;
+            // Explicitly set to INVISIBLE only when the stub has already been inflated, doing so
+            // on a stub would inflate it.
+            if (currentLayerIndex >= 0 && mViewStubInflated[frameIndex][currentLayerIndex]) {
+                setVisibility(previewFrame.getChildAt(currentLayerIndex), View.INVISIBLE,
+                        animate && isCurrentFrame);
             }
 
-            // Set next layer visible, as well as inflate necessary views.
-            View nextLayer = previewFrame.getChildAt(newLayerIndex);
-            if (previewFrame == mPreviewFrames[currentFrameIndex]) {
-                // Inflate immediately if the stub has not yet been inflated.
-                if (!mViewStubInflated[currentFrameIndex][newLayerIndex]) {
-                    nextLayer = ((ViewStub) nextLayer).inflate();
-                    nextLayer.setAlpha(0.0f);
-                }
+            if (mViewStubInflated[frameIndex][newLayerIndex]) {
+                setVisibility(previewFrame.getChildAt(newLayerIndex), View.VISIBLE,
+                        animate && isCurrentFrame);
+            } else if (isCurrentFrame) {
+                // Inflate immediately, the other frames are not shown and can wait.
+                final View nextLayer = inflateLayer(frameIndex, newLayerIndex);
+                nextLayer.setAlpha(0.0f);
                 setVisibility(nextLayer, View.VISIBLE, animate);
-            } else {
-                setVisibility(nextLayer, View.VISIBLE, false);
             }
         }
+        mVisibleLayerIndex = newLayerIndex;
+        mCurrentFrameIndex = currentFrameIndex;
+        scheduleIdleInflation();
+    }
+
+    @VisibleForTesting
+    boolean isLayerInflated(int frameIndex, int layerIndex) {
+        return mViewStubInflated[frameIndex][layerIndex];
+    }
+
+    private View inflateLayer(int frameIndex, int layerIndex) {
+        final ViewStub stub = (ViewStub) mPreviewFrames[frameIndex].getChildAt(layerIndex);
+        stub.setLayoutInflater(LayoutInflater.from(getConfigurationContext(layerIndex)));
+        return stub.inflate();
+    }
+
+    private Context getConfigurationContext(int layerIndex) {
+        if (mConfigurationContexts[layerIndex] == null) {
+            // Create a new configuration for the specified value. It won't
+            // have any theme set, so manually apply the current theme.
+            final Context configContext =
+                    mContext.createConfigurationContext(mConfigurations[layerIndex]);
+            configContext.getTheme().setTo(mContext.getTheme());
+            mConfigurationContexts[layerIndex] = configContext;
+        }
+        return mConfigurationContexts[layerIndex];
+    }
+
+    private void scheduleIdleInflation() {
+        if (mIdleInflationScheduled) {
+            return;
+        }
+        mIdleInflationScheduled = true;
+        // One layer per idle pass, so that a slider drag is never blocked for long.
+        Looper.getMainLooper().getQueue().addIdleHandler(() -> {
+            mIdleInflationScheduled = inflateNextPendingLayer();
+            return mIdleInflationScheduled;
+        });
+    }
+
+    /** Inflates the most needed layer not inflated yet, returns false if there is none. */
+    @VisibleForTesting
+    boolean inflateNextPendingLayer() {
+        if (mVisibleLayerIndex < 0) {
+            return false;
+        }
+        // The pages next to the current one can be swiped to at any time.
+        for (int frameIndex = 0; frameIndex < mPreviewFrames.length; ++frameIndex) {
+            if (!mViewStubInflated[frameIndex][mVisibleLayerIndex]) {
+                setVisibility(inflateLayer(frameIndex, mVisibleLayerIndex), View.VISIBLE, false);
+                return true;
+            }
+        }
+        for (int offset : mAdjacentLayerOffsets) {
+            final int layerIndex = mVisibleLayerIndex + offset;
+            if (layerIndex >= 0 && layerIndex < mConfigurations.length
+                    && !mViewStubInflated[mCurrentFrameIndex][layerIndex]) {
+                // Stays hidden, like the stub it replaces, and transparent so that it fades in.
+                inflateLayer(mCurrentFrameIndex, layerIndex).setAlpha(0.0f);
+                return true;
+            }
+        }
+        return false;
     }
 
     private void setVisibility(final View view, final int visibility, boolean animate) {
@@ -138,27 +138,35 @@ public class BatteryBroadcastReceiver extends BroadcastReceiver {
                             + batteryHealth);
             if (!Utils.isBatteryPresent(intent)) {
                 Log.w(TAG, "Problem reading the battery meter.");
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_NOT_PRESENT);
+                notifyBatteryChanged(forceUpdate, BatteryUpdateType.BATTERY_NOT_PRESENT);
             } else if (forceUpdate) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.MANUAL);
+                notifyBatteryChanged(forceUpdate, BatteryUpdateType.MANUAL);
             } else if (chargingStatus != mChargingStatus) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.CHARGING_STATUS);
+                notifyBatteryChanged(forceUpdate, BatteryUpdateType.CHARGING_STATUS);
             } else if (batteryHealth != mBatteryHealth) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_HEALTH);
+                notifyBatteryChanged(forceUpdate, BatteryUpdateType.BATTERY_HEALTH);
             } else if (!batteryLevel.equals(mBatteryLevel)) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_LEVEL);
+                notifyBatteryChanged(forceUpdate, BatteryUpdateType.BATTERY_LEVEL);
             } else if (!batteryStatus.equals(mBatteryStatus)) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_STATUS);
+                notifyBatteryChanged(forceUpdate, BatteryUpdateType.BATTERY_STATUS);
             }
             mBatteryLevel = batteryLevel;
             mBatteryStatus = batteryStatus;
             mChargingStatus = chargingStatus;
             mBatteryHealth = batteryHealth;
         } else if (PowerManager.ACTION_POWER_SAVE_MODE_CHANGED.equals(action)) {
-            mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_SAVER);
+            notifyBatteryChanged(forceUpdate, BatteryUpdateType.BATTERY_SAVER);
         } else if (BatteryUtils.BYPASS_DOCK_DEFENDER_ACTION.equals(action)
                 || UsbManager.ACTION_USB_PORT_COMPLIANCE_CHANGED.equals(action)) {
-            mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_STATUS);
+            notifyBatteryChanged(forceUpdate, BatteryUpdateType.BATTERY_STATUS);
         }
     }
+
+    private void notifyBatteryChanged(boolean forceUpdate, @BatteryUpdateType int type) {
+        if (!forceUpdate) {
+            // The shared stats predate the change, the reloads triggered by it must not reuse them.
+            BatteryUsageStatsBroker.getInstance().invalidate();
+        }
+        mBatteryListener.onBatteryChanged(type);
+    }
 }
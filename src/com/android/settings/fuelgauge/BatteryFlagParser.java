@@ -41,6 +41,16 @@ public class BatteryFlagParser implements BatteryInfo.BatteryDataParser, Battery
         return ((mState2 ? record.states2 : record.states) & mFlag) != 0;
     }
 
+    @Override
+    public int getStatesMask() {
+        return mState2 ? 0 : mFlag;
+    }
+
+    @Override
+    public int getStates2Mask() {
+        return mState2 ? mFlag : 0;
+    }
+
     @Override
     public void onParsingStarted(long startTime, long endTime) {
         mLength = endTime - startTime;
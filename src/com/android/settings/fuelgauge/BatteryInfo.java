@@ -42,8 +42,16 @@ import com.android.settingslib.fuelgauge.EstimateKt;
 import com.android.settingslib.utils.PowerUtil;
 import com.android.settingslib.utils.StringUtil;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
 public class BatteryInfo {
     private static final String TAG = "BatteryInfo";
+    // Time slices used for the history graph before its width is known.
+    private static final int DEFAULT_HISTORY_BUCKETS = 1000;
+
+    // Guarded by BatteryInfo.class.
+    private static DecimatedHistory sDecimatedHistory;
 
     public CharSequence chargeLabel;
     public CharSequence remainingLabel;
@@ -141,7 +149,9 @@ public class BatteryInfo {
             parserList[i] = parsers[i];
         }
         parserList[parsers.length] = parser;
-        parseBatteryHistory(parserList);
+        // A few points per pixel are enough, the graph cannot show more than that.
+        final int width = view.getWidth();
+        parseBatteryHistory(width > 0 ? width : DEFAULT_HISTORY_BUCKETS, parserList);
         String timeString =
                 context.getString(
                         com.android.settingslib.R.string.charge_length_format,
@@ -185,8 +195,11 @@ public class BatteryInfo {
                 } else {
                     try {
                         stats =
-                                context.getSystemService(BatteryStatsManager.class)
-                                        .getBatteryUsageStats();
+                                BatteryUsageStatsBroker.getInstance()
+                                        .acquire(
+                                                context.getSystemService(
+                                                        BatteryStatsManager.class),
+                                                /* flags= */ 0);
                         shouldCloseBatteryUsageStats = true;
                     } catch (RuntimeException e) {
                         Log.e(TAG, "getBatteryInfo() from getBatteryUsageStats()", e);
@@ -196,11 +209,7 @@ public class BatteryInfo {
                 }
                 final BatteryInfo batteryInfo = getBatteryInfo(context, stats, shortString);
                 if (shouldCloseBatteryUsageStats) {
-                    try {
-                        stats.close();
-                    } catch (Exception e) {
-                        Log.e(TAG, "BatteryUsageStats.close() failed", e);
-                    }
+                    BatteryUsageStatsBroker.getInstance().release(stats);
                 }
                 return batteryInfo;
             }
@@ -436,6 +445,19 @@ public class BatteryInfo {
         void onDataGap();
 
         void onParsingDone();
+
+        /**
+         * Returns the bits of {@link HistoryItem#states} read by the parser. The data points where
+         * they change are kept when the history is decimated.
+         */
+        default int getStatesMask() {
+            return 0;
+        }
+
+        /** Returns the bits of {@link HistoryItem#states2} read by the parser. */
+        default int getStates2Mask() {
+            return 0;
+        }
     }
 
     /**
@@ -443,24 +465,134 @@ public class BatteryInfo {
      * initialized with.
      */
     public void parseBatteryHistory(BatteryDataParser... parsers) {
-        long startWalltime = 0;
-        long endWalltime = 0;
-        long historyStart = 0;
-        long historyEnd = 0;
-        long curWalltime = startWalltime;
-        long lastWallTime = 0;
-        long lastRealtime = 0;
-        int lastInteresting = 0;
-        int pos = 0;
-        boolean first = true;
-        final BatteryStatsHistoryIterator iterator1 =
-                mBatteryUsageStats.iterateBatteryStatsHistory();
+        parseBatteryHistory(/* maxBuckets= */ 0, parsers);
+    }
+
+    /**
+     * Iterates over battery history included in the BatteryUsageStats that this object was
+     * initialized with. For each of the {@code maxBuckets} equal time slices of the history, it
+     * reports the first, lowest, highest and last battery level, and every data point where the
+     * states read by the parsers, see {@link BatteryDataParser#getStatesMask()}, change. Data gaps
+     * are always reported. A {@code maxBuckets} of 0 reports every data point.
+     *
+     * <p>Every data point is streamed from the history, which is read twice: once for its time
+     * bounds, once for the points. Decimated history is read in a single pass and only the
+     * decimated points are kept, for the last BatteryUsageStats parsed, so the BatteryInfos sharing
+     * it parse it again without going through the parcel.
+     */
+    public void parseBatteryHistory(int maxBuckets, BatteryDataParser... parsers) {
+        if (maxBuckets <= 0) {
+            streamHistory(parsers);
+            return;
+        }
+        int statesMask = 0;
+        int states2Mask = 0;
+        for (BatteryDataParser parser : parsers) {
+            statesMask |= parser.getStatesMask();
+            states2Mask |= parser.getStates2Mask();
+        }
+        getDecimatedHistory(maxBuckets, statesMask, states2Mask).replay(parsers);
+    }
+
+    private void streamHistory(BatteryDataParser[] parsers) {
+        final HistoryBounds bounds = new HistoryBounds();
+        BatteryStatsHistoryIterator iterator = mBatteryUsageStats.iterateBatteryStatsHistory();
         HistoryItem rec;
-        while ((rec = iterator1.next()) != null) {
-            pos++;
-            if (first) {
-                first = false;
-                historyStart = rec.time;
+        while ((rec = iterator.next()) != null) {
+            bounds.add(rec);
+        }
+        bounds.finish();
+
+        for (int j = 0; j < parsers.length; j++) {
+            parsers[j].onParsingStarted(bounds.mStartWalltime, bounds.mEndWalltime);
+        }
+        if (bounds.mEndWalltime > bounds.mStartWalltime) {
+            final HistoryClock clock = new HistoryClock(bounds);
+            iterator = mBatteryUsageStats.iterateBatteryStatsHistory();
+            for (int i = 0; i < bounds.mLastInteresting && (rec = iterator.next()) != null; i++) {
+                final long x = clock.next(rec.cmd, rec.time, rec.currentTime);
+                if (x == HistoryClock.DATA_GAP) {
+                    for (int j = 0; j < parsers.length; j++) {
+                        parsers[j].onDataGap();
+                    }
+                } else if (x != HistoryClock.NO_POINT) {
+                    for (int j = 0; j < parsers.length; j++) {
+                        parsers[j].onDataPoint(x, rec);
+                    }
+                }
+            }
+        }
+        for (int j = 0; j < parsers.length; j++) {
+            parsers[j].onParsingDone();
+        }
+    }
+
+    private HistoryPoints getDecimatedHistory(int maxBuckets, int statesMask, int states2Mask) {
+        synchronized (BatteryInfo.class) {
+            if (sDecimatedHistory != null
+                    && sDecimatedHistory.mStats.get() == mBatteryUsageStats
+                    && sDecimatedHistory.mMaxBuckets == maxBuckets
+                    && sDecimatedHistory.mStatesMask == statesMask
+                    && sDecimatedHistory.mStates2Mask == states2Mask) {
+                return sDecimatedHistory.mPoints;
+            }
+        }
+        final HistoryPoints points =
+                HistoryPoints.decimate(
+                        HistoryBuffer.read(mBatteryUsageStats),
+                        maxBuckets,
+                        statesMask,
+                        states2Mask);
+        synchronized (BatteryInfo.class) {
+            sDecimatedHistory =
+                    new DecimatedHistory(
+                            mBatteryUsageStats, maxBuckets, statesMask, states2Mask, points);
+        }
+        return points;
+    }
+
+    /**
+     * The decimated points of a BatteryUsageStats. The stats are fetched again once the history
+     * changed, so they identify the generation of the history.
+     */
+    private static final class DecimatedHistory {
+        final WeakReference<BatteryUsageStats> mStats;
+        final int mMaxBuckets;
+        final int mStatesMask;
+        final int mStates2Mask;
+        final HistoryPoints mPoints;
+
+        DecimatedHistory(
+                BatteryUsageStats stats,
+                int maxBuckets,
+                int statesMask,
+                int states2Mask,
+                HistoryPoints points) {
+            mStats = new WeakReference<>(stats);
+            mMaxBuckets = maxBuckets;
+            mStatesMask = statesMask;
+            mStates2Mask = states2Mask;
+            mPoints = points;
+        }
+    }
+
+    /** The time bounds of the history, computed from all of its records in order. */
+    private static final class HistoryBounds {
+        long mHistoryStart;
+        long mStartWalltime;
+        long mEndWalltime;
+        long mLastRealtime;
+        // Number of records up to and including the last data point.
+        int mLastInteresting;
+
+        private long mHistoryEnd;
+        private long mLastWallTime;
+        private int mCount;
+
+        void add(HistoryItem rec) {
+            mCount++;
+            if (mCount == 1) {
+                mHistoryStart = rec.time;
             }
             if (rec.cmd == HistoryItem.CMD_CURRENT_TIME || rec.cmd == HistoryItem.CMD_RESET) {
                 // If there is a ridiculously large jump in time, then we won't be
@@ -471,71 +603,335 @@ public class BatteryInfo {
                 // since the start of the history real time, then also use this new
                 // time to compute the base time, since whatever time we had before is
                 // pretty much just noise.
-                if (rec.currentTime > (lastWallTime + (180 * 24 * 60 * 60 * 1000L))
-                        || rec.time < (historyStart + (5 * 60 * 1000L))) {
-                    startWalltime = 0;
+                if (rec.currentTime > (mLastWallTime + (180 * 24 * 60 * 60 * 1000L))
+                        || rec.time < (mHistoryStart + (5 * 60 * 1000L))) {
+                    mStartWalltime = 0;
                 }
-                lastWallTime = rec.currentTime;
-                lastRealtime = rec.time;
-                if (startWalltime == 0) {
-                    startWalltime = lastWallTime - (lastRealtime - historyStart);
+                mLastWallTime = rec.currentTime;
+                mLastRealtime = rec.time;
+                if (mStartWalltime == 0) {
+                    mStartWalltime = mLastWallTime - (mLastRealtime - mHistoryStart);
                 }
             }
             if (rec.isDeltaData()) {
-                lastInteresting = pos;
-                historyEnd = rec.time;
+                mLastInteresting = mCount;
+                mHistoryEnd = rec.time;
             }
         }
 
-        endWalltime = lastWallTime + historyEnd - lastRealtime;
+        void finish() {
+            mEndWalltime = mLastWallTime + mHistoryEnd - mLastRealtime;
+        }
+    }
 
-        int i = 0;
-        final int N = lastInteresting;
+    /** Maps the history records, in order, to the time since the start of the history. */
+    private static final class HistoryClock {
+        static final long DATA_GAP = -1;
+        static final long NO_POINT = -2;
 
-        for (int j = 0; j < parsers.length; j++) {
-            parsers[j].onParsingStarted(startWalltime, endWalltime);
-        }
-
-        if (endWalltime > startWalltime) {
-            final BatteryStatsHistoryIterator iterator2 =
-                    mBatteryUsageStats.iterateBatteryStatsHistory();
-            while ((rec = iterator2.next()) != null && i < N) {
-                if (rec.isDeltaData()) {
-                    curWalltime += rec.time - lastRealtime;
-                    lastRealtime = rec.time;
-                    long x = (curWalltime - startWalltime);
-                    if (x < 0) {
-                        x = 0;
-                    }
-                    for (int j = 0; j < parsers.length; j++) {
-                        parsers[j].onDataPoint(x, rec);
-                    }
+        private final HistoryBounds mBounds;
+        private long mCurWalltime;
+        private long mLastRealtime;
+
+        HistoryClock(HistoryBounds bounds) {
+            mBounds = bounds;
+            mLastRealtime = bounds.mLastRealtime;
+        }
+
+        /**
+         * Returns the time of a data point, {@link #DATA_GAP} for a record starting a data gap,
+         * or {@link #NO_POINT} for any other record.
+         */
+        long next(byte cmd, long time, long currentTime) {
+            if (cmd == HistoryItem.CMD_UPDATE) {
+                mCurWalltime += time - mLastRealtime;
+                mLastRealtime = time;
+                return Math.max(0, mCurWalltime - mBounds.mStartWalltime);
+            }
+            final long lastWalltime = mCurWalltime;
+            if (cmd == HistoryItem.CMD_CURRENT_TIME || cmd == HistoryItem.CMD_RESET) {
+                if (currentTime >= mBounds.mStartWalltime) {
+                    mCurWalltime = currentTime;
                 } else {
-                    long lastWalltime = curWalltime;
-                    if (rec.cmd == HistoryItem.CMD_CURRENT_TIME
-                            || rec.cmd == HistoryItem.CMD_RESET) {
-                        if (rec.currentTime >= startWalltime) {
-                            curWalltime = rec.currentTime;
-                        } else {
-                            curWalltime = startWalltime + (rec.time - historyStart);
-                        }
-                        lastRealtime = rec.time;
-                    }
+                    mCurWalltime = mBounds.mStartWalltime + (time - mBounds.mHistoryStart);
+                }
+                mLastRealtime = time;
+            }
+            if (cmd != HistoryItem.CMD_OVERFLOW
+                    && (cmd != HistoryItem.CMD_CURRENT_TIME
+                            || Math.abs(lastWalltime - mCurWalltime) > (60 * 60 * 1000))) {
+                return DATA_GAP;
+            }
+            return NO_POINT;
+        }
+    }
 
-                    if (rec.cmd != HistoryItem.CMD_OVERFLOW
-                            && (rec.cmd != HistoryItem.CMD_CURRENT_TIME
-                                    || Math.abs(lastWalltime - curWalltime) > (60 * 60 * 1000))) {
-                        for (int j = 0; j < parsers.length; j++) {
-                            parsers[j].onDataGap();
-                        }
+    /**
+     * The fields of the history records read by {@link BatteryDataParser}s, kept in primitive
+     * arrays together with the time bounds of the history, read in a single pass. Only kept
+     * while the history is decimated.
+     */
+    private static final class HistoryBuffer {
+        int mSize;
+        long[] mTimes = new long[64];
+        long[] mCurrentTimes = new long[64];
+        byte[] mCmds = new byte[64];
+        byte[] mBatteryLevels = new byte[64];
+        int[] mStates = new int[64];
+        int[] mStates2 = new int[64];
+        final HistoryBounds mBounds = new HistoryBounds();
+
+        static HistoryBuffer read(BatteryUsageStats batteryUsageStats) {
+            final HistoryBuffer buffer = new HistoryBuffer();
+            final BatteryStatsHistoryIterator iterator =
+                    batteryUsageStats.iterateBatteryStatsHistory();
+            HistoryItem rec;
+            while ((rec = iterator.next()) != null) {
+                buffer.append(rec);
+                buffer.mBounds.add(rec);
+            }
+            buffer.mBounds.finish();
+            return buffer;
+        }
+
+        private void append(HistoryItem rec) {
+            if (mSize == mTimes.length) {
+                final int capacity = mSize * 2;
+                mTimes = Arrays.copyOf(mTimes, capacity);
+                mCurrentTimes = Arrays.copyOf(mCurrentTimes, capacity);
+                mCmds = Arrays.copyOf(mCmds, capacity);
+                mBatteryLevels = Arrays.copyOf(mBatteryLevels, capacity);
+                mStates = Arrays.copyOf(mStates, capacity);
+                mStates2 = Arrays.copyOf(mStates2, capacity);
+            }
+            mTimes[mSize] = rec.time;
+            mCurrentTimes[mSize] = rec.currentTime;
+            mCmds[mSize] = rec.cmd;
+            mBatteryLevels[mSize] = rec.batteryLevel;
+            mStates[mSize] = rec.states;
+            mStates2[mSize] = rec.states2;
+            mSize++;
+        }
+    }
+
+    /**
+     * The data points reported to the {@link BatteryDataParser}s, with their time since the
+     * start of the history. A time of {@link HistoryClock#DATA_GAP} marks a data gap.
+     */
+    private static final class HistoryPoints {
+        int mSize;
+        long[] mXs = new long[64];
+        long[] mTimes = new long[64];
+        long[] mCurrentTimes = new long[64];
+        byte[] mBatteryLevels = new byte[64];
+        int[] mStates = new int[64];
+        int[] mStates2 = new int[64];
+        long mStartWalltime;
+        long mEndWalltime;
+
+        /**
+         * Maps the records of {@code history} to the time since its start and keeps the data
+         * points picked by {@link HistoryBucket} for {@code maxBuckets} time slices, and the
+         * data gaps.
+         */
+        static HistoryPoints decimate(
+                HistoryBuffer history, int maxBuckets, int statesMask, int states2Mask) {
+            final HistoryPoints points = new HistoryPoints();
+            final HistoryBounds bounds = history.mBounds;
+            points.mStartWalltime = bounds.mStartWalltime;
+            points.mEndWalltime = bounds.mEndWalltime;
+            if (bounds.mEndWalltime <= bounds.mStartWalltime) {
+                return points;
+            }
+
+            final HistoryBucket bucket =
+                    new HistoryBucket(
+                            history,
+                            Math.max(1, (bounds.mEndWalltime - bounds.mStartWalltime) / maxBuckets),
+                            statesMask,
+                            states2Mask,
+                            points);
+            final HistoryClock clock = new HistoryClock(bounds);
+            for (int i = 0; i < bounds.mLastInteresting; i++) {
+                final long x =
+                        clock.next(history.mCmds[i], history.mTimes[i], history.mCurrentTimes[i]);
+                if (x == HistoryClock.DATA_GAP) {
+                    bucket.flush();
+                    points.appendGap();
+                } else if (x != HistoryClock.NO_POINT) {
+                    bucket.add(i, x);
+                }
+            }
+            bucket.flush();
+            points.trim();
+            return points;
+        }
+
+        void append(long x, HistoryBuffer history, int index) {
+            if (mSize == mXs.length) {
+                resize(mSize * 2);
+            }
+            mXs[mSize] = x;
+            mTimes[mSize] = history.mTimes[index];
+            mCurrentTimes[mSize] = history.mCurrentTimes[index];
+            mBatteryLevels[mSize] = history.mBatteryLevels[index];
+            mStates[mSize] = history.mStates[index];
+            mStates2[mSize] = history.mStates2[index];
+            mSize++;
+        }
+
+        void appendGap() {
+            if (mSize == mXs.length) {
+                resize(mSize * 2);
+            }
+            mXs[mSize++] = HistoryClock.DATA_GAP;
+        }
+
+        void replay(BatteryDataParser[] parsers) {
+            for (int j = 0; j < parsers.length; j++) {
+                parsers[j].onParsingStarted(mStartWalltime, mEndWalltime);
+            }
+            final HistoryItem record = new HistoryItem();
+            for (int i = 0; i < mSize; i++) {
+                if (mXs[i] == HistoryClock.DATA_GAP) {
+                    for (int j = 0; j < parsers.length; j++) {
+                        parsers[j].onDataGap();
                     }
+                    continue;
+                }
+                record.cmd = HistoryItem.CMD_UPDATE;
+                record.time = mTimes[i];
+                record.currentTime = mCurrentTimes[i];
+                record.batteryLevel = mBatteryLevels[i];
+                record.states = mStates[i];
+                record.states2 = mStates2[i];
+                for (int j = 0; j < parsers.length; j++) {
+                    parsers[j].onDataPoint(mXs[i], record);
                 }
-                i++;
+            }
+            for (int j = 0; j < parsers.length; j++) {
+                parsers[j].onParsingDone();
             }
         }
 
-        for (int j = 0; j < parsers.length; j++) {
-            parsers[j].onParsingDone();
+        // The points may be cached, don't keep the unused capacity.
+        private void trim() {
+            if (mSize < mXs.length) {
+                resize(mSize);
+            }
+        }
+
+        private void resize(int capacity) {
+            mXs = Arrays.copyOf(mXs, capacity);
+            mTimes = Arrays.copyOf(mTimes, capacity);
+            mCurrentTimes = Arrays.copyOf(mCurrentTimes, capacity);
+            mBatteryLevels = Arrays.copyOf(mBatteryLevels, capacity);
+            mStates = Arrays.copyOf(mStates, capacity);
+            mStates2 = Arrays.copyOf(mStates2, capacity);
+        }
+    }
+
+    /**
+     * Collects the data points falling into the same time slice and keeps the first, lowest,
+     * highest and last of them in order. A data point whose masked states differ from the previous
+     * one starts a new slice, so the changes of the states read by the parsers are kept.
+     */
+    private static final class HistoryBucket {
+        private final HistoryBuffer mHistory;
+        private final long mBucketSize;
+        private final int mStatesMask;
+        private final int mStates2Mask;
+        private final HistoryPoints mPoints;
+        private final int[] mIndexes = new int[4];
+        private final long[] mTimes = new long[4];
+        private long mBucket = -1;
+        private int mFirst = -1;
+        private int mMin;
+        private int mMax;
+        private int mLast;
+        private long mFirstTime;
+        private long mMinTime;
+        private long mMaxTime;
+        private long mLastTime;
+        private int mPrevious = -1;
+
+        HistoryBucket(
+                HistoryBuffer history,
+                long bucketSize,
+                int statesMask,
+                int states2Mask,
+                HistoryPoints points) {
+            mHistory = history;
+            mBucketSize = bucketSize;
+            mStatesMask = statesMask;
+            mStates2Mask = states2Mask;
+            mPoints = points;
+        }
+
+        void add(int index, long time) {
+            final boolean statesChanged = mPrevious >= 0 && statesChanged(mPrevious, index);
+            mPrevious = index;
+            final long bucket = time / mBucketSize;
+            if (bucket != mBucket || statesChanged) {
+                flush();
+                mBucket = bucket;
+            }
+            final byte level = mHistory.mBatteryLevels[index];
+            if (mFirst < 0) {
+                mFirst = mMin = mMax = index;
+                mFirstTime = mMinTime = mMaxTime = time;
+            } else if (level < mHistory.mBatteryLevels[mMin]) {
+                mMin = index;
+                mMinTime = time;
+            } else if (level > mHistory.mBatteryLevels[mMax]) {
+                mMax = index;
+                mMaxTime = time;
+            }
+            mLast = index;
+            mLastTime = time;
+        }
+
+        private boolean statesChanged(int previous, int index) {
+            final int states = mHistory.mStates[index] ^ mHistory.mStates[previous];
+            final int states2 = mHistory.mStates2[index] ^ mHistory.mStates2[previous];
+            return (states & mStatesMask) != 0 || (states2 & mStates2Mask) != 0;
+        }
+
+        void flush() {
+            if (mFirst < 0) {
+                return;
+            }
+            // Indexes grow with time, so sorting them keeps the points in order.
+            int count = 0;
+            count = insert(count, mFirst, mFirstTime);
+            count = insert(count, mMin, mMinTime);
+            count = insert(count, mMax, mMaxTime);
+            count = insert(count, mLast, mLastTime);
+            for (int i = 0; i < count; i++) {
+                mPoints.append(mTimes[i], mHistory, mIndexes[i]);
+            }
+            mFirst = -1;
+            mBucket = -1;
+        }
+
+        private int insert(int count, int index, long time) {
+            int position = count;
+            for (int i = 0; i < count; i++) {
+                if (mIndexes[i] == index) {
+                    return count;
+                }
+                if (mIndexes[i] > index) {
+                    position = i;
+                    break;
+                }
+            }
+            for (int i = count; i > position; i--) {
+                mIndexes[i] = mIndexes[i - 1];
+                mTimes[i] = mTimes[i - 1];
+            }
+            mIndexes[position] = index;
+            mTimes[position] = time;
+            return count + 1;
         }
     }
 }
@@ -25,6 +25,7 @@ import android.util.Log;
 
 import androidx.annotation.VisibleForTesting;
 
+import com.android.settings.core.BootWorkCoordinator;
 import com.android.settings.fuelgauge.batterysaver.BatterySaverScheduleRadioButtonsController;
 import com.android.settings.fuelgauge.datasaver.DynamicDenylistManager;
 import com.android.settingslib.fuelgauge.BatterySaverUtils;
@@ -34,6 +35,7 @@ import java.util.List;
 /** Execute battery settings migration tasks in the device booting stage. */
 public final class BatterySettingsMigrateChecker extends BroadcastReceiver {
     private static final String TAG = "BatterySettingsMigrateChecker";
+    private static final String TASK_VERIFY_CONFIGURATION = "battery_verify_configuration";
 
     @VisibleForTesting static BatteryOptimizeUtils sBatteryOptimizeUtils = null;
 
@@ -43,7 +45,9 @@ public final class BatterySettingsMigrateChecker extends BroadcastReceiver {
         if (intent != null
                 && Intent.ACTION_BOOT_COMPLETED.equals(intent.getAction())
                 && BatteryBackupHelper.isOwner()) {
-            verifyConfiguration(context);
+            BootWorkCoordinator.getInstance().runAsync(this, context,
+                    new BootWorkCoordinator.Task(TASK_VERIFY_CONFIGURATION,
+                            BatterySettingsMigrateChecker::verifyConfiguration));
         }
     }
 
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out shared {@link BatteryUsageStats} snapshots, so that the loaders started when opening
+ * the Battery page do not each pull their own copy of the stats from the system service.
+ *
+ * <p>A snapshot fetched less than {@link #MAX_SHARE_AGE_MS} ago is handed out again to anyone
+ * asking for the same or a smaller set of {@link QueryFlags}, and concurrent requests for the same
+ * flags wait for the single fetch in flight. Every {@link #acquire} must be paired with a
+ * {@link #release}, the underlying stats are closed once the last holder released them. Shared
+ * stats are read-only, holders must never close them directly.
+ */
+public class BatteryUsageStatsBroker {
+    private static final String TAG = "BatteryUsageStatsBroker";
+
+    public static final int FLAG_INCLUDE_HISTORY = 1 << 0;
+    public static final int FLAG_INCLUDE_PROCESS_STATE = 1 << 1;
+    private static final int FLAGS_COUNT = 1 << 2;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef(
+            flag = true,
+            value = {FLAG_INCLUDE_HISTORY, FLAG_INCLUDE_PROCESS_STATE})
+    public @interface QueryFlags {}
+
+    @VisibleForTesting static final long MAX_SHARE_AGE_MS = 10_000L;
+
+    private static BatteryUsageStatsBroker sInstance;
+
+    private final LongSupplier mClock;
+    private final Object[] mFetchLocks = new Object[FLAGS_COUNT];
+    // Snapshots with at least one holder, guarded by this.
+    private final List<Snapshot> mSnapshots = new ArrayList<>();
+
+    public static synchronized BatteryUsageStatsBroker getInstance() {
+        if (sInstance == null) {
+            sInstance = new BatteryUsageStatsBroker(SystemClock::elapsedRealtime);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    BatteryUsageStatsBroker(LongSupplier clock) {
+        mClock = clock;
+        for (int index = 0; index < mFetchLocks.length; index++) {
+            mFetchLocks[index] = new Object();
+        }
+    }
+
+    /**
+     * Returns a {@link BatteryUsageStats} matching at least {@code flags}, either shared with other
+     * holders or freshly fetched. Must be paired with {@link #release}.
+     *
+     * @throws RuntimeException if the stats could not be fetched from the system service
+     */
+    @WorkerThread
+    public BatteryUsageStats acquire(
+            BatteryStatsManager batteryStatsManager, @QueryFlags int flags) {
+        BatteryUsageStats stats = acquireShared(flags);
+        if (stats != null) {
+            return stats;
+        }
+        synchronized (mFetchLocks[flags]) {
+            // Another request for the same flags may have completed while waiting.
+            stats = acquireShared(flags);
+            if (stats != null) {
+                return stats;
+            }
+            stats = fetch(batteryStatsManager, flags);
+            synchronized (this) {
+                mSnapshots.add(new Snapshot(stats, flags, mClock.getAsLong()));
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Releases stats returned by {@link #acquire}, closing them if this was the last holder.
+     * Stats not handed out by this broker are closed right away.
+     */
+    public void release(@Nullable BatteryUsageStats stats) {
+        if (stats == null) {
+            return;
+        }
+        synchronized (this) {
+            for (int index = 0; index < mSnapshots.size(); index++) {
+                final Snapshot snapshot = mSnapshots.get(index);
+                if (snapshot.mStats != stats) {
+                    continue;
+                }
+                if (--snapshot.mRefCount > 0) {
+                    return;
+                }
+                mSnapshots.remove(index);
+                break;
+            }
+        }
+        closeStats(stats);
+    }
+
+    /** Stops sharing the current snapshots, e.g. after the battery stats were reset. */
+    public synchronized void invalidate() {
+        for (Snapshot snapshot : mSnapshots) {
+            snapshot.mShareable = false;
+        }
+    }
+
+    @Nullable
+    private synchronized BatteryUsageStats acquireShared(int flags) {
+        final long now = mClock.getAsLong();
+        for (Snapshot snapshot : mSnapshots) {
+            if (snapshot.mShareable
+                    && (snapshot.mFlags & flags) == flags
+                    && now - snapshot.mTimestamp <= MAX_SHARE_AGE_MS) {
+                snapshot.mRefCount++;
+                return snapshot.mStats;
+            }
+        }
+        return null;
+    }
+
+    @VisibleForTesting
+    @WorkerThread
+    BatteryUsageStats fetch(BatteryStatsManager batteryStatsManager, @QueryFlags int flags) {
+        if (flags == 0) {
+            return batteryStatsManager.getBatteryUsageStats();
+        }
+        final BatteryUsageStatsQuery.Builder builder = new BatteryUsageStatsQuery.Builder();
+        if ((flags & FLAG_INCLUDE_HISTORY) != 0) {
+            builder.includeBatteryHistory();
+        }
+        if ((flags & FLAG_INCLUDE_PROCESS_STATE) != 0) {
+            builder.includeProcessStateData();
+        }
+        return batteryStatsManager.getBatteryUsageStats(builder.build());
+    }
+
+    @VisibleForTesting
+    void closeStats(BatteryUsageStats stats) {
+        try {
+            stats.close();
+        } catch (Exception e) {
+            Log.e(TAG, "BatteryUsageStats.close() failed", e);
+        }
+    }
+
+    private static final class Snapshot {
+        final BatteryUsageStats mStats;
+        final int mFlags;
+        final long mTimestamp;
+        int mRefCount = 1;
+        boolean mShareable = true;
+
+        Snapshot(BatteryUsageStats stats, int flags, long timestamp) {
+            mStats = stats;
+            mFlags = flags;
+            mTimestamp = timestamp;
+        }
+    }
+}
@@ -26,7 +26,6 @@ import android.os.BatteryManager;
 import android.os.BatteryStats;
 import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Build;
 import android.os.SystemClock;
 import android.os.UidBatteryConsumer;
@@ -424,13 +423,13 @@ public class BatteryUtils {
 
     @WorkerThread
     public BatteryInfo getBatteryInfo(final String tag) {
-        final BatteryStatsManager systemService =
-                mContext.getSystemService(BatteryStatsManager.class);
+        final BatteryUsageStatsBroker broker = BatteryUsageStatsBroker.getInstance();
         BatteryUsageStats batteryUsageStats;
         try {
             batteryUsageStats =
-                    systemService.getBatteryUsageStats(
-                            new BatteryUsageStatsQuery.Builder().includeBatteryHistory().build());
+                    broker.acquire(
+                            mContext.getSystemService(BatteryStatsManager.class),
+                            BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
         } catch (RuntimeException e) {
             Log.e(TAG, "getBatteryInfo() error from getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
@@ -467,11 +466,7 @@ public class BatteryUtils {
                         false /* shortString */);
         BatteryUtils.logRuntime(tag, "BatteryInfoLoader.loadInBackground", startTime);
 
-        try {
-            batteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        }
+        broker.release(batteryUsageStats);
         return batteryInfo;
     }
 
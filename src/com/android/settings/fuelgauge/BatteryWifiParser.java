@@ -23,6 +23,16 @@ public class BatteryWifiParser extends BatteryFlagParser {
         super(accentColor, false, 0);
     }
 
+    @Override
+    public int getStatesMask() {
+        return 0;
+    }
+
+    @Override
+    public int getStates2Mask() {
+        return HistoryItem.STATE2_WIFI_SUPPL_STATE_MASK;
+    }
+
     @Override
     protected boolean isSet(HistoryItem record) {
         switch ((record.states2 & HistoryItem.STATE2_WIFI_SUPPL_STATE_MASK)
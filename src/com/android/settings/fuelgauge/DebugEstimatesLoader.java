@@ -56,7 +56,10 @@ public class DebugEstimatesLoader extends AsyncLoaderCompat<List<BatteryInfo>> {
         BatteryUsageStats batteryUsageStats;
         try {
             batteryUsageStats =
-                    context.getSystemService(BatteryStatsManager.class).getBatteryUsageStats();
+                    BatteryUsageStatsBroker.getInstance()
+                            .acquire(
+                                    context.getSystemService(BatteryStatsManager.class),
+                                    /* flags= */ 0);
         } catch (RuntimeException e) {
             Log.e(TAG, "getBatteryInfo() from getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
@@ -87,11 +90,7 @@ public class DebugEstimatesLoader extends AsyncLoaderCompat<List<BatteryInfo>> {
         infos.add(oldinfo);
         infos.add(newInfo);
 
-        try {
-            batteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        }
+        BatteryUsageStatsBroker.getInstance().release(batteryUsageStats);
         return infos;
     }
 }
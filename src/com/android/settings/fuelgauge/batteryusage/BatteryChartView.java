@@ -21,7 +21,6 @@ import static com.android.settingslib.fuelgauge.BatteryStatus.BATTERY_LEVEL_UNKN
 
 import static java.lang.Math.abs;
 import static java.lang.Math.round;
-import static java.util.Objects.requireNonNull;
 
 import android.content.Context;
 import android.content.res.Resources;
@@ -33,7 +32,6 @@ import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
-import android.util.ArraySet;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.HapticFeedbackConstants;
@@ -55,9 +53,9 @@ import com.android.settings.R;
 import com.android.settingslib.Utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 
 /** A widget component to draw chart graph. */
 public class BatteryChartView extends AppCompatImageView implements View.OnClickListener {
@@ -76,7 +74,12 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
     private final Rect mIndent = new Rect();
     private final Rect[] mPercentageBounds = new Rect[] {new Rect(), new Rect(), new Rect()};
     private final List<Rect> mAxisLabelsBounds = new ArrayList<>();
-    private final Set<Integer> mLabelDrawnIndexes = new ArraySet<>();
+    // Drawing buffers, sized in setViewModel() and reused for every frame.
+    private final Path mTrapezoidPath = new Path();
+    @VisibleForTesting Rect[] mAxisLabelDisplayAreas = new Rect[0];
+    private boolean[] mLabelDrawnIndexes = new boolean[0];
+    private float[] mTrapezoidTops = new float[0];
+    private boolean mTrapezoidTopsDirty = true;
     private final int mLayoutDirection =
             getContext().getResources().getConfiguration().getLayoutDirection();
 
@@ -141,6 +144,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         mViewModel = viewModel;
         initializeAxisLabelsBounds();
         initializeTrapezoidSlots(viewModel.size() - 1);
+        initializeDrawingBuffers();
         setClickable(hasAnyValidTrapezoid(viewModel));
         requestLayout();
     }
@@ -198,6 +202,13 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         } else {
             mIndent.set(0, 0, 0, 0);
         }
+        mTrapezoidTopsDirty = true;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mTrapezoidTopsDirty = true;
     }
 
     @Override
@@ -442,36 +453,31 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         // Draws the axis label slot information.
         if (mViewModel != null) {
             final float baselineY = getHeight() - mTextPadding;
-            Rect[] axisLabelDisplayAreas;
             switch (mViewModel.axisLabelPosition()) {
                 case CENTER_OF_TRAPEZOIDS:
-                    axisLabelDisplayAreas =
-                            getAxisLabelDisplayAreas(
-                                    /* size= */ mViewModel.size() - 1,
-                                    /* baselineX= */ mIndent.left + mDividerWidth + unitWidth * .5f,
-                                    /* offsetX= */ mDividerWidth + unitWidth,
-                                    baselineY,
-                                    /* shiftFirstAndLast= */ false);
+                    updateAxisLabelDisplayAreas(
+                            /* baselineX= */ mIndent.left + mDividerWidth + unitWidth * .5f,
+                            /* offsetX= */ mDividerWidth + unitWidth,
+                            baselineY,
+                            /* shiftFirstAndLast= */ false);
                     break;
                 case BETWEEN_TRAPEZOIDS:
                 default:
-                    axisLabelDisplayAreas =
-                            getAxisLabelDisplayAreas(
-                                    /* size= */ mViewModel.size(),
-                                    /* baselineX= */ mIndent.left + mDividerWidth * .5f,
-                                    /* offsetX= */ mDividerWidth + unitWidth,
-                                    baselineY,
-                                    /* shiftFirstAndLast= */ true);
+                    updateAxisLabelDisplayAreas(
+                            /* baselineX= */ mIndent.left + mDividerWidth * .5f,
+                            /* offsetX= */ mDividerWidth + unitWidth,
+                            baselineY,
+                            /* shiftFirstAndLast= */ true);
                     break;
             }
-            drawAxisLabels(canvas, axisLabelDisplayAreas, baselineY);
+            drawAxisLabels(canvas, mAxisLabelDisplayAreas, baselineY);
         }
         // Draws each vertical dividers.
         float startX = mDividerWidth * .5f + mIndent.left;
         for (int index = 0; index < dividerCount; index++) {
             float dividerY = bottomY;
             if (mViewModel.axisLabelPosition() == BETWEEN_TRAPEZOIDS
-                    && mLabelDrawnIndexes.contains(index)) {
+                    && mLabelDrawnIndexes[index]) {
                 mDividerPaint.setColor(mTrapezoidSolidColor);
                 dividerY += mDividerHeight / 4f;
             } else {
@@ -489,14 +495,14 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         }
     }
 
-    /** Gets all the axis label texts displaying area positions if they are shown. */
-    private Rect[] getAxisLabelDisplayAreas(
-            final int size,
+    /** Updates all the axis label texts displaying area positions if they are shown. */
+    private void updateAxisLabelDisplayAreas(
             final float baselineX,
             final float offsetX,
             final float baselineY,
             final boolean shiftFirstAndLast) {
-        final Rect[] result = new Rect[size];
+        final Rect[] result = mAxisLabelDisplayAreas;
+        final int size = result.length;
         for (int index = 0; index < result.length; index++) {
             final float width = mAxisLabelsBounds.get(index).width();
             float middle = baselineX + index * offsetX;
@@ -512,19 +518,18 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
             final float right = left + width;
             final float top = baselineY + mAxisLabelsBounds.get(index).top;
             final float bottom = top + mAxisLabelsBounds.get(index).height();
-            result[index] = new Rect(round(left), round(top), round(right), round(bottom));
+            result[index].set(round(left), round(top), round(right), round(bottom));
         }
-        return result;
     }
 
     private void drawAxisLabels(Canvas canvas, final Rect[] displayAreas, final float baselineY) {
         final int lastIndex = displayAreas.length - 1;
-        mLabelDrawnIndexes.clear();
+        Arrays.fill(mLabelDrawnIndexes, false);
         // Suppose first and last labels are always able to draw.
         drawAxisLabelText(canvas, 0, displayAreas[0], baselineY);
-        mLabelDrawnIndexes.add(0);
+        mLabelDrawnIndexes[0] = true;
         drawAxisLabelText(canvas, lastIndex, displayAreas[lastIndex], baselineY);
-        mLabelDrawnIndexes.add(lastIndex);
+        mLabelDrawnIndexes[lastIndex] = true;
         drawAxisLabelsBetweenStartIndexAndEndIndex(canvas, displayAreas, 0, lastIndex, baselineY);
     }
 
@@ -551,7 +556,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
                 return;
             }
             drawAxisLabelText(canvas, middleIndex, displayAreas[middleIndex], baselineY);
-            mLabelDrawnIndexes.add(middleIndex);
+            mLabelDrawnIndexes[middleIndex] = true;
             drawAxisLabelsBetweenStartIndexAndEndIndex(
                     canvas, displayAreas, startIndex, middleIndex, baselineY);
             drawAxisLabelsBetweenStartIndexAndEndIndex(
@@ -565,9 +570,9 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
                 return;
             }
             drawAxisLabelText(canvas, middleIndex1, displayAreas[middleIndex1], baselineY);
-            mLabelDrawnIndexes.add(middleIndex1);
+            mLabelDrawnIndexes[middleIndex1] = true;
             drawAxisLabelText(canvas, middleIndex2, displayAreas[middleIndex2], baselineY);
-            mLabelDrawnIndexes.add(middleIndex2);
+            mLabelDrawnIndexes[middleIndex2] = true;
             drawAxisLabelsBetweenStartIndexAndEndIndex(
                     canvas, displayAreas, startIndex, middleIndex1, baselineY);
             drawAxisLabelsBetweenStartIndexAndEndIndex(
@@ -598,7 +603,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
                             : mViewModel.size() - index - 2; // for daily
         }
         canvas.drawText(mViewModel.getText(index), displayArea.centerX(), baselineY, mTextPaint);
-        mLabelDrawnIndexes.add(index);
+        mLabelDrawnIndexes[index] = true;
     }
 
     private void drawTrapezoids(Canvas canvas) {
@@ -606,14 +611,12 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         if (mViewModel == null) {
             return;
         }
-        final float trapezoidBottom =
-                getHeight() - mIndent.bottom - mDividerHeight - mDividerWidth - mTrapezoidVOffset;
-        final float availableSpace =
-                trapezoidBottom - mDividerWidth * .5f - mIndent.top - mTrapezoidVOffset;
-        final float unitHeight = availableSpace / 100f;
+        final float trapezoidBottom = getTrapezoidBottom();
+        if (mTrapezoidTopsDirty) {
+            updateTrapezoidTops(trapezoidBottom);
+        }
         // Draws all trapezoid shapes into the canvas.
-        final Path trapezoidPath = new Path();
-        Path trapezoidCurvePath = null;
+        final Path trapezoidPath = mTrapezoidPath;
         for (int index = 0; index < mTrapezoidSlots.length; index++) {
             // Not draws the trapezoid for corner or not initialization cases.
             if (!isValidToDraw(mViewModel, index)) {
@@ -630,14 +633,8 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
                     mHoveredIndex == index && isValidToDraw(mViewModel, mHoveredIndex);
             mTrapezoidPaint.setColor(isHoverState ? mTrapezoidHoverColor : trapezoidColor);
 
-            float leftTop =
-                    round(
-                            trapezoidBottom
-                                    - requireNonNull(mViewModel.getLevel(index)) * unitHeight);
-            float rightTop =
-                    round(
-                            trapezoidBottom
-                                    - requireNonNull(mViewModel.getLevel(index + 1)) * unitHeight);
+            float leftTop = mTrapezoidTops[index];
+            float rightTop = mTrapezoidTops[index + 1];
             // Mirror the shape of the trapezoid for RTL
             if (isRTL()) {
                 float temp = leftTop;
@@ -657,6 +654,25 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         }
     }
 
+    private float getTrapezoidBottom() {
+        return getHeight() - mIndent.bottom - mDividerHeight - mDividerWidth - mTrapezoidVOffset;
+    }
+
+    /** Converts the battery levels into y coordinates, only when the data or size changed. */
+    private void updateTrapezoidTops(float trapezoidBottom) {
+        final float availableSpace =
+                trapezoidBottom - mDividerWidth * .5f - mIndent.top - mTrapezoidVOffset;
+        final float unitHeight = availableSpace / 100f;
+        for (int index = 0; index < mTrapezoidTops.length; index++) {
+            final Integer level = mViewModel.getLevel(index);
+            mTrapezoidTops[index] =
+                    level == null || level == BATTERY_LEVEL_UNKNOWN
+                            ? trapezoidBottom
+                            : round(trapezoidBottom - level * unitHeight);
+        }
+        mTrapezoidTopsDirty = false;
+    }
+
     private boolean isHighlightSlotValid() {
         return mViewModel != null
                 && mViewModel.getHighlightSlotIndex()
@@ -672,8 +688,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         mTransomLinePaint.setColor(mTransomLineDefaultColor);
         final int width = getWidth() - abs(mIndent.width());
         final float transomOffset = mTrapezoidHOffset + mDividerWidth * .5f + mTransomPadding;
-        final float trapezoidBottom =
-                getHeight() - mIndent.bottom - mDividerHeight - mDividerWidth - mTrapezoidVOffset;
+        final float trapezoidBottom = getTrapezoidBottom();
         canvas.drawLine(
                 mIndent.left + transomOffset,
                 mTransomTop,
@@ -732,6 +747,26 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         }
     }
 
+    private void initializeDrawingBuffers() {
+        final int labelCount =
+                mViewModel.axisLabelPosition() == BETWEEN_TRAPEZOIDS
+                        ? mViewModel.size()
+                        : mViewModel.size() - 1;
+        if (mAxisLabelDisplayAreas.length != labelCount) {
+            mAxisLabelDisplayAreas = new Rect[labelCount];
+            for (int index = 0; index < labelCount; index++) {
+                mAxisLabelDisplayAreas[index] = new Rect();
+            }
+        }
+        if (mLabelDrawnIndexes.length != mViewModel.size()) {
+            mLabelDrawnIndexes = new boolean[mViewModel.size()];
+        }
+        if (mTrapezoidTops.length != mViewModel.size()) {
+            mTrapezoidTops = new float[mViewModel.size()];
+        }
+        mTrapezoidTopsDirty = true;
+    }
+
     private static boolean isTrapezoidValid(
             @NonNull BatteryChartViewModel viewModel, int trapezoidIndex) {
         return viewModel.getLevel(trapezoidIndex) != BATTERY_LEVEL_UNKNOWN
@@ -19,9 +19,11 @@ package com.android.settings.fuelgauge.batteryusage;
 import android.app.usage.UsageEvents;
 import android.content.Context;
 import android.os.AsyncTask;
+import android.os.BatteryManager;
 import android.os.BatteryUsageStats;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.PowerManager;
 import android.util.Log;
 
 import androidx.annotation.VisibleForTesting;
@@ -30,6 +32,7 @@ import com.android.settings.fuelgauge.BatteryUsageHistoricalLogEntry.Action;
 import com.android.settings.fuelgauge.batteryusage.bugreport.BatteryUsageLogUtils;
 import com.android.settings.overlay.FeatureFactory;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -38,6 +41,10 @@ import java.util.function.Supplier;
 public final class BatteryUsageDataLoader {
     private static final String TAG = "BatteryUsageDataLoader";
 
+    // Periodic snapshots taken this soon after another one add nothing to the hourly data.
+    @VisibleForTesting
+    static final long SNAPSHOT_COALESCE_WINDOW_MS = Duration.ofMinutes(15).toMillis();
+
     // For testing only.
     @VisibleForTesting static Supplier<List<BatteryEntry>> sFakeBatteryEntryListSupplier;
     @VisibleForTesting static Supplier<Map<Long, UsageEvents>> sFakeAppUsageEventsSupplier;
@@ -81,6 +88,30 @@ public final class BatteryUsageDataLoader {
         DatabaseUtils.sendBatteryEntryData(
                 context, currentTime, batteryEntryList, batteryUsageStats, isFullChargeStart);
         DataProcessor.closeBatteryUsageStats(batteryUsageStats);
+        DatabaseUtils.recordLastSnapshotTime(context, currentTime);
+    }
+
+    /** Whether the periodic job should store new stats, or rely on a snapshot just taken. */
+    @VisibleForTesting
+    static boolean shouldLoadBatteryStats(
+            final Context context, final boolean isFullChargeStart, final long currentTime) {
+        if (isFullChargeStart) {
+            return true;
+        }
+        final long sinceLastSnapshot = currentTime - DatabaseUtils.getLastSnapshotTime(context);
+        return sinceLastSnapshot < 0 || sinceLastSnapshot >= SNAPSHOT_COALESCE_WINDOW_MS;
+    }
+
+    /** Whether slot preprocessing is cheap enough to run right now. */
+    @VisibleForTesting
+    static boolean isChargingOrIdle(final Context context) {
+        final BatteryManager batteryManager = context.getSystemService(BatteryManager.class);
+        if (batteryManager != null && batteryManager.isCharging()) {
+            return true;
+        }
+        final PowerManager powerManager = context.getSystemService(PowerManager.class);
+        return powerManager != null
+                && (powerManager.isDeviceIdleMode() || powerManager.isDeviceLightIdleMode());
     }
 
     @VisibleForTesting
@@ -113,7 +144,7 @@ public final class BatteryUsageDataLoader {
         DatabaseUtils.sendAppUsageEventData(context, appUsageEventList);
     }
 
-    private static void preprocessBatteryUsageSlots(final Context context) {
+    static void preprocessBatteryUsageSlots(final Context context) {
         final long start = System.currentTimeMillis();
         final Handler handler = new Handler(Looper.getMainLooper());
         final BatteryLevelData batteryLevelData =
@@ -159,11 +190,20 @@ public final class BatteryUsageDataLoader {
             final Context context, final boolean isFullChargeStart) {
         try {
             final long start = System.currentTimeMillis();
-            loadBatteryStatsData(context, isFullChargeStart);
+            if (shouldLoadBatteryStats(context, isFullChargeStart, start)) {
+                loadBatteryStatsData(context, isFullChargeStart);
+            } else {
+                Log.d(TAG, "skip loadBatteryStatsData() for a recent snapshot");
+            }
             if (!isFullChargeStart) {
                 // No app usage data or battery diff data at this time.
                 loadAppUsageData(context);
-                preprocessBatteryUsageSlots(context);
+                // Missed hours are preprocessed later on from the last battery level record.
+                if (isChargingOrIdle(context)) {
+                    preprocessBatteryUsageSlots(context);
+                } else {
+                    BatteryUsageSlotJobService.schedule(context);
+                }
             }
             Log.d(
                     TAG,
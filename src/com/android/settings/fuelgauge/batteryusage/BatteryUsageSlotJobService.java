@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settings.R;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.time.Duration;
+
+/**
+ * A JobService preprocessing the hourly battery usage slots once the device is charging, instead of
+ * on every periodic job. Slots are always computed from the last battery level record, so a single
+ * run catches up with every hour collected since then.
+ */
+public final class BatteryUsageSlotJobService extends JobService {
+    private static final String TAG = "BatteryUsageSlotJob";
+
+    // Bounds how many hours the battery usage page may have to process itself.
+    @VisibleForTesting static final long MAX_DELAY_MS = Duration.ofHours(6).toMillis();
+
+    /** Schedules the preprocessing, keeping the deadline of an already pending job. */
+    static void schedule(Context context) {
+        final JobScheduler jobScheduler =
+                context.getApplicationContext().getSystemService(JobScheduler.class);
+        if (jobScheduler == null) {
+            Log.e(TAG, "cannot schedule battery usage slot job");
+            return;
+        }
+        if (jobScheduler.getPendingJob(R.integer.battery_usage_slot_preprocess) != null) {
+            return;
+        }
+        final ComponentName component =
+                new ComponentName(
+                        context.getApplicationContext(), BatteryUsageSlotJobService.class);
+        jobScheduler.schedule(
+                new JobInfo.Builder(R.integer.battery_usage_slot_preprocess, component)
+                        .setRequiresCharging(true)
+                        .setOverrideDeadline(MAX_DELAY_MS)
+                        .build());
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        ThreadUtils.postOnBackgroundThread(
+                () -> {
+                    try {
+                        BatteryUsageDataLoader.preprocessBatteryUsageSlots(
+                                getApplicationContext());
+                    } catch (RuntimeException e) {
+                        Log.e(TAG, "preprocessBatteryUsageSlots:", e);
+                    }
+                    jobFinished(params, /* wantsReschedule= */ false);
+                });
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        return false;
+    }
+}
@@ -19,16 +19,28 @@ package com.android.settings.fuelgauge.batteryusage;
 import android.content.Context;
 import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.util.Log;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
 import com.android.settingslib.utils.AsyncLoaderCompat;
 
-/** Loader to get new {@link BatteryUsageStats} in the background */
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Loader to get new {@link BatteryUsageStats} in the background. The result is shared through
+ * {@link BatteryUsageStatsBroker} and must be released there instead of being closed. The
+ * callbacks release the results delivered to them, the loader releases the ones discarded before
+ * being delivered.
+ */
 public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats> {
     private static final String TAG = "BatteryUsageStatsLoader";
     private final BatteryStatsManager mBatteryStatsManager;
     private final boolean mIncludeBatteryHistory;
+    // Results delivered to the callbacks, which own them, only used on the main thread.
+    private final Set<BatteryUsageStats> mDeliveredResults =
+            Collections.newSetFromMap(new IdentityHashMap<>());
 
     public BatteryUsageStatsLoader(Context context, boolean includeBatteryHistory) {
         super(context);
@@ -38,13 +50,12 @@ public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats
 
     @Override
     public BatteryUsageStats loadInBackground() {
-        final BatteryUsageStatsQuery.Builder builder = new BatteryUsageStatsQuery.Builder();
+        int flags = BatteryUsageStatsBroker.FLAG_INCLUDE_PROCESS_STATE;
         if (mIncludeBatteryHistory) {
-            builder.includeBatteryHistory();
+            flags |= BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY;
         }
         try {
-            return mBatteryStatsManager.getBatteryUsageStats(
-                    builder.includeProcessStateData().build());
+            return BatteryUsageStatsBroker.getInstance().acquire(mBatteryStatsManager, flags);
         } catch (RuntimeException e) {
             Log.e(TAG, "loadInBackground() for getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
@@ -53,5 +64,17 @@ public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats
     }
 
     @Override
-    protected void onDiscardResult(BatteryUsageStats result) {}
+    public void deliverResult(BatteryUsageStats result) {
+        if (result != null && isStarted() && !isReset()) {
+            mDeliveredResults.add(result);
+        }
+        super.deliverResult(result);
+    }
+
+    @Override
+    protected void onDiscardResult(BatteryUsageStats result) {
+        if (!mDeliveredResults.remove(result)) {
+            BatteryUsageStatsBroker.getInstance().release(result);
+        }
+    }
 }
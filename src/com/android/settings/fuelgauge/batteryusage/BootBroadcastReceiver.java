@@ -23,6 +23,7 @@ import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
+import com.android.settings.core.BootWorkCoordinator;
 import com.android.settings.core.instrumentation.ElapsedTimeUtils;
 import com.android.settings.fuelgauge.BatteryUsageHistoricalLogEntry.Action;
 import com.android.settings.fuelgauge.batteryusage.bugreport.BatteryUsageLogUtils;
@@ -35,6 +36,8 @@ public final class BootBroadcastReceiver extends BroadcastReceiver {
     private static final String TAG = "BootBroadcastReceiver";
     private static final long RESCHEDULE_FOR_BOOT_ACTION_DELAY_MILLIS =
             Duration.ofSeconds(6).toMillis();
+    private static final String TASK_REFRESH_JOBS = "battery_refresh_jobs";
+    private static final String TASK_REMOVE_USAGE_SOURCE = "battery_remove_usage_source";
 
     private final Handler mHandler = new Handler(Looper.getMainLooper());
 
@@ -61,6 +64,14 @@ public final class BootBroadcastReceiver extends BroadcastReceiver {
 
         switch (action) {
             case Intent.ACTION_BOOT_COMPLETED:
+                Log.d(TAG, "refresh periodic job from action=" + action);
+                BootWorkCoordinator.getInstance().runAsync(this, context,
+                        new BootWorkCoordinator.Task(TASK_REFRESH_JOBS,
+                                BootBroadcastReceiver::refreshJobs),
+                        // Refreshes the usage source from UsageStatsManager when booting.
+                        new BootWorkCoordinator.Task(TASK_REMOVE_USAGE_SOURCE,
+                                DatabaseUtils::removeUsageSource));
+                break;
             case ACTION_SETUP_WIZARD_FINISHED:
             case ACTION_PERIODIC_JOB_RECHECK:
                 Log.d(TAG, "refresh periodic job from action=" + action);
@@ -81,9 +92,6 @@ public final class BootBroadcastReceiver extends BroadcastReceiver {
             final long delayedTime = RESCHEDULE_FOR_BOOT_ACTION_DELAY_MILLIS;
             mHandler.postDelayed(() -> context.sendBroadcast(recheckIntent), delayedTime);
 
-            // Refreshes the usage source from UsageStatsManager when booting.
-            DatabaseUtils.removeUsageSource(context);
-
             BatteryUsageLogUtils.writeLog(context, Action.RECHECK_JOB, "delay:" + delayedTime);
         } else if (ACTION_SETUP_WIZARD_FINISHED.equals(action)) {
             ElapsedTimeUtils.storeSuwFinishedTimestamp(context, System.currentTimeMillis());
@@ -32,7 +32,6 @@ import android.content.pm.UserInfo;
 import android.os.BatteryConsumer;
 import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Process;
 import android.os.RemoteException;
 import android.os.ServiceManager;
@@ -53,6 +52,7 @@ import androidx.annotation.Nullable;
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.internal.os.PowerProfile;
 import com.android.settings.Utils;
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.fuelgauge.BatteryStatus;
@@ -169,16 +169,17 @@ public final class DataProcessor {
                         batteryLevelData);
     }
 
-    /** Gets the {@link BatteryUsageStats} from system service. */
+    /**
+     * Gets the {@link BatteryUsageStats} from {@link BatteryUsageStatsBroker}, must be released
+     * with {@link #closeBatteryUsageStats}.
+     */
     @Nullable
     public static BatteryUsageStats getBatteryUsageStats(final Context context) {
-        final BatteryUsageStatsQuery batteryUsageStatsQuery =
-                new BatteryUsageStatsQuery.Builder()
-                        .includeBatteryHistory()
-                        .includeProcessStateData()
-                        .build();
-        return context.getSystemService(BatteryStatsManager.class)
-                .getBatteryUsageStats(batteryUsageStatsQuery);
+        return BatteryUsageStatsBroker.getInstance()
+                .acquire(
+                        context.getSystemService(BatteryStatsManager.class),
+                        BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY
+                                | BatteryUsageStatsBroker.FLAG_INCLUDE_PROCESS_STATE);
     }
 
     /** Gets the {@link UsageEvents} from system service for all unlocked users. */
@@ -236,15 +237,9 @@ public final class DataProcessor {
         return events;
     }
 
-    /** Closes the {@link BatteryUsageStats} after using it. */
+    /** Releases the {@link BatteryUsageStats} after using it. */
     public static void closeBatteryUsageStats(BatteryUsageStats batteryUsageStats) {
-        if (batteryUsageStats != null) {
-            try {
-                batteryUsageStats.close();
-            } catch (Exception e) {
-                Log.e(TAG, "BatteryUsageStats.close() failed", e);
-            }
-        }
+        BatteryUsageStatsBroker.getInstance().release(batteryUsageStats);
     }
 
     /**
@@ -79,6 +79,7 @@ public final class DatabaseUtils {
     static final String KEY_LAST_UPLOAD_FULL_CHARGE_TIME = "last_upload_full_charge_time";
     static final String KEY_LAST_USAGE_SOURCE = "last_usage_source";
     static final String KEY_DISMISSED_POWER_ANOMALY_KEYS = "dismissed_power_anomaly_keys";
+    static final String KEY_LAST_SNAPSHOT_TIME = "last_snapshot_time";
 
     /** An authority name of the battery content provider. */
     public static final String AUTHORITY = "com.android.settings.battery.usage.provider";
@@ -822,6 +823,21 @@ public final class DatabaseUtils {
                 : new ArraySet<>();
     }
 
+    static void recordLastSnapshotTime(Context context, long timestamp) {
+        final SharedPreferences sharedPreferences = getSharedPreferences(context);
+        if (sharedPreferences != null) {
+            sharedPreferences.edit().putLong(KEY_LAST_SNAPSHOT_TIME, timestamp).apply();
+        }
+    }
+
+    /** Returns when {@link BatteryUsageStats} were last stored, or 0 if never. */
+    static long getLastSnapshotTime(Context context) {
+        final SharedPreferences sharedPreferences = getSharedPreferences(context);
+        return sharedPreferences != null
+                ? sharedPreferences.getLong(KEY_LAST_SNAPSHOT_TIME, INVALID_TIMESTAMP)
+                : INVALID_TIMESTAMP;
+    }
+
     static void setDismissedPowerAnomalyKeys(Context context, String dismissedPowerAnomalyKey) {
         final SharedPreferences sharedPreferences = getSharedPreferences(context);
         if (sharedPreferences != null) {
@@ -78,7 +78,9 @@ public final class PeriodicJobManager {
         cancelJob(pendingIntent);
         // Uses UTC time to avoid scheduler is impacted by different timezone.
         final long triggerAtMillis = getTriggerAtMillis(mContext, Clock.systemUTC(), fromBoot);
-        mAlarmManager.setExactAndAllowWhileIdle(
+        // Inexact so the system can batch the hourly wakeup with others, hourly data is
+        // interpolated anyway, but still delivered in Doze to avoid gaps in the history.
+        mAlarmManager.setAndAllowWhileIdle(
                 AlarmManager.RTC_WAKEUP, triggerAtMillis, pendingIntent);
 
         final String utcToLocalTime = ConvertUtils.utcToLocalTimeForLogging(triggerAtMillis);
@@ -22,7 +22,6 @@ import android.content.Context;
 import android.os.BatteryUsageStats;
 import android.os.Bundle;
 import android.os.UserManager;
-import android.util.Log;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
@@ -32,6 +31,7 @@ import androidx.loader.content.Loader;
 
 import com.android.settings.dashboard.DashboardFragment;
 import com.android.settings.fuelgauge.BatteryBroadcastReceiver;
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -142,8 +142,11 @@ public abstract class PowerUsageBase extends DashboardFragment {
         @Override
         public void onLoadFinished(
                 Loader<BatteryUsageStats> loader, BatteryUsageStats batteryUsageStats) {
-            closeBatteryUsageStatsIfNeeded();
-            mBatteryUsageStats = batteryUsageStats;
+            // The loader delivers its last result again when restarted.
+            if (batteryUsageStats != mBatteryUsageStats) {
+                closeBatteryUsageStatsIfNeeded();
+                mBatteryUsageStats = batteryUsageStats;
+            }
             PowerUsageBase.this.onLoadFinished(mRefreshType);
         }
 
@@ -155,12 +158,7 @@ public abstract class PowerUsageBase extends DashboardFragment {
         if (mBatteryUsageStats == null) {
             return;
         }
-        try {
-            mBatteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        } finally {
-            mBatteryUsageStats = null;
-        }
+        BatteryUsageStatsBroker.getInstance().release(mBatteryUsageStats);
+        mBatteryUsageStats = null;
     }
 }
@@ -18,16 +18,19 @@ package com.android.settings.inputmethod;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.database.CursorWrapper;
 import android.database.MatrixCursor;
 import android.provider.UserDictionary;
-import android.util.ArraySet;
+import android.text.TextUtils;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.loader.content.CursorLoader;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-import java.util.Set;
 
 public class UserDictionaryCursorLoader extends CursorLoader {
 
@@ -47,7 +50,12 @@ public class UserDictionaryCursorLoader extends CursorLoader {
             UserDictionary.Words.LOCALE + "=?";
     private static final String QUERY_SELECTION_ALL_LOCALES =
             UserDictionary.Words.LOCALE + " is null";
+    private static final String QUERY_SELECTION_PREFIX =
+            UserDictionary.Words.WORD + " LIKE ? ESCAPE '\\'";
 
+    // Case-insensitive sort, the word and shortcut keep duplicates next to each other.
+    private static final String QUERY_SORT_ORDER = "UPPER(" + UserDictionary.Words.WORD + "), "
+            + UserDictionary.Words.WORD + ", " + UserDictionary.Words.SHORTCUT;
 
     // Locale can be any of:
     // - The string representation of a locale, as returned by Locale#toString()
@@ -68,34 +76,135 @@ public class UserDictionaryCursorLoader extends CursorLoader {
 
     @Override
     public Cursor loadInBackground() {
-        final MatrixCursor result = new MatrixCursor(QUERY_PROJECTION);
-        final Cursor candidate;
-        if ("".equals(mLocale)) {
-            // Case-insensitive sort
-            candidate = getContext().getContentResolver().query(
-                    UserDictionary.Words.CONTENT_URI, QUERY_PROJECTION,
-                    QUERY_SELECTION_ALL_LOCALES, null,
-                    "UPPER(" + UserDictionary.Words.WORD + ")");
+        return createCursor(getContext(), mLocale, /* prefix= */ null);
+    }
+
+    /**
+     * Queries the words of {@code locale} starting with {@code prefix}, or all of them if it is
+     * empty, sorted case-insensitively and without duplicates.
+     */
+    static Cursor createCursor(Context context, String locale, @Nullable CharSequence prefix) {
+        final StringBuilder selection = new StringBuilder();
+        final List<String> selectionArgs = new ArrayList<>();
+        if ("".equals(locale)) {
+            selection.append(QUERY_SELECTION_ALL_LOCALES);
         } else {
-            final String queryLocale = null != mLocale ? mLocale : Locale.getDefault().toString();
-            candidate = getContext().getContentResolver().query(UserDictionary.Words.CONTENT_URI,
-                    QUERY_PROJECTION, QUERY_SELECTION,
-                    new String[]{queryLocale}, "UPPER(" + UserDictionary.Words.WORD + ")");
+            selection.append(QUERY_SELECTION);
+            selectionArgs.add(null != locale ? locale : Locale.getDefault().toString());
+        }
+        if (!TextUtils.isEmpty(prefix)) {
+            selection.append(" AND ").append(QUERY_SELECTION_PREFIX);
+            selectionArgs.add(escapeLikePattern(prefix.toString()) + "%");
+        }
+        final Cursor candidate = context.getContentResolver().query(
+                UserDictionary.Words.CONTENT_URI, QUERY_PROJECTION, selection.toString(),
+                selectionArgs.toArray(new String[0]), QUERY_SORT_ORDER);
+        return candidate == null ? new MatrixCursor(QUERY_PROJECTION)
+                : new DistinctWordsCursor(candidate);
+    }
+
+    private static String escapeLikePattern(String pattern) {
+        return pattern.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Skips the rows repeating the word and shortcut of the previous one. The constructor walks
+     * the whole query cursor once, on the loading thread, to find the distinct rows. Only their
+     * positions are kept rather than a copy of the words.
+     */
+    @VisibleForTesting
+    static final class DistinctWordsCursor extends CursorWrapper {
+        private final int[] mPositions;
+        private final int mCount;
+        private int mPosition = -1;
+
+        DistinctWordsCursor(Cursor cursor) {
+            super(cursor);
+            mPositions = new int[cursor.getCount()];
+            int count = 0;
+            String previousWord = null;
+            String previousShortcut = null;
+            for (cursor.moveToFirst(); !cursor.isAfterLast(); cursor.moveToNext()) {
+                final String word = cursor.getString(1);
+                final String shortcut = cursor.getString(INDEX_SHORTCUT);
+                if (count > 0 && Objects.equals(word, previousWord)
+                        && Objects.equals(shortcut, previousShortcut)) {
+                    continue;
+                }
+                mPositions[count++] = cursor.getPosition();
+                previousWord = word;
+                previousShortcut = shortcut;
+            }
+            mCount = count;
         }
-        final Set<Integer> hashSet = new ArraySet<>();
-        for (candidate.moveToFirst(); !candidate.isAfterLast(); candidate.moveToNext()) {
-            final int id = candidate.getInt(0);
-            final String word = candidate.getString(1);
-            final String shortcut = candidate.getString(2);
-            final int hash = Objects.hash(word, shortcut);
-            if (hashSet.contains(hash)) {
-                continue;
+
+        @Override
+        public int getCount() {
+            return mCount;
+        }
+
+        @Override
+        public int getPosition() {
+            return mPosition;
+        }
+
+        @Override
+        public boolean moveToPosition(int position) {
+            if (position < 0) {
+                mPosition = -1;
+                return false;
             }
-            hashSet.add(hash);
-            result.addRow(new Object[]{id, word, shortcut});
+            if (position >= mCount) {
+                mPosition = mCount;
+                return false;
+            }
+            mPosition = position;
+            return super.moveToPosition(mPositions[position]);
+        }
+
+        @Override
+        public boolean move(int offset) {
+            return moveToPosition(mPosition + offset);
+        }
+
+        @Override
+        public boolean moveToFirst() {
+            return moveToPosition(0);
+        }
+
+        @Override
+        public boolean moveToLast() {
+            return moveToPosition(mCount - 1);
+        }
+
+        @Override
+        public boolean moveToNext() {
+            return moveToPosition(mPosition + 1);
+        }
+
+        @Override
+        public boolean moveToPrevious() {
+            return moveToPosition(mPosition - 1);
+        }
+
+        @Override
+        public boolean isFirst() {
+            return mCount > 0 && mPosition == 0;
+        }
+
+        @Override
+        public boolean isLast() {
+            return mCount > 0 && mPosition == mCount - 1;
+        }
+
+        @Override
+        public boolean isBeforeFirst() {
+            return mCount == 0 || mPosition == -1;
+        }
+
+        @Override
+        public boolean isAfterLast() {
+            return mCount == 0 || mPosition == mCount;
         }
-        // The cursor needs to be closed after use, otherwise it will cause resource leakage
-        candidate.close();
-        return result;
     }
 }
@@ -32,7 +32,6 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.AlphabetIndexer;
-import android.widget.ListAdapter;
 import android.widget.ListView;
 import android.widget.SectionIndexer;
 import android.widget.SimpleCursorAdapter;
@@ -63,7 +62,7 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
 
     private VisibilityLoggerMixin mVisibilityLoggerMixin;
 
-    private Cursor mCursor;
+    private MyAdapter mAdapter;
     private String mLocale;
 
     @Override
@@ -125,6 +124,8 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
 
         final ListView listView = getListView();
         listView.setFastScrollEnabled(true);
+        // Typing filters the words by prefix, queried from the provider.
+        listView.setTextFilterEnabled(true);
         listView.setEmptyView(emptyView);
     }
 
@@ -135,11 +136,16 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
         getLoaderManager().restartLoader(LOADER_ID, null, this /* callback */);
     }
 
-    private ListAdapter createAdapter() {
-        return new MyAdapter(getActivity(),
-                R.layout.user_dictionary_item, mCursor,
+    private MyAdapter createAdapter(Cursor cursor) {
+        final MyAdapter adapter = new MyAdapter(getActivity(),
+                R.layout.user_dictionary_item, cursor,
                 new String[]{UserDictionary.Words.WORD, UserDictionary.Words.SHORTCUT},
                 new int[]{android.R.id.text1, android.R.id.text2});
+        final Context appContext = getContext().getApplicationContext();
+        final String locale = mLocale;
+        adapter.setFilterQueryProvider(constraint ->
+                UserDictionaryCursorLoader.createCursor(appContext, locale, constraint));
+        return adapter;
     }
 
     @Override
@@ -200,23 +206,26 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
     }
 
     private String getWord(final int position) {
-        if (null == mCursor) return null;
-        mCursor.moveToPosition(position);
+        // The adapter cursor, which is the filtered one while a prefix is typed.
+        final Cursor cursor = null == mAdapter ? null : mAdapter.getCursor();
+        if (null == cursor) return null;
+        cursor.moveToPosition(position);
         // Handle a possible race-condition
-        if (mCursor.isAfterLast()) return null;
+        if (cursor.isAfterLast()) return null;
 
-        return mCursor.getString(
-                mCursor.getColumnIndexOrThrow(UserDictionary.Words.WORD));
+        return cursor.getString(
+                cursor.getColumnIndexOrThrow(UserDictionary.Words.WORD));
     }
 
     private String getShortcut(final int position) {
-        if (null == mCursor) return null;
-        mCursor.moveToPosition(position);
+        final Cursor cursor = null == mAdapter ? null : mAdapter.getCursor();
+        if (null == cursor) return null;
+        cursor.moveToPosition(position);
         // Handle a possible race-condition
-        if (mCursor.isAfterLast()) return null;
+        if (cursor.isAfterLast()) return null;
 
-        return mCursor.getString(
-                mCursor.getColumnIndexOrThrow(UserDictionary.Words.SHORTCUT));
+        return cursor.getString(
+                cursor.getColumnIndexOrThrow(UserDictionary.Words.SHORTCUT));
     }
 
     public static void deleteWord(final String word, final String shortcut,
@@ -239,18 +248,31 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
 
     @Override
     public void onLoadFinished(Loader<Cursor> loader, Cursor data) {
-        mCursor = data;
-        getListView().setAdapter(createAdapter());
+        if (null != mAdapter) {
+            mAdapter.release();
+        }
+        mAdapter = createAdapter(data);
+        getListView().setAdapter(mAdapter);
+        final CharSequence filterText = getListView().getTextFilter();
+        if (!TextUtils.isEmpty(filterText)) {
+            // Keeps the prefix typed before the words were reloaded, e.g. after an edit.
+            mAdapter.getFilter().filter(filterText);
+        }
     }
 
     @Override
     public void onLoaderReset(Loader<Cursor> loader) {
-
+        if (null != mAdapter) {
+            mAdapter.release();
+        }
     }
 
     private static class MyAdapter extends SimpleCursorAdapter implements SectionIndexer {
 
         private AlphabetIndexer mIndexer;
+        // Owned by the loader, which closes it. Filtered cursors are owned by this adapter.
+        private final Cursor mLoaderCursor;
+        private boolean mReleased;
 
         private final ViewBinder mViewBinder = new ViewBinder() {
 
@@ -274,6 +296,7 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
 
         public MyAdapter(Context context, int layout, Cursor c, String[] from, int[] to) {
             super(context, layout, c, from, to);
+            mLoaderCursor = c;
 
             if (null != c) {
                 final String alphabet = context.getString(
@@ -284,6 +307,40 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
             setViewBinder(mViewBinder);
         }
 
+        /**
+         * Called with the filtered cursors. Unlike the default implementation, the cursor of the
+         * loader is swapped out without being closed, since the loader may deliver it again.
+         */
+        @Override
+        public void changeCursor(Cursor cursor) {
+            if (mReleased) {
+                // A filter result arriving after this adapter was replaced.
+                closeIfFiltered(cursor);
+                return;
+            }
+            closeIfFiltered(swapCursor(cursor));
+        }
+
+        /** Closes the filtered cursor in use, if any, once this adapter is no longer used. */
+        void release() {
+            mReleased = true;
+            closeIfFiltered(swapCursor(null));
+        }
+
+        private void closeIfFiltered(Cursor cursor) {
+            if (null != cursor && cursor != mLoaderCursor) {
+                cursor.close();
+            }
+        }
+
+        @Override
+        public Cursor swapCursor(Cursor newCursor) {
+            if (null != mIndexer) {
+                mIndexer.setCursor(newCursor);
+            }
+            return super.swapCursor(newCursor);
+        }
+
         @Override
         public int getPositionForSection(int section) {
             return null == mIndexer ? 0 : mIndexer.getPositionForSection(section);
@@ -26,19 +26,33 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.PersistableBundle;
+import android.os.SystemClock;
 import android.telephony.CarrierConfigManager;
 import android.telephony.SubscriptionManager;
+import android.util.ArraySet;
 import android.util.Log;
 
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * This is a singleton class for Carrier-Configuration cache.
+ *
+ * <p>Callers reading only a few keys should use {@link #getConfigForSubId(int, String...)}, which
+ * copies only those keys from the phone process and keeps them along with the ones already cached
+ * for the subscription. Cached configurations are dropped when the configuration of their
+ * subscription changes, or after {@link #CACHE_TTL_MS} in case the broadcast was missed.
  */
 public class CarrierConfigCache {
     private static final String TAG = "CarrConfCache";
@@ -54,16 +68,24 @@ public class CarrierConfigCache {
     private static Map<Context, CarrierConfigCache> sTestInstances;
 
     /**
-     * Manages mapping data from the subscription ID to the Carrier-Configuration
-     * {@link PersistableBundle} object.
+     * Manages mapping data from the subscription ID to the cached Carrier-Configuration, either
+     * complete or restricted to the keys asked so far.
      *
      * The Carrier-Configurations are used to share with all sub-settings.
      */
     @VisibleForTesting
-    protected static final Map<Integer, PersistableBundle> sCarrierConfigs =
+    protected static final Map<Integer, CachedConfig> sCarrierConfigs =
             new ConcurrentHashMap<>();
     @VisibleForTesting
     protected static CarrierConfigManager sCarrierConfigManager;
+    @VisibleForTesting
+    protected static LongSupplier sClock = SystemClock::elapsedRealtime;
+
+    @VisibleForTesting
+    static final long CACHE_TTL_MS = Duration.ofMinutes(10).toMillis();
+
+    private static final AtomicLong sHitCount = new AtomicLong();
+    private static final AtomicLong sMissCount = new AtomicLong();
 
     /**
      * Static method to create a singleton class for Carrier-Configuration cache.
@@ -141,19 +163,55 @@ public class CarrierConfigCache {
         if (sCarrierConfigManager == null) return null;
 
         synchronized (sCarrierConfigs) {
-            if (sCarrierConfigs.containsKey(subId)) {
-                return sCarrierConfigs.get(subId);
+            final CachedConfig cached = getCachedConfig(subId);
+            if (cached != null && cached.mKeys == null) {
+                sHitCount.incrementAndGet();
+                return cached.mConfig;
             }
+            sMissCount.incrementAndGet();
             final PersistableBundle config = sCarrierConfigManager.getConfigForSubId(subId);
             if (config == null) {
                 Log.e(TAG, "Could not get carrier config, subId:" + subId);
                 return null;
             }
-            sCarrierConfigs.put(subId, config);
+            sCarrierConfigs.put(subId,
+                    new CachedConfig(config, /* keys= */ null, sClock.getAsLong()));
             return config;
         }
     }
 
+    /**
+     * Gets the given keys of the Carrier-Configuration for a particular subscription, only
+     * fetching the ones not cached yet.
+     *
+     * @param subId the subscription ID, normally obtained from {@link SubscriptionManager}.
+     * @param keys the configuration keys to read, see {@link CarrierConfigManager}.
+     * @return A {@link PersistableBundle} containing at least the given keys for the given subId,
+     * or null if the configuration cannot be read.
+     */
+    public PersistableBundle getConfigForSubId(int subId, @NonNull String... keys) {
+        if (sCarrierConfigManager == null) return null;
+
+        synchronized (sCarrierConfigs) {
+            final CachedConfig cached = getCachedConfig(subId);
+            if (cached != null && cached.hasKeys(keys)) {
+                sHitCount.incrementAndGet();
+                return cached.mConfig;
+            }
+            sMissCount.incrementAndGet();
+            final PersistableBundle config = sCarrierConfigManager.getConfigForSubId(subId, keys);
+            if (config == null) {
+                Log.e(TAG, "Could not get carrier config keys, subId:" + subId);
+                return null;
+            }
+            final CachedConfig updated = cached == null
+                    ? new CachedConfig(config, new ArraySet<>(keys), sClock.getAsLong())
+                    : cached.merge(config, keys);
+            sCarrierConfigs.put(subId, updated);
+            return updated.mConfig;
+        }
+    }
+
     /**
      * Gets the Carrier-Configuration for the default subscription.
      *
@@ -165,6 +223,57 @@ public class CarrierConfigCache {
         return getConfigForSubId(SubscriptionManager.getDefaultSubscriptionId());
     }
 
+    /** Returns how many configuration reads were served from the cache. */
+    public long getHitCount() {
+        return sHitCount.get();
+    }
+
+    /** Returns how many configuration reads had to go to {@link CarrierConfigManager}. */
+    public long getMissCount() {
+        return sMissCount.get();
+    }
+
+    @GuardedBy("sCarrierConfigs")
+    @Nullable
+    private static CachedConfig getCachedConfig(int subId) {
+        final CachedConfig cached = sCarrierConfigs.get(subId);
+        if (cached != null && sClock.getAsLong() - cached.mFetchTime > CACHE_TTL_MS) {
+            sCarrierConfigs.remove(subId);
+            return null;
+        }
+        return cached;
+    }
+
+    /** The Carrier-Configuration of one subscription, possibly restricted to some keys. */
+    @VisibleForTesting
+    protected static final class CachedConfig {
+        final PersistableBundle mConfig;
+        // The keys asked so far, null when mConfig is the whole configuration.
+        @Nullable
+        final Set<String> mKeys;
+        // Time of the oldest fetch, which bounds how stale mConfig can be.
+        final long mFetchTime;
+
+        CachedConfig(PersistableBundle config, @Nullable Set<String> keys, long fetchTime) {
+            mConfig = config;
+            mKeys = keys;
+            mFetchTime = fetchTime;
+        }
+
+        boolean hasKeys(String[] keys) {
+            return mKeys == null || mKeys.containsAll(Arrays.asList(keys));
+        }
+
+        /** Returns a copy with the given keys added, leaving the bundles handed out unchanged. */
+        CachedConfig merge(PersistableBundle config, String[] keys) {
+            final PersistableBundle merged = new PersistableBundle(mConfig);
+            merged.putAll(config);
+            final Set<String> mergedKeys = new ArraySet<>(mKeys);
+            Collections.addAll(mergedKeys, keys);
+            return new CachedConfig(merged, mergedKeys, mFetchTime);
+        }
+    }
+
     private static class CarrierConfigChangeReceiver extends BroadcastReceiver {
         @Override
         public void onReceive(Context context, Intent intent) {
@@ -23,14 +23,20 @@ import android.os.Handler;
 import android.provider.Settings;
 import android.telephony.TelephonyManager;
 
+import com.android.settings.utils.SettingsObserverMultiplexer;
+
 /**
  * {@link ContentObserver} to listen to update of mobile data change
  */
 public class MobileDataContentObserver extends ContentObserver {
+    private final Handler mHandler;
+    private final SettingsObserverMultiplexer.Subscriber mSubscriber =
+            uri -> onChange(false /* selfChange */);
     private OnMobileDataChangedListener mListener;
 
     public MobileDataContentObserver(Handler handler) {
         super(handler);
+        mHandler = handler;
     }
 
     /**
@@ -57,14 +63,18 @@ public class MobileDataContentObserver extends ContentObserver {
         }
     }
 
+    /**
+     * Listen to the mobile data of {@code subId}, through the observer of the URI shared with the
+     * other listeners.
+     */
     public void register(Context context, int subId) {
         final Uri uri = getObservableUri(context, subId);
-        context.getContentResolver().registerContentObserver(uri, false, this);
-
+        SettingsObserverMultiplexer.getInstance(context).subscribe(uri, mHandler::post,
+                mSubscriber);
     }
 
     public void unRegister(Context context) {
-        context.getContentResolver().unregisterContentObserver(this);
+        SettingsObserverMultiplexer.getInstance(context).unsubscribe(mSubscriber);
     }
 
     /**
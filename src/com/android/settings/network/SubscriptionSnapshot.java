@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network;
+
+import android.content.Context;
+import android.telephony.SubscriptionInfo;
+import android.telephony.SubscriptionManager;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of the subscriptions available to the user and of their unique display
+ * names, shared by the {@link SubscriptionUtil} lookups.
+ *
+ * <p>Computing the unique display names reads the phone number of every subscription with a
+ * duplicate name and the names cached in SharedPreferences. A snapshot is reused as long as the
+ * available subscriptions are the same and no {@code onSubscriptionsChanged} has been received
+ * since it was built.
+ */
+public final class SubscriptionSnapshot {
+
+    private static final Object sLock = new Object();
+    @GuardedBy("sLock")
+    private static SubscriptionSnapshot sSnapshot;
+    @GuardedBy("sLock")
+    private static int sGeneration;
+    @GuardedBy("sLock")
+    private static SubscriptionManager.OnSubscriptionsChangedListener sListener;
+
+    private final int mVersion;
+    private final List<Object> mKey;
+    private final List<SubscriptionInfo> mAvailableSubscriptions;
+    private final Map<Integer, CharSequence> mUniqueDisplayNames;
+
+    private SubscriptionSnapshot(int version, List<Object> key,
+            List<SubscriptionInfo> availableSubscriptions,
+            Map<Integer, CharSequence> uniqueDisplayNames) {
+        mVersion = version;
+        mKey = key;
+        mAvailableSubscriptions = Collections.unmodifiableList(availableSubscriptions);
+        mUniqueDisplayNames = Collections.unmodifiableMap(uniqueDisplayNames);
+    }
+
+    /**
+     * Returns the snapshot of the subscriptions currently available, building a new one only if
+     * they changed.
+     */
+    @NonNull
+    public static SubscriptionSnapshot get(@NonNull Context context) {
+        final List<SubscriptionInfo> availableSubscriptions =
+                SubscriptionUtil.getAvailableSubscriptions(context);
+        final List<Object> key = createKey(availableSubscriptions);
+        final int generation;
+        synchronized (sLock) {
+            registerListenerLocked(context);
+            if (sSnapshot != null && sSnapshot.mKey.equals(key)) {
+                return sSnapshot;
+            }
+            generation = sGeneration;
+        }
+        final Map<Integer, CharSequence> uniqueDisplayNames =
+                SubscriptionUtil.computeUniqueSubscriptionDisplayNames(
+                        context, availableSubscriptions);
+        synchronized (sLock) {
+            final SubscriptionSnapshot snapshot = new SubscriptionSnapshot(++sGeneration, key,
+                    new ArrayList<>(availableSubscriptions), uniqueDisplayNames);
+            // Keep it only if the subscriptions did not change while it was built.
+            if (generation + 1 == sGeneration) {
+                sSnapshot = snapshot;
+            }
+            return snapshot;
+        }
+    }
+
+    /** Drops the current snapshot, the next {@link #get} builds a new one. */
+    @VisibleForTesting
+    public static void invalidate() {
+        synchronized (sLock) {
+            sGeneration++;
+            sSnapshot = null;
+        }
+    }
+
+    /** Returns a number which changes whenever a new snapshot is built. */
+    public int getVersion() {
+        return mVersion;
+    }
+
+    /** Returns the subscriptions available to the user, see {@link SubscriptionUtil}. */
+    @NonNull
+    public List<SubscriptionInfo> getAvailableSubscriptions() {
+        return mAvailableSubscriptions;
+    }
+
+    /** Returns the unique display names of the available subscriptions, by subscription id. */
+    @NonNull
+    public Map<Integer, CharSequence> getUniqueDisplayNames() {
+        return mUniqueDisplayNames;
+    }
+
+    /** Returns the unique display name of a subscription, or "" if it is not available. */
+    @NonNull
+    public CharSequence getUniqueDisplayName(int subscriptionId) {
+        return mUniqueDisplayNames.getOrDefault(subscriptionId, "");
+    }
+
+    // SubscriptionInfo#equals() covers the phone number, the display name is read as well so that
+    // a change of it is seen whatever the implementation.
+    private static List<Object> createKey(List<SubscriptionInfo> subscriptions) {
+        final List<Object> key = new ArrayList<>(subscriptions.size() * 2);
+        for (SubscriptionInfo info : subscriptions) {
+            key.add(info);
+            key.add(info == null ? null : String.valueOf(info.getDisplayName()));
+        }
+        return key;
+    }
+
+    @GuardedBy("sLock")
+    private static void registerListenerLocked(Context context) {
+        if (sListener != null) {
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        final SubscriptionManager subscriptionManager = appContext == null ? null
+                : appContext.getSystemService(SubscriptionManager.class);
+        if (subscriptionManager == null) {
+            return;
+        }
+        sListener = new SubscriptionManager.OnSubscriptionsChangedListener() {
+            @Override
+            public void onSubscriptionsChanged() {
+                invalidate();
+            }
+        };
+        subscriptionManager.addOnSubscriptionsChangedListener(Runnable::run, sListener);
+    }
+}
@@ -62,11 +62,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
-import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class SubscriptionUtil {
     private static final String TAG = "SubscriptionUtil";
@@ -287,43 +285,50 @@ public class SubscriptionUtil {
      */
     @VisibleForTesting
     public static Map<Integer, CharSequence> getUniqueSubscriptionDisplayNames(Context context) {
+        return SubscriptionSnapshot.get(context).getUniqueDisplayNames();
+    }
+
+    /**
+     * Computes the unique display names of {@code subscriptions}, see
+     * {@link #getUniqueSubscriptionDisplayNames}. Callers should use the names kept by
+     * {@link SubscriptionSnapshot} instead.
+     */
+    static Map<Integer, CharSequence> computeUniqueSubscriptionDisplayNames(Context context,
+            List<SubscriptionInfo> subscriptions) {
         class DisplayInfo {
             public SubscriptionInfo subscriptionInfo;
             public CharSequence originalName;
             public CharSequence uniqueName;
         }
 
-        // Map of SubscriptionId to DisplayName
-        final Supplier<Stream<DisplayInfo>> originalInfos =
-                () -> getAvailableSubscriptions(context)
-                        .stream()
-                        .filter(i -> {
-                            // Filter out null values.
-                            return (i != null && i.getDisplayName() != null);
-                        })
-                        .map(i -> {
-                            DisplayInfo info = new DisplayInfo();
-                            info.subscriptionInfo = i;
-                            String displayName = i.getDisplayName().toString();
-                            info.originalName =
-                                    TextUtils.equals(displayName, PROFILE_GENERIC_DISPLAY_NAME)
-                                            ? context.getResources().getString(R.string.sim_card)
-                                            : displayName.trim();
-                            return info;
-                        });
-
-        // TODO(goldmanj) consider using a map of DisplayName to SubscriptionInfos.
+        final List<DisplayInfo> infos = new ArrayList<>(subscriptions.size());
+        for (SubscriptionInfo i : subscriptions) {
+            // Filter out null values.
+            if (i == null || i.getDisplayName() == null) {
+                continue;
+            }
+            DisplayInfo info = new DisplayInfo();
+            info.subscriptionInfo = i;
+            String displayName = i.getDisplayName().toString();
+            info.originalName =
+                    TextUtils.equals(displayName, PROFILE_GENERIC_DISPLAY_NAME)
+                            ? context.getResources().getString(R.string.sim_card)
+                            : displayName.trim();
+            infos.add(info);
+        }
+
         // A Unique set of display names
         Set<CharSequence> uniqueNames = new HashSet<>();
-        // Return the set of duplicate names
-        final Set<CharSequence> duplicateOriginalNames = originalInfos.get()
-                .filter(info -> !uniqueNames.add(info.originalName))
-                .map(info -> info.originalName)
-                .collect(Collectors.toSet());
+        // The set of duplicate names
+        final Set<CharSequence> duplicateOriginalNames = new HashSet<>();
+        for (DisplayInfo info : infos) {
+            if (!uniqueNames.add(info.originalName)) {
+                duplicateOriginalNames.add(info.originalName);
+            }
+        }
 
         // If a display name is duplicate, append the final 4 digits of the phone number.
-        // Creates a mapping of Subscription id to original display name + phone number display name
-        final Supplier<Stream<DisplayInfo>> uniqueInfos = () -> originalInfos.get().map(info -> {
+        for (DisplayInfo info : infos) {
             int infoSubId = info.subscriptionInfo.getSubscriptionId();
             String cachedDisplayName = getDisplayNameFromSharedPreference(
                     context, infoSubId);
@@ -331,7 +336,7 @@ public class SubscriptionUtil {
                 Log.d(TAG, "use cached display name : for subId : " + infoSubId
                         + "cached display name : " + cachedDisplayName);
                 info.uniqueName = cachedDisplayName;
-                return info;
+                continue;
             } else {
                 Log.d(TAG, "remove cached display name : " + infoSubId);
                 removeItemFromDisplayNameSharedPreference(context, infoSubId);
@@ -365,27 +370,28 @@ public class SubscriptionUtil {
             } else {
                 info.uniqueName = info.originalName;
             }
-            return info;
-        });
+        }
 
         // Check uniqueness a second time.
         // We might not have had permission to view the phone numbers.
         // There might also be multiple phone numbers whose last 4 digits the same.
         uniqueNames.clear();
-        final Set<CharSequence> duplicatePhoneNames = uniqueInfos.get()
-                .filter(info -> !uniqueNames.add(info.uniqueName))
-                .map(info -> info.uniqueName)
-                .collect(Collectors.toSet());
+        final Set<CharSequence> duplicatePhoneNames = new HashSet<>();
+        for (DisplayInfo info : infos) {
+            if (!uniqueNames.add(info.uniqueName)) {
+                duplicatePhoneNames.add(info.uniqueName);
+            }
+        }
 
-        return uniqueInfos.get().map(info -> {
+        final Map<Integer, CharSequence> displayNames = new HashMap<>();
+        for (DisplayInfo info : infos) {
             if (duplicatePhoneNames.contains(info.uniqueName)) {
                 info.uniqueName = info.originalName + " "
                         + info.subscriptionInfo.getSubscriptionId();
             }
-            return info;
-        }).collect(Collectors.toMap(
-                info -> info.subscriptionInfo.getSubscriptionId(),
-                info -> info.uniqueName));
+            displayNames.put(info.subscriptionInfo.getSubscriptionId(), info.uniqueName);
+        }
+        return displayNames;
     }
 
     /**
@@ -402,8 +408,7 @@ public class SubscriptionUtil {
     @VisibleForTesting
     public static CharSequence getUniqueSubscriptionDisplayName(
             Integer subscriptionId, Context context) {
-        final Map<Integer, CharSequence> displayNames = getUniqueSubscriptionDisplayNames(context);
-        return displayNames.getOrDefault(subscriptionId, "");
+        return SubscriptionSnapshot.get(context).getUniqueDisplayName(subscriptionId);
     }
 
     /**
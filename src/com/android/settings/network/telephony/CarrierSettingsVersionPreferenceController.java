@@ -42,7 +42,8 @@ public class CarrierSettingsVersionPreferenceController extends BasePreferenceCo
 
     @Override
     public CharSequence getSummary() {
-        final PersistableBundle config = mCarrierConfigCache.getConfigForSubId(mSubscriptionId);
+        final PersistableBundle config = mCarrierConfigCache.getConfigForSubId(mSubscriptionId,
+                CarrierConfigManager.KEY_CARRIER_CONFIG_VERSION_STRING);
         if (config == null) {
             return null;
         }
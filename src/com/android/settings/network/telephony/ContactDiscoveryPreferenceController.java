@@ -46,6 +46,10 @@ public class ContactDiscoveryPreferenceController extends TelephonyTogglePrefere
     private static final String TAG = "ContactDiscoveryPref";
     private static final Uri UCE_URI = Uri.withAppendedPath(Telephony.SimInfo.CONTENT_URI,
             Telephony.SimInfo.COLUMN_IMS_RCS_UCE_ENABLED);
+    @VisibleForTesting
+    static final String[] CARRIER_CONFIG_KEYS = {
+            CarrierConfigManager.KEY_USE_RCS_PRESENCE_BOOL,
+            CarrierConfigManager.Ims.KEY_RCS_BULK_CAPABILITY_EXCHANGE_BOOL};
 
     private ImsManager mImsManager;
     private CarrierConfigCache mCarrierConfigCache;
@@ -94,7 +98,8 @@ public class ContactDiscoveryPreferenceController extends TelephonyTogglePrefere
 
     @Override
     public int getAvailabilityStatus(int subId) {
-        PersistableBundle bundle = mCarrierConfigCache.getConfigForSubId(subId);
+        PersistableBundle bundle = mCarrierConfigCache.getConfigForSubId(subId,
+                CARRIER_CONFIG_KEYS);
         boolean shouldShowPresence = bundle != null
                 && (bundle.getBoolean(
                 CarrierConfigManager.KEY_USE_RCS_PRESENCE_BOOL, false /*default*/)
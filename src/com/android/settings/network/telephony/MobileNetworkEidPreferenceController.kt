@@ -39,9 +39,9 @@ import com.android.settings.deviceinfo.PhoneNumberUtil
 import com.android.settings.flags.Flags
 import com.android.settings.network.SubscriptionInfoListViewModel
 import com.android.settings.network.SubscriptionUtil
+import com.android.settings.utils.QrCodeRenderer
 import com.android.settingslib.CustomDialogPreferenceCompat
 import com.android.settingslib.Utils
-import com.android.settingslib.qrcode.QrCodeGenerator
 import com.android.settingslib.spa.framework.util.collectLatestWithLifecycle
 import com.android.settingslib.spaprivileged.framework.common.userManager
 import kotlinx.coroutines.CoroutineScope
@@ -210,7 +210,7 @@ open class MobileNetworkEidPreferenceController(context: Context, key: String) :
         private suspend fun getEidQrCode(eid: String): Bitmap? = withContext(Dispatchers.Default) {
             try {
                 Log.d(TAG, "updateDialog. getEidQrCode $eid")
-                QrCodeGenerator.encodeQrCode(contents = eid, size = QR_CODE_SIZE)
+                QrCodeRenderer.getInstance().encode(eid, QR_CODE_SIZE)
             } catch (exception: Exception) {
                 Log.w(TAG, "Error when creating QR code width $QR_CODE_SIZE", exception)
                 null
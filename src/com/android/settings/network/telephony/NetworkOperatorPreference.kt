@@ -56,6 +56,8 @@ open class NetworkOperatorPreference(
      */
     @JvmOverloads
     fun updateCell(cellInfo: CellInfo?, cellId: CellIdentity? = cellInfo?.cellIdentity) {
+        // Scan results often repeat the same cell, keep the row untouched then.
+        if (cellInfo != null && cellInfo == this.cellInfo && cellId == this.cellId) return
         this.cellInfo = cellInfo
         this.cellId = cellId
         refresh()
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.telephony;
+
+import android.telephony.CellInfo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates the results of one manual network scan, keeping one cell per network title and
+ * cell type.
+ *
+ * <p>Result batches are merged as they come: a network seen in an earlier batch keeps its
+ * position and gets the newer cell, new networks are appended. This keeps the list shown to the
+ * user stable while an incremental scan goes on.
+ */
+class NetworkScanAggregator {
+
+    private final LinkedHashMap<String, CellInfo> mCellInfos = new LinkedHashMap<>();
+
+    /**
+     * Returns {@code cellInfos} with one cell per network title and cell type, in the order they
+     * first appear. The first registered cell of a network is preferred.
+     */
+    static List<CellInfo> aggregate(List<CellInfo> cellInfos) {
+        return new ArrayList<>(aggregateByKey(cellInfos).values());
+    }
+
+    /** Merges a batch of scan results, in time linear to the size of the batch. */
+    void merge(List<CellInfo> cellInfos) {
+        // Replacing the value of a key keeps its position in the map.
+        mCellInfos.putAll(aggregateByKey(cellInfos));
+    }
+
+    /** Returns the aggregated cells, in the order their network was first seen. */
+    List<CellInfo> getCellInfos() {
+        return new ArrayList<>(mCellInfos.values());
+    }
+
+    /** Forgets the results of the previous scan. */
+    void clear() {
+        mCellInfos.clear();
+    }
+
+    private static Map<String, CellInfo> aggregateByKey(List<CellInfo> cellInfos) {
+        final Map<String, CellInfo> aggregated = new LinkedHashMap<>();
+        for (CellInfo cellInfo : cellInfos) {
+            final String key = CellInfoUtil.getNetworkTitle(cellInfo.getCellIdentity())
+                    + '/' + cellInfo.getClass().getName();
+            final CellInfo existing = aggregated.get(key);
+            // If there are two registered cellinfo items, then select first one from source list.
+            if (existing == null || (cellInfo.isRegistered() && !existing.isRegistered())) {
+                aggregated.put(key, cellInfo);
+            }
+        }
+        return aggregated;
+    }
+}
@@ -55,7 +55,6 @@ import com.android.settingslib.utils.ThreadUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -92,6 +91,7 @@ public class NetworkSelectSettings extends DashboardFragment {
     private boolean mShow4GForLTE = false;
     private NetworkScanHelper mNetworkScanHelper;
     private final ExecutorService mNetworkScanExecutor = Executors.newFixedThreadPool(1);
+    private final NetworkScanAggregator mScanAggregator = new NetworkScanAggregator();
     private MetricsFeatureProvider mMetricsFeatureProvider;
     private boolean mUseNewApi;
     private long mRequestIdManualNetworkSelect;
@@ -391,29 +391,7 @@ public class NetworkSelectSettings extends DashboardFragment {
             Log.d(TAG, "no aggregation");
             return new ArrayList<>(cellInfoListInput);
         }
-        ArrayList<CellInfo> aggregatedList = new ArrayList<>();
-        for (CellInfo cellInfo : cellInfoListInput) {
-            String plmn = CellInfoUtil.getNetworkTitle(cellInfo.getCellIdentity());
-            Class className = cellInfo.getClass();
-
-            Optional<CellInfo> itemInTheList = aggregatedList.stream().filter(
-                    item -> {
-                        String itemPlmn = CellInfoUtil.getNetworkTitle(item.getCellIdentity());
-                        return itemPlmn.equals(plmn) && item.getClass().equals(className);
-                    })
-                    .findFirst();
-            if (itemInTheList.isPresent()) {
-                if (cellInfo.isRegistered() && !itemInTheList.get().isRegistered()) {
-                    // Adding the registered cellinfo item into list. If there are two registered
-                    // cellinfo items, then select first one from source list.
-                    aggregatedList.set(aggregatedList.indexOf(itemInTheList.get()), cellInfo);
-                }
-                continue;
-            }
-            aggregatedList.add(cellInfo);
-        }
-
-        return filterOutSatellitePlmn(aggregatedList);
+        return filterOutSatellitePlmn(NetworkScanAggregator.aggregate(cellInfoListInput));
     }
 
     /* We do not want to expose carrier satellite plmns to the user when manually scan the
@@ -483,7 +461,13 @@ public class NetworkSelectSettings extends DashboardFragment {
             stopNetworkQuery();
         }
 
-        mCellInfoList = doAggregation(results);
+        if (mIsAggregationEnabled) {
+            // Merge with the previous batches of this scan, so that the list stays stable.
+            mScanAggregator.merge(results);
+            mCellInfoList = filterOutSatellitePlmn(mScanAggregator.getCellInfos());
+        } else {
+            mCellInfoList = doAggregation(results);
+        }
         Log.d(TAG, "CellInfoList: " + CellInfoUtil.cellInfoListToString(mCellInfoList));
         if (mCellInfoList != null && mCellInfoList.size() != 0) {
             final NetworkOperatorPreference connectedPref = updateAllPreferenceCategory();
@@ -672,6 +656,7 @@ public class NetworkSelectSettings extends DashboardFragment {
         if (mNetworkScanHelper != null) {
             mRequestIdManualNetworkScan = getNewRequestId();
             mWaitingForNumberOfScanResults = MIN_NUMBER_OF_SCAN_REQUIRED;
+            mScanAggregator.clear();
             mNetworkScanHelper.startNetworkScan(
                     mUseNewApi
                             ? NetworkScanHelper.NETWORK_SCAN_TYPE_INCREMENTAL_RESULTS
@@ -20,12 +20,17 @@ import android.content.Context;
 import android.safetycenter.SafetyCenterManager;
 import android.safetycenter.SafetyEvent;
 import android.safetycenter.SafetySourceData;
+import android.util.ArrayMap;
 import android.util.Log;
 
 import androidx.annotation.Nullable;
 
 import com.android.internal.annotations.VisibleForTesting;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
 /** A wrapper for the SafetyCenterManager system service. */
 public class SafetyCenterManagerWrapper {
 
@@ -39,7 +44,11 @@ public class SafetyCenterManagerWrapper {
     @VisibleForTesting
     public static SafetyCenterManagerWrapper sInstance;
 
-    private SafetyCenterManagerWrapper() {}
+    // Last data sent per source, guarded by itself.
+    private final Map<String, SafetySourceData> mLastSentData = new ArrayMap<>();
+
+    @VisibleForTesting
+    SafetyCenterManagerWrapper() {}
 
     /** Returns an instance of {@link SafetyCenterManagerWrapper}. */
     public static SafetyCenterManagerWrapper get() {
@@ -49,16 +58,51 @@ public class SafetyCenterManagerWrapper {
         return sInstance;
     }
 
-    /** Sets the latest safety source data for Safety Center. */
+    /**
+     * Sets the latest safety source data for Safety Center.
+     *
+     * <p>State changes that leave the data of a source as last sent are dropped. Every other event
+     * is always sent, Safety Center waits for an answer to its refresh requests.
+     */
     public void setSafetySourceData(Context context, String safetySourceId,
             @Nullable SafetySourceData safetySourceData,
             SafetyEvent safetyEvent) {
+        if (safetyEvent.getType() == SafetyEvent.SAFETY_EVENT_TYPE_SOURCE_STATE_CHANGED
+                && isLastSentData(safetySourceId, safetySourceData)) {
+            Log.d(TAG, "Skip unchanged SafetySourceData of " + safetySourceId);
+            return;
+        }
+        final boolean sent =
+                sendSafetySourceData(context, safetySourceId, safetySourceData, safetyEvent);
+        synchronized (mLastSentData) {
+            if (sent) {
+                mLastSentData.put(safetySourceId, safetySourceData);
+            } else {
+                mLastSentData.remove(safetySourceId);
+            }
+        }
+    }
+
+    /**
+     * Forgets the data last sent for {@code safetySourceIds}, so their next state changes are
+     * sent. Called when Safety Center asks for them again, as it may have dropped their data.
+     */
+    public void clearLastSentData(Collection<String> safetySourceIds) {
+        synchronized (mLastSentData) {
+            mLastSentData.keySet().removeAll(safetySourceIds);
+        }
+    }
+
+    /** Sends the data to Safety Center, returns whether it was sent. */
+    @VisibleForTesting
+    boolean sendSafetySourceData(Context context, String safetySourceId,
+            @Nullable SafetySourceData safetySourceData, SafetyEvent safetyEvent) {
         SafetyCenterManager safetyCenterManager =
                 context.getSystemService(SafetyCenterManager.class);
 
         if (safetyCenterManager == null) {
             Log.e(TAG, "System service SAFETY_CENTER_SERVICE (SafetyCenterManager) is null");
-            return;
+            return false;
         }
 
         try {
@@ -69,7 +113,16 @@ public class SafetyCenterManagerWrapper {
             );
         } catch (Exception e) {
             Log.e(TAG, "Failed to send SafetySourceData", e);
-            return;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isLastSentData(String safetySourceId,
+            @Nullable SafetySourceData safetySourceData) {
+        synchronized (mLastSentData) {
+            return mLastSentData.containsKey(safetySourceId)
+                    && Objects.equals(mLastSentData.get(safetySourceId), safetySourceData);
         }
     }
 
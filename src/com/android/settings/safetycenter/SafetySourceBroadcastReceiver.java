@@ -27,17 +27,33 @@ import android.content.Context;
 import android.content.Intent;
 import android.safetycenter.SafetyCenterManager;
 import android.safetycenter.SafetyEvent;
+import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settings.core.BootWorkCoordinator;
 import com.android.settings.privatespace.PrivateSpaceSafetySource;
 import com.android.settings.security.ScreenLockPreferenceDetailsUtils;
+import com.android.settingslib.utils.ThreadUtils;
 
 import com.google.common.collect.ImmutableList;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** Broadcast receiver for handling requests from Safety Center for fresh data. */
 public class SafetySourceBroadcastReceiver extends BroadcastReceiver {
 
+    private static final String TAG = "SafetySourceBroadcastRcv";
+    private static final String TASK_REFRESH_SAFETY_SOURCES = "safety_refresh_all_sources";
+    private static final List<String> ALL_SAFETY_SOURCE_IDS = ImmutableList.of(
+            LockScreenSafetySource.SAFETY_SOURCE_ID,
+            BiometricsSafetySource.SAFETY_SOURCE_ID,
+            PrivateSpaceSafetySource.SAFETY_SOURCE_ID);
+
     private static final SafetyEvent EVENT_DEVICE_REBOOTED =
             new SafetyEvent.Builder(SAFETY_EVENT_TYPE_DEVICE_REBOOTED).build();
 
@@ -53,43 +69,89 @@ public class SafetySourceBroadcastReceiver extends BroadcastReceiver {
             final String refreshBroadcastId = intent.getStringExtra(
                     SafetyCenterManager.EXTRA_REFRESH_SAFETY_SOURCES_BROADCAST_ID);
             if (sourceIdsExtra != null && sourceIdsExtra.length > 0 && refreshBroadcastId != null) {
+                // Safety Center may have dropped the data it asks for, the next state changes must
+                // reach it even if they match the data last sent.
+                SafetyCenterManagerWrapper.get().clearLastSentData(
+                        Arrays.asList(sourceIdsExtra));
                 final SafetyEvent safetyEvent = new SafetyEvent.Builder(
                         SAFETY_EVENT_TYPE_REFRESH_REQUESTED)
                         .setRefreshBroadcastId(refreshBroadcastId).build();
-                refreshSafetySources(
+                final List<Runnable> refreshes = getSafetySourceRefreshes(
                         context,
                         ImmutableList.copyOf(sourceIdsExtra),
                         safetyEvent);
+                final PendingResult result = goAsync();
+                if (result == null) {
+                    refreshes.forEach(Runnable::run);
+                    return;
+                }
+                runInParallel(refreshes, result::finish);
             }
             return;
         }
 
 
         if (ACTION_BOOT_COMPLETED.equals(intent.getAction())) {
-            refreshAllSafetySources(context, EVENT_DEVICE_REBOOTED);
+            BootWorkCoordinator.getInstance().runAsync(this, context,
+                    new BootWorkCoordinator.Task(TASK_REFRESH_SAFETY_SOURCES,
+                            taskContext -> refreshAllSafetySources(
+                                    taskContext, EVENT_DEVICE_REBOOTED)));
         }
     }
 
-    private static void refreshSafetySources(Context context, List<String> sourceIds,
-            SafetyEvent safetyEvent) {
+    private static List<Runnable> getSafetySourceRefreshes(Context context,
+            List<String> sourceIds, SafetyEvent safetyEvent) {
+        final List<Runnable> refreshes = new ArrayList<>();
         if (sourceIds.contains(LockScreenSafetySource.SAFETY_SOURCE_ID)) {
-            LockScreenSafetySource.setSafetySourceData(context,
-                    new ScreenLockPreferenceDetailsUtils(context), safetyEvent);
+            refreshes.add(() -> LockScreenSafetySource.setSafetySourceData(context,
+                    new ScreenLockPreferenceDetailsUtils(context), safetyEvent));
         }
 
         if (sourceIds.contains(BiometricsSafetySource.SAFETY_SOURCE_ID)) {
-            BiometricsSafetySource.setSafetySourceData(context, safetyEvent);
+            refreshes.add(() -> BiometricsSafetySource.setSafetySourceData(context, safetyEvent));
         }
 
         if (sourceIds.contains(PrivateSpaceSafetySource.SAFETY_SOURCE_ID)) {
-            PrivateSpaceSafetySource.setSafetySourceData(context, safetyEvent);
+            refreshes.add(
+                    () -> PrivateSpaceSafetySource.setSafetySourceData(context, safetyEvent));
         }
+        return refreshes;
     }
 
     private static void refreshAllSafetySources(Context context, SafetyEvent safetyEvent) {
-        LockScreenSafetySource.setSafetySourceData(context,
-                new ScreenLockPreferenceDetailsUtils(context), safetyEvent);
-        BiometricsSafetySource.setSafetySourceData(context, safetyEvent);
-        PrivateSpaceSafetySource.setSafetySourceData(context, safetyEvent);
+        final CountDownLatch latch = new CountDownLatch(1);
+        runInParallel(getSafetySourceRefreshes(context, ALL_SAFETY_SOURCE_IDS, safetyEvent),
+                latch::countDown);
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Log.e(TAG, "Interrupted while refreshing safety sources", e);
+        }
+    }
+
+    /**
+     * Computes the sources at the same time, they query unrelated system services. Runs
+     * {@code onDone} once all of them were sent.
+     */
+    @VisibleForTesting
+    static void runInParallel(List<Runnable> refreshes, Runnable onDone) {
+        if (refreshes.isEmpty()) {
+            onDone.run();
+            return;
+        }
+        final AtomicInteger remaining = new AtomicInteger(refreshes.size());
+        for (Runnable refresh : refreshes) {
+            ThreadUtils.postOnBackgroundThread(() -> {
+                try {
+                    refresh.run();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Failed to refresh a safety source", e);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        onDone.run();
+                    }
+                }
+            });
+        }
     }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import android.app.Activity;
+import android.app.settings.SettingsEnums;
+import android.content.ActivityNotFoundException;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.text.TextUtils;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.ListView;
+import android.widget.SearchView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.fragment.app.FragmentActivity;
+
+import com.android.settings.R;
+import com.android.settings.SettingsActivity;
+import com.android.settings.core.SubSettingLauncher;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Searches the settings within Settings, with a {@link LocalSearchIndex}, when the search app is
+ * disabled and {@link SearchFeatureProvider#isLocalSearchEnabled} is true.
+ *
+ * <p>The index is built the first time the search is opened and kept for the life of the process,
+ * only the unavailable settings are looked up again on the next ones.
+ */
+public class LocalSearchActivity extends FragmentActivity
+        implements SearchView.OnQueryTextListener, AdapterView.OnItemClickListener {
+
+    private static final String TAG = "LocalSearchActivity";
+
+    @VisibleForTesting
+    static final int MAX_RESULTS = 50;
+
+    // Loads the index and runs the queries one after the other.
+    private static final ExecutorService sExecutor = Executors.newSingleThreadExecutor();
+    // Only used on sExecutor.
+    private static LocalSearchIndex sIndex;
+
+    private ResultAdapter mAdapter;
+    private String mQuery;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.local_search_activity);
+
+        mAdapter = new ResultAdapter(this);
+        final ListView results = findViewById(R.id.local_search_results);
+        results.setAdapter(mAdapter);
+        results.setOnItemClickListener(this);
+        final SearchView searchView = findViewById(R.id.local_search_view);
+        searchView.setOnQueryTextListener(this);
+
+        final Context appContext = getApplicationContext();
+        sExecutor.execute(() -> loadIndex(appContext));
+    }
+
+    @Override
+    public boolean onQueryTextChange(String newText) {
+        mQuery = newText;
+        sExecutor.execute(() -> {
+            final List<LocalSearchIndex.Entry> results = sIndex.query(newText, MAX_RESULTS);
+            ThreadUtils.postOnMainThread(() -> {
+                // Drop the results of the queries typed over.
+                if (!isDestroyed() && TextUtils.equals(newText, mQuery)) {
+                    mAdapter.setResults(results);
+                }
+            });
+        });
+        return true;
+    }
+
+    @Override
+    public boolean onQueryTextSubmit(String query) {
+        return false;
+    }
+
+    @Override
+    public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+        launch(mAdapter.getItem(position));
+    }
+
+    private static void loadIndex(Context context) {
+        final LocalSearchIndexLoader loader = new LocalSearchIndexLoader(context);
+        if (sIndex == null) {
+            sIndex = new LocalSearchIndex();
+            loader.loadAll(sIndex);
+        } else {
+            loader.refreshNonIndexableKeys(sIndex);
+        }
+    }
+
+    @VisibleForTesting
+    void launch(@NonNull LocalSearchIndex.Entry entry) {
+        if (!TextUtils.isEmpty(entry.getIntentAction())) {
+            final Intent intent = new Intent(entry.getIntentAction());
+            if (!TextUtils.isEmpty(entry.getIntentTargetPackage())
+                    && !TextUtils.isEmpty(entry.getIntentTargetClass())) {
+                intent.setClassName(entry.getIntentTargetPackage(),
+                        entry.getIntentTargetClass());
+            }
+            try {
+                startActivity(intent);
+            } catch (ActivityNotFoundException e) {
+                Log.w(TAG, "No activity for " + entry, e);
+            }
+            return;
+        }
+
+        final Class<?> pageClass;
+        try {
+            pageClass = Class.forName(entry.getClassName());
+        } catch (ClassNotFoundException e) {
+            Log.w(TAG, "No page for " + entry, e);
+            return;
+        }
+        if (Activity.class.isAssignableFrom(pageClass)) {
+            startActivity(new Intent(this, pageClass)
+                    .putExtra(SettingsActivity.EXTRA_FRAGMENT_ARG_KEY, entry.getKey()));
+            return;
+        }
+        // Like the results of the search app, the setting is highlighted on its page.
+        final Bundle args = new Bundle();
+        args.putString(SettingsActivity.EXTRA_FRAGMENT_ARG_KEY, entry.getKey());
+        new SubSettingLauncher(this)
+                .setDestination(entry.getClassName())
+                .setArguments(args)
+                .setTitleText(entry.getScreenTitle())
+                .setSourceMetricsCategory(SettingsEnums.PAGE_UNKNOWN)
+                .launch();
+    }
+
+    private static class ResultAdapter extends ArrayAdapter<LocalSearchIndex.Entry> {
+
+        ResultAdapter(Context context) {
+            super(context, android.R.layout.simple_list_item_2, android.R.id.text1);
+        }
+
+        void setResults(List<LocalSearchIndex.Entry> results) {
+            setNotifyOnChange(false);
+            clear();
+            addAll(results);
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            final View view = super.getView(position, convertView, parent);
+            final LocalSearchIndex.Entry entry = getItem(position);
+            ((TextView) view.findViewById(android.R.id.text1)).setText(entry.getTitle());
+            ((TextView) view.findViewById(android.R.id.text2)).setText(
+                    !TextUtils.isEmpty(entry.getScreenTitle())
+                            ? entry.getScreenTitle() : entry.getSummary());
+            return view;
+        }
+    }
+}
@@ -0,0 +1,568 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An in-process index of the settings, for builds without a search app.
+ *
+ * <p>The words of the title, keywords, summary and screen title of every entry are indexed by
+ * their trigrams, the first one being anchored at the start of the word. A query only scores the
+ * entries sharing a trigram with each of its words, so a query over a few thousand entries looks
+ * at a few dozen of them. Every query word must match a word of the entry, exactly, as a prefix,
+ * within it, or with a typo or two for long words. Matches in the title rank first.
+ *
+ * <p>Entries are grouped by the class of their page so that the entries of one page can be
+ * replaced when it changes. The index is safe to use from several threads.
+ */
+public class LocalSearchIndex {
+
+    // Field weights.
+    private static final int WEIGHT_TITLE = 4;
+    private static final int WEIGHT_KEYWORDS = 3;
+    private static final int WEIGHT_SUMMARY = 1;
+
+    // Scores of a query word, by the way it matches a word of an entry.
+    private static final int MATCH_EXACT = 10;
+    private static final int MATCH_PREFIX = 7;
+    private static final int MATCH_SUBSTRING = 3;
+    private static final int MATCH_FUZZY = 2;
+
+    // Bonus of the entries whose title starts with the whole query.
+    private static final int TITLE_PREFIX_BONUS = 20;
+
+    private static final char WORD_START = '\u0001';
+
+    /** A setting which can be found. */
+    public static final class Entry {
+        private final String mKey;
+        private final String mTitle;
+        private final String mSummary;
+        private final String mKeywords;
+        private final String mScreenTitle;
+        private final String mClassName;
+        private final String mParentClassName;
+        private final String mIntentAction;
+        private final String mIntentTargetPackage;
+        private final String mIntentTargetClass;
+
+        private Entry(Builder builder) {
+            mKey = builder.mKey;
+            mTitle = builder.mTitle;
+            mSummary = builder.mSummary;
+            mKeywords = builder.mKeywords;
+            mScreenTitle = builder.mScreenTitle;
+            mClassName = builder.mClassName;
+            mParentClassName = builder.mParentClassName;
+            mIntentAction = builder.mIntentAction;
+            mIntentTargetPackage = builder.mIntentTargetPackage;
+            mIntentTargetClass = builder.mIntentTargetClass;
+        }
+
+        /** Returns the key of the preference, which is highlighted once its page opens. */
+        @Nullable
+        public String getKey() {
+            return mKey;
+        }
+
+        @NonNull
+        public String getTitle() {
+            return mTitle;
+        }
+
+        @Nullable
+        public String getSummary() {
+            return mSummary;
+        }
+
+        @Nullable
+        public String getKeywords() {
+            return mKeywords;
+        }
+
+        @Nullable
+        public String getScreenTitle() {
+            return mScreenTitle;
+        }
+
+        /** Returns the class of the page showing the setting. */
+        @Nullable
+        public String getClassName() {
+            return mClassName;
+        }
+
+        /** Returns the class of the page leading to {@link #getClassName()}, if it is known. */
+        @Nullable
+        public String getParentClassName() {
+            return mParentClassName;
+        }
+
+        @Nullable
+        public String getIntentAction() {
+            return mIntentAction;
+        }
+
+        @Nullable
+        public String getIntentTargetPackage() {
+            return mIntentTargetPackage;
+        }
+
+        @Nullable
+        public String getIntentTargetClass() {
+            return mIntentTargetClass;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" + mClassName + "/" + mKey + ": " + mTitle + "}";
+        }
+
+        /** Builds an {@link Entry}, only the title is required. */
+        public static class Builder {
+            private String mKey;
+            private String mTitle;
+            private String mSummary;
+            private String mKeywords;
+            private String mScreenTitle;
+            private String mClassName;
+            private String mParentClassName;
+            private String mIntentAction;
+            private String mIntentTargetPackage;
+            private String mIntentTargetClass;
+
+            public Builder setKey(String key) {
+                mKey = key;
+                return this;
+            }
+
+            public Builder setTitle(String title) {
+                mTitle = title;
+                return this;
+            }
+
+            public Builder setSummary(String summary) {
+                mSummary = summary;
+                return this;
+            }
+
+            public Builder setKeywords(String keywords) {
+                mKeywords = keywords;
+                return this;
+            }
+
+            public Builder setScreenTitle(String screenTitle) {
+                mScreenTitle = screenTitle;
+                return this;
+            }
+
+            public Builder setClassName(String className) {
+                mClassName = className;
+                return this;
+            }
+
+            public Builder setParentClassName(String parentClassName) {
+                mParentClassName = parentClassName;
+                return this;
+            }
+
+            public Builder setIntentAction(String intentAction) {
+                mIntentAction = intentAction;
+                return this;
+            }
+
+            public Builder setIntentTargetPackage(String intentTargetPackage) {
+                mIntentTargetPackage = intentTargetPackage;
+                return this;
+            }
+
+            public Builder setIntentTargetClass(String intentTargetClass) {
+                mIntentTargetClass = intentTargetClass;
+                return this;
+            }
+
+            /** @throws IllegalStateException if the title is empty */
+            public Entry build() {
+                if (TextUtils.isEmpty(mTitle)) {
+                    throw new IllegalStateException("Title cannot be empty");
+                }
+                return new Entry(this);
+            }
+        }
+    }
+
+    /** An entry with its normalized words, by field. */
+    private static final class IndexedEntry {
+        final Entry mEntry;
+        final String mNormalizedTitle;
+        final String[] mTitleWords;
+        final String[] mKeywordWords;
+        final String[] mSummaryWords;
+
+        IndexedEntry(Entry entry) {
+            mEntry = entry;
+            mNormalizedTitle = normalize(entry.getTitle());
+            mTitleWords = splitWords(mNormalizedTitle);
+            mKeywordWords = splitWords(normalize(entry.getKeywords()));
+            mSummaryWords = splitWords(normalize(entry.getSummary()) + " "
+                    + normalize(entry.getScreenTitle()));
+        }
+    }
+
+    /** A growable list of entry ids. */
+    private static final class Postings {
+        int[] mIds = new int[4];
+        int mSize;
+
+        void add(int id) {
+            if (mSize == mIds.length) {
+                mIds = Arrays.copyOf(mIds, mSize * 2);
+            }
+            mIds[mSize++] = id;
+        }
+    }
+
+    // Entries by id, null once removed.
+    private final List<IndexedEntry> mEntries = new ArrayList<>();
+    private final Map<String, Postings> mPostings = new HashMap<>();
+    private final Map<String, List<Integer>> mIdsByClassName = new HashMap<>();
+    // Keys of the unavailable settings, by the class of their page.
+    private final Map<String, Set<String>> mNonIndexableKeys = new HashMap<>();
+    private int mRemovedCount;
+
+    /** Replaces all the entries of the index. */
+    public synchronized void setEntries(@NonNull Collection<Entry> entries) {
+        mEntries.clear();
+        mPostings.clear();
+        mIdsByClassName.clear();
+        mRemovedCount = 0;
+        for (Entry entry : entries) {
+            addLocked(entry);
+        }
+    }
+
+    /** Replaces the entries of the page {@code className} with {@code entries}. */
+    public synchronized void updateEntries(@Nullable String className,
+            @NonNull Collection<Entry> entries) {
+        final List<Integer> ids = mIdsByClassName.remove(className);
+        if (ids != null) {
+            for (int id : ids) {
+                mEntries.set(id, null);
+            }
+            mRemovedCount += ids.size();
+        }
+        for (Entry entry : entries) {
+            addLocked(entry);
+        }
+        // The postings of the removed entries are dropped once they are the majority.
+        if (mRemovedCount > mEntries.size() / 2) {
+            compactLocked();
+        }
+    }
+
+    /**
+     * Sets the keys of the settings which are not available at the moment, by the class of their
+     * page, they are left out of the results. A key only hides the entries of its page, other
+     * pages may use the same key for another setting.
+     */
+    public synchronized void setNonIndexableKeys(
+            @NonNull Map<String, ? extends Collection<String>> keysByClassName) {
+        mNonIndexableKeys.clear();
+        for (Map.Entry<String, ? extends Collection<String>> keys
+                : keysByClassName.entrySet()) {
+            mNonIndexableKeys.put(keys.getKey(), new HashSet<>(keys.getValue()));
+        }
+    }
+
+    /** Returns the number of entries in the index. */
+    public synchronized int size() {
+        return mEntries.size() - mRemovedCount;
+    }
+
+    /**
+     * Returns the entries matching {@code query}, the best match first.
+     *
+     * @param maxResults the maximum number of entries returned
+     */
+    @NonNull
+    public synchronized List<Entry> query(@Nullable String query, int maxResults) {
+        final String normalizedQuery = normalize(query);
+        final String[] queryWords = splitWords(normalizedQuery);
+        if (queryWords.length == 0 || maxResults <= 0) {
+            return Collections.emptyList();
+        }
+
+        final List<ScoredEntry> scored = new ArrayList<>();
+        for (int id : findCandidatesLocked(queryWords)) {
+            final IndexedEntry entry = mEntries.get(id);
+            if (entry == null || isNonIndexableLocked(entry.mEntry)) {
+                continue;
+            }
+            final int score = score(entry, queryWords, normalizedQuery);
+            if (score > 0) {
+                scored.add(new ScoredEntry(id, entry, score));
+            }
+        }
+        scored.sort((a, b) -> {
+            if (a.mScore != b.mScore) {
+                return Integer.compare(b.mScore, a.mScore);
+            }
+            final int titleOrder = a.mEntry.mNormalizedTitle.compareTo(
+                    b.mEntry.mNormalizedTitle);
+            return titleOrder != 0 ? titleOrder : Integer.compare(a.mId, b.mId);
+        });
+
+        final List<Entry> results = new ArrayList<>(Math.min(maxResults, scored.size()));
+        for (int i = 0; i < scored.size() && results.size() < maxResults; i++) {
+            results.add(scored.get(i).mEntry.mEntry);
+        }
+        return results;
+    }
+
+    private static final class ScoredEntry {
+        final int mId;
+        final IndexedEntry mEntry;
+        final int mScore;
+
+        ScoredEntry(int id, IndexedEntry entry, int score) {
+            mId = id;
+            mEntry = entry;
+            mScore = score;
+        }
+    }
+
+    private boolean isNonIndexableLocked(Entry entry) {
+        final Set<String> keys = mNonIndexableKeys.get(entry.getClassName());
+        return keys != null && keys.contains(entry.getKey());
+    }
+
+    private void addLocked(Entry entry) {
+        final int id = mEntries.size();
+        final IndexedEntry indexed = new IndexedEntry(entry);
+        mEntries.add(indexed);
+        mIdsByClassName.computeIfAbsent(entry.getClassName(), k -> new ArrayList<>()).add(id);
+
+        final Set<String> trigrams = new HashSet<>();
+        addTrigrams(indexed.mTitleWords, trigrams);
+        addTrigrams(indexed.mKeywordWords, trigrams);
+        addTrigrams(indexed.mSummaryWords, trigrams);
+        for (String trigram : trigrams) {
+            mPostings.computeIfAbsent(trigram, k -> new Postings()).add(id);
+        }
+    }
+
+    private void compactLocked() {
+        final List<Entry> entries = new ArrayList<>(size());
+        for (IndexedEntry entry : mEntries) {
+            if (entry != null) {
+                entries.add(entry.mEntry);
+            }
+        }
+        setEntries(entries);
+    }
+
+    /** Returns the ids of the entries which may match all of {@code queryWords}. */
+    private Collection<Integer> findCandidatesLocked(String[] queryWords) {
+        Set<Integer> candidates = null;
+        for (String word : queryWords) {
+            final Set<String> trigrams = new HashSet<>();
+            addTrigrams(new String[] {word}, trigrams);
+            if (trigrams.isEmpty()) {
+                // Single letters have no trigram, they are checked against every candidate.
+                continue;
+            }
+            final Set<Integer> wordCandidates = new HashSet<>();
+            for (String trigram : trigrams) {
+                final Postings postings = mPostings.get(trigram);
+                if (postings == null) {
+                    continue;
+                }
+                for (int i = 0; i < postings.mSize; i++) {
+                    wordCandidates.add(postings.mIds[i]);
+                }
+            }
+            if (candidates == null) {
+                candidates = wordCandidates;
+            } else {
+                candidates.retainAll(wordCandidates);
+            }
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        if (candidates == null) {
+            // Only single letters, look at all entries.
+            candidates = new HashSet<>();
+            for (int i = 0; i < mEntries.size(); i++) {
+                candidates.add(i);
+            }
+        }
+        return candidates;
+    }
+
+    private static int score(IndexedEntry entry, String[] queryWords, String normalizedQuery) {
+        int total = 0;
+        for (String queryWord : queryWords) {
+            final int best = Math.max(WEIGHT_TITLE * matchScore(queryWord, entry.mTitleWords),
+                    Math.max(WEIGHT_KEYWORDS * matchScore(queryWord, entry.mKeywordWords),
+                            WEIGHT_SUMMARY * matchScore(queryWord, entry.mSummaryWords)));
+            if (best == 0) {
+                // All the query words must match.
+                return 0;
+            }
+            total += best;
+        }
+        if (entry.mNormalizedTitle.startsWith(normalizedQuery)) {
+            total += TITLE_PREFIX_BONUS;
+        }
+        return total;
+    }
+
+    private static int matchScore(String queryWord, String[] words) {
+        int best = 0;
+        for (String word : words) {
+            final int score;
+            if (word.equals(queryWord)) {
+                return MATCH_EXACT;
+            } else if (word.startsWith(queryWord)) {
+                score = MATCH_PREFIX;
+            } else if (queryWord.length() >= 3 && word.contains(queryWord)) {
+                score = MATCH_SUBSTRING;
+            } else if (isFuzzyMatch(queryWord, word)) {
+                score = MATCH_FUZZY;
+            } else {
+                score = 0;
+            }
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    /**
+     * Returns whether {@code queryWord} is a typo of {@code word} or of its start: one edit is
+     * allowed from 4 letters and two from 8, swapping two letters counting as one edit.
+     */
+    @VisibleForTesting
+    static boolean isFuzzyMatch(String queryWord, String word) {
+        final int maxEdits = queryWord.length() >= 8 ? 2 : queryWord.length() >= 4 ? 1 : 0;
+        if (maxEdits == 0) {
+            return false;
+        }
+        // Compare to the starts of the word of about the length of the query word.
+        final int minLength = Math.max(1, queryWord.length() - maxEdits);
+        final int maxLength = Math.min(word.length(), queryWord.length() + maxEdits);
+        if (minLength > maxLength) {
+            return false;
+        }
+
+        // Edit distances between the starts of the query word and of the word, computed row by
+        // row, a row for each letter of the query word.
+        int[] beforePrevious = new int[maxLength + 1];
+        int[] previous = new int[maxLength + 1];
+        int[] current = new int[maxLength + 1];
+        for (int j = 0; j <= maxLength; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= queryWord.length(); i++) {
+            final char queryChar = queryWord.charAt(i - 1);
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= maxLength; j++) {
+                final int cost = queryChar == word.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + cost);
+                if (i > 1 && j > 1 && queryChar == word.charAt(j - 2)
+                        && queryWord.charAt(i - 2) == word.charAt(j - 1)) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            final int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        for (int j = minLength; j <= maxLength; j++) {
+            if (previous[j] <= maxEdits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Adds the trigrams of {@code words}, the first one starting with {@link #WORD_START}. */
+    private static void addTrigrams(String[] words, Set<String> trigrams) {
+        for (String word : words) {
+            final String anchored = WORD_START + word;
+            for (int i = 0; i + 3 <= anchored.length(); i++) {
+                trigrams.add(anchored.substring(i, i + 3));
+            }
+        }
+    }
+
+    /**
+     * Lower cases {@code text} and removes its accents and punctuation. Hyphens, apostrophes and
+     * periods are dropped so that "Wi-Fi" is found as "wifi", the other punctuation separates
+     * words.
+     */
+    @VisibleForTesting
+    static String normalize(@Nullable String text) {
+        if (text == null) {
+            return "";
+        }
+        final String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        final StringBuilder builder = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            final char c = decomposed.charAt(i);
+            final int type = Character.getType(c);
+            if (type == Character.NON_SPACING_MARK || type == Character.DASH_PUNCTUATION
+                    || c == '\'' || c == '\u2019' || c == '.') {
+                continue;
+            }
+            builder.append(Character.isLetterOrDigit(c) ? c : ' ');
+        }
+        return builder.toString().toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static String[] splitWords(String normalized) {
+        // Drop the repeated words, they don't change the score.
+        final Set<String> words = new LinkedHashSet<>(Arrays.asList(normalized.split(" +")));
+        words.remove("");
+        return words.toArray(new String[0]);
+    }
+}
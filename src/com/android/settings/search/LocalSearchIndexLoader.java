@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import static com.android.settings.core.PreferenceXmlParserUtils.METADATA_KEY;
+import static com.android.settings.core.PreferenceXmlParserUtils.METADATA_KEYWORDS;
+import static com.android.settings.core.PreferenceXmlParserUtils.METADATA_PREF_TYPE;
+import static com.android.settings.core.PreferenceXmlParserUtils.METADATA_SEARCHABLE;
+import static com.android.settings.core.PreferenceXmlParserUtils.METADATA_SUMMARY;
+import static com.android.settings.core.PreferenceXmlParserUtils.METADATA_TITLE;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_INCLUDE_PREF_SCREEN;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_KEY;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_KEYWORDS;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_PREF_SUMMARY;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_PREF_TITLE;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_PREF_TYPE;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_SEARCHABLE;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.provider.SearchIndexableResource;
+import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.util.Log;
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settings.core.PreferenceXmlParserUtils;
+import com.android.settings.overlay.FeatureFactory;
+import com.android.settingslib.search.Indexable;
+import com.android.settingslib.search.SearchIndexableData;
+import com.android.settingslib.search.SearchIndexableRaw;
+
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills a {@link LocalSearchIndex} with the data the search index providers give to the search
+ * app through {@link SettingsSearchIndexablesProvider}: the preferences of their XML resources,
+ * their raw data and their non-indexable keys. The parent of each page comes from
+ * {@link CustomSiteMapRegistry}.
+ */
+public class LocalSearchIndexLoader {
+
+    private static final String TAG = "LocalSearchIndexLoader";
+
+    private static final String PREFERENCE_SCREEN = "PreferenceScreen";
+    private static final int XML_FLAGS = FLAG_INCLUDE_PREF_SCREEN | FLAG_NEED_PREF_TYPE
+            | FLAG_NEED_KEY | FLAG_NEED_PREF_TITLE | FLAG_NEED_PREF_SUMMARY | FLAG_NEED_KEYWORDS
+            | FLAG_NEED_SEARCHABLE;
+
+    private final Context mContext;
+    private final SearchIndexableExecutor mExecutor;
+
+    public LocalSearchIndexLoader(@NonNull Context context) {
+        this(context, new SearchIndexableExecutor());
+    }
+
+    @VisibleForTesting
+    LocalSearchIndexLoader(Context context, SearchIndexableExecutor executor) {
+        mContext = context.getApplicationContext() != null
+                ? context.getApplicationContext() : context;
+        mExecutor = executor;
+    }
+
+    /** Indexes the pages of all the providers, and their non-indexable keys. */
+    @WorkerThread
+    public void loadAll(@NonNull LocalSearchIndex index) {
+        index.setEntries(mExecutor.run("build local search index", getBundles(),
+                this::buildEntries));
+        refreshNonIndexableKeys(index);
+    }
+
+    /** Indexes the page of {@code bundle} again, replacing its previous entries. */
+    @WorkerThread
+    public void reload(@NonNull LocalSearchIndex index, @NonNull SearchIndexableData bundle) {
+        index.updateEntries(bundle.getTargetClass().getName(), buildEntries(bundle));
+    }
+
+    /**
+     * Updates the keys of the settings which are unavailable, they change with the state of the
+     * device whereas the pages don't.
+     */
+    @WorkerThread
+    public void refreshNonIndexableKeys(@NonNull LocalSearchIndex index) {
+        index.setNonIndexableKeys(getNonIndexableKeys(getBundles()));
+    }
+
+    /** Returns the non-indexable keys of {@code bundles}, by the class of their page. */
+    @VisibleForTesting
+    Map<String, List<String>> getNonIndexableKeys(Collection<SearchIndexableData> bundles) {
+        final List<Pair<String, List<String>>> keys = mExecutor.run("get non-indexable keys",
+                bundles, bundle -> Collections.singletonList(Pair.create(
+                        bundle.getTargetClass().getName(),
+                        bundle.getSearchIndexProvider().getNonIndexableKeys(mContext))),
+                /* rerunTimedOut= */ true);
+        final Map<String, List<String>> keysByClassName = new ArrayMap<>(keys.size());
+        for (Pair<String, List<String>> pageKeys : keys) {
+            if (pageKeys.second != null) {
+                keysByClassName.computeIfAbsent(pageKeys.first, k -> new ArrayList<>())
+                        .addAll(pageKeys.second);
+            }
+        }
+        return keysByClassName;
+    }
+
+    private Collection<SearchIndexableData> getBundles() {
+        return FeatureFactory.getFeatureFactory().getSearchFeatureProvider()
+                .getSearchIndexableResources().getProviderValues();
+    }
+
+    @VisibleForTesting
+    List<LocalSearchIndex.Entry> buildEntries(SearchIndexableData bundle) {
+        final String className = bundle.getTargetClass().getName();
+        final Indexable.SearchIndexProvider provider = bundle.getSearchIndexProvider();
+        // Like for the search app, all the entries of a provider open the page of its class, so
+        // they are all replaced when the provider is loaded again.
+        final List<LocalSearchIndex.Entry> entries = new ArrayList<>();
+
+        final List<SearchIndexableResource> resources =
+                provider.getXmlResourcesToIndex(mContext, true /* enabled */);
+        if (resources != null) {
+            for (SearchIndexableResource resource : resources) {
+                addXmlEntries(resource, className, entries);
+            }
+        }
+        addRawEntries(provider.getRawDataToIndex(mContext, true /* enabled */), className,
+                entries);
+        addRawEntries(provider.getDynamicRawDataToIndex(mContext, true /* enabled */), className,
+                entries);
+        return entries;
+    }
+
+    private void addXmlEntries(SearchIndexableResource resource, String className,
+            List<LocalSearchIndex.Entry> entries) {
+        final List<Bundle> metadata;
+        try {
+            metadata = PreferenceXmlParserUtils.extractMetadata(mContext, resource.xmlResId,
+                    XML_FLAGS);
+        } catch (IOException | XmlPullParserException e) {
+            Log.w(TAG, "Error parsing xml " + resource.xmlResId + " of " + className, e);
+            return;
+        }
+
+        String screenTitle = null;
+        for (Bundle preference : metadata) {
+            final String title = preference.getString(METADATA_TITLE);
+            if (PREFERENCE_SCREEN.equals(preference.getString(METADATA_PREF_TYPE))) {
+                screenTitle = title;
+                continue;
+            }
+            if (TextUtils.isEmpty(title) || !preference.getBoolean(METADATA_SEARCHABLE, true)) {
+                continue;
+            }
+            entries.add(new LocalSearchIndex.Entry.Builder()
+                    .setKey(preference.getString(METADATA_KEY))
+                    .setTitle(title)
+                    .setSummary(preference.getString(METADATA_SUMMARY))
+                    .setKeywords(preference.getString(METADATA_KEYWORDS))
+                    .setScreenTitle(screenTitle)
+                    .setClassName(className)
+                    .setParentClassName(CustomSiteMapRegistry.CUSTOM_SITE_MAP.get(className))
+                    .setIntentAction(resource.intentAction)
+                    .setIntentTargetPackage(resource.intentTargetPackage)
+                    .setIntentTargetClass(resource.intentTargetClass)
+                    .build());
+        }
+    }
+
+    private static void addRawEntries(List<SearchIndexableRaw> raws, String className,
+            List<LocalSearchIndex.Entry> entries) {
+        if (raws == null) {
+            return;
+        }
+        for (SearchIndexableRaw raw : raws) {
+            if (TextUtils.isEmpty(raw.title)) {
+                continue;
+            }
+            entries.add(new LocalSearchIndex.Entry.Builder()
+                    .setKey(raw.key)
+                    .setTitle(raw.title)
+                    .setSummary(raw.summaryOn)
+                    .setKeywords(raw.keywords)
+                    .setScreenTitle(raw.screenTitle)
+                    .setClassName(className)
+                    .setParentClassName(CustomSiteMapRegistry.CUSTOM_SITE_MAP.get(className))
+                    .setIntentAction(raw.intentAction)
+                    .setIntentTargetPackage(raw.intentTargetPackage)
+                    .setIntentTargetClass(raw.intentTargetClass)
+                    .build());
+        }
+    }
+}
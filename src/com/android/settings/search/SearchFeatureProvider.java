@@ -86,11 +86,17 @@ public interface SearchFeatureProvider {
         }
 
         if (!WizardManagerHelper.isDeviceProvisioned(activity)
-                || !Utils.isPackageEnabled(activity, getSettingsIntelligencePkgName(activity))
                 || WizardManagerHelper.isAnySetupWizard(activity.getIntent())) {
-            final ViewGroup parent = (ViewGroup) toolbar.getParent();
-            if (parent != null) {
-                parent.setVisibility(View.GONE);
+            hideSearchToolbar(toolbar);
+            return;
+        }
+        if (!Utils.isPackageEnabled(activity, getSettingsIntelligencePkgName(activity))) {
+            if (isLocalSearchEnabled(activity)) {
+                // Without the search app, the settings are searched within Settings.
+                toolbar.setOnClickListener(tb -> activity.startActivity(
+                        new Intent(activity, LocalSearchActivity.class)));
+            } else {
+                hideSearchToolbar(toolbar);
             }
             return;
         }
@@ -134,6 +140,22 @@ public interface SearchFeatureProvider {
         toolbar.setAllowedHandwritingDelegatePackage(intent.getPackage());
     }
 
+    /**
+     * Returns whether the settings are searched within Settings, with
+     * {@link LocalSearchActivity}, when the search app is disabled.
+     */
+    default boolean isLocalSearchEnabled(Context context) {
+        return context.getResources().getBoolean(R.bool.config_local_search_enabled);
+    }
+
+    /** Hides the search bar holding {@code toolbar}. */
+    private static void hideSearchToolbar(Toolbar toolbar) {
+        final ViewGroup parent = (ViewGroup) toolbar.getParent();
+        if (parent != null) {
+            parent.setVisibility(View.GONE);
+        }
+    }
+
     /** Start the search activity. */
     private static void startSearchActivity(
             Context context, FragmentActivity activity, int pageId, Intent intent) {
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.search.SearchIndexableData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs an indexing step for every {@link SearchIndexableData} on a pool of threads.
+ *
+ * <p>Most of the time of a step is spent by the providers creating their controllers and asking
+ * them whether they are available, which often needs binder calls. The providers don't depend
+ * on each other, so they run in parallel and their results are merged in the order of the
+ * providers, whatever the order they finish in. A provider which throws contributes nothing,
+ * the results of the others are kept. A provider which doesn't finish in time from the moment it
+ * started contributes nothing either, unless the step asks for it to be run again.
+ */
+class SearchIndexableExecutor {
+
+    private static final String TAG = "SearchIndexableExecutor";
+
+    @VisibleForTesting
+    static final long PROVIDER_TIMEOUT_MS = 5000;
+
+    // Providers slower than this are reported in debuggable builds.
+    private static final long SLOW_PROVIDER_MS = 50;
+
+    /** The indexing step of one provider. */
+    interface Step<T> {
+        @Nullable
+        List<T> run(SearchIndexableData bundle) throws Exception;
+    }
+
+    private final int mThreadCount;
+    private final long mTimeoutMs;
+
+    SearchIndexableExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), PROVIDER_TIMEOUT_MS);
+    }
+
+    @VisibleForTesting
+    SearchIndexableExecutor(int threadCount, long timeoutMs) {
+        mThreadCount = threadCount;
+        mTimeoutMs = timeoutMs;
+    }
+
+    /**
+     * Runs {@code step} for each of {@code bundles} and returns all their results, in the order of
+     * {@code bundles}. The providers which time out contribute nothing.
+     *
+     * @param stepName the name of the step, used in the logs
+     */
+    <T> List<T> run(String stepName, Collection<SearchIndexableData> bundles, Step<T> step) {
+        return run(stepName, bundles, step, /* rerunTimedOut= */ false);
+    }
+
+    /**
+     * Runs {@code step} for each of {@code bundles} and returns all their results, in the order of
+     * {@code bundles}.
+     *
+     * @param stepName the name of the step, used in the logs
+     * @param rerunTimedOut whether the providers which time out are run again on the calling
+     *     thread, without timeout, for steps whose results must be complete: leaving out the
+     *     non-indexable keys of a provider would make its unavailable settings searchable
+     */
+    <T> List<T> run(String stepName, Collection<SearchIndexableData> bundles, Step<T> step,
+            boolean rerunTimedOut) {
+        final List<SearchIndexableData> providers = new ArrayList<>(bundles);
+        final List<T> results = new ArrayList<>();
+        final int threadCount = Math.min(mThreadCount, providers.size());
+
+        // Nothing to gain from another thread.
+        if (threadCount <= 1) {
+            for (SearchIndexableData bundle : providers) {
+                try {
+                    addResult(results, runStep(stepName, bundle, step));
+                } catch (Exception e) {
+                    onProviderError(stepName, bundle, e);
+                }
+            }
+            return results;
+        }
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+                0L /* keepAliveTime */, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        final List<ProviderTask<T>> tasks = new ArrayList<>(providers.size());
+        final List<Future<List<T>>> futures = new ArrayList<>(providers.size());
+        final List<List<T>> providerResults = new ArrayList<>(providers.size());
+        final List<Integer> timedOut = new ArrayList<>();
+        try {
+            for (SearchIndexableData bundle : providers) {
+                final ProviderTask<T> task = new ProviderTask<>(stepName, bundle, step);
+                tasks.add(task);
+                futures.add(executor.submit(task));
+            }
+            for (int i = 0; i < providers.size(); i++) {
+                final SearchIndexableData bundle = providers.get(i);
+                final Future<List<T>> future = futures.get(i);
+                providerResults.add(null);
+                try {
+                    providerResults.set(i, await(tasks.get(i), future));
+                } catch (TimeoutException e) {
+                    future.cancel(/* mayInterruptIfRunning= */ true);
+                    Log.w(TAG, stepName + " timed out for: " + bundle.getTargetClass().getName());
+                    timedOut.add(i);
+                    // The provider may ignore the interruption and keep its thread, so the
+                    // providers still waiting get another one.
+                    executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+                    executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+                } catch (ExecutionException e) {
+                    onProviderError(stepName, bundle, e.getCause());
+                } catch (InterruptedException e) {
+                    Log.w(TAG, stepName + " interrupted", e);
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (rerunTimedOut && !Thread.currentThread().isInterrupted()) {
+            for (int i : timedOut) {
+                final SearchIndexableData bundle = providers.get(i);
+                try {
+                    providerResults.set(i, runStep(stepName, bundle, step));
+                } catch (Exception e) {
+                    onProviderError(stepName, bundle, e);
+                }
+            }
+        }
+        for (List<T> result : providerResults) {
+            addResult(results, result);
+        }
+        return results;
+    }
+
+    /**
+     * Waits for the result of {@code task}, at most {@link #mTimeoutMs} from the time it started:
+     * the time it waited for a thread doesn't count.
+     */
+    private <T> List<T> await(ProviderTask<T> task, Future<List<T>> future)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        while (true) {
+            final long waitMs = task.mStarted
+                    ? task.mStartTimeMs + mTimeoutMs - uptimeMs() : mTimeoutMs;
+            try {
+                return future.get(Math.max(0, waitMs), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (task.mStarted && uptimeMs() - task.mStartTimeMs >= mTimeoutMs) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Real time, unlike SystemClock in tests, as the timeouts are real waits.
+    private static long uptimeMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /** Runs the step of a provider, remembering when it started. */
+    private static final class ProviderTask<T> implements Callable<List<T>> {
+        private final String mStepName;
+        private final SearchIndexableData mBundle;
+        private final Step<T> mStep;
+        volatile long mStartTimeMs;
+        // Set after mStartTimeMs.
+        volatile boolean mStarted;
+
+        ProviderTask(String stepName, SearchIndexableData bundle, Step<T> step) {
+            mStepName = stepName;
+            mBundle = bundle;
+            mStep = step;
+        }
+
+        @Override
+        public List<T> call() throws Exception {
+            mStartTimeMs = uptimeMs();
+            mStarted = true;
+            return runStep(mStepName, mBundle, mStep);
+        }
+    }
+
+    @Nullable
+    private static <T> List<T> runStep(String stepName, SearchIndexableData bundle,
+            Step<T> step) throws Exception {
+        final long startTime = SystemClock.elapsedRealtime();
+        try {
+            return step.run(bundle);
+        } finally {
+            final long cost = SystemClock.elapsedRealtime() - startTime;
+            if (SettingsSearchIndexablesProvider.DEBUG
+                    || (Build.IS_DEBUGGABLE && cost >= SLOW_PROVIDER_MS)) {
+                Log.d(TAG, stepName + " took " + cost + "ms for: "
+                        + bundle.getTargetClass().getName());
+            }
+        }
+    }
+
+    private static <T> void addResult(List<T> results, @Nullable List<T> result) {
+        if (result != null) {
+            results.addAll(result);
+        }
+    }
+
+    private static void onProviderError(String stepName, SearchIndexableData bundle,
+            Throwable e) {
+        // Catch a generic crash. In the absence of the catch, the background thread will
+        // silently fail anyway, so we aren't losing information by catching the exception.
+        // We crash when the system property exists so that we can test if crashes need to
+        // be fixed.
+        // The gain is that if there is a crash in a specific controller, we don't lose all
+        // the results, but we can still find specific crashes in development.
+        if (System.getProperty(SettingsSearchIndexablesProvider.SYSPROP_CRASH_ON_ERROR) != null) {
+            throw new RuntimeException(e);
+        }
+        Log.e(TAG, "Error trying to " + stepName + " from: "
+                + bundle.getTargetClass().getName(), e);
+    }
+}
@@ -97,6 +97,8 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
 
     private static final Collection<String> INVALID_KEYS;
 
+    private final SearchIndexableExecutor mIndexableExecutor = new SearchIndexableExecutor();
+
     // Search enabled states for injection (key: category key, value: search enabled)
     private Map<String, Boolean> mSearchEnabledByCategoryKeyMap;
 
@@ -172,13 +174,12 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
     @Override
     public Cursor queryDynamicRawData(String[] projection) {
         final Context context = getContext();
-        final List<SearchIndexableRaw> rawList = new ArrayList<>();
         final Collection<SearchIndexableData> bundles = FeatureFactory.getFeatureFactory()
                 .getSearchFeatureProvider().getSearchIndexableResources().getProviderValues();
+        final List<SearchIndexableRaw> rawList = mIndexableExecutor.run("get dynamic raw data",
+                bundles, bundle -> getDynamicSearchIndexableRawData(context, bundle));
 
         for (SearchIndexableData bundle : bundles) {
-            rawList.addAll(getDynamicSearchIndexableRawData(context, bundle));
-
             // Refresh the search enabled state for indexing injection raw data
             final Indexable.SearchIndexProvider provider = bundle.getSearchIndexProvider();
             if (provider instanceof BaseSearchIndexProvider) {
@@ -274,51 +275,18 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
         final Collection<SearchIndexableData> bundles = FeatureFactory.getFeatureFactory()
                 .getSearchFeatureProvider().getSearchIndexableResources().getProviderValues();
 
-        final List<String> nonIndexableKeys = new ArrayList<>();
-
-        for (SearchIndexableData bundle : bundles) {
-            final long startTime = System.currentTimeMillis();
-            Indexable.SearchIndexProvider provider = bundle.getSearchIndexProvider();
-            List<String> providerNonIndexableKeys;
-            try {
-                providerNonIndexableKeys = provider.getNonIndexableKeys(context);
-            } catch (Exception e) {
-                // Catch a generic crash. In the absence of the catch, the background thread will
-                // silently fail anyway, so we aren't losing information by catching the exception.
-                // We crash when the system property exists so that we can test if crashes need to
-                // be fixed.
-                // The gain is that if there is a crash in a specific controller, we don't lose all
-                // non-indexable keys, but we can still find specific crashes in development.
-                if (System.getProperty(SYSPROP_CRASH_ON_ERROR) != null) {
-                    throw new RuntimeException(e);
-                }
-                Log.e(TAG, "Error trying to get non-indexable keys from: "
-                        + bundle.getTargetClass().getName(), e);
-                continue;
-            }
-
+        return mIndexableExecutor.run("get non-indexable keys", bundles, bundle -> {
+            final Indexable.SearchIndexProvider provider = bundle.getSearchIndexProvider();
+            final List<String> providerNonIndexableKeys = provider.getNonIndexableKeys(context);
             if (providerNonIndexableKeys == null || providerNonIndexableKeys.isEmpty()) {
-                if (DEBUG) {
-                    final long totalTime = System.currentTimeMillis() - startTime;
-                    Log.d(TAG, "No indexable, total time " + totalTime);
-                }
-                continue;
+                return null;
             }
 
             if (providerNonIndexableKeys.removeAll(INVALID_KEYS)) {
                 Log.v(TAG, provider + " tried to add an empty non-indexable key");
             }
-
-            if (DEBUG) {
-                final long totalTime = System.currentTimeMillis() - startTime;
-                Log.d(TAG, "Non-indexables " + providerNonIndexableKeys.size() + ", total time "
-                        + totalTime);
-            }
-
-            nonIndexableKeys.addAll(providerNonIndexableKeys);
-        }
-
-        return nonIndexableKeys;
+            return providerNonIndexableKeys;
+        }, /* rerunTimedOut= */ true);
     }
 
     private List<SearchIndexableResource> getSearchIndexableResourcesFromProvider(Context context) {
@@ -350,15 +318,14 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
     private List<SearchIndexableRaw> getSearchIndexableRawFromProvider(Context context) {
         final Collection<SearchIndexableData> bundles = FeatureFactory.getFeatureFactory()
                 .getSearchFeatureProvider().getSearchIndexableResources().getProviderValues();
-        final List<SearchIndexableRaw> rawList = new ArrayList<>();
 
-        for (SearchIndexableData bundle : bundles) {
-            Indexable.SearchIndexProvider provider = bundle.getSearchIndexProvider();
+        return mIndexableExecutor.run("get raw data", bundles, bundle -> {
+            final Indexable.SearchIndexProvider provider = bundle.getSearchIndexProvider();
             final List<SearchIndexableRaw> providerRaws = provider.getRawDataToIndex(context,
                     true /* enabled */);
 
             if (providerRaws == null) {
-                continue;
+                return null;
             }
 
             for (SearchIndexableRaw raw : providerRaws) {
@@ -366,10 +333,8 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
                 // This will be more clear when provider conversion is done at PreIndex time.
                 raw.className = bundle.getTargetClass().getName();
             }
-            rawList.addAll(providerRaws);
-        }
-
-        return rawList;
+            return providerRaws;
+        });
     }
 
     private List<SearchIndexableRaw> getDynamicSearchIndexableRawData(Context context,
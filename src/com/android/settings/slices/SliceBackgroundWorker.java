@@ -34,7 +34,6 @@ import androidx.annotation.VisibleForTesting;
 import java.io.Closeable;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -48,7 +47,8 @@ import java.util.Map;
  * SettingsSliceProvider#shutdown()}.
  *
  * {@link SliceBackgroundWorker} caches the results, uses the cache to compare if there is any data
- * changed, and then notifies the Slice {@link Uri} to update.
+ * changed, and then notifies the Slice {@link Uri} to update. The results are handed to the Slice
+ * without a copy.
  *
  * It also stores all instances of all workers to ensure each worker is a Singleton.
  */
@@ -63,7 +63,7 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
     private final Context mContext;
     private final Uri mUri;
 
-    private List<E> mCachedResults;
+    private volatile List<E> mCachedResults;
 
     protected SliceBackgroundWorker(Context context, Uri uri) {
         mContext = context;
@@ -141,28 +141,31 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
     protected abstract void onSliceUnpinned();
 
     /**
-     * @return a {@link List} of cached results
+     * @return an unmodifiable {@link List} of cached results, shared with the worker
      */
     public final List<E> getResults() {
-        return mCachedResults == null ? null : new ArrayList<>(mCachedResults);
+        return mCachedResults;
     }
 
     /**
-     * Update the results when data changes
+     * Update the results when data changes. The list is published without a copy, so it must not
+     * be modified afterwards.
      */
     protected final void updateResults(List<E> results) {
+        final List<E> cachedResults = mCachedResults;
         boolean needNotify = false;
 
         if (results == null) {
-            if (mCachedResults != null) {
+            if (cachedResults != null) {
                 needNotify = true;
             }
         } else {
-            needNotify = !areListsTheSame(results, mCachedResults);
+            needNotify = cachedResults == null || results.size() != cachedResults.size()
+                    || !areListsTheSame(results, cachedResults);
         }
 
         if (needNotify) {
-            mCachedResults = results;
+            mCachedResults = results == null ? null : Collections.unmodifiableList(results);
             notifySliceChange();
         }
     }
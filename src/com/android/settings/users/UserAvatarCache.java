@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.UserInfo;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.os.UserHandle;
+import android.os.UserManager;
+import android.util.LruCache;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.internal.util.UserIcons;
+import com.android.settingslib.drawable.UserIconDrawable;
+
+/**
+ * Process-wide cache of decoded user avatars, shared by the Users page, the storage pages and the
+ * homepage account avatar.
+ *
+ * <p>Icons are decoded and scaled down to the requested size on a background thread, so the main
+ * thread only ever reads already decoded bitmaps. Entries of a user are dropped when
+ * {@link Intent#ACTION_USER_INFO_CHANGED} or {@link Intent#ACTION_USER_REMOVED} is received.
+ */
+public class UserAvatarCache {
+
+    private static final int MAX_CACHE_SIZE_BYTES = 4 * 1024 * 1024;
+
+    private static UserAvatarCache sInstance;
+
+    private final UserManager mUserManager;
+    private final LruCache<String, Bitmap> mIcons;
+    private final SparseArray<Bitmap> mDefaultIcons = new SparseArray<>();
+    // Guarded by this.
+    private Bitmap mAccountAvatar;
+    // Number of invalidations of each user, so icons decoded before one are not cached. Guarded
+    // by this.
+    private final SparseIntArray mGenerations = new SparseIntArray();
+
+    private final BroadcastReceiver mUserChangeReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final int userId = intent.getIntExtra(Intent.EXTRA_USER_HANDLE, UserHandle.USER_NULL);
+            if (userId != UserHandle.USER_NULL) {
+                invalidate(userId);
+            }
+        }
+    };
+
+    /** Returns the process-wide instance, registering for user change broadcasts on first use. */
+    public static synchronized UserAvatarCache getInstance(Context context) {
+        if (sInstance == null) {
+            final Context appContext = context.getApplicationContext();
+            sInstance = new UserAvatarCache(appContext.getSystemService(UserManager.class));
+            final IntentFilter filter = new IntentFilter(Intent.ACTION_USER_INFO_CHANGED);
+            filter.addAction(Intent.ACTION_USER_REMOVED);
+            appContext.registerReceiverAsUser(sInstance.mUserChangeReceiver, UserHandle.ALL,
+                    filter, null /* broadcastPermission */, null /* scheduler */,
+                    Context.RECEIVER_EXPORTED_UNAUDITED);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    UserAvatarCache(UserManager userManager) {
+        mUserManager = userManager;
+        mIcons = new LruCache<String, Bitmap>(MAX_CACHE_SIZE_BYTES) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * Returns the icon of {@code userId} at {@code sizePx}, or {@code null} if it has not been
+     * loaded yet. Never does any I/O.
+     */
+    @Nullable
+    public Bitmap getCachedIcon(int userId, int sizePx) {
+        return mIcons.get(getKey(userId, sizePx));
+    }
+
+    /**
+     * Returns the icon of {@code userId} scaled down to at most {@code sizePx}, decoding it if
+     * needed, or {@code null} if the user has no icon.
+     */
+    @WorkerThread
+    @Nullable
+    public Bitmap loadIcon(int userId, int sizePx) {
+        final String key = getKey(userId, sizePx);
+        Bitmap icon = mIcons.get(key);
+        if (icon != null) {
+            return icon;
+        }
+        final int generation = getGeneration(userId);
+        icon = mUserManager.getUserIcon(userId);
+        if (icon == null) {
+            return null;
+        }
+        if (sizePx > 0 && (icon.getWidth() > sizePx || icon.getHeight() > sizePx)) {
+            final Bitmap scaled = Bitmap.createScaledBitmap(icon, sizePx, sizePx,
+                    true /* filter */);
+            if (scaled != icon) {
+                icon.recycle();
+            }
+            icon = scaled;
+        }
+        synchronized (this) {
+            // The icon may have changed while it was decoded.
+            if (mGenerations.get(userId) == generation) {
+                mIcons.put(key, icon);
+            }
+        }
+        return icon;
+    }
+
+    /** Stores an icon that was just set for {@code userId}, e.g. from the photo editor. */
+    public void putIcon(int userId, int sizePx, @NonNull Bitmap icon) {
+        mIcons.put(getKey(userId, sizePx), icon);
+    }
+
+    /**
+     * Returns the user icon as a badged drawable at the default user icon size, the same way
+     * {@link com.android.settingslib.Utils#getUserIcon} does, but backed by this cache.
+     */
+    @WorkerThread
+    public Drawable getUserIconDrawable(Context context, UserInfo user) {
+        final int iconSize = UserIconDrawable.getDefaultSize(context);
+        if (user.isManagedProfile()) {
+            final Drawable drawable = UserIconDrawable.getManagedUserDrawable(context);
+            drawable.setBounds(0, 0, iconSize, iconSize);
+            return drawable;
+        }
+        if (user.iconPath != null) {
+            final Bitmap icon = loadIcon(user.id, iconSize);
+            if (icon != null) {
+                return new UserIconDrawable(iconSize).setIcon(icon).bake();
+            }
+        }
+        return new UserIconDrawable(iconSize).setIconDrawable(
+                UserIcons.getDefaultUserIcon(context.getResources(), user.id, false)).bake();
+    }
+
+    /**
+     * Returns a default user icon (as a {@link Bitmap}) for the given user.
+     *
+     * Note that for guest users, you should pass in {@code UserHandle.USER_NULL}.
+     *
+     * @param resources resources object to fetch the user icon.
+     * @param userId    the user id or {@code UserHandle.USER_NULL} for a non-user specific icon
+     */
+    public Bitmap getDefaultIcon(Resources resources, int userId) {
+        synchronized (mDefaultIcons) {
+            Bitmap bitmap = mDefaultIcons.get(userId);
+            if (bitmap == null) {
+                bitmap = UserIcons.convertToBitmapAtUserIconSize(resources,
+                        UserIcons.getDefaultUserIcon(resources, userId, false));
+                mDefaultIcons.put(userId, bitmap);
+            }
+            return bitmap;
+        }
+    }
+
+    /** Returns the last account avatar shown on the homepage, if any. */
+    @Nullable
+    public synchronized Bitmap getAccountAvatar() {
+        return mAccountAvatar;
+    }
+
+    /** Remembers the account avatar shown on the homepage, so it can be shown instantly. */
+    public synchronized void putAccountAvatar(@Nullable Bitmap avatar) {
+        mAccountAvatar = avatar;
+    }
+
+    /**
+     * Drops every cached icon of {@code userId}, and the account avatar if it is the user of this
+     * process. The icons being decoded for the user are not cached.
+     */
+    public synchronized void invalidate(int userId) {
+        mGenerations.put(userId, mGenerations.get(userId) + 1);
+        final String prefix = userId + ":";
+        for (String key : mIcons.snapshot().keySet()) {
+            if (key.startsWith(prefix)) {
+                mIcons.remove(key);
+            }
+        }
+        if (userId == UserHandle.myUserId()) {
+            mAccountAvatar = null;
+        }
+    }
+
+    private synchronized int getGeneration(int userId) {
+        return mGenerations.get(userId);
+    }
+
+    private static String getKey(int userId, int sizePx) {
+        return userId + ":" + sizePx;
+    }
+}
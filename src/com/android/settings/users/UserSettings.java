@@ -50,7 +50,6 @@ import android.provider.ContactsContract;
 import android.provider.Settings;
 import android.text.TextUtils;
 import android.util.Log;
-import android.util.SparseArray;
 import android.view.Gravity;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -203,7 +202,7 @@ public class UserSettings extends SettingsPreferenceFragment
     @VisibleForTesting
     RestrictedPreference mAddSupervisedUser;
     @VisibleForTesting
-    SparseArray<Bitmap> mUserIcons = new SparseArray<>();
+    UserAvatarCache mAvatarCache;
     private int mRemovingUserId = -1;
     private boolean mAddingUser;
     private boolean mGuestUserAutoCreated;
@@ -213,7 +212,6 @@ public class UserSettings extends SettingsPreferenceFragment
     private boolean mShouldUpdateUserList = true;
     private final Object mUserLock = new Object();
     private UserManager mUserManager;
-    private static SparseArray<Bitmap> sDarkDefaultUserBitmapCache = new SparseArray<>();
 
     private MultiUserSwitchBarController mSwitchBarController;
 
@@ -266,7 +264,7 @@ public class UserSettings extends SettingsPreferenceFragment
             } else if (intent.getAction().equals(Intent.ACTION_USER_INFO_CHANGED)) {
                 int userHandle = intent.getIntExtra(Intent.EXTRA_USER_HANDLE, -1);
                 if (userHandle != -1) {
-                    mUserIcons.remove(userHandle);
+                    mAvatarCache.invalidate(userHandle);
                 }
             }
             mHandler.sendEmptyMessage(MESSAGE_UPDATE_LIST);
@@ -358,6 +356,7 @@ public class UserSettings extends SettingsPreferenceFragment
 
         mUserCaps = UserCapabilities.create(activity);
         mUserManager = (UserManager) activity.getSystemService(Context.USER_SERVICE);
+        mAvatarCache = UserAvatarCache.getInstance(activity);
         if (!mUserCaps.mEnabled) {
             return;
         }
@@ -518,6 +517,7 @@ public class UserSettings extends SettingsPreferenceFragment
             return;
         }
 
+        final int iconSize = getUserIconSize();
         new AsyncTask<Void, Void, String>() {
             @Override
             protected void onPostExecute(String result) {
@@ -531,6 +531,8 @@ public class UserSettings extends SettingsPreferenceFragment
                     // Assign profile photo.
                     copyMeProfilePhoto(getActivity(), user);
                 }
+                // Decode the icon here so that finishLoadProfile only reads the cache.
+                mAvatarCache.loadIcon(user.id, iconSize);
                 return user.name;
             }
         }.execute();
@@ -542,10 +544,9 @@ public class UserSettings extends SettingsPreferenceFragment
         }
         mMePreference.setTitle(getString(R.string.user_you, profileName));
         int myUserId = UserHandle.myUserId();
-        Bitmap b = mUserManager.getUserIcon(myUserId);
+        Bitmap b = mAvatarCache.getCachedIcon(myUserId, getUserIconSize());
         if (b != null) {
             mMePreference.setIcon(encircleUserIcon(b));
-            mUserIcons.put(myUserId, b);
         }
     }
 
@@ -1262,7 +1263,7 @@ public class UserSettings extends SettingsPreferenceFragment
                 pref.setSummary(R.string.user_summary_restricted_profile);
             }
             if (user.iconPath != null) {
-                if (mUserIcons.get(user.id) == null) {
+                if (mAvatarCache.getCachedIcon(user.id, getUserIconSize()) == null) {
                     // Icon not loaded yet, print a placeholder
                     missingIcons.add(user.id);
                     pref.setIcon(getEncircledDefaultIcon());
@@ -1548,6 +1549,8 @@ public class UserSettings extends SettingsPreferenceFragment
     }
 
     private void loadIconsAsync(List<Integer> missingIcons) {
+        final Resources resources = getContext().getResources();
+        final int iconSize = getUserIconSize();
         new AsyncTask<List<Integer>, Void, Void>() {
             @Override
             protected void onPostExecute(Void result) {
@@ -1557,11 +1560,10 @@ public class UserSettings extends SettingsPreferenceFragment
             @Override
             protected Void doInBackground(List<Integer>... values) {
                 for (int userId : values[0]) {
-                    Bitmap bitmap = mUserManager.getUserIcon(userId);
-                    if (bitmap == null) {
-                        bitmap = getDefaultUserIconAsBitmap(getContext().getResources(), userId);
+                    if (mAvatarCache.loadIcon(userId, iconSize) == null) {
+                        mAvatarCache.putIcon(userId, iconSize,
+                                mAvatarCache.getDefaultIcon(resources, userId));
                     }
-                    mUserIcons.append(userId, bitmap);
                 }
                 return null;
             }
@@ -1570,14 +1572,14 @@ public class UserSettings extends SettingsPreferenceFragment
 
     private Drawable getEncircledDefaultIcon() {
         if (mDefaultIconDrawable == null) {
-            mDefaultIconDrawable = encircleUserIcon(
-                    getDefaultUserIconAsBitmap(getContext().getResources(), UserHandle.USER_NULL));
+            mDefaultIconDrawable = encircleUserIcon(mAvatarCache.getDefaultIcon(
+                    getContext().getResources(), UserHandle.USER_NULL));
         }
         return mDefaultIconDrawable;
     }
 
     private void setPhotoId(Preference pref, UserInfo user) {
-        Bitmap bitmap = mUserIcons.get(user.id);
+        Bitmap bitmap = mAvatarCache.getCachedIcon(user.id, getUserIconSize());
         if (bitmap != null) {
             pref.setIcon(encircleUserIcon(bitmap));
         }
@@ -1640,6 +1642,11 @@ public class UserSettings extends SettingsPreferenceFragment
                         R.dimen.multiple_users_user_icon_size));
     }
 
+    private int getUserIconSize() {
+        return getContext().getResources().getDimensionPixelSize(
+                R.dimen.multiple_users_user_icon_size);
+    }
+
     @Override
     public void onDismiss(DialogInterface dialog) {
         synchronized (mUserLock) {
@@ -1656,27 +1663,6 @@ public class UserSettings extends SettingsPreferenceFragment
         return R.string.help_url_users;
     }
 
-    /**
-     * Returns a default user icon (as a {@link Bitmap}) for the given user.
-     *
-     * Note that for guest users, you should pass in {@code UserHandle.USER_NULL}.
-     *
-     * @param resources resources object to fetch the user icon.
-     * @param userId    the user id or {@code UserHandle.USER_NULL} for a non-user specific icon
-     */
-    private static Bitmap getDefaultUserIconAsBitmap(Resources resources, int userId) {
-        Bitmap bitmap = null;
-        // Try finding the corresponding bitmap in the dark bitmap cache
-        bitmap = sDarkDefaultUserBitmapCache.get(userId);
-        if (bitmap == null) {
-            bitmap = UserIcons.convertToBitmapAtUserIconSize(resources,
-                    UserIcons.getDefaultUserIcon(resources, userId, false));
-            // Save it to cache
-            sDarkDefaultUserBitmapCache.put(userId, bitmap);
-        }
-        return bitmap;
-    }
-
     /**
      * Assign the default photo to user with {@paramref userId}
      *
@@ -1690,7 +1676,8 @@ public class UserSettings extends SettingsPreferenceFragment
             return false;
         }
         UserManager um = (UserManager) context.getSystemService(Context.USER_SERVICE);
-        Bitmap bitmap = getDefaultUserIconAsBitmap(context.getResources(), userId);
+        Bitmap bitmap = UserAvatarCache.getInstance(context)
+                .getDefaultIcon(context.getResources(), userId);
         um.setUserIcon(userId, bitmap);
 
         return true;
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.qrcode.QrCodeGenerator;
+import com.android.settingslib.utils.ThreadUtils;
+
+import com.google.zxing.WriterException;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Process-wide renderer of QR code bitmaps, shared by the Wi-Fi and hotspot sharing page and the
+ * EID dialogs.
+ *
+ * <p>Codes are encoded on a background thread and kept in a small cache keyed by content and
+ * size, so showing the same code again, e.g. after a rotation, doesn't encode it again.
+ */
+public class QrCodeRenderer {
+
+    private static final String TAG = "QrCodeRenderer";
+
+    private static final int MAX_CACHE_SIZE_BYTES = 8 * 1024 * 1024;
+
+    private static QrCodeRenderer sInstance;
+
+    private final Encoder mEncoder;
+    private final Executor mBackgroundExecutor;
+    private final LruCache<String, Bitmap> mBitmaps;
+
+    /** Callback of {@link #render}, invoked on the main thread. */
+    public interface Callback {
+        /** Called with the QR code, or {@code null} if it could not be encoded. */
+        void onQrCodeRendered(@Nullable Bitmap bitmap);
+    }
+
+    @VisibleForTesting
+    interface Encoder {
+        Bitmap encode(String content, int size) throws WriterException;
+    }
+
+    /** Returns the process-wide instance. */
+    public static synchronized QrCodeRenderer getInstance() {
+        if (sInstance == null) {
+            sInstance = new QrCodeRenderer(QrCodeGenerator::encodeQrCode,
+                    ThreadUtils::postOnBackgroundThread);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    QrCodeRenderer(Encoder encoder, Executor backgroundExecutor) {
+        mEncoder = encoder;
+        mBackgroundExecutor = backgroundExecutor;
+        mBitmaps = new LruCache<String, Bitmap>(MAX_CACHE_SIZE_BYTES) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    /** Returns the QR code of {@code content} at {@code size}, or {@code null} if not cached. */
+    @Nullable
+    public Bitmap getCached(@NonNull String content, int size) {
+        return mBitmaps.get(getKey(content, size));
+    }
+
+    /**
+     * Returns the QR code of {@code content} at {@code size}, encoding it if needed, or
+     * {@code null} if it could not be encoded.
+     */
+    @WorkerThread
+    @Nullable
+    public Bitmap encode(@NonNull String content, int size) {
+        final String key = getKey(content, size);
+        Bitmap bitmap = mBitmaps.get(key);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        try {
+            bitmap = mEncoder.encode(content, size);
+        } catch (WriterException | IllegalArgumentException e) {
+            Log.e(TAG, "Error generating QR code bitmap of size " + size, e);
+            return null;
+        }
+        if (bitmap != null) {
+            mBitmaps.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Renders the QR code of {@code content} at {@code size} to {@code callback}. A cached code is
+     * delivered right away, otherwise the code is encoded on a background thread.
+     */
+    @MainThread
+    public void render(@NonNull String content, int size, @NonNull Callback callback) {
+        final Bitmap cached = getCached(content, size);
+        if (cached != null) {
+            callback.onQrCodeRendered(cached);
+            return;
+        }
+        mBackgroundExecutor.execute(() -> {
+            final Bitmap bitmap = encode(content, size);
+            ThreadUtils.postOnMainThread(() -> callback.onQrCodeRendered(bitmap));
+        });
+    }
+
+    private static String getKey(String content, int size) {
+        return size + ":" + content;
+    }
+}
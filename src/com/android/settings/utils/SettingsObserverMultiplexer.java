@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.UserHandle;
+import android.util.ArrayMap;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Process-wide multiplexer of the observers of settings provider URIs, e.g. the ones of
+ * {@link android.provider.Settings.Global}, {@link android.provider.Settings.Secure} and
+ * {@link android.provider.Settings.System}.
+ *
+ * <p>A single {@link ContentObserver} is registered per URI, however many subscribers listen to
+ * it, and it is unregistered with its last subscriber. Changes of a URI arriving within
+ * {@link #COALESCE_DELAY_MS} of each other are dispatched once, on the executor of each
+ * subscriber. Subscribers are no longer called once they unsubscribed.
+ *
+ * <p>There is one instance per user, observing the settings of that user.
+ */
+public class SettingsObserverMultiplexer {
+
+    private static final String TAG = "SettingsObserverMux";
+
+    /** About one frame, so a burst of writes to a setting updates the UI once. */
+    @VisibleForTesting
+    static final long COALESCE_DELAY_MS = 16;
+
+    // More subscribers than this on one URI most likely means some of them are never removed.
+    @VisibleForTesting
+    static final int SUBSCRIBER_LEAK_THRESHOLD = 32;
+
+    @GuardedBy("SettingsObserverMultiplexer.class")
+    private static final SparseArray<SettingsObserverMultiplexer> sInstances =
+            new SparseArray<>();
+
+    private final ContentResolver mResolver;
+    private final Handler mHandler;
+    private final Object mLock = new Object();
+    @GuardedBy("mLock")
+    private final Map<Uri, UriObserver> mObservers = new ArrayMap<>();
+
+    /** Subscriber of the changes of a URI. */
+    public interface Subscriber {
+        /** Called on the executor of the subscriber when the value of {@code uri} changed. */
+        void onSettingChanged(@NonNull Uri uri);
+    }
+
+    /** Returns the process-wide instance observing the settings of the user of {@code context}. */
+    public static synchronized SettingsObserverMultiplexer getInstance(Context context) {
+        final int userId = context.getUserId();
+        SettingsObserverMultiplexer instance = sInstances.get(userId);
+        if (instance == null) {
+            Context appContext = context.getApplicationContext() != null
+                    ? context.getApplicationContext() : context;
+            if (appContext.getUserId() != userId) {
+                // Not the caller's context itself, it may be an activity that must not leak.
+                appContext = appContext.createContextAsUser(UserHandle.of(userId), /* flags= */ 0);
+            }
+            instance = new SettingsObserverMultiplexer(appContext.getContentResolver(),
+                    new Handler(Looper.getMainLooper()));
+            sInstances.put(userId, instance);
+        }
+        return instance;
+    }
+
+    @VisibleForTesting
+    static synchronized void resetInstances() {
+        sInstances.clear();
+    }
+
+    @VisibleForTesting
+    SettingsObserverMultiplexer(ContentResolver resolver, Handler handler) {
+        mResolver = resolver;
+        mHandler = handler;
+    }
+
+    /**
+     * Calls {@code subscriber} on {@code executor} when {@code uri} changes, until it is
+     * unsubscribed. Subscribing again replaces the executor.
+     */
+    public void subscribe(@NonNull Uri uri, @NonNull Executor executor,
+            @NonNull Subscriber subscriber) {
+        synchronized (mLock) {
+            UriObserver observer = mObservers.get(uri);
+            if (observer == null) {
+                observer = new UriObserver(uri);
+                mObservers.put(uri, observer);
+                mResolver.registerContentObserver(uri, false /* notifyForDescendants */,
+                        observer);
+            }
+            observer.mSubscribers.put(subscriber, executor);
+            if (observer.mSubscribers.size() > SUBSCRIBER_LEAK_THRESHOLD) {
+                Log.w(TAG, observer.mSubscribers.size() + " subscribers of " + uri
+                        + ", some of them may be leaked");
+            }
+        }
+    }
+
+    /** Stops calling {@code subscriber} when {@code uri} changes. */
+    public void unsubscribe(@NonNull Uri uri, @NonNull Subscriber subscriber) {
+        synchronized (mLock) {
+            final UriObserver observer = mObservers.get(uri);
+            if (observer == null || observer.mSubscribers.remove(subscriber) == null) {
+                return;
+            }
+            if (observer.mSubscribers.isEmpty()) {
+                mObservers.remove(uri);
+                mHandler.removeCallbacks(observer.mDispatch);
+                mResolver.unregisterContentObserver(observer);
+            }
+        }
+    }
+
+    /** Stops calling {@code subscriber} when any of the URIs it subscribed to changes. */
+    public void unsubscribe(@NonNull Subscriber subscriber) {
+        synchronized (mLock) {
+            for (Uri uri : new ArrayList<>(mObservers.keySet())) {
+                unsubscribe(uri, subscriber);
+            }
+        }
+    }
+
+    /** Returns the number of subscribers of {@code uri}, to find the ones never removed. */
+    public int getSubscriberCount(@NonNull Uri uri) {
+        synchronized (mLock) {
+            final UriObserver observer = mObservers.get(uri);
+            return observer == null ? 0 : observer.mSubscribers.size();
+        }
+    }
+
+    /** Returns the number of URIs observed in the settings provider. */
+    public int getObservedUriCount() {
+        synchronized (mLock) {
+            return mObservers.size();
+        }
+    }
+
+    private boolean isSubscribed(Uri uri, Subscriber subscriber) {
+        synchronized (mLock) {
+            final UriObserver observer = mObservers.get(uri);
+            return observer != null && observer.mSubscribers.containsKey(subscriber);
+        }
+    }
+
+    private final class UriObserver extends ContentObserver {
+        private final Uri mUri;
+        @GuardedBy("mLock")
+        private final ArrayMap<Subscriber, Executor> mSubscribers = new ArrayMap<>();
+        private final Runnable mDispatch = this::dispatch;
+
+        UriObserver(Uri uri) {
+            super(mHandler);
+            mUri = uri;
+        }
+
+        @Override
+        public void onChange(boolean selfChange) {
+            // Called on mHandler, so the changes arriving before the dispatch are dropped.
+            if (!mHandler.hasCallbacks(mDispatch)) {
+                mHandler.postDelayed(mDispatch, COALESCE_DELAY_MS);
+            }
+        }
+
+        private void dispatch() {
+            final ArrayMap<Subscriber, Executor> subscribers;
+            synchronized (mLock) {
+                subscribers = new ArrayMap<>(mSubscribers);
+            }
+            for (int i = 0; i < subscribers.size(); i++) {
+                final Subscriber subscriber = subscribers.keyAt(i);
+                subscribers.valueAt(i).execute(() -> {
+                    if (isSubscribed(mUri, subscriber)) {
+                        subscriber.onSettingChanged(mUri);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -17,8 +17,12 @@
 package com.android.settings.wifi;
 
 import android.Manifest;
+import android.app.AppGlobals;
 import android.app.AppOpsManager;
 import android.content.Context;
+import android.content.pm.IPackageManager;
+
+import androidx.annotation.VisibleForTesting;
 
 import com.android.internal.util.ArrayUtils;
 import com.android.settings.applications.AppStateAppOpsBridge;
@@ -46,7 +50,14 @@ public class AppStateChangeWifiStateBridge extends AppStateAppOpsBridge {
 
     public AppStateChangeWifiStateBridge(Context context, ApplicationsState appState, Callback
             callback) {
-        super(context, appState, callback, APP_OPS_OP_CODE, PM_PERMISSIONS);
+        this(context, appState, callback, AppGlobals.getPackageManager());
+    }
+
+    @VisibleForTesting
+    AppStateChangeWifiStateBridge(Context context, ApplicationsState appState, Callback callback,
+            IPackageManager packageManager) {
+        super(context, appState, callback, new int[]{APP_OPS_OP_CODE}, PM_PERMISSIONS,
+                packageManager);
     }
 
     @Override
@@ -58,7 +69,8 @@ public class AppStateChangeWifiStateBridge extends AppStateAppOpsBridge {
     protected void loadAllExtraInfo() {
         final List<AppEntry> allApps = mAppSession.getAllApps();
         for (AppEntry entry : allApps) {
-            updateExtraInfo(entry, entry.info.packageName, entry.info.uid);
+            entry.extraInfo = new WifiSettingsState(
+                    getCachedPermissionInfo(entry.info.packageName, entry.info.uid));
         }
     }
 
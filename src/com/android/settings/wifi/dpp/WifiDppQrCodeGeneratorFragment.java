@@ -24,7 +24,6 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 import android.content.res.Resources;
-import android.graphics.Bitmap;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.provider.Settings;
@@ -48,9 +47,7 @@ import com.android.internal.annotations.VisibleForTesting;
 import com.android.internal.app.chooser.DisplayResolveInfo;
 import com.android.internal.app.chooser.TargetInfo;
 import com.android.settings.R;
-import com.android.settingslib.qrcode.QrCodeGenerator;
-
-import com.google.zxing.WriterException;
+import com.android.settings.utils.QrCodeRenderer;
 
 /**
  * After sharing a saved Wi-Fi network, {@code WifiDppConfiguratorActivity} start with this fragment
@@ -277,14 +274,16 @@ public class WifiDppQrCodeGeneratorFragment extends WifiDppQrCodeBaseFragment {
     }
 
     private void setQrCode() {
-        try {
-            final int qrcodeSize = getContext().getResources().getDimensionPixelSize(
-                    R.dimen.qrcode_size);
-            final Bitmap bmp = QrCodeGenerator.encodeQrCode(mQrCode, qrcodeSize);
-            mQrCodeView.setImageBitmap(bmp);
-        } catch (WriterException e) {
-            Log.e(TAG, "Error generating QR code bitmap " + e);
-        }
+        final int qrcodeSize = getContext().getResources().getDimensionPixelSize(
+                R.dimen.qrcode_size);
+        final String qrCode = mQrCode;
+        final ImageView qrCodeView = mQrCodeView;
+        QrCodeRenderer.getInstance().render(qrCode, qrcodeSize, bmp -> {
+            // The view may have been recreated, or the network changed, while encoding.
+            if (bmp != null && qrCodeView == mQrCodeView && TextUtils.equals(qrCode, mQrCode)) {
+                qrCodeView.setImageBitmap(bmp);
+            }
+        });
     }
 
     private WifiNetworkConfig getWifiNetworkConfigFromHostActivity() {
@@ -28,6 +28,7 @@ import android.app.settings.SettingsEnums;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.content.res.Configuration;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
@@ -39,6 +40,7 @@ import android.os.UserManager;
 import android.text.TextUtils;
 import android.util.EventLog;
 import android.util.Log;
+import android.util.LruCache;
 
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
@@ -77,6 +79,13 @@ public class WifiSlice implements CustomSliceable {
     static final int DEFAULT_EXPANDED_ROW_COUNT = 3;
     private static final String TAG = "WifiSlice";
 
+    private static final int LEVEL_ICON_CACHE_SIZE = 32;
+
+    // The level icons are rendered to bitmaps, they are shared by the rows of all the Wi-Fi
+    // slices, so a row whose network didn't change is rebuilt without drawing its icon again.
+    private static final LruCache<String, IconCompat> sLevelIcons =
+            new LruCache<>(LEVEL_ICON_CACHE_SIZE);
+
     protected final Context mContext;
     protected final WifiManager mWifiManager;
     protected final WifiRestriction mWifiRestriction;
@@ -265,9 +274,17 @@ public class WifiSlice implements CustomSliceable {
                     android.R.attr.colorControlNormal));
         }
 
-        Drawable drawable = mContext.getDrawable(getWifiIconResId(wifiSliceItem));
-        drawable.setTint(tint);
-        return Utils.createIconWithDrawable(drawable);
+        final int iconResId = getWifiIconResId(wifiSliceItem);
+        final Configuration config = mContext.getResources().getConfiguration();
+        final String key = iconResId + ":" + tint + ":" + config.densityDpi + ":" + config.uiMode;
+        IconCompat icon = sLevelIcons.get(key);
+        if (icon == null) {
+            Drawable drawable = mContext.getDrawable(iconResId);
+            drawable.setTint(tint);
+            icon = Utils.createIconWithDrawable(drawable);
+            sLevelIcons.put(key, icon);
+        }
+        return icon;
     }
 
     @VisibleForTesting
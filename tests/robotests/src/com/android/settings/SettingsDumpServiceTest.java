@@ -23,12 +23,17 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.pm.ActivityInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 
+import com.android.settings.core.BootWorkCoordinator;
+
+import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -92,6 +97,21 @@ public class SettingsDumpServiceTest {
                 .contains("{\"" + SettingsDumpService.KEY_SERVICE + "\":");
     }
 
+    @Test
+    public void testDumpBootWork_containsRunTasks() throws Exception {
+        final BroadcastReceiver receiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {}
+        };
+        BootWorkCoordinator.getInstance().runAsync(receiver, RuntimeEnvironment.application,
+                new BootWorkCoordinator.Task("dumped_task", context -> {}));
+
+        final JSONObject bootWork = mTestService.dumpBootWork();
+
+        assertThat(bootWork.getJSONObject("dumped_task").has("elapsedMs")).isTrue();
+        assertThat(bootWork.getJSONObject("dumped_task").has("cpuMs")).isTrue();
+    }
+
     /**
      * Test service used to pass in the mock {@link PackageManager}
      */
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.ComponentName;
+import android.content.pm.ActivityInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.PackageManager.ComponentEnabledSetting;
+import android.os.Bundle;
+import android.util.ArrayMap;
+
+import com.android.settingslib.drawer.ActivityTile;
+import com.android.settingslib.drawer.DashboardCategory;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(RobolectricTestRunner.class)
+public class TileEnablementReconcilerTest {
+    private static final String PACKAGE_NAME = "com.android.settings";
+    private static final ComponentName ENABLED_TILE = new ComponentName(PACKAGE_NAME, "Enabled");
+    private static final ComponentName DISABLED_TILE = new ComponentName(PACKAGE_NAME, "Disabled");
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private PackageManager mPackageManager;
+    private TileEnablementReconciler mReconciler;
+    private Map<ComponentName, Boolean> mDesiredStates;
+
+    @Before
+    public void setUp() {
+        mReconciler = new TileEnablementReconciler();
+        mDesiredStates = new ArrayMap<>();
+        mDesiredStates.put(ENABLED_TILE, true);
+        mDesiredStates.put(DISABLED_TILE, false);
+        when(mPackageManager.getComponentEnabledSetting(ENABLED_TILE))
+                .thenReturn(PackageManager.COMPONENT_ENABLED_STATE_ENABLED);
+        when(mPackageManager.getComponentEnabledSetting(DISABLED_TILE))
+                .thenReturn(PackageManager.COMPONENT_ENABLED_STATE_ENABLED);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void reconcile_appliesOnlyChangedComponentsInOneCall() {
+        final Map<ComponentName, Boolean> changes =
+                mReconciler.reconcile(mPackageManager, mDesiredStates);
+
+        assertThat(changes).containsExactly(DISABLED_TILE, false);
+        final ArgumentCaptor<List<ComponentEnabledSetting>> captor =
+                ArgumentCaptor.forClass(List.class);
+        verify(mPackageManager).setComponentEnabledSettings(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+        assertThat(captor.getValue().get(0).getComponentName()).isEqualTo(DISABLED_TILE);
+        assertThat(captor.getValue().get(0).getEnabledState())
+                .isEqualTo(PackageManager.COMPONENT_ENABLED_STATE_DISABLED);
+    }
+
+    @Test
+    public void reconcile_sameDesiredStates_skipsPackageManager() {
+        mReconciler.reconcile(mPackageManager, mDesiredStates);
+
+        final Map<ComponentName, Boolean> changes =
+                mReconciler.reconcile(mPackageManager, new ArrayMap<>(mDesiredStates));
+
+        assertThat(changes).isEmpty();
+        verify(mPackageManager, times(1)).getComponentEnabledSetting(ENABLED_TILE);
+    }
+
+    @Test
+    public void reconcile_nothingToChange_doesNotSetComponents() {
+        mDesiredStates.put(DISABLED_TILE, true);
+
+        assertThat(mReconciler.reconcile(mPackageManager, mDesiredStates)).isEmpty();
+        verify(mPackageManager, never()).setComponentEnabledSettings(any());
+    }
+
+    @Test
+    public void reconcile_defaultState_isChanged() {
+        when(mPackageManager.getComponentEnabledSetting(ENABLED_TILE))
+                .thenReturn(PackageManager.COMPONENT_ENABLED_STATE_DEFAULT);
+
+        assertThat(mReconciler.reconcile(mPackageManager, mDesiredStates))
+                .containsEntry(ENABLED_TILE, true);
+    }
+
+    @Test
+    public void disableRestrictedTiles_keepsTilesForRestrictedUsers() {
+        final ComponentName allowedTile = new ComponentName(PACKAGE_NAME,
+                Settings.NetworkDashboardActivity.class.getName());
+        final ComponentName otherPackageTile = new ComponentName("other.pkg", "Tile");
+        final DashboardCategory category = new DashboardCategory("key");
+        category.addTile(tile(allowedTile, category.key));
+        category.addTile(tile(ENABLED_TILE, category.key));
+        category.addTile(tile(otherPackageTile, category.key));
+        mDesiredStates.put(allowedTile, true);
+
+        TileEnablementReconciler.disableRestrictedTiles(PACKAGE_NAME,
+                Collections.singletonList(category), mDesiredStates);
+
+        assertThat(mDesiredStates).containsEntry(allowedTile, true);
+        assertThat(mDesiredStates).containsEntry(ENABLED_TILE, false);
+        assertThat(mDesiredStates).doesNotContainKey(otherPackageTile);
+    }
+
+    @Test
+    public void isAllowedForUser_restrictedUser_allowsRestrictedSettingsTiles() {
+        assertThat(TileEnablementReconciler.isAllowedForUser(PACKAGE_NAME,
+                new ComponentName(PACKAGE_NAME, Settings.DisplaySettingsActivity.class.getName()),
+                /* isAdmin= */ false)).isTrue();
+        assertThat(TileEnablementReconciler.isAllowedForUser(PACKAGE_NAME, DISABLED_TILE,
+                /* isAdmin= */ false)).isFalse();
+    }
+
+    @Test
+    public void isAllowedForUser_adminUser_allowsEverything() {
+        assertThat(TileEnablementReconciler.isAllowedForUser(PACKAGE_NAME, DISABLED_TILE,
+                /* isAdmin= */ true)).isTrue();
+    }
+
+    private static ActivityTile tile(ComponentName component, String categoryKey) {
+        final ActivityInfo activityInfo = new ActivityInfo();
+        activityInfo.packageName = component.getPackageName();
+        activityInfo.name = component.getClassName();
+        activityInfo.metaData = new Bundle();
+        return new ActivityTile(activityInfo, categoryKey);
+    }
+}
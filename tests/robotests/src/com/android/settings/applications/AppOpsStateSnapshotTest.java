@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.app.AppOpsManager;
+import android.content.pm.IPackageManager;
+import android.content.pm.PackageInfo;
+import android.content.pm.ParceledListSlice;
+import android.os.RemoteException;
+import android.os.UserHandle;
+import android.util.ArrayMap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+
+@RunWith(RobolectricTestRunner.class)
+public class AppOpsStateSnapshotTest {
+
+    private static final int USER_ID = 0;
+    private static final String PACKAGE_NAME = "com.example.app";
+    private static final int[] OP_CODES = {AppOpsManager.OP_SYSTEM_ALERT_WINDOW};
+
+    @Mock
+    private IPackageManager mPackageManager;
+    @Mock
+    private AppOpsManager mAppOpsManager;
+
+    private long mNow;
+    private AppOpsStateSnapshot mSnapshot;
+
+    @Before
+    public void setUp() throws RemoteException {
+        MockitoAnnotations.initMocks(this);
+        mSnapshot = new AppOpsStateSnapshot(() -> mNow);
+        final PackageInfo packageInfo = new PackageInfo();
+        packageInfo.packageName = PACKAGE_NAME;
+        when(mPackageManager.getInstalledPackages(anyInt(), eq(USER_ID)))
+                .thenReturn(new ParceledListSlice<>(Collections.singletonList(packageInfo)));
+
+        final AppOpsManager.PackageOps packageOps = mock(AppOpsManager.PackageOps.class);
+        final AppOpsManager.OpEntry opEntry = mock(AppOpsManager.OpEntry.class);
+        when(opEntry.getMode()).thenReturn(AppOpsManager.MODE_ALLOWED);
+        when(packageOps.getPackageName()).thenReturn(PACKAGE_NAME);
+        when(packageOps.getUid()).thenReturn(UserHandle.getUid(USER_ID, 10001));
+        when(packageOps.getOps()).thenReturn(Collections.singletonList(opEntry));
+        when(mAppOpsManager.getPackagesForOps(any(int[].class)))
+                .thenReturn(Collections.singletonList(packageOps));
+    }
+
+    @Test
+    public void getInstalledPackages_withinTtl_queriesOnce() throws RemoteException {
+        mSnapshot.getInstalledPackages(mPackageManager, USER_ID);
+        mNow += AppOpsStateSnapshot.CACHE_TTL_MS;
+
+        assertThat(mSnapshot.getInstalledPackages(mPackageManager, USER_ID))
+                .containsKey(PACKAGE_NAME);
+        verify(mPackageManager, times(1)).getInstalledPackages(anyInt(), eq(USER_ID));
+    }
+
+    @Test
+    public void getInstalledPackages_afterTtl_queriesAgain() throws RemoteException {
+        mSnapshot.getInstalledPackages(mPackageManager, USER_ID);
+        mNow += AppOpsStateSnapshot.CACHE_TTL_MS + 1;
+
+        mSnapshot.getInstalledPackages(mPackageManager, USER_ID);
+
+        verify(mPackageManager, times(2)).getInstalledPackages(anyInt(), eq(USER_ID));
+    }
+
+    @Test
+    public void getInstalledPackages_afterInvalidate_queriesAgain() throws RemoteException {
+        mSnapshot.getInstalledPackages(mPackageManager, USER_ID);
+        mSnapshot.invalidate();
+
+        mSnapshot.getInstalledPackages(mPackageManager, USER_ID);
+
+        verify(mPackageManager, times(2)).getInstalledPackages(anyInt(), eq(USER_ID));
+    }
+
+    @Test
+    public void getInstalledPackages_invalidatedWhileFetching_notCached() throws RemoteException {
+        when(mPackageManager.getInstalledPackages(anyInt(), eq(USER_ID))).thenAnswer(invocation -> {
+            mSnapshot.invalidate();
+            return new ParceledListSlice<>(Collections.emptyList());
+        });
+        mSnapshot.getInstalledPackages(mPackageManager, USER_ID);
+
+        mSnapshot.getInstalledPackages(mPackageManager, USER_ID);
+
+        verify(mPackageManager, times(2)).getInstalledPackages(anyInt(), eq(USER_ID));
+    }
+
+    @Test
+    public void getAppOpModes_invalidatedWhileFetching_notCached() {
+        when(mAppOpsManager.getPackagesForOps(any(int[].class))).thenAnswer(invocation -> {
+            mSnapshot.invalidate();
+            return Collections.emptyList();
+        });
+        mSnapshot.getAppOpModes(mAppOpsManager, OP_CODES);
+
+        mSnapshot.getAppOpModes(mAppOpsManager, OP_CODES);
+
+        verify(mAppOpsManager, times(2)).getPackagesForOps(any(int[].class));
+    }
+
+    @Test
+    public void getAppOpMode_sharedAcrossCallers() {
+        assertThat(mSnapshot.getAppOpMode(mAppOpsManager, OP_CODES, USER_ID, PACKAGE_NAME))
+                .isEqualTo(AppOpsManager.MODE_ALLOWED);
+        assertThat(mSnapshot.getAppOpMode(mAppOpsManager, OP_CODES, USER_ID, "other"))
+                .isNull();
+
+        verify(mAppOpsManager, times(1)).getPackagesForOps(any(int[].class));
+    }
+
+    @Test
+    public void updateAppOpMode_replacesSingleEntry() {
+        mSnapshot.getAppOpModes(mAppOpsManager, OP_CODES);
+
+        mSnapshot.updateAppOpMode(OP_CODES, USER_ID, PACKAGE_NAME, AppOpsManager.MODE_ERRORED);
+
+        assertThat(mSnapshot.getAppOpMode(mAppOpsManager, OP_CODES, USER_ID, PACKAGE_NAME))
+                .isEqualTo(AppOpsManager.MODE_ERRORED);
+        verify(mAppOpsManager, times(1)).getPackagesForOps(any(int[].class));
+    }
+
+    @Test
+    public void updatePackageInfo_doesNotMutatePreviouslyReturnedMap() throws RemoteException {
+        final ArrayMap<String, PackageInfo> previous =
+                mSnapshot.getInstalledPackages(mPackageManager, USER_ID);
+        final PackageInfo newPackage = new PackageInfo();
+        newPackage.packageName = "com.example.new";
+
+        mSnapshot.updatePackageInfo(USER_ID, newPackage);
+
+        assertThat(mSnapshot.getInstalledPackages(mPackageManager, USER_ID))
+                .containsKey("com.example.new");
+        assertThat(previous).doesNotContainKey("com.example.new");
+    }
+}
@@ -16,22 +16,34 @@
 
 package com.android.settings.applications;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.Manifest;
 import android.app.AppOpsManager;
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import android.content.pm.IPackageManager;
+import android.content.pm.PackageInfo;
+import android.content.pm.ParceledListSlice;
+import android.os.Looper;
 import android.os.RemoteException;
 import android.os.UserHandle;
 import android.os.UserManager;
 
+import com.android.settingslib.applications.ApplicationsState;
 import com.android.settingslib.applications.ApplicationsState.AppEntry;
 
 import com.google.common.truth.Truth;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,19 +51,104 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.robolectric.RobolectricTestRunner;
 
+import java.util.ArrayList;
+import java.util.Collections;
+
 @RunWith(RobolectricTestRunner.class)
 public final class AppStateAppOpsBridgeTest {
 
+    private static final int USER_ID = 0;
+    private static final String PACKAGE_NAME = "com.example.app";
+    private static final int UID = UserHandle.getUid(USER_ID, 10001);
+
     @Mock private Context mContext;
     @Mock private UserManager mUserManager;
     @Mock private IPackageManager mPackageManagerService;
     @Mock private AppOpsManager mAppOpsManager;
+    @Mock private ApplicationsState mState;
+    @Mock private ApplicationsState.Session mSession;
+
+    private AppEntry mAppEntry;
 
     @Before
-    public void setUp() {
+    public void setUp() throws RemoteException {
         MockitoAnnotations.initMocks(this);
         when(mContext.getSystemService(Context.USER_SERVICE)).thenReturn(mUserManager);
         when(mContext.getSystemService(Context.APP_OPS_SERVICE)).thenReturn(mAppOpsManager);
+        when(mUserManager.getUserProfiles())
+                .thenReturn(Collections.singletonList(UserHandle.of(USER_ID)));
+        when(mState.newSession(any())).thenReturn(mSession);
+        when(mState.getBackgroundLooper()).thenReturn(mock(Looper.class));
+        AppOpsStateSnapshot.getInstance().invalidate();
+
+        final PackageInfo packageInfo = new PackageInfo();
+        packageInfo.packageName = PACKAGE_NAME;
+        packageInfo.requestedPermissions = new String[] {Manifest.permission.SYSTEM_ALERT_WINDOW};
+        packageInfo.requestedPermissionsFlags = new int[] {0};
+        when(mPackageManagerService.getInstalledPackages(anyInt(), eq(USER_ID)))
+                .thenReturn(new ParceledListSlice<>(Collections.singletonList(packageInfo)));
+        final AppOpsManager.PackageOps packageOps = mock(AppOpsManager.PackageOps.class);
+        final AppOpsManager.OpEntry opEntry = mock(AppOpsManager.OpEntry.class);
+        when(opEntry.getMode()).thenReturn(AppOpsManager.MODE_ALLOWED);
+        when(packageOps.getPackageName()).thenReturn(PACKAGE_NAME);
+        when(packageOps.getUid()).thenReturn(UID);
+        when(packageOps.getOps()).thenReturn(Collections.singletonList(opEntry));
+        when(mAppOpsManager.getPackagesForOps(any(int[].class)))
+                .thenReturn(Collections.singletonList(packageOps));
+
+        mAppEntry = mock(AppEntry.class);
+        mAppEntry.info = new ApplicationInfo();
+        mAppEntry.info.packageName = PACKAGE_NAME;
+        mAppEntry.info.uid = UID;
+        final ArrayList<AppEntry> apps = new ArrayList<>();
+        apps.add(mAppEntry);
+        when(mSession.getAllApps()).thenReturn(apps);
+    }
+
+    @After
+    public void tearDown() {
+        AppOpsStateSnapshot.getInstance().invalidate();
+    }
+
+    @Test
+    public void loadAllExtraInfo_servedFromSnapshot() throws RemoteException {
+        final TestAppStateAppOpsBridge bridge = new TestAppStateAppOpsBridge();
+
+        bridge.loadAllExtraInfo();
+        bridge.loadAllExtraInfo();
+
+        final AppStateAppOpsBridge.PermissionState state =
+                (AppStateAppOpsBridge.PermissionState) mAppEntry.extraInfo;
+        Truth.assertThat(state.permissionDeclared).isTrue();
+        Truth.assertThat(state.appOpMode).isEqualTo(AppOpsManager.MODE_ALLOWED);
+        verify(mPackageManagerService, times(1)).getInstalledPackages(anyInt(), eq(USER_ID));
+        verify(mPackageManagerService, never()).getPackageInfo(anyString(), anyInt(), anyInt());
+        verify(mAppOpsManager, times(1)).getPackagesForOps(any(int[].class));
+    }
+
+    @Test
+    public void loadAllExtraInfo_packageNotRequestingPermission_noExtraInfo()
+            throws RemoteException {
+        final PackageInfo packageInfo = new PackageInfo();
+        packageInfo.packageName = PACKAGE_NAME;
+        when(mPackageManagerService.getInstalledPackages(anyInt(), eq(USER_ID)))
+                .thenReturn(new ParceledListSlice<>(Collections.singletonList(packageInfo)));
+
+        new TestAppStateAppOpsBridge().loadAllExtraInfo();
+
+        Truth.assertThat(mAppEntry.extraInfo).isNull();
+    }
+
+    @Test
+    public void onPackageListChanged_invalidatesSnapshot() throws RemoteException {
+        final TestAppStateAppOpsBridge bridge = new TestAppStateAppOpsBridge();
+        bridge.loadAllExtraInfo();
+
+        bridge.onPackageListChanged();
+        bridge.loadAllExtraInfo();
+
+        verify(mPackageManagerService, times(2)).getInstalledPackages(anyInt(), eq(USER_ID));
+        verify(mAppOpsManager, times(2)).getPackagesForOps(any(int[].class));
     }
 
     @Test
@@ -117,7 +214,7 @@ public final class AppStateAppOpsBridgeTest {
 
     private class TestAppStateAppOpsBridge extends AppStateAppOpsBridge {
         private TestAppStateAppOpsBridge() {
-            super(mContext, null, null, AppOpsManager.OP_SYSTEM_ALERT_WINDOW,
+            super(mContext, mState, null, AppOpsManager.OP_SYSTEM_ALERT_WINDOW,
                 new String[] {Manifest.permission.SYSTEM_ALERT_WINDOW},
                 mPackageManagerService);
         }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.Manifest;
+import android.app.AppOpsManager;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.IPackageManager;
+import android.content.pm.PackageInfo;
+import android.content.pm.ParceledListSlice;
+import android.os.Looper;
+import android.os.RemoteException;
+import android.os.UserHandle;
+
+import com.android.settings.applications.AppStateInstallAppsBridge.InstallAppsState;
+import com.android.settingslib.applications.ApplicationsState;
+import com.android.settingslib.applications.ApplicationsState.AppEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+@RunWith(RobolectricTestRunner.class)
+public class AppStateInstallAppsBridgeTest {
+
+    private static final int USER_ID = 0;
+    private static final String PACKAGE_NAME = "com.example.app";
+    private static final int UID = UserHandle.getUid(USER_ID, 10001);
+
+    @Mock
+    private Context mContext;
+    @Mock
+    private IPackageManager mPackageManager;
+    @Mock
+    private AppOpsManager mAppOpsManager;
+    @Mock
+    private ApplicationsState mState;
+    @Mock
+    private ApplicationsState.Session mSession;
+
+    private AppEntry mAppEntry;
+    private AppStateInstallAppsBridge mBridge;
+
+    @Before
+    public void setUp() throws RemoteException {
+        MockitoAnnotations.initMocks(this);
+        when(mContext.getSystemService(Context.APP_OPS_SERVICE)).thenReturn(mAppOpsManager);
+        when(mState.newSession(any())).thenReturn(mSession);
+        when(mState.getBackgroundLooper()).thenReturn(mock(Looper.class));
+        AppOpsStateSnapshot.getInstance().invalidate();
+
+        final PackageInfo packageInfo = new PackageInfo();
+        packageInfo.packageName = PACKAGE_NAME;
+        packageInfo.requestedPermissions =
+                new String[] {Manifest.permission.REQUEST_INSTALL_PACKAGES};
+        when(mPackageManager.getInstalledPackages(anyInt(), eq(USER_ID)))
+                .thenReturn(new ParceledListSlice<>(Collections.singletonList(packageInfo)));
+        final AppOpsManager.PackageOps packageOps = mock(AppOpsManager.PackageOps.class);
+        final AppOpsManager.OpEntry opEntry = mock(AppOpsManager.OpEntry.class);
+        when(opEntry.getMode()).thenReturn(AppOpsManager.MODE_ALLOWED);
+        when(packageOps.getPackageName()).thenReturn(PACKAGE_NAME);
+        when(packageOps.getUid()).thenReturn(UID);
+        when(packageOps.getOps()).thenReturn(Collections.singletonList(opEntry));
+        when(mAppOpsManager.getPackagesForOps(any(int[].class)))
+                .thenReturn(Collections.singletonList(packageOps));
+
+        mAppEntry = mock(AppEntry.class);
+        mAppEntry.info = new ApplicationInfo();
+        mAppEntry.info.packageName = PACKAGE_NAME;
+        mAppEntry.info.uid = UID;
+        final ArrayList<AppEntry> apps = new ArrayList<>();
+        apps.add(mAppEntry);
+        when(mSession.getAllApps()).thenReturn(apps);
+
+        mBridge = new AppStateInstallAppsBridge(mContext, mState,
+                mock(AppStateBaseBridge.Callback.class), mPackageManager);
+    }
+
+    @After
+    public void tearDown() {
+        AppOpsStateSnapshot.getInstance().invalidate();
+    }
+
+    @Test
+    public void loadAllExtraInfo_servedFromSnapshot() throws RemoteException {
+        mBridge.loadAllExtraInfo();
+        mBridge.loadAllExtraInfo();
+
+        final InstallAppsState state = (InstallAppsState) mAppEntry.extraInfo;
+        assertThat(state.isPotentialAppSource()).isTrue();
+        assertThat(state.canInstallApps()).isTrue();
+        verify(mPackageManager, times(1)).getInstalledPackages(anyInt(), eq(USER_ID));
+        verify(mPackageManager, never()).getAppOpPermissionPackages(anyString(), anyInt());
+        verify(mAppOpsManager, times(1)).getPackagesForOps(any(int[].class));
+        verify(mAppOpsManager, never()).checkOpNoThrow(anyInt(), anyInt(), anyString());
+    }
+
+    @Test
+    public void loadAllExtraInfo_noAppOp_notAllowed() {
+        when(mAppOpsManager.getPackagesForOps(any(int[].class)))
+                .thenReturn(Collections.emptyList());
+
+        mBridge.loadAllExtraInfo();
+
+        final InstallAppsState state = (InstallAppsState) mAppEntry.extraInfo;
+        assertThat(state.isPotentialAppSource()).isTrue();
+        assertThat(state.canInstallApps()).isFalse();
+    }
+
+    @Test
+    public void onPackageListChanged_invalidatesSnapshot() throws RemoteException {
+        mBridge.loadAllExtraInfo();
+
+        mBridge.onPackageListChanged();
+        mBridge.loadAllExtraInfo();
+
+        verify(mPackageManager, times(2)).getInstalledPackages(anyInt(), eq(USER_ID));
+        verify(mAppOpsManager, times(2)).getPackagesForOps(any(int[].class));
+    }
+}
@@ -34,6 +34,8 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -99,6 +101,7 @@ public class AppStateNotificationBridgeTest {
         // most tests assume no work profile
         when(mUserManager.getProfileIdsWithDisabled(anyInt())).thenReturn(new int[]{});
         mContext = RuntimeEnvironment.application.getApplicationContext();
+        NotificationStateSnapshot.getInstance().invalidate();
 
         mBridge = new AppStateNotificationBridge(mContext, mState,
                 mock(AppStateBaseBridge.Callback.class), mUsageStats, mUserManager, mBackend);
@@ -338,6 +341,60 @@ public class AppStateNotificationBridgeTest {
         assertThat(((NotificationsSentState) apps.get(1).extraInfo).avgSentDaily).isEqualTo(1);
     }
 
+    @Test
+    public void testLoadAllExtraInfo_loadsBlockStatesPerUser_noPerAppFallback()
+            throws RemoteException {
+        when(mUsageStats.queryEventsForUser(anyLong(), anyLong(), anyInt(), anyString()))
+                .thenReturn(mock(UsageEvents.class));
+        when(mBackend.loadBlockStates(any(), eq(0), any())).thenReturn(
+                Map.of(PKG1, new NotificationBackend.BlockState(false, true)));
+        ArrayList<AppEntry> apps = new ArrayList<>();
+        apps.add(getMockAppEntry(PKG1));
+        when(mSession.getAllApps()).thenReturn(apps);
+
+        mBridge.loadAllExtraInfo();
+
+        assertThat(((NotificationsSentState) apps.get(0).extraInfo).blocked).isFalse();
+        assertThat(((NotificationsSentState) apps.get(0).extraInfo).blockable).isTrue();
+        verify(mBackend, never()).getNotificationsBanned(anyString(), anyInt());
+        verify(mBackend, never()).enableSwitch(any(), any());
+    }
+
+    @Test
+    public void testLoadAllExtraInfo_reloadWithinTtl_servedFromSnapshot() throws RemoteException {
+        when(mUsageStats.queryEventsForUser(anyLong(), anyLong(), anyInt(), anyString()))
+                .thenReturn(mock(UsageEvents.class));
+        when(mBackend.loadBlockStates(any(), eq(0), any())).thenReturn(
+                Map.of(PKG1, new NotificationBackend.BlockState(true, true)));
+        ArrayList<AppEntry> apps = new ArrayList<>();
+        apps.add(getMockAppEntry(PKG1));
+        when(mSession.getAllApps()).thenReturn(apps);
+
+        mBridge.loadAllExtraInfo();
+        mBridge.loadAllExtraInfo();
+
+        verify(mUsageStats, times(1)).queryEventsForUser(anyLong(), anyLong(), anyInt(),
+                anyString());
+        verify(mBackend, times(1)).loadBlockStates(any(), anyInt(), any());
+        assertThat(((NotificationsSentState) apps.get(0).extraInfo).blocked).isTrue();
+    }
+
+    @Test
+    public void testLoadAllExtraInfo_packageListChanged_reloads() throws RemoteException {
+        when(mUsageStats.queryEventsForUser(anyLong(), anyLong(), anyInt(), anyString()))
+                .thenReturn(mock(UsageEvents.class));
+        ArrayList<AppEntry> apps = new ArrayList<>();
+        apps.add(getMockAppEntry(PKG1));
+        when(mSession.getAllApps()).thenReturn(apps);
+
+        mBridge.loadAllExtraInfo();
+        mBridge.onPackageListChanged();
+        mBridge.loadAllExtraInfo();
+
+        verify(mUsageStats, times(2)).queryEventsForUser(anyLong(), anyLong(), anyInt(),
+                anyString());
+    }
+
     @Test
     public void testUpdateExtraInfo_noEvents() throws RemoteException {
         when(mUsageStats.queryEventsForPackageForUser(
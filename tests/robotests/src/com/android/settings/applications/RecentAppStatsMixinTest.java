@@ -94,6 +94,7 @@ public class RecentAppStatsMixinTest {
         mContext = spy(RuntimeEnvironment.application);
         when(mContext.getApplicationContext()).thenReturn(mContext);
         ReflectionHelpers.setStaticField(ApplicationsState.class, "sInstance", mAppState);
+        ReflectionHelpers.setStaticField(UsageStatsSession.class, "sInstance", null);
         doReturn(mUsageStatsManager).when(mContext).getSystemService(UsageStatsManager.class);
         doReturn(mUserManager).when(mContext).getSystemService(Context.USER_SERVICE);
         doReturn(mPackageManager).when(mContext).getPackageManager();
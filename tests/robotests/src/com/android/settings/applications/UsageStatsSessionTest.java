@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import android.app.usage.UsageEvents;
+import android.app.usage.UsageStats;
+import android.app.usage.UsageStatsManager;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RunWith(RobolectricTestRunner.class)
+public class UsageStatsSessionTest {
+
+    private static final int USER_ID = 0;
+    private static final int OTHER_USER_ID = 10;
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private UsageStatsManager mUsageStatsManager;
+
+    private UsageStatsSession mSession;
+
+    @Before
+    public void setUp() {
+        mSession = new UsageStatsSession();
+    }
+
+    @Test
+    public void getRecentUsageStats_again_onlyQueriesEventsSinceLastQuery() {
+        when(mUsageStatsManager.queryUsageStats(anyInt(), anyLong(), anyLong()))
+                .thenReturn(Arrays.asList(stats("pkg.a", 150), stats("pkg.b", 180)));
+        when(mUsageStatsManager.queryEvents(anyLong(), anyLong())).thenReturn(events(
+                event("pkg.c", UsageEvents.Event.ACTIVITY_RESUMED, 240),
+                event("pkg.b", UsageEvents.Event.ACTIVITY_PAUSED, 250)));
+
+        mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 100, 200);
+        final List<UsageStats> result =
+                mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 160, 300);
+
+        verify(mUsageStatsManager).queryUsageStats(UsageStatsManager.INTERVAL_BEST, 100, 200);
+        verify(mUsageStatsManager).queryEvents(200, 300);
+        verifyNoMoreInteractions(mUsageStatsManager);
+        // pkg.a was last used before the new window.
+        assertThat(lastTimesUsed(result)).containsExactly("pkg.b:250", "pkg.c:240");
+    }
+
+    @Test
+    public void getRecentUsageStats_otherEvents_notUsed() {
+        when(mUsageStatsManager.queryUsageStats(anyInt(), anyLong(), anyLong()))
+                .thenReturn(Collections.singletonList(stats("pkg.a", 150)));
+        when(mUsageStatsManager.queryEvents(anyLong(), anyLong())).thenReturn(events(
+                event("pkg.a", UsageEvents.Event.NOTIFICATION_SEEN, 250),
+                event("pkg.b", UsageEvents.Event.STANDBY_BUCKET_CHANGED, 260)));
+
+        mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 100, 200);
+        final List<UsageStats> result =
+                mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 100, 300);
+
+        assertThat(lastTimesUsed(result)).containsExactly("pkg.a:150");
+    }
+
+    @Test
+    public void getRecentUsageStats_olderEventInLaterQuery_keepsLatestTimeUsed() {
+        when(mUsageStatsManager.queryUsageStats(anyInt(), anyLong(), anyLong()))
+                .thenReturn(Collections.singletonList(stats("pkg.a", 190)));
+        when(mUsageStatsManager.queryEvents(anyLong(), anyLong())).thenReturn(
+                events(event("pkg.a", UsageEvents.Event.ACTIVITY_STOPPED, 150)));
+
+        mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 100, 200);
+        final List<UsageStats> result =
+                mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 100, 300);
+
+        assertThat(lastTimesUsed(result)).containsExactly("pkg.a:190");
+    }
+
+    @Test
+    public void getRecentUsageStats_windowGrew_queriesItAll() {
+        when(mUsageStatsManager.queryUsageStats(anyInt(), anyLong(), anyLong()))
+                .thenReturn(Collections.emptyList());
+
+        mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 100, 200);
+        mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 50, 300);
+
+        verify(mUsageStatsManager).queryUsageStats(UsageStatsManager.INTERVAL_BEST, 50, 300);
+        verify(mUsageStatsManager, never()).queryEvents(anyLong(), anyLong());
+    }
+
+    @Test
+    public void getRecentUsageStats_otherUser_queriesItAll() {
+        when(mUsageStatsManager.queryUsageStats(anyInt(), anyLong(), anyLong()))
+                .thenReturn(Collections.emptyList());
+
+        mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 100, 200);
+        mSession.getRecentUsageStats(mUsageStatsManager, OTHER_USER_ID, 100, 300);
+
+        verify(mUsageStatsManager).queryUsageStats(UsageStatsManager.INTERVAL_BEST, 100, 300);
+    }
+
+    @Test
+    public void getRecentUsageStats_userRemoved_queriesItAll() {
+        when(mUsageStatsManager.queryUsageStats(anyInt(), anyLong(), anyLong()))
+                .thenReturn(Collections.emptyList());
+
+        mSession.getRecentUsageStats(mUsageStatsManager, OTHER_USER_ID, 100, 200);
+        mSession.removeUser(OTHER_USER_ID);
+        mSession.getRecentUsageStats(mUsageStatsManager, OTHER_USER_ID, 100, 300);
+
+        verify(mUsageStatsManager).queryUsageStats(UsageStatsManager.INTERVAL_BEST, 100, 300);
+        verify(mUsageStatsManager, never()).queryEvents(anyLong(), anyLong());
+    }
+
+    @Test
+    public void getRecentUsageStats_resultModified_keepsCache() {
+        when(mUsageStatsManager.queryUsageStats(anyInt(), anyLong(), anyLong()))
+                .thenReturn(Collections.singletonList(stats("pkg.a", 150)));
+        when(mUsageStatsManager.queryEvents(anyLong(), anyLong())).thenReturn(events());
+
+        final List<UsageStats> first =
+                mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 100, 200);
+        first.get(0).add(stats("pkg.a", 199));
+        final List<UsageStats> second =
+                mSession.getRecentUsageStats(mUsageStatsManager, USER_ID, 100, 300);
+
+        assertThat(lastTimesUsed(second)).containsExactly("pkg.a:150");
+    }
+
+    private static UsageStats stats(String packageName, long lastTimeUsed) {
+        final UsageStats stats = new UsageStats();
+        stats.mPackageName = packageName;
+        stats.mLastTimeUsed = lastTimeUsed;
+        return stats;
+    }
+
+    private static UsageEvents.Event event(String packageName, int type, long timeStamp) {
+        final UsageEvents.Event event = new UsageEvents.Event(type, timeStamp);
+        event.mPackage = packageName;
+        return event;
+    }
+
+    private static UsageEvents events(UsageEvents.Event... events) {
+        final String[] packageNames = Arrays.stream(events)
+                .map(UsageEvents.Event::getPackageName)
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+        return new UsageEvents(Arrays.asList(events), packageNames);
+    }
+
+    private static List<String> lastTimesUsed(List<UsageStats> statsList) {
+        return statsList.stream()
+                .map(stats -> stats.getPackageName() + ":" + stats.getLastTimeUsed())
+                .collect(Collectors.toList());
+    }
+}
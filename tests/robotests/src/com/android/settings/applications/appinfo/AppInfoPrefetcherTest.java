@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.appinfo;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.mock;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Process;
+import android.os.UserHandle;
+
+import com.android.settings.notification.NotificationBackend;
+import com.android.settingslib.applications.StorageStatsSource.AppStorageStats;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@RunWith(RobolectricTestRunner.class)
+public class AppInfoPrefetcherTest {
+
+    private Context mContext;
+    private String mPackageName;
+    private int mUid;
+    private int mUserId;
+    private long mNow;
+    private volatile int mLoadCount;
+    private long mLoadDelayMs;
+    private AppStorageStats mStorageStats;
+    private NotificationBackend.AppRow mAppRow;
+    private AppInfoPrefetcher mPrefetcher;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mPackageName = mContext.getPackageName();
+        mUid = Process.myUid();
+        mUserId = UserHandle.getUserId(mUid);
+        mStorageStats = mock(AppStorageStats.class);
+        mAppRow = new NotificationBackend.AppRow();
+        mPrefetcher = createPrefetcher(Runnable::run);
+    }
+
+    @Test
+    public void prefetch_valuesAvailable() {
+        mPrefetcher.prefetch(mContext, mPackageName, mUid);
+
+        assertThat(mPrefetcher.takeStorageStats(mPackageName, mUserId))
+                .isSameInstanceAs(mStorageStats);
+        assertThat(mPrefetcher.takeNotificationAppRow(mPackageName, mUserId))
+                .isSameInstanceAs(mAppRow);
+        assertThat(mPrefetcher.takeTimeSpentInApp(mPackageName, mUserId).toString())
+                .isEqualTo("5 min");
+    }
+
+    @Test
+    public void take_consumesValue() {
+        mPrefetcher.prefetch(mContext, mPackageName, mUid);
+
+        mPrefetcher.takeStorageStats(mPackageName, mUserId);
+
+        assertThat(mPrefetcher.takeStorageStats(mPackageName, mUserId)).isNull();
+    }
+
+    @Test
+    public void take_afterTtl_returnsNull() {
+        mPrefetcher.prefetch(mContext, mPackageName, mUid);
+        mNow += AppInfoPrefetcher.CACHE_TTL_MS + 1;
+
+        assertThat(mPrefetcher.takeStorageStats(mPackageName, mUserId)).isNull();
+    }
+
+    @Test
+    public void prefetch_twiceWithinTtl_loadsOnce() {
+        mPrefetcher.prefetch(mContext, mPackageName, mUid);
+        mPrefetcher.prefetch(mContext, mPackageName, mUid);
+
+        assertThat(mLoadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidate_dropsValues() {
+        mPrefetcher.prefetch(mContext, mPackageName, mUid);
+
+        mPrefetcher.invalidate(mPackageName, mUserId);
+
+        assertThat(mPrefetcher.takeNotificationAppRow(mPackageName, mUserId)).isNull();
+    }
+
+    @Test
+    public void takeTimeSpentInApp_whileLoading_waitsForValue() throws Exception {
+        final List<Runnable> loads = new ArrayList<>();
+        final AppInfoPrefetcher prefetcher = createPrefetcher(loads::add);
+        mLoadDelayMs = 50;
+        prefetcher.prefetch(mContext, mPackageName, mUid);
+        final Thread loader = new Thread(loads.get(0));
+
+        loader.start();
+        final CharSequence timeSpent = prefetcher.takeTimeSpentInApp(mPackageName, mUserId);
+        loader.join();
+
+        assertThat(timeSpent.toString()).isEqualTo("5 min");
+        assertThat(mLoadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void takeStorageStats_whileLoading_returnsNullWithoutWaiting() {
+        final List<Runnable> loads = new ArrayList<>();
+        final AppInfoPrefetcher prefetcher = createPrefetcher(loads::add);
+        prefetcher.prefetch(mContext, mPackageName, mUid);
+
+        assertThat(prefetcher.takeStorageStats(mPackageName, mUserId)).isNull();
+        assertThat(prefetcher.takeNotificationAppRow(mPackageName, mUserId)).isNull();
+
+        loads.get(0).run();
+        assertThat(prefetcher.takeStorageStats(mPackageName, mUserId))
+                .isSameInstanceAs(mStorageStats);
+    }
+
+    @Test
+    public void take_packageNotFound_returnsNullWithoutWaiting() {
+        mPrefetcher.prefetch(mContext, "com.example.missing", mUid);
+
+        assertThat(mPrefetcher.takeNotificationAppRow("com.example.missing", mUserId)).isNull();
+        assertThat(mLoadCount).isEqualTo(0);
+    }
+
+    @Test
+    public void take_notPrefetched_returnsNull() {
+        assertThat(mPrefetcher.takeTimeSpentInApp("com.example.other", mUserId)).isNull();
+    }
+
+    private AppInfoPrefetcher createPrefetcher(Executor executor) {
+        return new AppInfoPrefetcher(() -> mNow, executor) {
+            @Override
+            AppStorageStats loadStorageStats(Context context, ApplicationInfo info, int userId) {
+                mLoadCount++;
+                try {
+                    Thread.sleep(mLoadDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return mStorageStats;
+            }
+
+            @Override
+            CharSequence loadTimeSpentInApp(Context context, String packageName) {
+                return "5 min";
+            }
+
+            @Override
+            NotificationBackend.AppRow loadNotificationAppRow(Context context,
+                    ApplicationInfo info) {
+                return mAppRow;
+            }
+        };
+    }
+}
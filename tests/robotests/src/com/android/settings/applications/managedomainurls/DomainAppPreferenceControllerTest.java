@@ -30,6 +30,7 @@ import android.content.pm.PackageManager;
 import android.content.pm.verify.domain.DomainVerificationManager;
 import android.content.pm.verify.domain.DomainVerificationUserState;
 
+import com.android.settings.R;
 import com.android.settingslib.applications.ApplicationsState;
 
 import org.junit.Before;
@@ -40,6 +41,8 @@ import org.mockito.MockitoAnnotations;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RunWith(RobolectricTestRunner.class)
@@ -75,6 +78,39 @@ public class DomainAppPreferenceControllerTest {
                 .isEqualTo(com.android.settingslib.widget.preference.app.R.layout.preference_app);
     }
 
+    @Test
+    public void setLinkHandlingAllowed_updatesSummary() {
+        final DomainAppPreference pref = new DomainAppPreference(mContext, mAppEntry);
+        assertThat(pref.getSummary().toString())
+                .isEqualTo(mContext.getString(R.string.summary_placeholder));
+
+        pref.setLinkHandlingAllowed(true);
+        assertThat(pref.getSummary().toString())
+                .isEqualTo(mContext.getString(R.string.app_link_open_always));
+
+        pref.setLinkHandlingAllowed(false);
+        assertThat(pref.getSummary().toString())
+                .isEqualTo(mContext.getString(R.string.app_link_open_never));
+    }
+
+    @Test
+    public void loadLinkHandlingStates_returnsStatePerPackage()
+            throws PackageManager.NameNotFoundException {
+        final DomainVerificationUserState allowedState = mock(DomainVerificationUserState.class);
+        when(allowedState.isLinkHandlingAllowed()).thenReturn(true);
+        when(mDomainVerificationManager.getDomainVerificationUserState("com.allowed"))
+                .thenReturn(allowedState);
+        when(mDomainVerificationManager.getDomainVerificationUserState("com.missing"))
+                .thenThrow(new PackageManager.NameNotFoundException());
+        final DomainAppPreferenceController controller =
+                new DomainAppPreferenceController(mContext, "key");
+
+        final Map<String, Boolean> states =
+                controller.loadLinkHandlingStates(List.of("com.allowed", "com.missing"));
+
+        assertThat(states).containsExactly("com.allowed", true, "com.missing", false);
+    }
+
     private ApplicationInfo createApplicationInfo(String packageName) {
         ApplicationInfo appInfo = new ApplicationInfo();
         appInfo.sourceDir = "foo";
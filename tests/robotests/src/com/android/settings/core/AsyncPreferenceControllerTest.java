@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+
+import androidx.preference.Preference;
+import androidx.preference.PreferenceScreen;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class AsyncPreferenceControllerTest {
+    private static final String KEY = "test_key";
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private PreferenceScreen mScreen;
+
+    private Context mContext;
+    private Preference mPreference;
+    private FakeExecutorService mExecutor;
+    private TestPreferenceController mController;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mPreference = new Preference(mContext);
+        mPreference.setKey(KEY);
+        when(mScreen.findPreference(KEY)).thenReturn(mPreference);
+        mExecutor = new FakeExecutorService();
+        mController = new TestPreferenceController(mContext, mExecutor);
+        mController.displayPreference(mScreen);
+    }
+
+    @Test
+    public void onStart_loadsAndAppliesState() {
+        mController.onStart();
+        runPendingLoads();
+
+        assertThat(mController.mLoadCount).isEqualTo(1);
+        assertThat(mPreference.getSummary().toString()).isEqualTo("1");
+    }
+
+    @Test
+    public void refresh_whileLoading_coalescesIntoOneLoad() {
+        mController.onStart();
+        mController.refresh();
+        mController.refresh();
+        mController.refresh();
+
+        assertThat(mExecutor.mTasks).hasSize(1);
+
+        runPendingLoads();
+        runPendingLoads();
+
+        assertThat(mController.mLoadCount).isEqualTo(2);
+        assertThat(mPreference.getSummary().toString()).isEqualTo("2");
+        assertThat(mExecutor.mTasks).isEmpty();
+    }
+
+    @Test
+    public void onStop_cancelsLoad() {
+        mController.onStart();
+        mController.onStop();
+        runPendingLoads();
+
+        assertThat(mController.mLoadCount).isEqualTo(0);
+        assertThat(mPreference.getSummary()).isNull();
+    }
+
+    @Test
+    public void refresh_notStarted_doesNothing() {
+        mController.refresh();
+
+        assertThat(mExecutor.mTasks).isEmpty();
+    }
+
+    @Test
+    public void updateState_appliesLatestState() {
+        mController.onStart();
+        runPendingLoads();
+        mController.onStop();
+        final Preference preference = new Preference(mContext);
+
+        mController.updateState(preference);
+
+        assertThat(preference.getSummary().toString()).isEqualTo("1");
+        assertThat(mController.getState()).isEqualTo("1");
+    }
+
+    private void runPendingLoads() {
+        final List<Runnable> tasks = new ArrayList<>(mExecutor.mTasks);
+        mExecutor.mTasks.clear();
+        tasks.forEach(Runnable::run);
+        ShadowLooper.idleMainLooper();
+    }
+
+    static class TestPreferenceController extends AsyncPreferenceController<String> {
+        int mLoadCount;
+
+        TestPreferenceController(Context context, FakeExecutorService executor) {
+            super(context, KEY, executor);
+        }
+
+        @Override
+        protected String loadInBackground() {
+            return String.valueOf(++mLoadCount);
+        }
+
+        @Override
+        protected void updateState(Preference preference, String state) {
+            preference.setSummary(state);
+        }
+
+        @Override
+        public int getAvailabilityStatus() {
+            return AVAILABLE;
+        }
+    }
+
+    static class FakeExecutorService extends AbstractExecutorService {
+        final List<Runnable> mTasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
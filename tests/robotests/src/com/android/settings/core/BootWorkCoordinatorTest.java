@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class BootWorkCoordinatorTest {
+
+    private final List<Runnable> mQueuedRunnables = new ArrayList<>();
+    private final List<String> mRunTasks = new ArrayList<>();
+
+    private Context mContext;
+    private int mDoneCount;
+    private BootWorkCoordinator mCoordinator;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mCoordinator = new BootWorkCoordinator(mQueuedRunnables::add);
+    }
+
+    @Test
+    public void enqueue_runsInOrder() {
+        mCoordinator.enqueue(mContext, () -> mDoneCount++, task("first"), task("second"));
+        mCoordinator.enqueue(mContext, () -> mDoneCount++, task("third"));
+
+        runQueued();
+
+        assertThat(mRunTasks).containsExactly("first", "second", "third").inOrder();
+        assertThat(mDoneCount).isEqualTo(2);
+    }
+
+    @Test
+    public void enqueue_lastTaskNotRun_notDone() {
+        mCoordinator.enqueue(mContext, () -> mDoneCount++, task("first"), task("second"));
+
+        mQueuedRunnables.remove(0).run();
+
+        assertThat(mDoneCount).isEqualTo(0);
+    }
+
+    @Test
+    public void enqueue_noTask_doneRightAway() {
+        mCoordinator.enqueue(mContext, () -> mDoneCount++);
+
+        assertThat(mDoneCount).isEqualTo(1);
+        assertThat(mQueuedRunnables).isEmpty();
+    }
+
+    @Test
+    public void enqueue_taskThrows_runsOthersAndFinishes() {
+        mCoordinator.enqueue(mContext, () -> mDoneCount++,
+                new BootWorkCoordinator.Task("failing", context -> {
+                    throw new IllegalStateException();
+                }),
+                task("other"));
+
+        runQueued();
+
+        assertThat(mRunTasks).containsExactly("other");
+        assertThat(mDoneCount).isEqualTo(1);
+    }
+
+    @Test
+    public void runAsync_notDispatchedBroadcast_runsInline() {
+        final BroadcastReceiver receiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {}
+        };
+
+        mCoordinator.runAsync(receiver, mContext, task("inline"));
+
+        assertThat(mRunTasks).containsExactly("inline");
+        assertThat(mQueuedRunnables).isEmpty();
+    }
+
+    @Test
+    public void getTaskCosts_containsRunTasks() {
+        mCoordinator.enqueue(mContext, () -> mDoneCount++, task("measured"));
+
+        runQueued();
+
+        assertThat(mCoordinator.getTaskCosts()).containsKey("measured");
+        assertThat(mCoordinator.getTaskCosts().get("measured")).hasLength(2);
+    }
+
+    private BootWorkCoordinator.Task task(String name) {
+        return new BootWorkCoordinator.Task(name, context -> mRunTasks.add(name));
+    }
+
+    private void runQueued() {
+        final List<Runnable> runnables = new ArrayList<>(mQueuedRunnables);
+        mQueuedRunnables.clear();
+        for (Runnable runnable : runnables) {
+            runnable.run();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.display;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settings.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class PreviewPagerAdapterTest {
+
+    private static final int[] PREVIEW_SAMPLES =
+            {R.layout.screen_zoom_preview_1, R.layout.screen_zoom_preview_1};
+    private static final int LAYER_COUNT = 4;
+
+    private PreviewPagerAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final Configuration[] configurations = new Configuration[LAYER_COUNT];
+        for (int i = 0; i < LAYER_COUNT; i++) {
+            configurations[i] = new Configuration(context.getResources().getConfiguration());
+            configurations[i].fontScale = 1.0f + 0.15f * i;
+        }
+        mAdapter = new PreviewPagerAdapter(context, /* isLayoutRtl= */ false, PREVIEW_SAMPLES,
+                configurations);
+    }
+
+    @Test
+    public void setPreviewLayer_onlyInflatesCurrentFrame() {
+        mAdapter.setPreviewLayer(/* newLayerIndex= */ 1, /* currentLayerIndex= */ -1,
+                /* currentFrameIndex= */ 0, /* animate= */ false);
+
+        assertThat(mAdapter.isLayerInflated(0, 1)).isTrue();
+        assertThat(mAdapter.isLayerInflated(1, 1)).isFalse();
+        assertThat(mAdapter.isLayerInflated(0, 0)).isFalse();
+        assertThat(mAdapter.isLayerInflated(0, 2)).isFalse();
+    }
+
+    @Test
+    public void inflateNextPendingLayer_inflatesOtherFramesThenAdjacentLayers() {
+        mAdapter.setPreviewLayer(/* newLayerIndex= */ 1, /* currentLayerIndex= */ -1,
+                /* currentFrameIndex= */ 0, /* animate= */ false);
+
+        assertThat(mAdapter.inflateNextPendingLayer()).isTrue();
+        assertThat(mAdapter.isLayerInflated(1, 1)).isTrue();
+        assertThat(mAdapter.isLayerInflated(0, 0)).isFalse();
+
+        while (mAdapter.inflateNextPendingLayer()) {}
+
+        assertThat(mAdapter.isLayerInflated(0, 0)).isTrue();
+        assertThat(mAdapter.isLayerInflated(0, 2)).isTrue();
+        assertThat(mAdapter.isLayerInflated(0, 3)).isFalse();
+        assertThat(mAdapter.isLayerInflated(1, 0)).isFalse();
+    }
+
+    @Test
+    public void inflateNextPendingLayer_customOffsets_inflatesThoseLayers() {
+        mAdapter.setAdjacentLayerOffsets(2);
+        mAdapter.setPreviewLayer(/* newLayerIndex= */ 1, /* currentLayerIndex= */ -1,
+                /* currentFrameIndex= */ 0, /* animate= */ false);
+
+        while (mAdapter.inflateNextPendingLayer()) {}
+
+        assertThat(mAdapter.isLayerInflated(0, 3)).isTrue();
+        assertThat(mAdapter.isLayerInflated(0, 0)).isFalse();
+        assertThat(mAdapter.isLayerInflated(0, 2)).isFalse();
+    }
+
+    @Test
+    public void inflateNextPendingLayer_adjacentLayer_staysHiddenAndTransparent() {
+        final FrameLayout container = new FrameLayout(ApplicationProvider.getApplicationContext());
+        final ViewGroup frame = (ViewGroup) mAdapter.instantiateItem(container, 0);
+        mAdapter.setPreviewLayer(/* newLayerIndex= */ 1, /* currentLayerIndex= */ -1,
+                /* currentFrameIndex= */ 0, /* animate= */ false);
+
+        while (mAdapter.inflateNextPendingLayer()) {}
+
+        final View adjacentLayer = frame.getChildAt(0);
+        assertThat(adjacentLayer.getVisibility()).isNotEqualTo(View.VISIBLE);
+        assertThat(adjacentLayer.getAlpha()).isEqualTo(0.0f);
+        assertThat(frame.getChildAt(1).getAlpha()).isEqualTo(1.0f);
+    }
+}
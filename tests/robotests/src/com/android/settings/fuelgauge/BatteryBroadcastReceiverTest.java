@@ -33,6 +33,9 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.hardware.usb.UsbManager;
 import android.os.BatteryManager;
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
 import android.os.PowerManager;
 
 import com.android.settings.Utils;
@@ -55,6 +58,9 @@ public class BatteryBroadcastReceiverTest {
     private static final int BATTERY_INTENT_SCALE = 100;
 
     @Mock private BatteryBroadcastReceiver.OnBatteryChangedListener mBatteryListener;
+    @Mock private BatteryStatsManager mBatteryStatsManager;
+    @Mock private BatteryUsageStats mBatteryUsageStats;
+    @Mock private BatteryUsageStats mOtherBatteryUsageStats;
     private BatteryBroadcastReceiver mBatteryBroadcastReceiver;
     private Context mContext;
     private Intent mChargingIntent;
@@ -70,6 +76,10 @@ public class BatteryBroadcastReceiverTest {
         mBatteryBroadcastReceiver.mBatteryHealth = BatteryManager.BATTERY_HEALTH_UNKNOWN;
         mBatteryBroadcastReceiver.mChargingStatus = BatteryManager.CHARGING_POLICY_DEFAULT;
         mBatteryBroadcastReceiver.setBatteryChangedListener(mBatteryListener);
+        doReturn(mBatteryUsageStats, mOtherBatteryUsageStats)
+                .when(mBatteryStatsManager)
+                .getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+        BatteryUsageStatsBroker.getInstance().invalidate();
 
         mChargingIntent = new Intent(Intent.ACTION_BATTERY_CHANGED);
         mChargingIntent.putExtra(BatteryManager.EXTRA_LEVEL, BATTERY_INTENT_LEVEL);
@@ -203,6 +213,37 @@ public class BatteryBroadcastReceiverTest {
         assertAction(captor, UsbManager.ACTION_USB_PORT_COMPLIANCE_CHANGED);
     }
 
+    @Test
+    public void onReceive_batteryLevelChanged_stopsSharingBatteryUsageStats() {
+        final BatteryUsageStatsBroker broker = BatteryUsageStatsBroker.getInstance();
+        final BatteryUsageStats stats =
+                broker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+
+        mBatteryBroadcastReceiver.onReceive(mContext, mChargingIntent);
+        final BatteryUsageStats reloadedStats =
+                broker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+
+        assertThat(reloadedStats).isSameInstanceAs(mOtherBatteryUsageStats);
+        broker.release(stats);
+        broker.release(reloadedStats);
+    }
+
+    @Test
+    public void register_keepsSharingBatteryUsageStats() {
+        doReturn(mChargingIntent).when(mContext).registerReceiver(any(), any(), anyInt());
+        final BatteryUsageStatsBroker broker = BatteryUsageStatsBroker.getInstance();
+        final BatteryUsageStats stats =
+                broker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+
+        mBatteryBroadcastReceiver.register();
+        final BatteryUsageStats sharedStats =
+                broker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+
+        assertThat(sharedStats).isSameInstanceAs(stats);
+        broker.release(stats);
+        broker.release(sharedStats);
+    }
+
     private void assertAction(ArgumentCaptor<IntentFilter> captor, String action) {
         assertThat(captor.getValue().hasAction(action)).isTrue();
     }
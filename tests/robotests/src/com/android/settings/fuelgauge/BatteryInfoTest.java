@@ -56,6 +56,9 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @RunWith(RobolectricTestRunner.class)
@@ -531,4 +534,125 @@ public class BatteryInfoTest {
         info = getBatteryInfo(true /* charging */, true /* enhanced */, true /* estimate */);
         assertHistoryAndLinearProjection(info);
     }
+
+    @Test
+    public void parseBatteryHistory_withBucketsCalledTwice_readsHistoryOnce() {
+        mockBatteryStatsHistory();
+        final BatteryInfo info = getBatteryInfo(false /* charging */, false /* enhanced */,
+                false /* estimate */);
+        final BatteryInfo sameStatsInfo = getBatteryInfo(false /* charging */,
+                false /* enhanced */, false /* estimate */);
+        final List<Long> points = new ArrayList<>();
+
+        info.parseBatteryHistory(/* maxBuckets= */ 10, new PointRecorder(points));
+        sameStatsInfo.parseBatteryHistory(/* maxBuckets= */ 10, new PointRecorder(points));
+
+        verify(mBatteryUsageStats, times(1)).iterateBatteryStatsHistory();
+        assertThat(points).containsExactly(1000L, 1500L, 2000L, 1000L, 1500L, 2000L).inOrder();
+    }
+
+    @Test
+    public void parseBatteryHistory_everyPoint_streamsHistoryEveryTime() {
+        mockBatteryStatsHistory();
+        final BatteryInfo info = getBatteryInfo(false /* charging */, false /* enhanced */,
+                false /* estimate */);
+        final List<Long> points = new ArrayList<>();
+
+        info.parseBatteryHistory(new PointRecorder(points));
+        info.parseBatteryHistory(new PointRecorder(points));
+
+        // Once for the time bounds and once for the points, nothing is kept.
+        verify(mBatteryUsageStats, times(4)).iterateBatteryStatsHistory();
+        assertThat(points).containsExactly(1000L, 1500L, 2000L, 1000L, 1500L, 2000L).inOrder();
+    }
+
+    @Test
+    public void parseBatteryHistory_withBuckets_keepsStateChanges() {
+        final BatteryStatsHistoryIterator iterator = mock(BatteryStatsHistoryIterator.class);
+        final BatteryStats.HistoryItem[] records = new BatteryStats.HistoryItem[100];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = makeHistoryIterm(1000 + i * 10, 50);
+            records[i].states = i >= 45 ? BatteryStats.HistoryItem.STATE_SCREEN_ON_FLAG : 0;
+        }
+        when(iterator.next())
+                .thenReturn(records[0], Arrays.copyOfRange(records, 1, records.length))
+                .thenReturn(null);
+        doReturn(iterator).when(mBatteryUsageStats).iterateBatteryStatsHistory();
+        final BatteryInfo info = getBatteryInfo(false /* charging */, false /* enhanced */,
+                false /* estimate */);
+        final List<Long> points = new ArrayList<>();
+
+        info.parseBatteryHistory(/* maxBuckets= */ 1, new PointRecorder(points),
+                new BatteryFlagParser(0, false, BatteryStats.HistoryItem.STATE_SCREEN_ON_FLAG));
+
+        // The screen turns on at 1450, the last point with the screen off is kept too.
+        assertThat(points).containsExactly(1000L, 1440L, 1450L, 1980L, 1990L).inOrder();
+    }
+
+    @Test
+    public void parseBatteryHistory_withBuckets_ignoresStatesNotRead() {
+        final BatteryStatsHistoryIterator iterator = mock(BatteryStatsHistoryIterator.class);
+        final BatteryStats.HistoryItem[] records = new BatteryStats.HistoryItem[100];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = makeHistoryIterm(1000 + i * 10, 50);
+            records[i].states = i % 2 == 0 ? BatteryStats.HistoryItem.STATE_WAKE_LOCK_FLAG : 0;
+        }
+        when(iterator.next())
+                .thenReturn(records[0], Arrays.copyOfRange(records, 1, records.length))
+                .thenReturn(null);
+        doReturn(iterator).when(mBatteryUsageStats).iterateBatteryStatsHistory();
+        final BatteryInfo info = getBatteryInfo(false /* charging */, false /* enhanced */,
+                false /* estimate */);
+        final List<Long> points = new ArrayList<>();
+
+        info.parseBatteryHistory(/* maxBuckets= */ 1, new PointRecorder(points),
+                new BatteryFlagParser(0, false, BatteryStats.HistoryItem.STATE_SCREEN_ON_FLAG));
+
+        // The wake lock changes every point, but no parser reads it.
+        assertThat(points).containsExactly(1000L, 1980L, 1990L).inOrder();
+    }
+
+    @Test
+    public void parseBatteryHistory_withBuckets_keepsFirstLowestHighestAndLast() {
+        final BatteryStatsHistoryIterator iterator = mock(BatteryStatsHistoryIterator.class);
+        final BatteryStats.HistoryItem[] records = new BatteryStats.HistoryItem[100];
+        for (int i = 0; i < records.length; i++) {
+            final int level = i == 30 ? 10 : i == 60 ? 90 : 50;
+            records[i] = makeHistoryIterm(1000 + i * 10, level);
+        }
+        when(iterator.next())
+                .thenReturn(records[0], Arrays.copyOfRange(records, 1, records.length))
+                .thenReturn(null);
+        doReturn(iterator).when(mBatteryUsageStats).iterateBatteryStatsHistory();
+        final BatteryInfo info = getBatteryInfo(false /* charging */, false /* enhanced */,
+                false /* estimate */);
+        final List<Long> points = new ArrayList<>();
+
+        info.parseBatteryHistory(/* maxBuckets= */ 1, new PointRecorder(points));
+
+        // The last point lands exactly on the end of the history, in a bucket of its own.
+        assertThat(points).containsExactly(1000L, 1300L, 1600L, 1980L, 1990L).inOrder();
+    }
+
+    private static final class PointRecorder implements BatteryInfo.BatteryDataParser {
+        private final List<Long> mPoints;
+
+        PointRecorder(List<Long> points) {
+            mPoints = points;
+        }
+
+        @Override
+        public void onParsingStarted(long startTime, long endTime) {}
+
+        @Override
+        public void onDataPoint(long time, BatteryStats.HistoryItem record) {
+            mPoints.add(time);
+        }
+
+        @Override
+        public void onDataGap() {}
+
+        @Override
+        public void onParsingDone() {}
+    }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class BatteryUsageStatsBrokerTest {
+
+    @Mock private BatteryStatsManager mBatteryStatsManager;
+    @Mock private BatteryUsageStats mBatteryUsageStats;
+    @Mock private BatteryUsageStats mOtherBatteryUsageStats;
+
+    private long mNow;
+    private BatteryUsageStatsBroker mBroker;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenReturn(mBatteryUsageStats, mOtherBatteryUsageStats);
+        mBroker = new BatteryUsageStatsBroker(() -> mNow);
+    }
+
+    @Test
+    public void acquire_whileHeld_sharesSnapshot() {
+        final BatteryUsageStats first =
+                mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+        final BatteryUsageStats second =
+                mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+
+        assertThat(second).isSameInstanceAs(first);
+        verify(mBatteryStatsManager, times(1))
+                .getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+    }
+
+    @Test
+    public void acquire_smallerFlags_sharesSnapshot() {
+        final BatteryUsageStats first =
+                mBroker.acquire(
+                        mBatteryStatsManager,
+                        BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY
+                                | BatteryUsageStatsBroker.FLAG_INCLUDE_PROCESS_STATE);
+
+        assertThat(mBroker.acquire(mBatteryStatsManager, /* flags= */ 0)).isSameInstanceAs(first);
+        verify(mBatteryStatsManager, never()).getBatteryUsageStats();
+    }
+
+    @Test
+    public void acquire_largerFlags_fetchesAgain() {
+        mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_PROCESS_STATE);
+
+        final BatteryUsageStats stats =
+                mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+
+        assertThat(stats).isSameInstanceAs(mOtherBatteryUsageStats);
+    }
+
+    @Test
+    public void acquire_afterMaxShareAge_fetchesAgain() {
+        mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+        mNow += BatteryUsageStatsBroker.MAX_SHARE_AGE_MS + 1;
+
+        final BatteryUsageStats stats =
+                mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+
+        assertThat(stats).isSameInstanceAs(mOtherBatteryUsageStats);
+    }
+
+    @Test
+    public void release_lastHolder_closesStats() throws Exception {
+        final BatteryUsageStats stats =
+                mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+        mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+
+        mBroker.release(stats);
+        verify(mBatteryUsageStats, never()).close();
+
+        mBroker.release(stats);
+        verify(mBatteryUsageStats).close();
+    }
+
+    @Test
+    public void release_allHolders_nextAcquireFetchesAgain() {
+        final BatteryUsageStats stats =
+                mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+        mBroker.release(stats);
+
+        assertThat(mBroker.acquire(mBatteryStatsManager,
+                BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY))
+                .isSameInstanceAs(mOtherBatteryUsageStats);
+    }
+
+    @Test
+    public void release_notFromBroker_closesStats() throws Exception {
+        mBroker.release(mOtherBatteryUsageStats);
+
+        verify(mOtherBatteryUsageStats).close();
+    }
+
+    @Test
+    public void invalidate_heldSnapshotNotSharedAnymore() {
+        mBroker.acquire(mBatteryStatsManager, BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY);
+
+        mBroker.invalidate();
+
+        assertThat(mBroker.acquire(mBatteryStatsManager,
+                BatteryUsageStatsBroker.FLAG_INCLUDE_HISTORY))
+                .isSameInstanceAs(mOtherBatteryUsageStats);
+    }
+}
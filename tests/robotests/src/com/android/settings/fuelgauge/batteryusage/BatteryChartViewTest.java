@@ -20,8 +20,12 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.spy;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.os.LocaleList;
 import android.view.View;
+import android.widget.TextView;
 
 import com.android.settings.fuelgauge.PowerUsageFeatureProvider;
 import com.android.settings.testutils.FakeFeatureFactory;
@@ -91,4 +95,29 @@ public final class BatteryChartViewTest {
         mBatteryChartView.onClick(mMockView);
         assertThat(selectedIndex[0]).isEqualTo(BatteryChartViewModel.SELECTED_INDEX_ALL);
     }
+
+    @Test
+    public void draw_twice_reusesDrawingBuffers() {
+        mBatteryChartView.setCompanionTextView(new TextView(mContext));
+        mBatteryChartView.setViewModel(
+                new BatteryChartViewModel(
+                        List.of(90, 80, 70, 60),
+                        List.of(0L, 0L, 0L, 0L),
+                        BatteryChartViewModel.AxisLabelPosition.BETWEEN_TRAPEZOIDS,
+                        null));
+        mBatteryChartView.measure(
+                View.MeasureSpec.makeMeasureSpec(400, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(200, View.MeasureSpec.EXACTLY));
+        mBatteryChartView.layout(0, 0, 400, 200);
+        final Canvas canvas = new Canvas(Bitmap.createBitmap(400, 200, Bitmap.Config.ARGB_8888));
+
+        mBatteryChartView.draw(canvas);
+        final Rect[] displayAreas = mBatteryChartView.mAxisLabelDisplayAreas;
+        final Rect firstArea = displayAreas[0];
+        mBatteryChartView.draw(canvas);
+
+        assertThat(mBatteryChartView.mAxisLabelDisplayAreas).isSameInstanceAs(displayAreas);
+        assertThat(mBatteryChartView.mAxisLabelDisplayAreas[0]).isSameInstanceAs(firstArea);
+        assertThat(displayAreas).hasLength(4);
+    }
 }
@@ -24,14 +24,17 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
 
 import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.os.BatteryManager;
 import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
 import android.os.BatteryUsageStatsQuery;
+import android.os.PowerManager;
 import android.os.UserManager;
 
 import org.junit.Before;
@@ -154,4 +157,53 @@ public final class BatteryUsageDataLoaderTest {
 
         verifyNoMoreInteractions(mMockContentResolver);
     }
+
+    @Test
+    public void shouldLoadBatteryStats_recentSnapshot_returnsFalse() {
+        final long now = 1_000_000L;
+        DatabaseUtils.recordLastSnapshotTime(mContext, now - 1);
+
+        assertThat(
+                        BatteryUsageDataLoader.shouldLoadBatteryStats(
+                                mContext, /* isFullChargeStart= */ false, now))
+                .isFalse();
+    }
+
+    @Test
+    public void shouldLoadBatteryStats_recentSnapshotForFullCharge_returnsTrue() {
+        final long now = 1_000_000L;
+        DatabaseUtils.recordLastSnapshotTime(mContext, now - 1);
+
+        assertThat(
+                        BatteryUsageDataLoader.shouldLoadBatteryStats(
+                                mContext, /* isFullChargeStart= */ true, now))
+                .isTrue();
+    }
+
+    @Test
+    public void shouldLoadBatteryStats_oldSnapshot_returnsTrue() {
+        final long now = 1_000_000L;
+        DatabaseUtils.recordLastSnapshotTime(
+                mContext, now - BatteryUsageDataLoader.SNAPSHOT_COALESCE_WINDOW_MS);
+
+        assertThat(
+                        BatteryUsageDataLoader.shouldLoadBatteryStats(
+                                mContext, /* isFullChargeStart= */ false, now))
+                .isTrue();
+    }
+
+    @Test
+    public void isChargingOrIdle_charging_returnsTrue() {
+        shadowOf(mContext.getSystemService(BatteryManager.class)).setIsCharging(true);
+
+        assertThat(BatteryUsageDataLoader.isChargingOrIdle(mContext)).isTrue();
+    }
+
+    @Test
+    public void isChargingOrIdle_dischargingAndActive_returnsFalse() {
+        shadowOf(mContext.getSystemService(BatteryManager.class)).setIsCharging(false);
+        shadowOf(mContext.getSystemService(PowerManager.class)).setIsDeviceIdleMode(false);
+
+        assertThat(BatteryUsageDataLoader.isChargingOrIdle(mContext)).isFalse();
+    }
 }
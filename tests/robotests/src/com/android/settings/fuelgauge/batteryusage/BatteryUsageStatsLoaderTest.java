@@ -19,6 +19,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
@@ -26,6 +27,8 @@ import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
 import android.os.BatteryUsageStatsQuery;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -46,6 +49,7 @@ public class BatteryUsageStatsLoaderTest {
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
+        BatteryUsageStatsBroker.getInstance().invalidate();
         mContext = spy(RuntimeEnvironment.application);
         doReturn(mBatteryStatsManager)
                 .when(mContext)
@@ -81,4 +85,15 @@ public class BatteryUsageStatsLoaderTest {
         assertThat(queryFlags & BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_HISTORY)
                 .isNotEqualTo(0);
     }
+
+    @Test
+    public void onDiscardResult_notDelivered_releasesResult() throws Exception {
+        BatteryUsageStatsLoader loader =
+                new BatteryUsageStatsLoader(mContext, /* includeBatteryHistory */ false);
+
+        loader.onDiscardResult(mBatteryUsageStats);
+
+        // Not handed out by the broker, so released by closing it.
+        verify(mBatteryUsageStats).close();
+    }
 }
@@ -65,6 +65,8 @@ public final class PeriodicJobManagerTest {
         assertThat(alarm.type).isEqualTo(AlarmManager.RTC_WAKEUP);
         // Verifies there is pending intent in the alarm.
         assertThat(alarm.operation).isNotNull();
+        // Verifies the alarm is still delivered in Doze.
+        assertThat(alarm.allowWhileIdle).isTrue();
     }
 
     @Test
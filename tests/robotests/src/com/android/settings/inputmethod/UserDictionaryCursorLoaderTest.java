@@ -54,8 +54,34 @@ public class UserDictionaryCursorLoaderTest {
         assertThat(cursor.getCount()).isEqualTo(4);
     }
 
+    @Test
+    public void testLoad_shouldSkipDuplicateWhenMoving() {
+        final Cursor cursor = mLoader.loadInBackground();
+
+        assertThat(cursor.moveToPosition(3)).isTrue();
+        assertThat(cursor.getInt(0)).isEqualTo(5);
+        assertThat(cursor.moveToPrevious()).isTrue();
+        assertThat(cursor.getInt(0)).isEqualTo(3);
+        assertThat(cursor.moveToPosition(4)).isFalse();
+        assertThat(cursor.isAfterLast()).isTrue();
+    }
+
+    @Test
+    public void createCursor_withPrefix_shouldQueryProviderWithEscapedPattern() {
+        UserDictionaryCursorLoader.createCursor(
+                RuntimeEnvironment.application, "en_US", "50%_");
+
+        assertThat(((FakeProvider) mContentProvider).mSelection)
+                .contains(UserDictionary.Words.WORD + " LIKE ?");
+        assertThat(((FakeProvider) mContentProvider).mSelectionArgs)
+                .asList().containsExactly("en_US", "50\\%\\_%").inOrder();
+    }
+
     public static class FakeProvider extends ContentProvider {
 
+        private String mSelection;
+        private String[] mSelectionArgs;
+
         @Override
         public boolean onCreate() {
             return false;
@@ -64,6 +90,8 @@ public class UserDictionaryCursorLoaderTest {
         @Override
         public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
                 String sortOrder) {
+            mSelection = selection;
+            mSelectionArgs = selectionArgs;
             final MatrixCursor cursor = new MatrixCursor(
                     UserDictionaryCursorLoader.QUERY_PROJECTION);
             cursor.addRow(new Object[]{1, "word1", "shortcut1"});
@@ -95,7 +95,8 @@ public class ContactDiscoveryPreferenceControllerTest {
         doReturn(mImsRcsManager).when(mImsManager).getImsRcsManager(anyInt());
         doReturn(mRcsUceAdapter).when(mImsRcsManager).getUceAdapter();
         CarrierConfigCache.setTestInstance(mContext, mCarrierConfigCache);
-        doReturn(mCarrierConfig).when(mCarrierConfigCache).getConfigForSubId(eq(TEST_SUB_ID));
+        doReturn(mCarrierConfig).when(mCarrierConfigCache).getConfigForSubId(TEST_SUB_ID,
+                ContactDiscoveryPreferenceController.CARRIER_CONFIG_KEYS);
         // Start all tests with presence being disabled.
         setRcsPresenceConfig(false);
         doReturn(mContentResolver).when(mContext).getContentResolver();
@@ -23,6 +23,9 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.app.INotificationManager;
@@ -32,6 +35,7 @@ import android.bluetooth.BluetoothAdapter;
 import android.companion.AssociationInfo;
 import android.companion.ICompanionDeviceManager;
 import android.content.ComponentName;
+import android.content.Context;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
@@ -57,6 +61,7 @@ import org.robolectric.RuntimeEnvironment;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @RunWith(RobolectricTestRunner.class)
 public class NotificationBackendTest {
@@ -268,6 +273,44 @@ public class NotificationBackendTest {
                 mCdm, mBm, mCn.getPackageName(), 0).toString()).isEqualTo("Device 1, Device 2");
     }
 
+    @Test
+    public void testLoadBlockStates_onePackageQueryPerUser() throws Exception {
+        final Context context = mock(Context.class);
+        final PackageManager pm = mock(PackageManager.class);
+        when(context.getPackageManager()).thenReturn(pm);
+        final PackageInfo bannedApp = packageInfo("banned", 123);
+        final PackageInfo lockedApp = packageInfo("locked", 456);
+        when(pm.getInstalledPackagesAsUser(PackageManager.GET_PERMISSIONS, 0))
+                .thenReturn(List.of(bannedApp, lockedApp));
+        when(mInm.areNotificationsEnabledForPackage("banned", 123)).thenReturn(false);
+        when(mInm.areNotificationsEnabledForPackage("locked", 456)).thenReturn(true);
+        when(mInm.isImportanceLocked("locked", 456)).thenReturn(true);
+        final ApplicationInfo notInstalled = new ApplicationInfo();
+        notInstalled.packageName = "missing";
+        notInstalled.uid = 789;
+
+        final Map<String, NotificationBackend.BlockState> states =
+                mNotificationBackend.loadBlockStates(context, 0, List.of(
+                        bannedApp.applicationInfo, lockedApp.applicationInfo, notInstalled));
+
+        assertThat(states.keySet()).containsExactly("banned", "locked");
+        assertTrue(states.get("banned").banned);
+        assertTrue(states.get("banned").blockable);
+        assertFalse(states.get("locked").banned);
+        assertFalse(states.get("locked").blockable);
+        verify(pm, times(1)).getInstalledPackagesAsUser(anyInt(), anyInt());
+        verify(pm, never()).getPackageInfo(anyString(), anyInt());
+    }
+
+    private static PackageInfo packageInfo(String packageName, int uid) {
+        final PackageInfo packageInfo = new PackageInfo();
+        packageInfo.packageName = packageName;
+        packageInfo.applicationInfo = new ApplicationInfo();
+        packageInfo.applicationInfo.packageName = packageName;
+        packageInfo.applicationInfo.uid = uid;
+        return packageInfo;
+    }
+
     private ImmutableList<AssociationInfo> mockAssociations(String... macAddresses) {
         final AssociationInfo[] associations = new AssociationInfo[macAddresses.length];
         for (int index = 0; index < macAddresses.length; index++) {
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+
+import com.android.settings.R;
+import com.android.settingslib.search.SearchIndexableData;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(RobolectricTestRunner.class)
+public class LocalSearchIndexLoaderTest {
+
+    private static final SearchIndexableData BUNDLE = new SearchIndexableData(
+            FakeSettingsFragment.class, FakeSettingsFragment.SEARCH_INDEX_DATA_PROVIDER);
+
+    private Context mContext;
+    private LocalSearchIndexLoader mLoader;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mLoader = new LocalSearchIndexLoader(mContext);
+    }
+
+    @Test
+    public void buildEntries_includesRawData() {
+        final List<LocalSearchIndex.Entry> entries = mLoader.buildEntries(BUNDLE);
+
+        final LocalSearchIndex.Entry raw = findByTitle(entries, FakeSettingsFragment.TITLE);
+        assertThat(raw).isNotNull();
+        assertThat(raw.getKey()).isEqualTo(FakeSettingsFragment.KEY);
+        assertThat(raw.getSummary()).isEqualTo(FakeSettingsFragment.SUMMARY_ON);
+        assertThat(raw.getClassName()).isEqualTo(FakeSettingsFragment.CLASS_NAME);
+    }
+
+    @Test
+    public void buildEntries_includesXmlPreferencesWithScreenTitle() {
+        final List<LocalSearchIndex.Entry> entries = mLoader.buildEntries(BUNDLE);
+
+        final LocalSearchIndex.Entry brightness =
+                findByTitle(entries, mContext.getString(R.string.brightness));
+        assertThat(brightness).isNotNull();
+        assertThat(brightness.getKey()).isEqualTo("brightness");
+        assertThat(brightness.getScreenTitle())
+                .isEqualTo(mContext.getString(R.string.display_settings));
+        assertThat(brightness.getClassName()).isEqualTo(FakeSettingsFragment.CLASS_NAME);
+        assertThat(findByTitle(entries, mContext.getString(R.string.display_settings)))
+                .isNull();
+    }
+
+    @Test
+    public void reload_replacesEntriesOfTheProvider() {
+        final LocalSearchIndex index = new LocalSearchIndex();
+
+        mLoader.reload(index, BUNDLE);
+        final int size = index.size();
+        mLoader.reload(index, BUNDLE);
+
+        assertThat(size).isGreaterThan(0);
+        assertThat(index.size()).isEqualTo(size);
+        assertThat(index.query(FakeSettingsFragment.TITLE, 1).get(0).getKey())
+                .isEqualTo(FakeSettingsFragment.KEY);
+    }
+
+    @Test
+    public void getNonIndexableKeys_keyedByClassName() {
+        final Map<String, List<String>> keys =
+                mLoader.getNonIndexableKeys(Collections.singletonList(BUNDLE));
+
+        assertThat(keys.keySet()).containsExactly(FakeSettingsFragment.CLASS_NAME);
+        assertThat(keys.get(FakeSettingsFragment.CLASS_NAME))
+                .containsAtLeast("pref_key_1", "pref_key_3");
+    }
+
+    private static LocalSearchIndex.Entry findByTitle(List<LocalSearchIndex.Entry> entries,
+            String title) {
+        for (LocalSearchIndex.Entry entry : entries) {
+            if (entry.getTitle().equals(title)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class LocalSearchIndexTest {
+
+    private static final String NETWORK_PAGE = "NetworkPage";
+    private static final String DEVICES_PAGE = "DevicesPage";
+
+    private static final LocalSearchIndex.Entry WIFI = entry(NETWORK_PAGE, "wifi", "Wi‑Fi",
+            "Connect to networks", "wlan, internet");
+    private static final LocalSearchIndex.Entry HOTSPOT = entry(NETWORK_PAGE, "hotspot",
+            "Hotspot & tethering", "Share the internet connection", null);
+    private static final LocalSearchIndex.Entry BLUETOOTH = entry(DEVICES_PAGE, "bluetooth",
+            "Bluetooth", "Pair new devices", null);
+    private static final LocalSearchIndex.Entry PAIR = entry(DEVICES_PAGE, "pair",
+            "Pair new device", "Uses Bluetooth", null);
+
+    private LocalSearchIndex mIndex;
+
+    @Before
+    public void setUp() {
+        mIndex = new LocalSearchIndex();
+        mIndex.setEntries(Arrays.asList(WIFI, HOTSPOT, BLUETOOTH, PAIR));
+    }
+
+    @Test
+    public void query_titleMatchesRankFirst() {
+        assertThat(mIndex.query("bluetooth", 10)).containsExactly(BLUETOOTH, PAIR).inOrder();
+    }
+
+    @Test
+    public void query_prefix_matches() {
+        assertThat(mIndex.query("blue", 10)).containsExactly(BLUETOOTH, PAIR).inOrder();
+        assertThat(mIndex.query("h", 10)).containsExactly(HOTSPOT);
+    }
+
+    @Test
+    public void query_typo_matches() {
+        assertThat(mIndex.query("bluetoth", 10)).containsExactly(BLUETOOTH, PAIR).inOrder();
+        assertThat(mIndex.query("hotpsot", 10)).containsExactly(HOTSPOT);
+    }
+
+    @Test
+    public void query_allWordsMustMatch() {
+        assertThat(mIndex.query("pair device", 10)).containsExactly(PAIR, BLUETOOTH).inOrder();
+        assertThat(mIndex.query("pair internet", 10)).isEmpty();
+    }
+
+    @Test
+    public void query_ignoresCaseAccentsAndPunctuation() {
+        assertThat(mIndex.query("WI-FI", 10)).containsExactly(WIFI);
+        assertThat(mIndex.query("wlán", 10)).containsExactly(WIFI);
+    }
+
+    @Test
+    public void query_emptyOrUnknown_returnsNothing() {
+        assertThat(mIndex.query("", 10)).isEmpty();
+        assertThat(mIndex.query("  ", 10)).isEmpty();
+        assertThat(mIndex.query("zzzzzz", 10)).isEmpty();
+    }
+
+    @Test
+    public void query_limitsResults() {
+        assertThat(mIndex.query("internet", 1)).containsExactly(WIFI);
+    }
+
+    @Test
+    public void updateEntries_replacesEntriesOfThePage() {
+        final LocalSearchIndex.Entry nfc = entry(DEVICES_PAGE, "nfc", "NFC", null, null);
+
+        mIndex.updateEntries(DEVICES_PAGE, Collections.singletonList(nfc));
+
+        assertThat(mIndex.size()).isEqualTo(3);
+        assertThat(mIndex.query("bluetooth", 10)).isEmpty();
+        assertThat(mIndex.query("nfc", 10)).containsExactly(nfc);
+        assertThat(mIndex.query("wifi", 10)).containsExactly(WIFI);
+    }
+
+    @Test
+    public void updateEntries_manyTimes_keepsResults() {
+        for (int i = 0; i < 10; i++) {
+            mIndex.updateEntries(NETWORK_PAGE, Arrays.asList(WIFI, HOTSPOT));
+        }
+
+        assertThat(mIndex.size()).isEqualTo(4);
+        assertThat(mIndex.query("internet", 10)).containsExactly(WIFI, HOTSPOT).inOrder();
+    }
+
+    @Test
+    public void setNonIndexableKeys_hidesEntries() {
+        mIndex.setNonIndexableKeys(Collections.singletonMap(DEVICES_PAGE,
+                Collections.singletonList("bluetooth")));
+
+        assertThat(mIndex.query("bluetooth", 10)).containsExactly(PAIR);
+    }
+
+    @Test
+    public void setNonIndexableKeys_keepsSameKeyOfOtherPages() {
+        final LocalSearchIndex.Entry otherBluetooth = entry(NETWORK_PAGE, "bluetooth",
+                "Bluetooth tethering", null, null);
+        mIndex.updateEntries(NETWORK_PAGE, Arrays.asList(WIFI, HOTSPOT, otherBluetooth));
+
+        mIndex.setNonIndexableKeys(Collections.singletonMap(DEVICES_PAGE,
+                Collections.singletonList("bluetooth")));
+
+        assertThat(mIndex.query("bluetooth", 10)).containsExactly(otherBluetooth, PAIR).inOrder();
+    }
+
+    @Test
+    public void query_thousandsOfEntries_findsTheMatch() {
+        final List<LocalSearchIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            entries.add(entry("Page" + (i % 100), "key" + i, "Setting number " + i,
+                    "Summary of setting " + i, null));
+        }
+        entries.add(BLUETOOTH);
+        mIndex.setEntries(entries);
+
+        assertThat(mIndex.query("bluetooth", 10)).containsExactly(BLUETOOTH);
+        assertThat(mIndex.query("setting 1234", 10).get(0).getKey()).isEqualTo("key1234");
+    }
+
+    @Test
+    public void isFuzzyMatch_allowsEditsByLength() {
+        assertThat(LocalSearchIndex.isFuzzyMatch("wfi", "wifi")).isFalse();
+        assertThat(LocalSearchIndex.isFuzzyMatch("batery", "battery")).isTrue();
+        assertThat(LocalSearchIndex.isFuzzyMatch("batt", "bluetooth")).isFalse();
+        assertThat(LocalSearchIndex.isFuzzyMatch("notifcaton", "notifications")).isTrue();
+    }
+
+    @Test
+    public void entryBuilder_noTitle_throws() {
+        assertThrows(IllegalStateException.class,
+                () -> new LocalSearchIndex.Entry.Builder().setKey("key").build());
+    }
+
+    private static LocalSearchIndex.Entry entry(String className, String key, String title,
+            String summary, String keywords) {
+        return new LocalSearchIndex.Entry.Builder()
+                .setClassName(className)
+                .setKey(key)
+                .setTitle(title)
+                .setSummary(summary)
+                .setKeywords(keywords)
+                .build();
+    }
+}
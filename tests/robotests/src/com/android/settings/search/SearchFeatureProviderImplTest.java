@@ -19,12 +19,19 @@ package com.android.settings.search;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
 import android.app.settings.SettingsEnums;
+import android.content.ComponentName;
 import android.content.Intent;
 import android.content.pm.ActivityInfo;
 import android.content.pm.ResolveInfo;
 import android.net.Uri;
 import android.provider.Settings;
+import android.view.View;
+import android.widget.FrameLayout;
 import android.widget.Toolbar;
 
 import androidx.fragment.app.FragmentActivity;
@@ -54,7 +61,7 @@ public class SearchFeatureProviderImplTest {
     public void setUp() {
         FakeFeatureFactory.setupForTest();
         mActivity = Robolectric.setupActivity(FragmentActivity.class);
-        mProvider = new SearchFeatureProviderImpl();
+        mProvider = spy(new SearchFeatureProviderImpl());
         mPackageManager = Shadows.shadowOf(mActivity.getPackageManager());
         Settings.Global.putInt(mActivity.getContentResolver(),
                 Settings.Global.DEVICE_PROVISIONED, 1);
@@ -114,6 +121,33 @@ public class SearchFeatureProviderImplTest {
         assertThat(Shadows.shadowOf(mActivity).getNextStartedActivity()).isNull();
     }
 
+    @Test
+    public void initSearchToolbar_searchAppDisabled_localSearchEnabled_startsLocalSearch() {
+        doReturn(true).when(mProvider).isLocalSearchEnabled(any());
+        final Toolbar toolbar = new Toolbar(mActivity);
+        final FrameLayout parent = new FrameLayout(mActivity);
+        parent.addView(toolbar);
+
+        mProvider.initSearchToolbar(mActivity, toolbar, SettingsEnums.TESTING);
+        toolbar.performClick();
+
+        assertThat(parent.getVisibility()).isEqualTo(View.VISIBLE);
+        assertThat(Shadows.shadowOf(mActivity).getNextStartedActivity().getComponent())
+                .isEqualTo(new ComponentName(mActivity, LocalSearchActivity.class));
+    }
+
+    @Test
+    public void initSearchToolbar_searchAppDisabled_localSearchDisabled_hidesSearchBar() {
+        doReturn(false).when(mProvider).isLocalSearchEnabled(any());
+        final Toolbar toolbar = new Toolbar(mActivity);
+        final FrameLayout parent = new FrameLayout(mActivity);
+        parent.addView(toolbar);
+
+        mProvider.initSearchToolbar(mActivity, toolbar, SettingsEnums.TESTING);
+
+        assertThat(parent.getVisibility()).isEqualTo(View.GONE);
+    }
+
     @Test
     public void buildSearchIntent_shouldIncludeReferrer() {
         final Intent searchIntent = mProvider.buildSearchIntent(mActivity, SettingsEnums.TESTING);
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.android.settingslib.search.SearchIndexableData;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+public class SearchIndexableExecutorTest {
+
+    private static final SearchIndexableData FIRST = new SearchIndexableData(
+            String.class, FakeSettingsFragment.SEARCH_INDEX_DATA_PROVIDER);
+    private static final SearchIndexableData SECOND = new SearchIndexableData(
+            Integer.class, FakeSettingsFragment.SEARCH_INDEX_DATA_PROVIDER);
+    private static final SearchIndexableData THIRD = new SearchIndexableData(
+            Long.class, FakeSettingsFragment.SEARCH_INDEX_DATA_PROVIDER);
+
+    @Test
+    public void run_parallel_keepsProviderOrder() {
+        final CountDownLatch firstMayFinish = new CountDownLatch(1);
+        final SearchIndexableExecutor executor =
+                new SearchIndexableExecutor(/* threadCount= */ 3, /* timeoutMs= */ 5000);
+
+        final List<String> results = executor.run("test", Arrays.asList(FIRST, SECOND, THIRD),
+                bundle -> {
+                    if (bundle == FIRST) {
+                        firstMayFinish.await();
+                    } else if (bundle == THIRD) {
+                        firstMayFinish.countDown();
+                    }
+                    return Collections.singletonList(bundle.getTargetClass().getSimpleName());
+                });
+
+        assertThat(results).containsExactly("String", "Integer", "Long").inOrder();
+    }
+
+    @Test
+    public void run_providerThrows_keepsOtherResults() {
+        final SearchIndexableExecutor executor =
+                new SearchIndexableExecutor(/* threadCount= */ 2, /* timeoutMs= */ 5000);
+
+        final List<String> results = executor.run("test", Arrays.asList(FIRST, SECOND, THIRD),
+                bundle -> {
+                    if (bundle == SECOND) {
+                        throw new IllegalStateException("test");
+                    }
+                    return Collections.singletonList(bundle.getTargetClass().getSimpleName());
+                });
+
+        assertThat(results).containsExactly("String", "Long").inOrder();
+    }
+
+    @Test
+    public void run_providerTimesOut_keepsOtherResults() {
+        final SearchIndexableExecutor executor =
+                new SearchIndexableExecutor(/* threadCount= */ 3, /* timeoutMs= */ 100);
+
+        final List<String> results = executor.run("test", Arrays.asList(FIRST, SECOND, THIRD),
+                bundle -> {
+                    if (bundle == FIRST) {
+                        new CountDownLatch(1).await();
+                    }
+                    return Collections.singletonList(bundle.getTargetClass().getSimpleName());
+                });
+
+        assertThat(results).containsExactly("Integer", "Long").inOrder();
+    }
+
+    @Test
+    public void run_stuckProviders_queuedProviderStillRuns() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final SearchIndexableExecutor executor =
+                new SearchIndexableExecutor(/* threadCount= */ 2, /* timeoutMs= */ 100);
+
+        try {
+            final List<String> results = executor.run("test",
+                    Arrays.asList(FIRST, SECOND, THIRD), bundle -> {
+                        if (bundle != THIRD) {
+                            // Ignores the interruption, like a provider stuck in a binder call.
+                            Uninterruptibles.awaitUninterruptibly(release);
+                        }
+                        return Collections.singletonList(bundle.getTargetClass().getSimpleName());
+                    });
+
+            assertThat(results).containsExactly("Long");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void run_queuedLongerThanTimeout_keepsResult() {
+        final SearchIndexableExecutor executor =
+                new SearchIndexableExecutor(/* threadCount= */ 2, /* timeoutMs= */ 300);
+
+        final List<String> results = executor.run("test", Arrays.asList(FIRST, SECOND, THIRD),
+                bundle -> {
+                    // THIRD waits for a thread for 200ms, then runs for 200ms.
+                    Thread.sleep(200);
+                    return Collections.singletonList(bundle.getTargetClass().getSimpleName());
+                });
+
+        assertThat(results).containsExactly("String", "Integer", "Long").inOrder();
+    }
+
+    @Test
+    public void run_rerunTimedOut_runsItAgainOnCallingThread() {
+        final AtomicInteger firstRuns = new AtomicInteger();
+        final Thread testThread = Thread.currentThread();
+        final SearchIndexableExecutor executor =
+                new SearchIndexableExecutor(/* threadCount= */ 3, /* timeoutMs= */ 100);
+
+        final List<String> results = executor.run("test", Arrays.asList(FIRST, SECOND, THIRD),
+                bundle -> {
+                    if (bundle == FIRST && firstRuns.incrementAndGet() == 1) {
+                        new CountDownLatch(1).await();
+                    }
+                    if (bundle == FIRST) {
+                        assertThat(Thread.currentThread()).isSameInstanceAs(testThread);
+                    }
+                    return Collections.singletonList(bundle.getTargetClass().getSimpleName());
+                }, /* rerunTimedOut= */ true);
+
+        assertThat(results).containsExactly("String", "Integer", "Long").inOrder();
+        assertThat(firstRuns.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void run_singleThread_runsInline() {
+        final SearchIndexableExecutor executor =
+                new SearchIndexableExecutor(/* threadCount= */ 1, /* timeoutMs= */ 5000);
+        final Thread testThread = Thread.currentThread();
+
+        final List<Boolean> results = executor.run("test", Arrays.asList(FIRST, SECOND),
+                bundle -> Collections.singletonList(Thread.currentThread() == testThread));
+
+        assertThat(results).containsExactly(true, true);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.slices;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import android.content.Context;
+import android.net.Uri;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = ShadowSliceBackgroundWorker.class)
+public class SliceBackgroundWorkerTest {
+
+    private static final Uri URI = Uri.parse("content://com.android.settings.slices/test");
+
+    private TestWorker mWorker;
+
+    @Before
+    public void setUp() {
+        mWorker = new TestWorker(RuntimeEnvironment.application, URI);
+    }
+
+    @Test
+    public void updateResults_changed_publishesNewResults() {
+        mWorker.update(Arrays.asList("a", "b"));
+
+        mWorker.update(Arrays.asList("a", "c"));
+
+        assertThat(mWorker.getResults()).containsExactly("a", "c").inOrder();
+    }
+
+    @Test
+    public void updateResults_sameResults_keepsList() {
+        mWorker.update(Arrays.asList("a", "b"));
+        final List<String> results = mWorker.getResults();
+
+        mWorker.update(Arrays.asList("a", "b"));
+
+        assertThat(mWorker.getResults()).isSameInstanceAs(results);
+    }
+
+    @Test
+    public void updateResults_null_clearsResults() {
+        mWorker.update(Arrays.asList("a"));
+
+        mWorker.update(null);
+
+        assertThat(mWorker.getResults()).isNull();
+    }
+
+    @Test
+    public void getResults_isUnmodifiable() {
+        mWorker.update(Arrays.asList("a"));
+
+        assertThrows(UnsupportedOperationException.class, () -> mWorker.getResults().add("b"));
+    }
+
+    private static class TestWorker extends SliceBackgroundWorker<String> {
+
+        TestWorker(Context context, Uri uri) {
+            super(context, uri);
+        }
+
+        void update(List<String> results) {
+            updateResults(results);
+        }
+
+        @Override
+        protected void onSlicePinned() {
+        }
+
+        @Override
+        protected void onSliceUnpinned() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.graphics.Bitmap;
+import android.os.UserHandle;
+import android.os.UserManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class UserAvatarCacheTest {
+
+    private static final int USER_ID = 10;
+    private static final int ICON_SIZE = 40;
+
+    @Mock
+    private UserManager mUserManager;
+
+    private UserAvatarCache mCache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mCache = new UserAvatarCache(mUserManager);
+    }
+
+    @Test
+    public void getCachedIcon_notLoaded_returnsNull() {
+        assertThat(mCache.getCachedIcon(USER_ID, ICON_SIZE)).isNull();
+    }
+
+    @Test
+    public void loadIcon_largeIcon_downsampledToTargetSize() {
+        when(mUserManager.getUserIcon(USER_ID))
+                .thenReturn(Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888));
+
+        final Bitmap icon = mCache.loadIcon(USER_ID, ICON_SIZE);
+
+        assertThat(icon.getWidth()).isEqualTo(ICON_SIZE);
+        assertThat(icon.getHeight()).isEqualTo(ICON_SIZE);
+        assertThat(mCache.getCachedIcon(USER_ID, ICON_SIZE)).isSameInstanceAs(icon);
+    }
+
+    @Test
+    public void loadIcon_twice_decodesOnce() {
+        when(mUserManager.getUserIcon(USER_ID))
+                .thenReturn(Bitmap.createBitmap(20, 20, Bitmap.Config.ARGB_8888));
+
+        mCache.loadIcon(USER_ID, ICON_SIZE);
+        mCache.loadIcon(USER_ID, ICON_SIZE);
+
+        verify(mUserManager, times(1)).getUserIcon(USER_ID);
+    }
+
+    @Test
+    public void loadIcon_noIcon_returnsNull() {
+        assertThat(mCache.loadIcon(USER_ID, ICON_SIZE)).isNull();
+    }
+
+    @Test
+    public void invalidate_dropsIconsOfUserOnly() {
+        mCache.putIcon(USER_ID, ICON_SIZE, Bitmap.createBitmap(20, 20, Bitmap.Config.ARGB_8888));
+        mCache.putIcon(USER_ID + 1, ICON_SIZE,
+                Bitmap.createBitmap(20, 20, Bitmap.Config.ARGB_8888));
+
+        mCache.invalidate(USER_ID);
+
+        assertThat(mCache.getCachedIcon(USER_ID, ICON_SIZE)).isNull();
+        assertThat(mCache.getCachedIcon(USER_ID + 1, ICON_SIZE)).isNotNull();
+    }
+
+    @Test
+    public void invalidate_whileLoading_iconNotCached() {
+        final Bitmap icon = Bitmap.createBitmap(20, 20, Bitmap.Config.ARGB_8888);
+        when(mUserManager.getUserIcon(USER_ID)).thenAnswer(invocation -> {
+            mCache.invalidate(USER_ID);
+            return icon;
+        });
+
+        assertThat(mCache.loadIcon(USER_ID, ICON_SIZE)).isSameInstanceAs(icon);
+        assertThat(mCache.getCachedIcon(USER_ID, ICON_SIZE)).isNull();
+    }
+
+    @Test
+    public void invalidate_processUser_dropsAccountAvatar() {
+        mCache.putAccountAvatar(Bitmap.createBitmap(20, 20, Bitmap.Config.ARGB_8888));
+
+        mCache.invalidate(USER_ID);
+        assertThat(mCache.getAccountAvatar()).isNotNull();
+
+        mCache.invalidate(UserHandle.myUserId());
+        assertThat(mCache.getAccountAvatar()).isNull();
+    }
+}
@@ -135,6 +135,8 @@ public class UserSettingsTest {
     private PackageManager mPackageManager;
     @Mock
     private MetricsFeatureProvider mMetricsFeatureProvider;
+    @Mock
+    private UserAvatarCache mAvatarCache;
 
     private FragmentActivity mActivity;
     private Context mContext;
@@ -157,6 +159,7 @@ public class UserSettingsTest {
         ReflectionHelpers.setField(mFragment, "mMultiUserTopIntroPreferenceController",
                 mock(MultiUserTopIntroPreferenceController.class));
         ReflectionHelpers.setField(mFragment, "mUserManager", mUserManager);
+        ReflectionHelpers.setField(mFragment, "mAvatarCache", mAvatarCache);
         ReflectionHelpers.setField(mFragment, "mUserCaps", mUserCapabilities);
         ReflectionHelpers.setField(mFragment, "mDefaultIconDrawable", mDefaultIconDrawable);
         ReflectionHelpers.setField(mFragment, "mAddingUser", false);
@@ -700,12 +703,12 @@ public class UserSettingsTest {
         UserInfo currentUser = getAdminUser(true);
         currentUser.iconPath = "/data/system/users/0/photo.png";
         givenUsers(currentUser);
-        mFragment.mUserIcons.put(ACTIVE_USER_ID,
-                Bitmap.createBitmap(100, 200, Bitmap.Config.ARGB_8888));
+        doReturn(Bitmap.createBitmap(100, 200, Bitmap.Config.ARGB_8888))
+                .when(mAvatarCache).getCachedIcon(eq(ACTIVE_USER_ID), anyInt());
 
         mFragment.updateUserList();
 
-        verify(mUserManager, never()).getUserIcon(anyInt());
+        verify(mAvatarCache, never()).loadIcon(anyInt(), anyInt());
         // updateUserList should be called only once
         verify(mUserManager).getAliveUsers();
     }
@@ -716,15 +719,13 @@ public class UserSettingsTest {
         UserInfo currentUser = getAdminUser(true);
         currentUser.iconPath = "/data/system/users/0/photo.png";
         givenUsers(currentUser);
-        // create a non-empty sparsearray
-        mFragment.mUserIcons.put(5, Bitmap.createBitmap(100, 200, Bitmap.Config.ARGB_8888));
         Bitmap userIcon = Bitmap.createBitmap(100, 200, Bitmap.Config.ARGB_8888);
-        doReturn(userIcon).when(mUserManager).getUserIcon(ACTIVE_USER_ID);
+        doReturn(userIcon).when(mAvatarCache).loadIcon(eq(ACTIVE_USER_ID), anyInt());
 
         mFragment.updateUserList();
         shadowOf(Looper.getMainLooper()).idle();
 
-        verify(mUserManager).getUserIcon(ACTIVE_USER_ID);
+        verify(mAvatarCache).loadIcon(eq(ACTIVE_USER_ID), anyInt());
         // updateUserList should be called another time after loading the icons
         verify(mUserManager, times(2)).getAliveUsers();
     }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+
+import com.google.zxing.WriterException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class QrCodeRendererTest {
+
+    private static final String CONTENT = "WIFI:S:ssid;T:WPA;P:password;;";
+    private static final int SIZE = 100;
+
+    private final List<String> mEncoded = new ArrayList<>();
+    private final List<Runnable> mBackgroundTasks = new ArrayList<>();
+    private final List<Bitmap> mRendered = new ArrayList<>();
+    private QrCodeRenderer mRenderer;
+
+    @Before
+    public void setUp() {
+        mRenderer = new QrCodeRenderer((content, size) -> {
+            if (content.isEmpty()) {
+                throw new WriterException("empty");
+            }
+            mEncoded.add(content);
+            return Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        }, mBackgroundTasks::add);
+    }
+
+    @Test
+    public void render_notCached_encodesInBackground() {
+        mRenderer.render(CONTENT, SIZE, mRendered::add);
+
+        assertThat(mEncoded).isEmpty();
+        assertThat(mBackgroundTasks).hasSize(1);
+
+        mBackgroundTasks.get(0).run();
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mEncoded).containsExactly(CONTENT);
+        assertThat(mRendered).hasSize(1);
+        assertThat(mRendered.get(0).getWidth()).isEqualTo(SIZE);
+    }
+
+    @Test
+    public void render_cached_deliversRightAway() {
+        final Bitmap bitmap = mRenderer.encode(CONTENT, SIZE);
+
+        mRenderer.render(CONTENT, SIZE, mRendered::add);
+
+        assertThat(mBackgroundTasks).isEmpty();
+        assertThat(mRendered).containsExactly(bitmap);
+        assertThat(mEncoded).containsExactly(CONTENT);
+    }
+
+    @Test
+    public void encode_otherSize_encodesAgain() {
+        mRenderer.encode(CONTENT, SIZE);
+
+        assertThat(mRenderer.getCached(CONTENT, SIZE * 2)).isNull();
+        assertThat(mRenderer.encode(CONTENT, SIZE * 2).getWidth()).isEqualTo(SIZE * 2);
+        assertThat(mEncoded).hasSize(2);
+    }
+
+    @Test
+    public void render_encodingFails_deliversNull() {
+        mRenderer.render("", SIZE, mRendered::add);
+        mBackgroundTasks.get(0).run();
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mRendered).hasSize(1);
+        assertThat(mRendered.get(0)).isNull();
+        assertThat(mRenderer.getCached("", SIZE)).isNull();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.UserHandle;
+import android.provider.Settings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class SettingsObserverMultiplexerTest {
+
+    private static final Uri URI = Settings.Global.getUriFor(Settings.Global.MOBILE_DATA);
+    private static final Uri OTHER_URI =
+            Settings.System.getUriFor(Settings.System.SCREEN_BRIGHTNESS);
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private final List<Uri> mFirstChanges = new ArrayList<>();
+    private final List<Uri> mSecondChanges = new ArrayList<>();
+    private final SettingsObserverMultiplexer.Subscriber mFirst = mFirstChanges::add;
+    private final SettingsObserverMultiplexer.Subscriber mSecond = mSecondChanges::add;
+
+    private ContentResolver mResolver;
+    private SettingsObserverMultiplexer mMultiplexer;
+
+    @Before
+    public void setUp() {
+        mResolver = RuntimeEnvironment.application.getContentResolver();
+        mMultiplexer = new SettingsObserverMultiplexer(mResolver,
+                new Handler(Looper.getMainLooper()));
+    }
+
+    @After
+    public void tearDown() {
+        SettingsObserverMultiplexer.resetInstances();
+    }
+
+    @Test
+    public void getInstance_sameUser_returnsSameInstance() {
+        final Context context = RuntimeEnvironment.application;
+
+        assertThat(SettingsObserverMultiplexer.getInstance(context))
+                .isSameInstanceAs(SettingsObserverMultiplexer.getInstance(context));
+    }
+
+    @Test
+    public void getInstance_otherUser_returnsOtherInstance() {
+        final Context context = RuntimeEnvironment.application;
+        final Context otherUserContext =
+                context.createContextAsUser(UserHandle.of(context.getUserId() + 10), 0);
+
+        assertThat(SettingsObserverMultiplexer.getInstance(otherUserContext))
+                .isNotSameInstanceAs(SettingsObserverMultiplexer.getInstance(context));
+    }
+
+    @Test
+    public void subscribe_sameUri_registersOneObserver() {
+        mMultiplexer.subscribe(URI, DIRECT_EXECUTOR, mFirst);
+        mMultiplexer.subscribe(URI, DIRECT_EXECUTOR, mSecond);
+
+        assertThat(shadowOf(mResolver).getContentObservers(URI)).hasSize(1);
+        assertThat(mMultiplexer.getSubscriberCount(URI)).isEqualTo(2);
+        assertThat(mMultiplexer.getObservedUriCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void onChange_burst_dispatchesOnceToEverySubscriber() {
+        mMultiplexer.subscribe(URI, DIRECT_EXECUTOR, mFirst);
+        mMultiplexer.subscribe(URI, DIRECT_EXECUTOR, mSecond);
+
+        mResolver.notifyChange(URI, null);
+        mResolver.notifyChange(URI, null);
+        mResolver.notifyChange(URI, null);
+        idle();
+
+        assertThat(mFirstChanges).containsExactly(URI);
+        assertThat(mSecondChanges).containsExactly(URI);
+    }
+
+    @Test
+    public void onChange_otherUri_notDispatched() {
+        mMultiplexer.subscribe(URI, DIRECT_EXECUTOR, mFirst);
+        mMultiplexer.subscribe(OTHER_URI, DIRECT_EXECUTOR, mSecond);
+
+        mResolver.notifyChange(OTHER_URI, null);
+        idle();
+
+        assertThat(mFirstChanges).isEmpty();
+        assertThat(mSecondChanges).containsExactly(OTHER_URI);
+    }
+
+    @Test
+    public void unsubscribe_lastSubscriber_unregistersObserver() {
+        mMultiplexer.subscribe(URI, DIRECT_EXECUTOR, mFirst);
+        mMultiplexer.subscribe(URI, DIRECT_EXECUTOR, mSecond);
+
+        mMultiplexer.unsubscribe(URI, mFirst);
+        assertThat(shadowOf(mResolver).getContentObservers(URI)).hasSize(1);
+
+        mMultiplexer.unsubscribe(mSecond);
+        assertThat(shadowOf(mResolver).getContentObservers(URI)).isEmpty();
+        assertThat(mMultiplexer.getSubscriberCount(URI)).isEqualTo(0);
+    }
+
+    @Test
+    public void unsubscribe_beforeDispatch_notCalled() {
+        final List<Runnable> tasks = new ArrayList<>();
+        mMultiplexer.subscribe(URI, tasks::add, mFirst);
+        mMultiplexer.subscribe(URI, DIRECT_EXECUTOR, mSecond);
+        mResolver.notifyChange(URI, null);
+        idle();
+
+        mMultiplexer.unsubscribe(URI, mFirst);
+        tasks.forEach(Runnable::run);
+
+        assertThat(mFirstChanges).isEmpty();
+        assertThat(mSecondChanges).containsExactly(URI);
+    }
+
+    private static void idle() {
+        ShadowLooper.idleMainLooper();
+        ShadowLooper.idleMainLooper(SettingsObserverMultiplexer.COALESCE_DELAY_MS,
+                TimeUnit.MILLISECONDS);
+    }
+}
@@ -18,14 +18,18 @@ package com.android.settings.widget;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Canvas;
-import android.graphics.Paint;
+import android.graphics.Path;
 import android.util.SparseIntArray;
 
 import com.android.settingslib.R;
@@ -181,12 +185,26 @@ public class UsageGraphTest {
     }
 
     @Test
-    public void drawFilledPath_emptyPath_shouldNotCrash() {
-        final Canvas canvas = new Canvas();
-        final SparseIntArray localPaths = new SparseIntArray();
-        final Paint paint = new Paint();
+    public void updateFilledPath_emptyPath_shouldBeEmpty() {
+        final Path path = new Path();
+        path.lineTo(10, 10);
 
-        // Should not crash
-        mGraph.drawFilledPath(canvas, localPaths, paint);
+        mGraph.updateFilledPath(new SparseIntArray(), path);
+
+        assertThat(path.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void onDraw_pathsUnchanged_reusesDrawingPaths() {
+        final SparseIntArray points = new SparseIntArray();
+        points.append(0, 100);
+        points.append(500, 50);
+        mGraph.addPath(points);
+        final Canvas canvas = mock(Canvas.class);
+
+        mGraph.onDraw(canvas);
+        mGraph.onDraw(canvas);
+
+        verify(mGraph, times(1)).updateFilledPath(any(SparseIntArray.class), any(Path.class));
     }
 }
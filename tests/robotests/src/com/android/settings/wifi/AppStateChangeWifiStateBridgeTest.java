@@ -17,15 +17,36 @@ package com.android.settings.wifi;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import android.Manifest;
+import android.app.AppOpsManager;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.IPackageManager;
 import android.content.pm.PackageInfo;
+import android.content.pm.ParceledListSlice;
+import android.os.Looper;
+import android.os.RemoteException;
+import android.os.UserHandle;
+import android.os.UserManager;
 
+import com.android.settings.applications.AppOpsStateSnapshot;
+import com.android.settings.applications.AppStateBaseBridge;
 import com.android.settings.datausage.AppStateDataUsageBridge.DataUsageState;
+import com.android.settingslib.applications.ApplicationsState;
 import com.android.settingslib.applications.ApplicationsState.AppEntry;
 import com.android.settingslib.applications.ApplicationsState.AppFilter;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -33,19 +54,82 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.robolectric.RobolectricTestRunner;
 
+import java.util.ArrayList;
+import java.util.Collections;
+
 @RunWith(RobolectricTestRunner.class)
 public class AppStateChangeWifiStateBridgeTest {
 
+    private static final int USER_ID = 0;
+    private static final String PACKAGE_NAME = "com.example.app";
+    private static final int UID = UserHandle.getUid(USER_ID, 10001);
+
     @Mock
     private AppEntry mEntry;
     @Mock
     private AppStateChangeWifiStateBridge.WifiSettingsState mState;
+    @Mock
+    private Context mContext;
+    @Mock
+    private UserManager mUserManager;
+    @Mock
+    private IPackageManager mPackageManager;
+    @Mock
+    private AppOpsManager mAppOpsManager;
+    @Mock
+    private ApplicationsState mAppState;
+    @Mock
+    private ApplicationsState.Session mSession;
     private AppFilter mFilter;
 
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
         mFilter = AppStateChangeWifiStateBridge.FILTER_CHANGE_WIFI_STATE;
+        when(mContext.getSystemService(Context.USER_SERVICE)).thenReturn(mUserManager);
+        when(mContext.getSystemService(Context.APP_OPS_SERVICE)).thenReturn(mAppOpsManager);
+        when(mUserManager.getUserProfiles())
+                .thenReturn(Collections.singletonList(UserHandle.of(USER_ID)));
+        when(mAppState.newSession(any())).thenReturn(mSession);
+        when(mAppState.getBackgroundLooper()).thenReturn(mock(Looper.class));
+        AppOpsStateSnapshot.getInstance().invalidate();
+    }
+
+    @After
+    public void tearDown() {
+        AppOpsStateSnapshot.getInstance().invalidate();
+    }
+
+    @Test
+    public void loadAllExtraInfo_servedFromSnapshot() throws RemoteException {
+        final AppEntry entry = setUpAppChangingWifiState();
+        final AppStateChangeWifiStateBridge bridge = createBridge();
+
+        bridge.loadAllExtraInfo();
+        bridge.loadAllExtraInfo();
+
+        final AppStateChangeWifiStateBridge.WifiSettingsState state =
+                (AppStateChangeWifiStateBridge.WifiSettingsState) entry.extraInfo;
+        assertThat(state.permissionDeclared).isTrue();
+        assertThat(state.appOpMode).isEqualTo(AppOpsManager.MODE_ALLOWED);
+        verify(mPackageManager, times(1)).getInstalledPackages(anyInt(), eq(USER_ID));
+        verify(mPackageManager, never()).getPackageInfo(anyString(), anyInt(), anyInt());
+        verify(mAppOpsManager, times(1)).getPackagesForOps(any(int[].class));
+        verify(mAppOpsManager, never()).getOpsForPackage(anyInt(), anyString(),
+                any(int[].class));
+    }
+
+    @Test
+    public void onPackageListChanged_invalidatesSnapshot() throws RemoteException {
+        setUpAppChangingWifiState();
+        final AppStateChangeWifiStateBridge bridge = createBridge();
+        bridge.loadAllExtraInfo();
+
+        bridge.onPackageListChanged();
+        bridge.loadAllExtraInfo();
+
+        verify(mPackageManager, times(2)).getInstalledPackages(anyInt(), eq(USER_ID));
+        verify(mAppOpsManager, times(2)).getPackagesForOps(any(int[].class));
     }
 
     @Test
@@ -89,4 +173,35 @@ public class AppStateChangeWifiStateBridgeTest {
 
         assertThat(mFilter.filterApp(mEntry)).isFalse();
     }
+
+    private AppStateChangeWifiStateBridge createBridge() {
+        return new AppStateChangeWifiStateBridge(mContext, mAppState,
+                mock(AppStateBaseBridge.Callback.class), mPackageManager);
+    }
+
+    private AppEntry setUpAppChangingWifiState() throws RemoteException {
+        final PackageInfo packageInfo = new PackageInfo();
+        packageInfo.packageName = PACKAGE_NAME;
+        packageInfo.requestedPermissions = new String[] {Manifest.permission.CHANGE_WIFI_STATE};
+        packageInfo.requestedPermissionsFlags = new int[] {0};
+        when(mPackageManager.getInstalledPackages(anyInt(), eq(USER_ID)))
+                .thenReturn(new ParceledListSlice<>(Collections.singletonList(packageInfo)));
+        final AppOpsManager.PackageOps packageOps = mock(AppOpsManager.PackageOps.class);
+        final AppOpsManager.OpEntry opEntry = mock(AppOpsManager.OpEntry.class);
+        when(opEntry.getMode()).thenReturn(AppOpsManager.MODE_ALLOWED);
+        when(packageOps.getPackageName()).thenReturn(PACKAGE_NAME);
+        when(packageOps.getUid()).thenReturn(UID);
+        when(packageOps.getOps()).thenReturn(Collections.singletonList(opEntry));
+        when(mAppOpsManager.getPackagesForOps(any(int[].class)))
+                .thenReturn(Collections.singletonList(packageOps));
+
+        final AppEntry entry = mock(AppEntry.class);
+        entry.info = new ApplicationInfo();
+        entry.info.packageName = PACKAGE_NAME;
+        entry.info.uid = UID;
+        final ArrayList<AppEntry> apps = new ArrayList<>();
+        apps.add(entry);
+        when(mSession.getAllApps()).thenReturn(apps);
+        return entry;
+    }
 }
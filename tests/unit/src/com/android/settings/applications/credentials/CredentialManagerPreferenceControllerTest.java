@@ -36,6 +36,7 @@ import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.os.Looper;
 import android.provider.Settings;
+import android.text.TextUtils;
 
 import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
@@ -361,6 +362,31 @@ public class CredentialManagerPreferenceControllerTest {
         assertThat(prefs.get(TEST_PACKAGE_NAME_C).isChecked()).isTrue();
     }
 
+    @Test
+    public void updateFromExternal_keepsPreferencesOfRemainingProviders() {
+        CredentialProviderInfo serviceA =
+                createCredentialProviderInfoWithAppLabel(
+                        TEST_PACKAGE_NAME_A, "CredManProviderA", TEST_TITLE_APP_A, "app A");
+        CredentialProviderInfo serviceB =
+                createCredentialProviderInfoWithAppLabel(
+                        TEST_PACKAGE_NAME_B, "CredManProviderB", TEST_TITLE_APP_B, "app B");
+        CredentialProviderInfo serviceC =
+                createCredentialProviderInfoWithAppLabel(
+                        TEST_PACKAGE_NAME_C, "CredManProviderC", TEST_TITLE_APP_C, "app C");
+        CredentialManagerPreferenceController controller =
+                createControllerWithServices(Lists.newArrayList(serviceA, serviceB));
+        controller.setSimulateConnectedForTests(true);
+        controller.setSimulateHiddenForTests(Optional.of(false));
+        controller.displayPreference(mScreen);
+        assertThat(mCredentialsPreferenceCategory.getPreferenceCount()).isEqualTo(2);
+        Preference prefB = findPreferenceByTitle(TEST_TITLE_APP_B);
+
+        controller.updateFromExternal(Lists.newArrayList(serviceB, serviceC));
+
+        assertThat(findPreferenceByTitle(TEST_TITLE_APP_A)).isNull();
+        assertThat(findPreferenceByTitle(TEST_TITLE_APP_B)).isSameInstanceAs(prefB);
+    }
+
     @Test
     public void handleIntentWithProviderServiceInfo_handleBadIntent_missingData() {
         CredentialProviderInfo cpi = createCredentialProviderInfo();
@@ -556,6 +582,16 @@ public class CredentialManagerPreferenceControllerTest {
         assertThat(CredentialManagerPreferenceController.hasProviderLimitBeenReached(5)).isTrue();
     }
 
+    private Preference findPreferenceByTitle(CharSequence title) {
+        for (int i = 0; i < mCredentialsPreferenceCategory.getPreferenceCount(); i++) {
+            Preference pref = mCredentialsPreferenceCategory.getPreference(i);
+            if (TextUtils.equals(pref.getTitle(), title)) {
+                return pref;
+            }
+        }
+        return null;
+    }
+
     private int getIconSize() {
         final Resources resources = mContext.getResources();
         return (int) resources.getDimension(android.R.dimen.app_icon_size);
@@ -18,6 +18,7 @@ package com.android.settings.network;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,12 +26,14 @@ import static org.mockito.Mockito.when;
 
 import android.content.Context;
 import android.os.PersistableBundle;
+import android.os.SystemClock;
 import android.os.UserHandle;
 import android.telephony.CarrierConfigManager;
 
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -44,6 +47,12 @@ public class CarrierConfigCacheTest {
 
     static final int ONCE_SUB_ID = 11;
     static final int TWICE_SUB_ID = 12;
+    static final int KEYS_SUB_ID = 13;
+    static final int MORE_KEYS_SUB_ID = 14;
+    static final int FULL_SUB_ID = 15;
+    static final int EXPIRED_SUB_ID = 16;
+    static final String KEY_ONE = CarrierConfigManager.KEY_APN_EXPAND_BOOL;
+    static final String KEY_TWO = CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL;
 
     @Rule
     public final MockitoRule mMockitoRule = MockitoJUnit.rule();
@@ -53,6 +62,7 @@ public class CarrierConfigCacheTest {
     Context mContext;
     CarrierConfigCache mCarrierConfigCache;
     PersistableBundle mCarrierConfig = new PersistableBundle();
+    long mNow = 1000L;
 
     @Before
     public void setUp() {
@@ -60,6 +70,12 @@ public class CarrierConfigCacheTest {
 
         mCarrierConfigCache = CarrierConfigCache.getInstance(mContext);
         mCarrierConfigCache.sCarrierConfigManager = mCarrierConfigManager;
+        CarrierConfigCache.sClock = () -> mNow;
+    }
+
+    @After
+    public void tearDown() {
+        CarrierConfigCache.sClock = SystemClock::elapsedRealtime;
     }
 
     @Test
@@ -98,4 +114,69 @@ public class CarrierConfigCacheTest {
 
         verify(mCarrierConfigManager, times(1)).getConfigForSubId(TWICE_SUB_ID);
     }
+
+    @Test
+    public void getConfigForSubIdWithKeys_getTwice_onlyGetOnceFromManager() {
+        final PersistableBundle config = new PersistableBundle();
+        config.putBoolean(KEY_ONE, true);
+        when(mCarrierConfigManager.getConfigForSubId(KEYS_SUB_ID, KEY_ONE)).thenReturn(config);
+        final long misses = mCarrierConfigCache.getMissCount();
+        final long hits = mCarrierConfigCache.getHitCount();
+
+        mCarrierConfigCache.getConfigForSubId(KEYS_SUB_ID, KEY_ONE);
+        final PersistableBundle cached =
+                mCarrierConfigCache.getConfigForSubId(KEYS_SUB_ID, KEY_ONE);
+
+        assertThat(cached.getBoolean(KEY_ONE)).isTrue();
+        verify(mCarrierConfigManager, times(1)).getConfigForSubId(KEYS_SUB_ID, KEY_ONE);
+        verify(mCarrierConfigManager, never()).getConfigForSubId(KEYS_SUB_ID);
+        assertThat(mCarrierConfigCache.getMissCount() - misses).isEqualTo(1);
+        assertThat(mCarrierConfigCache.getHitCount() - hits).isEqualTo(1);
+    }
+
+    @Test
+    public void getConfigForSubIdWithKeys_newKey_mergesWithCachedKeys() {
+        final PersistableBundle first = new PersistableBundle();
+        first.putBoolean(KEY_ONE, true);
+        final PersistableBundle second = new PersistableBundle();
+        second.putBoolean(KEY_TWO, true);
+        when(mCarrierConfigManager.getConfigForSubId(MORE_KEYS_SUB_ID, KEY_ONE)).thenReturn(first);
+        when(mCarrierConfigManager.getConfigForSubId(MORE_KEYS_SUB_ID, KEY_TWO))
+                .thenReturn(second);
+
+        final PersistableBundle returned =
+                mCarrierConfigCache.getConfigForSubId(MORE_KEYS_SUB_ID, KEY_ONE);
+        mCarrierConfigCache.getConfigForSubId(MORE_KEYS_SUB_ID, KEY_TWO);
+        final PersistableBundle merged =
+                mCarrierConfigCache.getConfigForSubId(MORE_KEYS_SUB_ID, KEY_ONE, KEY_TWO);
+
+        assertThat(merged.getBoolean(KEY_ONE)).isTrue();
+        assertThat(merged.getBoolean(KEY_TWO)).isTrue();
+        assertThat(returned.containsKey(KEY_TWO)).isFalse();
+        verify(mCarrierConfigManager, times(1)).getConfigForSubId(MORE_KEYS_SUB_ID, KEY_ONE);
+        verify(mCarrierConfigManager, times(1)).getConfigForSubId(MORE_KEYS_SUB_ID, KEY_TWO);
+    }
+
+    @Test
+    public void getConfigForSubIdWithKeys_fullConfigCached_notGetFromManager() {
+        when(mCarrierConfigManager.getConfigForSubId(FULL_SUB_ID)).thenReturn(mCarrierConfig);
+
+        mCarrierConfigCache.getConfigForSubId(FULL_SUB_ID);
+        final PersistableBundle config =
+                mCarrierConfigCache.getConfigForSubId(FULL_SUB_ID, KEY_ONE);
+
+        assertThat(config).isEqualTo(mCarrierConfig);
+        verify(mCarrierConfigManager, never()).getConfigForSubId(FULL_SUB_ID, KEY_ONE);
+    }
+
+    @Test
+    public void getConfigForSubId_afterTtl_getFromManagerAgain() {
+        when(mCarrierConfigManager.getConfigForSubId(EXPIRED_SUB_ID)).thenReturn(mCarrierConfig);
+
+        mCarrierConfigCache.getConfigForSubId(EXPIRED_SUB_ID);
+        mNow += CarrierConfigCache.CACHE_TTL_MS + 1;
+        mCarrierConfigCache.getConfigForSubId(EXPIRED_SUB_ID);
+
+        verify(mCarrierConfigManager, times(2)).getConfigForSubId(EXPIRED_SUB_ID);
+    }
 }
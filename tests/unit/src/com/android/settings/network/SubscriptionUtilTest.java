@@ -29,6 +29,8 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
@@ -519,6 +521,47 @@ public class SubscriptionUtilTest {
         assertEquals(CARRIER_2.toString(), nameOfSub2.toString());
     }
 
+    @Test
+    public void getUniqueDisplayName_sameSubscriptions_computedOnce() {
+        final SubscriptionInfo info1 = mock(SubscriptionInfo.class);
+        when(info1.getSubscriptionId()).thenReturn(SUBID_1);
+        when(info1.getDisplayName()).thenReturn(CARRIER_1);
+        when(mSubMgr.getAvailableSubscriptionInfoList()).thenReturn(Arrays.asList(info1));
+        SharedPreferences sp = mock(SharedPreferences.class);
+        when(mContext.getSharedPreferences(
+                KEY_UNIQUE_SUBSCRIPTION_DISPLAYNAME, Context.MODE_PRIVATE)).thenReturn(sp);
+        when(sp.getString(eq(SUB_ID + SUBID_1), anyString())).thenReturn(CARRIER_1 + " 6789");
+
+        final int version = SubscriptionSnapshot.get(mContext).getVersion();
+        SubscriptionUtil.getUniqueSubscriptionDisplayName(info1, mContext);
+        final CharSequence name =
+                SubscriptionUtil.getUniqueSubscriptionDisplayName(info1, mContext);
+
+        assertEquals(CARRIER_1 + " 6789", name.toString());
+        assertEquals(version, SubscriptionSnapshot.get(mContext).getVersion());
+        verify(sp, times(1)).getString(eq(SUB_ID + SUBID_1), anyString());
+
+        SubscriptionSnapshot.invalidate();
+        SubscriptionUtil.getUniqueSubscriptionDisplayName(info1, mContext);
+
+        verify(sp, times(2)).getString(eq(SUB_ID + SUBID_1), anyString());
+    }
+
+    @Test
+    public void getUniqueDisplayName_displayNameChanged_computedAgain() {
+        final SubscriptionInfo info1 = mock(SubscriptionInfo.class);
+        when(info1.getSubscriptionId()).thenReturn(SUBID_1);
+        when(info1.getDisplayName()).thenReturn(CARRIER_1);
+        when(mSubMgr.getAvailableSubscriptionInfoList()).thenReturn(Arrays.asList(info1));
+
+        SubscriptionUtil.getUniqueSubscriptionDisplayName(info1, mContext);
+        when(info1.getDisplayName()).thenReturn(CARRIER_2);
+        final CharSequence name =
+                SubscriptionUtil.getUniqueSubscriptionDisplayName(info1, mContext);
+
+        assertEquals(CARRIER_2.toString(), name.toString());
+    }
+
     @Test
     public void isInactiveInsertedPSim_nullSubInfo_doesNotCrash() {
         assertThat(SubscriptionUtil.isInactiveInsertedPSim(null)).isFalse();
@@ -375,6 +375,27 @@ public class NetworkSelectSettingsTest {
         assertThat(mNetworkSelectSettings.doAggregation(testList)).isEqualTo(expected);
     }
 
+    @Test
+    @UiThreadTest
+    public void scanResultHandler_incrementalResults_mergeKeepingOrder() {
+        mNetworkSelectSettings.onCreateInitialization();
+        mNetworkSelectSettings.enablePreferenceScreen(true);
+        final CellInfo registeredCarrierA = createLteCellInfo(true, 1234, "123", "232", "CarrierA");
+
+        mNetworkSelectSettings.scanResultHandler(Arrays.asList(
+                createLteCellInfo(false, 123, "123", "232", "CarrierA"),
+                createGsmCellInfo(false, 123, "123", "232", "CarrierB")));
+        mNetworkSelectSettings.scanResultHandler(Arrays.asList(
+                createLteCellInfo(false, 123, "123", "233", "CarrierC"),
+                registeredCarrierA));
+
+        assertThat(mNetworkSelectSettings.mCellInfoList).isEqualTo(Arrays.asList(
+                registeredCarrierA,
+                createGsmCellInfo(false, 123, "123", "232", "CarrierB"),
+                createLteCellInfo(false, 123, "123", "233", "CarrierC")));
+        assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(3);
+    }
+
     private CellInfoLte createLteCellInfo(boolean registered, int cellId, String mcc, String mnc,
             String plmnName) {
         CellIdentityLte cil = new CellIdentityLte(
@@ -18,10 +18,19 @@ package com.android.settings.safetycenter;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
 import android.safetycenter.SafetyCenterManager;
+import android.safetycenter.SafetyEvent;
+import android.safetycenter.SafetySourceData;
+import android.safetycenter.SafetySourceStatus;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
@@ -31,15 +40,76 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Collections;
+
 @RunWith(AndroidJUnit4.class)
 public class SafetyCenterManagerWrapperTest {
 
+    private static final String SOURCE_ID = "source_id";
+    private static final SafetyEvent STATE_CHANGED =
+            new SafetyEvent.Builder(SafetyEvent.SAFETY_EVENT_TYPE_SOURCE_STATE_CHANGED).build();
+    private static final SafetyEvent REFRESH_REQUESTED =
+            new SafetyEvent.Builder(SafetyEvent.SAFETY_EVENT_TYPE_REFRESH_REQUESTED)
+                    .setRefreshBroadcastId("refresh_broadcast_id")
+                    .build();
+
     @Mock
     private Context mContext;
 
+    private SafetyCenterManagerWrapper mWrapper;
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
+        mWrapper = spy(new SafetyCenterManagerWrapper());
+        doReturn(true).when(mWrapper).sendSafetySourceData(any(), anyString(), any(), any());
+    }
+
+    @Test
+    public void setSafetySourceData_unchangedState_sentOnce() {
+        final SafetySourceData data = createData("summary");
+
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, data, STATE_CHANGED);
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, createData("summary"), STATE_CHANGED);
+
+        verify(mWrapper, times(1)).sendSafetySourceData(any(), anyString(), any(), any());
+    }
+
+    @Test
+    public void setSafetySourceData_changedState_sentAgain() {
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, createData("summary"), STATE_CHANGED);
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, createData("other"), STATE_CHANGED);
+
+        verify(mWrapper, times(2)).sendSafetySourceData(any(), anyString(), any(), any());
+    }
+
+    @Test
+    public void setSafetySourceData_unchangedRefresh_sentAgain() {
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, createData("summary"), STATE_CHANGED);
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, createData("summary"),
+                REFRESH_REQUESTED);
+
+        verify(mWrapper, times(2)).sendSafetySourceData(any(), anyString(), any(), any());
+    }
+
+    @Test
+    public void setSafetySourceData_afterClearLastSentData_sentAgain() {
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, createData("summary"), STATE_CHANGED);
+
+        mWrapper.clearLastSentData(Collections.singletonList(SOURCE_ID));
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, createData("summary"), STATE_CHANGED);
+
+        verify(mWrapper, times(2)).sendSafetySourceData(any(), anyString(), any(), any());
+    }
+
+    @Test
+    public void setSafetySourceData_sendFailed_sentAgain() {
+        doReturn(false).when(mWrapper).sendSafetySourceData(any(), anyString(), any(), any());
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, createData("summary"), STATE_CHANGED);
+
+        mWrapper.setSafetySourceData(mContext, SOURCE_ID, createData("summary"), STATE_CHANGED);
+
+        verify(mWrapper, times(2)).sendSafetySourceData(any(), anyString(), any(), any());
     }
 
     @Test
@@ -53,4 +123,11 @@ public class SafetyCenterManagerWrapperTest {
 
         assertThat(SafetyCenterManagerWrapper.get().isEnabled(mContext)).isFalse();
     }
+
+    private static SafetySourceData createData(String summary) {
+        return new SafetySourceData.Builder()
+                .setStatus(new SafetySourceStatus.Builder("title", summary,
+                        SafetySourceData.SEVERITY_LEVEL_INFORMATION).build())
+                .build();
+    }
 }
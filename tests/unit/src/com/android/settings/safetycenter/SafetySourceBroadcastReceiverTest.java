@@ -52,7 +52,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(AndroidJUnit4.class)
 public class SafetySourceBroadcastReceiverTest {
@@ -182,6 +186,68 @@ public class SafetySourceBroadcastReceiverTest {
                                 .build());
     }
 
+    @Test
+    public void onReceive_onRefresh_clearsLastSentDataOfSources() {
+        when(mSafetyCenterManagerWrapper.isEnabled(mApplicationContext)).thenReturn(true);
+        Intent intent =
+                new Intent()
+                        .setAction(ACTION_REFRESH_SAFETY_SOURCES)
+                        .putExtra(
+                                EXTRA_REFRESH_SAFETY_SOURCE_IDS,
+                                new String[] {LockScreenSafetySource.SAFETY_SOURCE_ID})
+                        .putExtra(EXTRA_REFRESH_SAFETY_SOURCES_BROADCAST_ID, REFRESH_BROADCAST_ID);
+
+        new SafetySourceBroadcastReceiver().onReceive(mApplicationContext, intent);
+
+        verify(mSafetyCenterManagerWrapper)
+                .clearLastSentData(Arrays.asList(LockScreenSafetySource.SAFETY_SOURCE_ID));
+    }
+
+    @Test
+    public void runInParallel_runsAllThenOnDoneOnce() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger runsWhenDone = new AtomicInteger(-1);
+        final CountDownLatch done = new CountDownLatch(1);
+
+        SafetySourceBroadcastReceiver.runInParallel(
+                Arrays.<Runnable>asList(runs::incrementAndGet, runs::incrementAndGet,
+                        runs::incrementAndGet),
+                () -> {
+                    runsWhenDone.set(runs.get());
+                    done.countDown();
+                });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(runsWhenDone.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void runInParallel_refreshThrows_stillRunsOnDone() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        SafetySourceBroadcastReceiver.runInParallel(
+                Arrays.<Runnable>asList(
+                        () -> {
+                            throw new IllegalStateException("test");
+                        },
+                        runs::incrementAndGet),
+                done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void runInParallel_noRefresh_runsOnDone() {
+        final AtomicInteger doneCount = new AtomicInteger();
+
+        SafetySourceBroadcastReceiver.runInParallel(Collections.emptyList(),
+                doneCount::incrementAndGet);
+
+        assertThat(doneCount.get()).isEqualTo(1);
+    }
+
     @Test
     public void onReceive_onRefresh_withLockscreenSourceId_setsLockscreenData() {
         when(mSafetyCenterManagerWrapper.isEnabled(mApplicationContext)).thenReturn(true);